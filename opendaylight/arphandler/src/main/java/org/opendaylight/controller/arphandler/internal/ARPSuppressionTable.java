@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.arphandler.internal;
+
+import java.net.InetAddress;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Node local hold-down of the broadcast ARP requests for unresolved targets.
+ *
+ * The first request for a target goes out, the repeats are held back until
+ * the hold-down window of the target expires. The window doubles each time a
+ * request goes out without the target answering, up to a maximum, so that a
+ * burst of traffic toward a dead address turns into a handful of ARP floods
+ * instead of one per punted packet. A target is forgotten when it answers,
+ * or once it has been left alone for longer than the maximum window.
+ *
+ * The table is lock free, the entries are immutable and replaced atomically.
+ */
+final class ARPSuppressionTable {
+    private static final class HoldDown {
+        private final long nextAllowed;
+        private final long window;
+
+        HoldDown(long nextAllowed, long window) {
+            this.nextAllowed = nextAllowed;
+            this.window = window;
+        }
+    }
+
+    private final ConcurrentMap<InetAddress, HoldDown> targets = new ConcurrentHashMap<InetAddress, HoldDown>();
+    private final long minWindow;
+    private final long maxWindow;
+
+    /**
+     * @param minWindow
+     *            the hold-down after the first request for a target, in
+     *            nanoseconds
+     * @param maxWindow
+     *            the longest hold-down, in nanoseconds
+     */
+    ARPSuppressionTable(long minWindow, long maxWindow) {
+        if (minWindow <= 0 || maxWindow < minWindow) {
+            throw new IllegalArgumentException("Invalid hold-down windows " + minWindow + ", " + maxWindow);
+        }
+        this.minWindow = minWindow;
+        this.maxWindow = maxWindow;
+    }
+
+    /**
+     * Tells whether a request for the target can be sent now, and if so
+     * starts the next hold-down window of the target
+     *
+     * @param target
+     *            the address being resolved
+     * @param now
+     *            the current time, as given by System.nanoTime()
+     * @return true if the request can go out, false if it is to be suppressed
+     */
+    boolean allow(InetAddress target, long now) {
+        while (true) {
+            HoldDown current = targets.get(target);
+            if (current == null) {
+                if (targets.putIfAbsent(target, new HoldDown(now + minWindow, minWindow)) == null) {
+                    return true;
+                }
+                continue;
+            }
+            if (now - current.nextAllowed < 0) {
+                return false;
+            }
+            long window = Math.min(current.window * 2, maxWindow);
+            if (targets.replace(target, current, new HoldDown(now + window, window))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The target answered, the next request for it goes out right away
+     */
+    void resolved(InetAddress target) {
+        targets.remove(target);
+    }
+
+    /**
+     * Forget the targets no request was attempted for during the last
+     * maximum window
+     */
+    void purge(long now) {
+        Iterator<Map.Entry<InetAddress, HoldDown>> it = targets.entrySet().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().getValue().nextAllowed > maxWindow) {
+                it.remove();
+            }
+        }
+    }
+
+    void clear() {
+        targets.clear();
+    }
+
+    int size() {
+        return targets.size();
+    }
+}
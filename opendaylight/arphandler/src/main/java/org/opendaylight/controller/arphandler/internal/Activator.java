@@ -15,6 +15,7 @@ import java.util.Hashtable;
 import java.util.Set;
 
 import org.apache.felix.dm.Component;
+import org.eclipse.osgi.framework.console.CommandProvider;
 import org.opendaylight.controller.clustering.services.ICacheUpdateAware;
 import org.opendaylight.controller.clustering.services.IClusterContainerServices;
 import org.opendaylight.controller.connectionmanager.IConnectionManager;
@@ -25,8 +26,10 @@ import org.opendaylight.controller.sal.core.ComponentActivatorAbstractBase;
 import org.opendaylight.controller.sal.packet.IDataPacketService;
 import org.opendaylight.controller.sal.packet.IListenDataPacket;
 import org.opendaylight.controller.sal.routing.IRouting;
+import org.opendaylight.controller.switchmanager.IInventoryListener;
 import org.opendaylight.controller.switchmanager.ISwitchManager;
 import org.opendaylight.controller.topologymanager.ITopologyManager;
+import org.opendaylight.controller.topologymanager.ITopologyManagerAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,7 +77,10 @@ public class Activator extends ComponentActivatorAbstractBase {
             c.setInterface(new String[] {
                     IHostFinder.class.getName(),
                     IListenDataPacket.class.getName(),
-                    ICacheUpdateAware.class.getName()}, props);
+                    ICacheUpdateAware.class.getName(),
+                    IInventoryListener.class.getName(),
+                    ITopologyManagerAware.class.getName(),
+                    CommandProvider.class.getName()}, props);
 
             // We need connection mgr to distribute packet out across the cluster
             c.add(createServiceDependency().setService(
@@ -16,7 +16,8 @@ import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -25,6 +26,11 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.osgi.framework.console.CommandInterpreter;
+import org.eclipse.osgi.framework.console.CommandProvider;
 
 import org.opendaylight.controller.arphandler.ARPCacheEvent;
 import org.opendaylight.controller.arphandler.ARPEvent;
@@ -44,8 +50,11 @@ import org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector;
 import org.opendaylight.controller.hosttracker.hostAware.IHostFinder;
 import org.opendaylight.controller.sal.connection.ConnectionLocality;
 import org.opendaylight.controller.sal.core.ConstructionException;
+import org.opendaylight.controller.sal.core.Edge;
 import org.opendaylight.controller.sal.core.Node;
 import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.core.Property;
+import org.opendaylight.controller.sal.core.UpdateType;
 import org.opendaylight.controller.sal.packet.ARP;
 import org.opendaylight.controller.sal.packet.Ethernet;
 import org.opendaylight.controller.sal.packet.IDataPacketService;
@@ -55,18 +64,28 @@ import org.opendaylight.controller.sal.packet.Packet;
 import org.opendaylight.controller.sal.packet.PacketResult;
 import org.opendaylight.controller.sal.packet.RawPacket;
 import org.opendaylight.controller.sal.routing.IRouting;
+import org.opendaylight.controller.sal.topology.TopoEdgeUpdate;
 import org.opendaylight.controller.sal.utils.EtherTypes;
 import org.opendaylight.controller.sal.utils.HexEncode;
 import org.opendaylight.controller.sal.utils.NetUtils;
+import org.opendaylight.controller.sal.utils.TimerWheel;
+import org.opendaylight.controller.switchmanager.IInventoryListener;
 import org.opendaylight.controller.switchmanager.ISwitchManager;
 import org.opendaylight.controller.switchmanager.Subnet;
 import org.opendaylight.controller.topologymanager.ITopologyManager;
+import org.opendaylight.controller.topologymanager.ITopologyManagerAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateAware<ARPEvent, Boolean> {
+public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateAware<ARPEvent, Boolean>,
+        IInventoryListener, ITopologyManagerAware, CommandProvider {
     private static final Logger log = LoggerFactory.getLogger(ArpHandler.class);
     static final String ARP_EVENT_CACHE_NAME = "arphandler.arpRequestReplyEvent";
+    // Hold-down of the repeated broadcast requests for an unresolved target
+    private static final long ARP_HOLD_DOWN_MIN = TimeUnit.SECONDS.toNanos(1);
+    private static final long ARP_HOLD_DOWN_MAX = TimeUnit.SECONDS.toNanos(32);
+    // How long the requestors wait for the reply of an unknown target
+    private static final long ARP_REPLY_TIMEOUT = 2;
     private IfIptoHost hostTracker;
     private ISwitchManager switchManager;
     private ITopologyManager topologyManager;
@@ -76,11 +95,18 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
     private IConnectionManager connectionManager;
     private Set<IfHostListener> hostListeners = new CopyOnWriteArraySet<IfHostListener>();
     private ConcurrentMap<InetAddress, Set<HostNodeConnector>> arpRequestors;
-    private ConcurrentMap<InetAddress, Short> countDownTimers;
+    private ConcurrentMap<InetAddress, RequestorsTimeout> requestorsTimeouts;
+    private TimerWheel timerWheel;
     private Timer periodicTimer;
     private BlockingQueue<ARPCacheEvent> ARPCacheEvents = new LinkedBlockingQueue<ARPCacheEvent>();
     private Thread cacheEventHandler;
     private boolean stopping = false;
+    // Ports ARP requests are flooded to
+    private final FloodSet floodSet = new FloodSet();
+    private final ARPSuppressionTable suppressionTable = new ARPSuppressionTable(ARP_HOLD_DOWN_MIN,
+            ARP_HOLD_DOWN_MAX);
+    private final AtomicLong suppressedRequests = new AtomicLong();
+    private final AtomicLong proxiedReplies = new AtomicLong();
 
     /*
      * A cluster allocated cache. Used for synchronizing ARP request/reply
@@ -93,6 +119,41 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
      */
     private ConcurrentMap<ARPEvent, Boolean> arpRequestReplyEvent;
 
+    /*
+     * Drops the requestors waiting for the reply of a target if it doesn't
+     * answer in time. Replaced on every new request for the target.
+     */
+    private class RequestorsTimeout implements Runnable {
+        private final InetAddress target;
+        private volatile TimerWheel.Timeout timeout;
+
+        RequestorsTimeout(InetAddress target) {
+            this.target = target;
+        }
+
+        void schedule() {
+            timeout = timerWheel.schedule(this, ARP_REPLY_TIMEOUT, TimeUnit.SECONDS);
+        }
+
+        void cancel() {
+            TimerWheel.Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (stopping || !requestorsTimeouts.remove(target, this)) {
+                return;
+            }
+            // Remove the requestor(s) who have been waiting for the ARP
+            // reply from this target
+            arpRequestors.remove(target);
+            log.debug("ARP reply was not received from {}", target);
+        }
+    }
+
     void setConnectionManager(IConnectionManager cm) {
         this.connectionManager = cm;
     }
@@ -235,6 +296,8 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
             for (IfHostListener listener : this.hostListeners) {
                 listener.hostListener(requestor);
             }
+            // The host is alive, no need to hold its requests down anymore
+            suppressionTable.resolved(sourceIP);
         }
 
         /*
@@ -297,12 +360,16 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
                     arpRequestors.put(targetIP, requestorSet);
                 }
                 requestorSet.add(requestor);
-                countDownTimers.put(targetIP, (short) 2); // reset timeout to
-                                                          // 2sec
+                // reset timeout to 2sec
+                RequestorsTimeout timeout = new RequestorsTimeout(targetIP);
+                RequestorsTimeout previous = requestorsTimeouts.put(targetIP, timeout);
+                if (previous != null) {
+                    previous.cancel();
+                }
+                timeout.schedule();
             }
             // Raise a bcast request event, all controllers need to send one
-            log.trace("Sending a bcast ARP request for {}", targetIP);
-            arpRequestReplyEvent.put(new ARPRequest(targetIP, subnet), false);
+            raiseBcastARPRequest(targetIP, subnet);
         } else {
             /*
              * Target host known (across the cluster), send ARP REPLY make sure
@@ -310,6 +377,7 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
              */
             if (NetUtils.isBroadcastMACAddr(targetMAC) || Arrays.equals(host.getDataLayerAddressBytes(), targetMAC)) {
                 log.trace("Received ARP req. for known host {}, sending reply...", targetIP);
+                proxiedReplies.incrementAndGet();
                 if (connectionManager.getLocalityStatus(p.getNode()) == ConnectionLocality.LOCAL) {
                     sendARPReply(p, host.getDataLayerAddressBytes(), host.getNetworkAddress(),
                             pkt.getSenderHardwareAddress(), sourceIP);
@@ -327,6 +395,37 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
         }
     }
 
+    /*
+     * Raise a cluster wide bcast ARP request event for an unknown target,
+     * unless one was raised by this controller inside the hold-down window of
+     * the target
+     */
+    private void raiseBcastARPRequest(InetAddress targetIP, Subnet subnet) {
+        if (!suppressionTable.allow(targetIP, System.nanoTime())) {
+            suppressedRequests.incrementAndGet();
+            log.trace("Suppressed bcast ARP request for {}", targetIP);
+            return;
+        }
+        log.trace("Sending a bcast ARP request for {}", targetIP);
+        arpRequestReplyEvent.put(new ARPRequest(targetIP, subnet), false);
+    }
+
+    /**
+     * @return the number of bcast ARP requests held back by the suppression
+     *         table
+     */
+    public long getSuppressedRequestCount() {
+        return suppressedRequests.get();
+    }
+
+    /**
+     * @return the number of ARP requests for known hosts answered by the
+     *         controller on behalf of the hosts
+     */
+    public long getProxiedReplyCount() {
+        return proxiedReplies.get();
+    }
+
     /**
      * Send a broadcast ARP Request to the switch/ ports using the
      * networkAddress of the subnet as sender IP the controller's MAC as sender
@@ -334,41 +433,106 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
      */
     protected void sendBcastARPRequest(InetAddress targetIP, Subnet subnet) {
         log.trace("sendBcatARPRequest targetIP:{} subnet:{}", targetIP, subnet);
-        Set<NodeConnector> nodeConnectors;
+        Map<Node, Set<NodeConnector>> floodPorts;
         if (subnet.isFlatLayer2()) {
-            nodeConnectors = new HashSet<NodeConnector>();
-            for (Node n : this.switchManager.getNodes()) {
-                nodeConnectors.addAll(this.switchManager.getUpNodeConnectors(n));
-            }
+            floodPorts = floodSet.getPorts();
         } else {
-            nodeConnectors = subnet.getNodeConnectors();
+            floodPorts = floodSet.getPorts(subnet.getNodeConnectors());
+        }
+        if (floodPorts.isEmpty()) {
+            return;
         }
+
+        // The frame is the same toward every port, encode it once
         byte[] targetHardwareAddress = new byte[] { (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0 };
+        byte[] senderIP = subnet.getNetworkAddress().getAddress();
+        byte[] targetIPByte = targetIP.getAddress();
+        ARP arp = createARP(ARP.REQUEST, getControllerMAC(), senderIP, targetHardwareAddress, targetIPByte);
+        byte[] destMACAddress = NetUtils.getBroadcastMACAddr();
+        Ethernet ethernet = createEthernet(getControllerMAC(), destMACAddress, arp);
+        RawPacket bcastPkt = this.dataPacketService.encodeDataPacket(ethernet);
+        if (bcastPkt == null) {
+            return;
+        }
 
         // TODO: should use IBroadcastHandler instead
-        for (NodeConnector p : nodeConnectors) {
-            // filter out any non-local or internal ports
-            if (!(connectionManager.getLocalityStatus(p.getNode()) == ConnectionLocality.LOCAL)
-                    || topologyManager.isInternal(p)) {
+        // One packet out per switch, toward all its flood ports
+        for (Map.Entry<Node, Set<NodeConnector>> entry : floodPorts.entrySet()) {
+            // filter out any non-local switch
+            if (connectionManager.getLocalityStatus(entry.getKey()) != ConnectionLocality.LOCAL) {
                 continue;
             }
-            log.trace("Sending toward nodeConnector:{}", p);
-            byte[] senderIP = subnet.getNetworkAddress().getAddress();
-            byte[] targetIPByte = targetIP.getAddress();
-            ARP arp = createARP(ARP.REQUEST, getControllerMAC(), senderIP, targetHardwareAddress, targetIPByte);
+            try {
+                RawPacket destPkt = new RawPacket(bcastPkt);
+                destPkt.setOutgoingNodeConnectors(entry.getValue());
+                if (destPkt.getOutgoingNodeConnector() == null) {
+                    continue;
+                }
+                log.trace("Sending toward nodeConnectors:{}", destPkt.getOutgoingNodeConnectors());
+                this.dataPacketService.transmitDataPacket(destPkt);
+            } catch (ConstructionException e) {
+                log.error("Failed to copy ARP request toward {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    /*
+     * A port is flooded to when it is up, physical and not part of an inter
+     * switch link
+     */
+    private void refreshFloodPort(NodeConnector nodeConnector) {
+        synchronized (floodSet) {
+            ISwitchManager sm = this.switchManager;
+            ITopologyManager tm = this.topologyManager;
+            boolean hostFacing = (sm != null) && (tm != null)
+                    && sm.getUpPhysicalNodeConnectorsView().contains(nodeConnector)
+                    && !tm.isInternal(nodeConnector);
+            floodSet.update(nodeConnector, hostFacing);
+        }
+    }
+
+    private void initFloodSet() {
+        floodSet.clear();
+        if (switchManager == null) {
+            return;
+        }
+        for (NodeConnector nodeConnector : switchManager.getUpPhysicalNodeConnectorsView()) {
+            refreshFloodPort(nodeConnector);
+        }
+    }
 
-            byte[] destMACAddress = NetUtils.getBroadcastMACAddr();
-            Ethernet ethernet = createEthernet(getControllerMAC(), destMACAddress, arp);
+    @Override
+    public void notifyNode(Node node, UpdateType type, Map<String, Property> propMap) {
+        if ((node != null) && (type == UpdateType.REMOVED)) {
+            floodSet.removeNode(node);
+        }
+    }
 
-            // TODO For now send port-by-port, see how to optimize to
-            // send to multiple ports at once
-            RawPacket destPkt = this.dataPacketService.encodeDataPacket(ethernet);
-            destPkt.setOutgoingNodeConnector(p);
+    @Override
+    public void notifyNodeConnector(NodeConnector nodeConnector, UpdateType type, Map<String, Property> propMap) {
+        if (nodeConnector != null) {
+            refreshFloodPort(nodeConnector);
+        }
+    }
 
-            this.dataPacketService.transmitDataPacket(destPkt);
+    @Override
+    public void edgeUpdate(List<TopoEdgeUpdate> topoedgeupdateList) {
+        // Only the ends of the updated links can change status
+        for (TopoEdgeUpdate update : topoedgeupdateList) {
+            Edge edge = update.getEdge();
+            refreshFloodPort(edge.getTailNodeConnector());
+            refreshFloodPort(edge.getHeadNodeConnector());
         }
     }
 
+    @Override
+    public void edgeOverUtilized(Edge edge) {
+    }
+
+    @Override
+    public void edgeUtilBackToNormal(Edge edge) {
+    }
+
     /**
      * Send a unicast ARP Request to the known host on a specific switch/port as
      * defined in the host. The sender IP is the networkAddress of the subnet
@@ -409,7 +573,7 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
         }
 
         // send a broadcast ARP Request to this IP
-        arpRequestReplyEvent.put(new ARPRequest(networkAddress, subnet), false);
+        raiseBcastARPRequest(networkAddress, subnet);
     }
 
     /*
@@ -478,7 +642,7 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
             /*
              * unknown destination host, initiate bcast ARP request
              */
-            arpRequestReplyEvent.put(new ARPRequest(dIP, subnet), false);
+            raiseBcastARPRequest(dIP, subnet);
 
         } else if (routing == null || routing.getRoute(p.getNode(), host.getnodeconnectorNode()) != null) {
             /*
@@ -521,12 +685,13 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
      */
     void init() {
         arpRequestors = new ConcurrentHashMap<InetAddress, Set<HostNodeConnector>>();
-        countDownTimers = new ConcurrentHashMap<InetAddress, Short>();
+        requestorsTimeouts = new ConcurrentHashMap<InetAddress, RequestorsTimeout>();
+        timerWheel = TimerWheel.getSharedWheel();
         cacheEventHandler = new Thread(new ARPCacheEventHandler(), "ARPCacheEventHandler Thread");
 
         allocateCaches();
         retrieveCaches();
-
+        initFloodSet();
     }
 
     @SuppressWarnings({ "unchecked" })
@@ -664,24 +829,7 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
         this.periodicTimer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                Set<InetAddress> targetIPs = countDownTimers.keySet();
-                Set<InetAddress> expiredTargets = new HashSet<InetAddress>();
-                for (InetAddress t : targetIPs) {
-                    short tick = countDownTimers.get(t);
-                    tick--;
-                    if (tick <= 0) {
-                        expiredTargets.add(t);
-                    } else {
-                        countDownTimers.replace(t, tick);
-                    }
-                }
-                for (InetAddress tIP : expiredTargets) {
-                    countDownTimers.remove(tIP);
-                    // Remove the requestor(s) who have been waiting for the ARP
-                    // reply from this target for more than 1sec
-                    arpRequestors.remove(tIP);
-                    log.debug("ARP reply was not received from {}", tIP);
-                }
+                suppressionTable.purge(System.nanoTime());
 
                 // Clean up ARP event cache
                 try {
@@ -706,12 +854,16 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
             log.trace("generateAndSendReply called with params sourceIP:{} sourceMAC:{}", sourceIP,
                     HexEncode.bytesToHexString(sourceMAC));
         }
+        suppressionTable.resolved(sourceIP);
         Set<HostNodeConnector> hosts = arpRequestors.remove(sourceIP);
         if ((hosts == null) || hosts.isEmpty()) {
             log.trace("Bailing out no requestors Hosts");
             return;
         }
-        countDownTimers.remove(sourceIP);
+        RequestorsTimeout timeout = requestorsTimeouts.remove(sourceIP);
+        if (timeout != null) {
+            timeout.cancel();
+        }
         for (HostNodeConnector host : hosts) {
             if (log.isTraceEnabled()) {
                 log.trace(
@@ -807,4 +959,18 @@ public class ArpHandler implements IHostFinder, IListenDataPacket, ICacheUpdateA
             }
         }
     }
+
+    @Override
+    public String getHelp() {
+        StringBuffer help = new StringBuffer();
+        help.append("---ARP Handler---\n");
+        help.append("\t arpStats - Print the ARP request suppression and proxy reply counters\n");
+        return help.toString();
+    }
+
+    public void _arpStats(CommandInterpreter ci) {
+        ci.println("Suppressed bcast ARP requests: " + suppressedRequests.get());
+        ci.println("Targets in hold-down: " + suppressionTable.size());
+        ci.println("Proxied ARP replies: " + proxiedReplies.get());
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.arphandler.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+
+/**
+ * Host facing ports of a container, grouped by node: the up physical ports
+ * which are not the end of an inter-switch link. This is the set of ports an
+ * ARP broadcast is flooded to.
+ *
+ * The set is maintained incrementally from the inventory and topology events
+ * by re-evaluating only the ports they concern, instead of walking every port
+ * of every node and asking the topology manager about each on every broadcast.
+ * Readers get live views which can be iterated concurrently with the updates
+ * and must not be modified.
+ */
+final class FloodSet {
+    private final ConcurrentMap<Node, Set<NodeConnector>> ports = new ConcurrentHashMap<Node, Set<NodeConnector>>();
+    private final Map<Node, Set<NodeConnector>> portsView = Collections.unmodifiableMap(ports);
+
+    /**
+     * Add or remove a port from the set
+     *
+     * @param nodeConnector
+     *            the port
+     * @param hostFacing
+     *            whether the port is currently host facing
+     */
+    synchronized void update(NodeConnector nodeConnector, boolean hostFacing) {
+        Node node = nodeConnector.getNode();
+        Set<NodeConnector> nodePorts = ports.get(node);
+        if (hostFacing) {
+            if (nodePorts == null) {
+                nodePorts = Collections.newSetFromMap(new ConcurrentHashMap<NodeConnector, Boolean>());
+                ports.put(node, nodePorts);
+            }
+            nodePorts.add(nodeConnector);
+        } else if (nodePorts != null) {
+            nodePorts.remove(nodeConnector);
+            if (nodePorts.isEmpty()) {
+                ports.remove(node);
+            }
+        }
+    }
+
+    synchronized void removeNode(Node node) {
+        ports.remove(node);
+    }
+
+    synchronized void clear() {
+        ports.clear();
+    }
+
+    boolean contains(NodeConnector nodeConnector) {
+        Set<NodeConnector> nodePorts = ports.get(nodeConnector.getNode());
+        return (nodePorts != null) && nodePorts.contains(nodeConnector);
+    }
+
+    /**
+     * @return all the host facing ports, by node
+     */
+    Map<Node, Set<NodeConnector>> getPorts() {
+        return portsView;
+    }
+
+    /**
+     * Restrict the host facing ports to the given ones, typically the ports
+     * of a subnet
+     *
+     * @param nodeConnectors
+     *            the candidate ports
+     * @return the host facing ports among the candidates, by node
+     */
+    Map<Node, Set<NodeConnector>> getPorts(Collection<NodeConnector> nodeConnectors) {
+        Map<Node, Set<NodeConnector>> result = new HashMap<Node, Set<NodeConnector>>();
+        for (NodeConnector nodeConnector : nodeConnectors) {
+            if (!contains(nodeConnector)) {
+                continue;
+            }
+            Set<NodeConnector> nodePorts = result.get(nodeConnector.getNode());
+            if (nodePorts == null) {
+                nodePorts = new HashSet<NodeConnector>();
+                result.put(nodeConnector.getNode(), nodePorts);
+            }
+            nodePorts.add(nodeConnector);
+        }
+        return result;
+    }
+}
@@ -10,8 +10,23 @@
 package org.opendaylight.controller.arphandler.internal;
 
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.Assert;
 import org.junit.Test;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
+import org.opendaylight.controller.sal.utils.NodeCreator;
+import org.opendaylight.controller.switchmanager.ISwitchManager;
+import org.opendaylight.controller.switchmanager.Subnet;
 
 public class ArphandlerTest  {
 
@@ -24,4 +39,91 @@ public class ArphandlerTest  {
 
         }
 
+    @Test
+    public void testFloodSet() {
+        Node node1 = NodeCreator.createOFNode(1L);
+        Node node2 = NodeCreator.createOFNode(2L);
+        NodeConnector nc11 = NodeConnectorCreator.createOFNodeConnector((short) 1, node1);
+        NodeConnector nc12 = NodeConnectorCreator.createOFNodeConnector((short) 2, node1);
+        NodeConnector nc21 = NodeConnectorCreator.createOFNodeConnector((short) 1, node2);
+
+        FloodSet floodSet = new FloodSet();
+        floodSet.update(nc11, true);
+        floodSet.update(nc12, true);
+        floodSet.update(nc21, true);
+        Map<Node, Set<NodeConnector>> ports = floodSet.getPorts();
+        Assert.assertEquals(2, ports.size());
+        Assert.assertEquals(2, ports.get(node1).size());
+
+        // Port becoming the end of an inter switch link
+        floodSet.update(nc12, false);
+        Assert.assertFalse(floodSet.contains(nc12));
+        Assert.assertEquals(1, ports.get(node1).size());
+
+        // Subnet restricted to some of the ports
+        Map<Node, Set<NodeConnector>> subnetPorts = floodSet.getPorts(Arrays.asList(nc12, nc21));
+        Assert.assertEquals(1, subnetPorts.size());
+        Assert.assertTrue(subnetPorts.get(node2).contains(nc21));
+
+        floodSet.removeNode(node2);
+        Assert.assertFalse(floodSet.contains(nc21));
+        Assert.assertNull(ports.get(node2));
+    }
+
+    @Test
+    public void testARPSuppressionTable() throws UnknownHostException {
+        InetAddress target = InetAddress.getByName("10.0.0.1");
+        InetAddress other = InetAddress.getByName("10.0.0.2");
+        ARPSuppressionTable table = new ARPSuppressionTable(10, 40);
+
+        long now = 1000;
+        Assert.assertTrue(table.allow(target, now));
+        Assert.assertFalse(table.allow(target, now + 5));
+        // Other targets are not held down
+        Assert.assertTrue(table.allow(other, now + 5));
+
+        // The window doubles while the target does not answer, up to the max
+        Assert.assertTrue(table.allow(target, now + 10));
+        Assert.assertFalse(table.allow(target, now + 29));
+        Assert.assertTrue(table.allow(target, now + 30));
+        Assert.assertFalse(table.allow(target, now + 69));
+        Assert.assertTrue(table.allow(target, now + 70));
+        Assert.assertFalse(table.allow(target, now + 109));
+        Assert.assertTrue(table.allow(target, now + 110));
+
+        // An answer lifts the hold-down
+        table.resolved(target);
+        Assert.assertTrue(table.allow(target, now + 111));
+        Assert.assertFalse(table.allow(target, now + 112));
+
+        // Idle targets are forgotten
+        table.purge(now + 1000);
+        Assert.assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testFindIsSuppressed() throws UnknownHostException {
+        final Subnet subnet = new Subnet(InetAddress.getByName("10.0.0.254"), (short) 24, (short) 0);
+        ArpHandler ah = new ArpHandler();
+        ah.init();
+        ah.setSwitchManager((ISwitchManager) Proxy.newProxyInstance(ISwitchManager.class.getClassLoader(),
+                new Class<?>[] { ISwitchManager.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getSubnetByNetworkAddress")) {
+                            return subnet;
+                        }
+                        return null;
+                    }
+                }));
+
+        // Repeated lookups of a silent host raise a single bcast ARP request
+        InetAddress target = InetAddress.getByName("10.0.0.1");
+        ah.find(target);
+        ah.find(target);
+        ah.find(target);
+        Assert.assertEquals(2, ah.getSuppressedRequestCount());
+        ah.find(InetAddress.getByName("10.0.0.2"));
+        Assert.assertEquals(2, ah.getSuppressedRequestCount());
+    }
 }
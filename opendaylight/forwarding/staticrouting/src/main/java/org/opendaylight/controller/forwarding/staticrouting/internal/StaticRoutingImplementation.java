@@ -11,7 +11,6 @@ package org.opendaylight.controller.forwarding.staticrouting.internal;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -24,6 +23,7 @@ import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -34,6 +34,7 @@ import java.util.regex.Pattern;
 import org.apache.felix.dm.Component;
 import org.opendaylight.controller.clustering.services.CacheConfigException;
 import org.opendaylight.controller.clustering.services.CacheExistException;
+import org.opendaylight.controller.clustering.services.ICacheUpdateAware;
 import org.opendaylight.controller.clustering.services.IClusterContainerServices;
 import org.opendaylight.controller.clustering.services.IClusterServices;
 import org.opendaylight.controller.configuration.ConfigurationObject;
@@ -49,6 +50,8 @@ import org.opendaylight.controller.hosttracker.IfIptoHost;
 import org.opendaylight.controller.hosttracker.IfNewHostNotify;
 import org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector;
 import org.opendaylight.controller.sal.utils.IObjectReader;
+import org.opendaylight.controller.sal.utils.IPPrefixTrie;
+import org.opendaylight.controller.sal.utils.NetUtils;
 import org.opendaylight.controller.sal.utils.Status;
 import org.opendaylight.controller.sal.utils.StatusCode;
 import org.slf4j.Logger;
@@ -58,10 +61,15 @@ import org.slf4j.LoggerFactory;
  * Static Routing feature provides the bridge between SDN and Non-SDN networks.
  */
 public class StaticRoutingImplementation implements IfNewHostNotify, IForwardingStaticRouting, IObjectReader,
-        IConfigurationContainerAware {
+        IConfigurationContainerAware, ICacheUpdateAware<String, StaticRoute> {
     private static Logger log = LoggerFactory.getLogger(StaticRoutingImplementation.class);
     private static final String STATIC_ROUTES_FILE_NAME = "staticRouting.conf";
+    static final String STATIC_ROUTES_CACHE = "forwarding.staticrouting.routes";
     ConcurrentMap<String, StaticRoute> staticRoutes;
+    // Node local longest prefix match index of staticRoutes, gives the route name
+    private final IPPrefixTrie<String> staticRoutesTrie = new IPPrefixTrie<String>();
+    // Routes in the trie, to find the prefix of a route deleted by another controller
+    private final ConcurrentMap<String, StaticRoute> indexedRoutes = new ConcurrentHashMap<String, StaticRoute>();
     ConcurrentMap<String, StaticRouteConfig> staticRouteConfigs;
     private IfIptoHost hostTracker;
     private Timer gatewayProbeTimer;
@@ -145,7 +153,7 @@ public class StaticRoutingImplementation implements IfNewHostNotify, IForwarding
         }
 
         try {
-            clusterContainerService.createCache("forwarding.staticrouting.routes",
+            clusterContainerService.createCache(STATIC_ROUTES_CACHE,
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
             clusterContainerService.createCache("forwarding.staticrouting.configs",
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
@@ -164,7 +172,7 @@ public class StaticRoutingImplementation implements IfNewHostNotify, IForwarding
         }
 
         staticRoutes = (ConcurrentMap<String, StaticRoute>) clusterContainerService
-                .getCache("forwarding.staticrouting.routes");
+                .getCache(STATIC_ROUTES_CACHE);
         if (staticRoutes == null) {
             log.error("\nFailed to get rulesDB handle");
         }
@@ -323,31 +331,30 @@ public class StaticRoutingImplementation implements IfNewHostNotify, IForwarding
         return 0;
     }
 
-    @Override
-    public StaticRoute getBestMatchStaticRoute(InetAddress ipAddress) {
-        ByteBuffer bblongestPrefix = null;
-        try {
-            bblongestPrefix = ByteBuffer.wrap(InetAddress.getByName("0.0.0.0").getAddress());
-        } catch (Exception e) {
-            return null;
+    private void indexStaticRoute(String name, StaticRoute route) {
+        indexedRoutes.put(name, route);
+        staticRoutesTrie.put(route.getNetworkAddress(), NetUtils.getSubnetMaskLength(route.getMask()), name);
+    }
+
+    private void unindexStaticRoute(String name) {
+        StaticRoute route = indexedRoutes.remove(name);
+        if (route == null) {
+            return;
+        }
+        InetAddress prefix = route.getNetworkAddress();
+        int prefixLength = NetUtils.getSubnetMaskLength(route.getMask());
+        if (name.equals(staticRoutesTrie.get(prefix, prefixLength))) {
+            staticRoutesTrie.remove(prefix, prefixLength);
         }
+    }
 
+    @Override
+    public StaticRoute getBestMatchStaticRoute(InetAddress ipAddress) {
         if (staticRoutes == null) {
             return null;
         }
-
-        StaticRoute longestPrefixRoute = null;
-        for (StaticRoute s : staticRoutes.values()) {
-            InetAddress prefix = s.longestPrefixMatch(ipAddress);
-            if ((prefix != null) && (prefix instanceof Inet4Address)) {
-                ByteBuffer bbtmp = ByteBuffer.wrap(prefix.getAddress());
-                if (compareByteBuffers(bbtmp, bblongestPrefix) > 0) {
-                    bblongestPrefix = bbtmp;
-                    longestPrefixRoute = s;
-                }
-            }
-        }
-        return longestPrefixRoute;
+        String name = staticRoutesTrie.lookup(ipAddress);
+        return (name == null) ? null : staticRoutes.get(name);
     }
 
     @Override
@@ -371,6 +378,7 @@ public class StaticRoutingImplementation implements IfNewHostNotify, IForwarding
             }
         }
         staticRoutes.put(config.getName(), sRoute);
+        indexStaticRoute(config.getName(), sRoute);
 
         // Update config databse
         staticRouteConfigs.put(config.getName(), config);
@@ -385,6 +393,7 @@ public class StaticRoutingImplementation implements IfNewHostNotify, IForwarding
         staticRouteConfigs.remove(name);
         StaticRoute sRoute = staticRoutes.remove(name);
         if (sRoute != null) {
+            unindexStaticRoute(name);
             checkAndUpdateListeners(name, sRoute, false);
             return new Status(StatusCode.SUCCESS, null);
         }
@@ -421,6 +430,11 @@ public class StaticRoutingImplementation implements IfNewHostNotify, IForwarding
         log.debug("forwarding.staticrouting starting on container {}", containerName);
         allocateCaches();
         retrieveCaches();
+        if (staticRoutes != null) {
+            for (Map.Entry<String, StaticRoute> entry : staticRoutes.entrySet()) {
+                indexStaticRoute(entry.getKey(), entry.getValue());
+            }
+        }
         this.executor = Executors.newFixedThreadPool(1);
         loadConfiguration();
 
@@ -481,4 +495,31 @@ public class StaticRoutingImplementation implements IfNewHostNotify, IForwarding
         return this.saveConfig();
     }
 
+    @Override
+    public void entryCreated(String key, String cacheName, boolean originLocal) {
+        if (originLocal || !cacheName.equals(STATIC_ROUTES_CACHE)) {
+            return;
+        }
+        StaticRoute route = staticRoutes.get(key);
+        if (route != null) {
+            indexStaticRoute(key, route);
+        }
+    }
+
+    @Override
+    public void entryUpdated(String key, StaticRoute new_value, String cacheName, boolean originLocal) {
+        if (originLocal || !cacheName.equals(STATIC_ROUTES_CACHE)) {
+            return;
+        }
+        // The prefix of a route never changes, only its next hop host does
+        indexStaticRoute(key, new_value);
+    }
+
+    @Override
+    public void entryDeleted(String key, String cacheName, boolean originLocal) {
+        if (originLocal || !cacheName.equals(STATIC_ROUTES_CACHE)) {
+            return;
+        }
+        unindexStaticRoute(key);
+    }
 }
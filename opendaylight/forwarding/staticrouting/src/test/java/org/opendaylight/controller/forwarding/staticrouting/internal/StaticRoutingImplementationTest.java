@@ -9,8 +9,14 @@
 
 package org.opendaylight.controller.forwarding.staticrouting.internal;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.junit.Assert;
 import org.junit.Test;
+import org.opendaylight.controller.forwarding.staticrouting.StaticRoute;
+import org.opendaylight.controller.forwarding.staticrouting.StaticRouteConfig;
 
 public class StaticRoutingImplementationTest {
 
@@ -21,4 +27,25 @@ public class StaticRoutingImplementationTest {
         Assert.assertFalse(staticRouteImpl.isIPv4AddressValid("192.168.100.0/36"));
         Assert.assertFalse(staticRouteImpl.isIPv4AddressValid("192.168.300.0/32"));
         }
+
+    @Test
+    public void getBestMatchStaticRouteTest() throws UnknownHostException {
+        StaticRoutingImplementation staticRouteImpl = new StaticRoutingImplementation();
+        staticRouteImpl.staticRoutes = new ConcurrentHashMap<String, StaticRoute>();
+        staticRouteImpl.staticRouteConfigs = new ConcurrentHashMap<String, StaticRouteConfig>();
+
+        Assert.assertTrue(staticRouteImpl.addStaticRoute(new StaticRouteConfig("wide", "10.0.0.0/8", "1.1.1.1"))
+                .isSuccess());
+        Assert.assertTrue(staticRouteImpl.addStaticRoute(new StaticRouteConfig("narrow", "10.1.0.0/16", "1.1.1.2"))
+                .isSuccess());
+
+        StaticRoute wide = staticRouteImpl.staticRoutes.get("wide");
+        StaticRoute narrow = staticRouteImpl.staticRoutes.get("narrow");
+        Assert.assertEquals(narrow, staticRouteImpl.getBestMatchStaticRoute(InetAddress.getByName("10.1.2.3")));
+        Assert.assertEquals(wide, staticRouteImpl.getBestMatchStaticRoute(InetAddress.getByName("10.2.2.3")));
+        Assert.assertNull(staticRouteImpl.getBestMatchStaticRoute(InetAddress.getByName("11.1.2.3")));
+
+        Assert.assertTrue(staticRouteImpl.removeStaticRoute("narrow").isSuccess());
+        Assert.assertEquals(wide, staticRouteImpl.getBestMatchStaticRoute(InetAddress.getByName("10.1.2.3")));
+    }
 }
@@ -14,7 +14,9 @@ import java.util.Set;
 import java.util.concurrent.Future;
 
 import org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector;
+import org.opendaylight.controller.sal.core.Node;
 import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.packet.address.DataLinkAddress;
 import org.opendaylight.controller.sal.utils.Status;
 
 /**
@@ -162,6 +164,42 @@ public interface IfIptoHost {
      */
     public Set<HostNodeConnector> getInactiveStaticHosts();
 
+    /**
+     * Returns the Hosts, learned dynamically or added statically, which are
+     * connected to a given switch port.
+     *
+     * @param nodeConnector
+     *            the switch port
+     * @return Set of
+     *         {@link org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector}
+     *         connected to the port, empty if there is none
+     */
+    public Set<HostNodeConnector> getHostsByNodeConnector(NodeConnector nodeConnector);
+
+    /**
+     * Returns the Hosts, learned dynamically or added statically, which are
+     * connected to any port of a given switch.
+     *
+     * @param node
+     *            the switch
+     * @return Set of
+     *         {@link org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector}
+     *         connected to the switch, empty if there is none
+     */
+    public Set<HostNodeConnector> getHostsByNode(Node node);
+
+    /**
+     * Returns the Hosts, learned dynamically or added statically, which have
+     * a given MAC address.
+     *
+     * @param dataLayerAddress
+     *            MAC address of the Hosts
+     * @return Set of
+     *         {@link org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector}
+     *         with the MAC address, empty if there is none
+     */
+    public Set<HostNodeConnector> getHostsByMAC(DataLinkAddress dataLayerAddress);
+
     /**
      * Hosts can be learned dynamically or added statically. This method allows
      * the addition of a Host to the local database statically.
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.hosttracker.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opendaylight.controller.hosttracker.IHostId;
+import org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.packet.address.DataLinkAddress;
+
+/**
+ * Node local secondary indices of the hosts database, by switch port, by
+ * switch and by MAC address.
+ *
+ * The indices are derived from the hosts database: the owner calls
+ * {@link #update(IHostId, HostNodeConnector)} with the current value of a
+ * host each time the host is written, locally or by another cluster node.
+ * The hosts are filed under their id, since a host object can have its
+ * static flag flipped in place.
+ */
+final class HostIndex {
+    private final Map<IHostId, HostNodeConnector> hosts = new HashMap<IHostId, HostNodeConnector>();
+    private final ConcurrentMap<NodeConnector, Map<IHostId, HostNodeConnector>> byNodeConnector =
+            new ConcurrentHashMap<NodeConnector, Map<IHostId, HostNodeConnector>>();
+    private final ConcurrentMap<Node, Map<IHostId, HostNodeConnector>> byNode =
+            new ConcurrentHashMap<Node, Map<IHostId, HostNodeConnector>>();
+    private final ConcurrentMap<DataLinkAddress, Map<IHostId, HostNodeConnector>> byMAC =
+            new ConcurrentHashMap<DataLinkAddress, Map<IHostId, HostNodeConnector>>();
+
+    /**
+     * Re-file a host
+     *
+     * @param id
+     *            the id of the host
+     * @param host
+     *            the current value of the host in the hosts database, null if
+     *            the host was removed
+     */
+    synchronized void update(IHostId id, HostNodeConnector host) {
+        HostNodeConnector old = (host == null) ? hosts.remove(id) : hosts.put(id, host);
+        if (old != null) {
+            remove(byNodeConnector, old.getnodeConnector(), id);
+            remove(byNode, old.getnodeconnectorNode(), id);
+            remove(byMAC, old.getDataLayerAddress(), id);
+        }
+        if (host != null) {
+            add(byNodeConnector, host.getnodeConnector(), id, host);
+            add(byNode, host.getnodeconnectorNode(), id, host);
+            add(byMAC, host.getDataLayerAddress(), id, host);
+        }
+    }
+
+    synchronized void clear() {
+        hosts.clear();
+        byNodeConnector.clear();
+        byNode.clear();
+        byMAC.clear();
+    }
+
+    /**
+     * @return the ids and values of the hosts behind a switch port
+     */
+    Map<IHostId, HostNodeConnector> getByNodeConnector(NodeConnector nodeConnector) {
+        return get(byNodeConnector, nodeConnector);
+    }
+
+    /**
+     * @return the ids and values of the hosts behind a switch
+     */
+    Map<IHostId, HostNodeConnector> getByNode(Node node) {
+        return get(byNode, node);
+    }
+
+    /**
+     * @return the ids and values of the hosts with a MAC address
+     */
+    Map<IHostId, HostNodeConnector> getByMAC(DataLinkAddress mac) {
+        return get(byMAC, mac);
+    }
+
+    private static <K> void add(ConcurrentMap<K, Map<IHostId, HostNodeConnector>> index, K key, IHostId id,
+            HostNodeConnector host) {
+        if (key == null) {
+            return;
+        }
+        Map<IHostId, HostNodeConnector> entries = index.get(key);
+        if (entries == null) {
+            entries = new ConcurrentHashMap<IHostId, HostNodeConnector>();
+            index.put(key, entries);
+        }
+        entries.put(id, host);
+    }
+
+    private static <K> void remove(ConcurrentMap<K, Map<IHostId, HostNodeConnector>> index, K key, IHostId id) {
+        if (key == null) {
+            return;
+        }
+        Map<IHostId, HostNodeConnector> entries = index.get(key);
+        if (entries != null) {
+            entries.remove(id);
+            if (entries.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static <K> Map<IHostId, HostNodeConnector> get(ConcurrentMap<K, Map<IHostId, HostNodeConnector>> index,
+            K key) {
+        Map<IHostId, HostNodeConnector> entries = (key == null) ? null : index.get(key);
+        if (entries == null) {
+            return Collections.emptyMap();
+        }
+        return new HashMap<IHostId, HostNodeConnector>(entries);
+    }
+}
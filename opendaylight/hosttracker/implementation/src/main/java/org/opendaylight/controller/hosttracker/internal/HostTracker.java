@@ -19,8 +19,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -28,6 +26,8 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.felix.dm.Component;
 import org.eclipse.osgi.framework.console.CommandInterpreter;
@@ -64,6 +64,7 @@ import org.opendaylight.controller.sal.utils.NetUtils;
 import org.opendaylight.controller.sal.utils.NodeCreator;
 import org.opendaylight.controller.sal.utils.Status;
 import org.opendaylight.controller.sal.utils.StatusCode;
+import org.opendaylight.controller.sal.utils.TimerWheel;
 import org.opendaylight.controller.switchmanager.IInventoryListener;
 import org.opendaylight.controller.switchmanager.ISwitchManager;
 import org.opendaylight.controller.switchmanager.ISwitchManagerAware;
@@ -104,33 +105,172 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         ITopologyManagerAware, ICacheUpdateAware<IHostId, HostNodeConnector>, CommandProvider {
     static final String ACTIVE_HOST_CACHE = "hosttracker.ActiveHosts";
     static final String INACTIVE_HOST_CACHE = "hosttracker.InactiveHosts";
+    static final String HOST_OWNER_CACHE = "hosttracker.HostOwners";
     private static final Logger logger = LoggerFactory.getLogger(HostTracker.class);
     protected final Set<IHostFinder> hostFinder = new CopyOnWriteArraySet<IHostFinder>();;
     protected ConcurrentMap<IHostId, HostNodeConnector> hostsDB;
+    /*
+     * Node local indices of hostsDB by switch, port and MAC, refreshed on
+     * every write of a host, local or from another cluster node
+     */
+    private final HostIndex hostIndex = new HostIndex();
     /*
      * Following is a list of hosts which have been requested by NB APIs to be
      * added, but either the switch or the port is not sup, so they will be
      * added here until both come up
      */
     private ConcurrentMap<NodeConnector, HostNodeConnector> inactiveStaticHosts;
+    /*
+     * Cluster node aging each dynamically learned host
+     */
+    protected ConcurrentMap<IHostId, InetAddress> hostOwners;
     private final Set<IfNewHostNotify> newHostNotify = Collections.synchronizedSet(new HashSet<IfNewHostNotify>());
 
     private ITopologyManager topologyManager;
     protected IClusterContainerServices clusterContainerService = null;
     protected ISwitchManager switchManager = null;
-    private Timer timer;
-    private Timer arpRefreshTimer;
+    private TimerWheel timerWheel;
     private String containerName = null;
     private ExecutorService executor;
+    /*
+     * Runs the aging and ARP retry tasks expired by the shared timer wheel,
+     * whose thread must not wait on cluster cache writes or listeners
+     */
+    private ExecutorService agingExecutor;
+    private HostUpdateWorkers hostUpdateWorkers;
     protected boolean stopping;
     private static boolean hostRefresh = true;
     private static int hostRetryCount = 5;
     private String keyScheme = null;
+    /*
+     * A dynamically learned host is probed once it has been silent for
+     * HOST_PROBE_START and removed once it has been silent for HOST_AGEOUT,
+     * probes are sent every ARP_PROBE_INTERVAL in between
+     */
+    private static final long ARP_PROBE_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final long HOST_AGEOUT = TimeUnit.SECONDS.toNanos(120);
+    private static final long HOST_PROBE_START = HOST_AGEOUT - hostRetryCount * ARP_PROBE_INTERVAL;
+    /*
+     * Workers processing the host learn and move events, and the number of
+     * hosts each of them can have waiting
+     */
+    private static final int HOST_UPDATE_WORKERS = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    private static final int HOST_UPDATE_QUEUE_SIZE = 4096;
+    // Interval of the ARP requests sent for a host being discovered
+    private static final long ARP_RETRY_INTERVAL = TimeUnit.SECONDS.toNanos(4);
+
+    /*
+     * Node local liveness of the dynamically learned hosts. A host is owned,
+     * that is aged, by the cluster node that learned it: a refresh ARP from a
+     * known host only stamps its last seen time here, hostsDB is written on
+     * host learn, move and removal, or when the aging of a host is taken over
+     * from another cluster node. The other cluster nodes only watch the owner
+     * of the host. They take it over when its ARPs reach them while the owner
+     * left the cluster or the port of the host is down, and the coordinator
+     * takes over the hosts whose owner left the cluster.
+     */
+    private class HostLiveness implements Runnable {
+        private final IHostId id;
+        private final boolean owned;
+        private volatile long lastSeen;
+        private volatile TimerWheel.Timeout timeout;
+
+        HostLiveness(IHostId id, boolean owned) {
+            this.id = id;
+            this.owned = owned;
+            this.lastSeen = System.nanoTime();
+        }
+
+        void refresh() {
+            this.lastSeen = System.nanoTime();
+        }
+
+        void schedule(long delay) {
+            if (timerWheel != null) {
+                timeout = timerWheel.schedule(onAgingExecutor(this), delay, TimeUnit.NANOSECONDS);
+            }
+        }
 
-    private static class ARPPending {
+        void cancel() {
+            TimerWheel.Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (stopping || (hostLiveness.get(id) != this)) {
+                return;
+            }
+            HostNodeConnector host = hostsDB.get(id);
+            if ((host == null) || host.isStaticHost()) {
+                /* static hosts are not aged out */
+                hostLiveness.remove(id, this);
+                return;
+            }
+            if (!owned) {
+                if (!isHostOwnerAlive(id) && amICoordinator()) {
+                    logger.debug("Owner of host {} left the cluster, taking over its aging", decodeIPFromId(id));
+                    trackHost(id, host);
+                    hostsDB.put(id, host);
+                } else {
+                    schedule(HOST_AGEOUT);
+                }
+                return;
+            }
+            if (!hostRefresh) {
+                /*
+                 * The host probe procedure is turned off
+                 */
+                schedule(HOST_PROBE_START);
+                return;
+            }
+            long idle = System.nanoTime() - lastSeen;
+            if (idle >= HOST_AGEOUT) {
+                /*
+                 * No ARP Reply received in last 2 minutes, remove this host and
+                 * inform applications
+                 */
+                removeKnownHost(id);
+                notifyHostLearnedOrRemoved(host, false);
+            } else if (idle >= HOST_PROBE_START) {
+                /*
+                 * Use the services of arphandler to check if host is still
+                 * there. If hostfinder is not available the probe can't be
+                 * sent, but the host still ages out since we don't know if it
+                 * is indeed out there or not.
+                 */
+                if (logger.isTraceEnabled()) {
+                    logger.trace("ARP Probing ({} ms idle) for {}({})",
+                            new Object[] { TimeUnit.NANOSECONDS.toMillis(idle),
+                                    host.getNetworkAddress().getHostAddress(),
+                                    HexEncode.bytesToHexString(host.getDataLayerAddressBytes()) });
+                }
+                for (IHostFinder hf : hostFinder) {
+                    hf.probe(host);
+                }
+                schedule(ARP_PROBE_INTERVAL);
+            } else {
+                schedule(HOST_PROBE_START - idle);
+            }
+        }
+    }
+
+    private ConcurrentMap<IHostId, HostLiveness> hostLiveness;
+
+    /*
+     * A host being discovered. The ARP request for it is resent every
+     * ARP_RETRY_INTERVAL until it is learned or hostRetryCount requests went
+     * unanswered, each pending host having its own timeout in the timer wheel.
+     * The retries run on the aging executor, sending an ARP request writes the
+     * clustered arpRequestReplyEvent cache.
+     */
+    private class ARPPending implements Runnable {
         protected IHostId hostId;
         protected short sent_count;
         protected HostTrackerCallable hostTrackerCallable;
+        private volatile TimerWheel.Timeout timeout;
 
         public IHostId getHostId() {
             return hostId;
@@ -155,6 +295,60 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         public void setHostTrackerCallable(HostTrackerCallable callable) {
             hostTrackerCallable = callable;
         }
+
+        void schedule() {
+            if (timerWheel != null) {
+                timeout = timerWheel.schedule(onAgingExecutor(this), ARP_RETRY_INTERVAL, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void cancel() {
+            TimerWheel.Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (stopping || (ARPPendingList.get(hostId) != this)) {
+                return;
+            }
+            if (hostsDB.containsKey(hostId)) {
+                // this host is already learned, shouldn't be in
+                // ARPPendingList
+                logger.warn("Learned Host {} found in ARPPendingList", decodeIPFromId(hostId));
+                ARPPendingList.remove(hostId, this);
+                return;
+            }
+            if (sent_count < hostRetryCount) {
+                /*
+                 * No reply has been received of first ARP Req, send the next
+                 * one. Before sending the ARP, check if ARPHandler is
+                 * available or not
+                 */
+                if (hostFinder == null) {
+                    logger.warn("ARPHandler Services are not available for Outstanding ARPs");
+                } else {
+                    for (IHostFinder hf : hostFinder) {
+                        hf.find(decodeIPFromId(hostId));
+                    }
+                    sent_count++;
+                    logger.debug("ARP Sent from ARPPending List, IP: {}", decodeIPFromId(hostId));
+                }
+                schedule();
+            } else if (ARPPendingList.remove(hostId, this)) {
+                /*
+                 * ARP requests have been sent without receiving a reply,
+                 * remove this from the pending list and add it to a
+                 * different list which will be processed on link up events
+                 */
+                logger.debug("ARP reply not received after multiple attempts, removing from Pending List IP: {}",
+                        decodeIPFromId(hostId));
+                logger.debug("Adding the host to FailedARPReqList IP: {}", decodeIPFromId(hostId));
+                failedARPReqList.put(hostId, this);
+            }
+        }
     }
 
     // This list contains the hosts for which ARP requests are being sent
@@ -185,14 +379,29 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         nonClusterObjectCreate();
         allocateCache();
         retrieveCache();
+        for (IHostId id : hostsDB.keySet()) {
+            reindexHost(id);
+        }
         stopping = false;
 
-        timer = new Timer();
-        timer.schedule(new OutStandingARPHandler(), 4000, 4000);
         executor = Executors.newFixedThreadPool(2);
-        /* ARP Refresh Timer to go off every 5 seconds to implement ARP aging */
-        arpRefreshTimer = new Timer();
-        arpRefreshTimer.schedule(new ARPRefreshHandler(), 5000, 5000);
+        agingExecutor = Executors.newSingleThreadExecutor();
+        hostUpdateWorkers = new HostUpdateWorkers("HostTracker Worker " + getContainerName(), HOST_UPDATE_WORKERS,
+                HOST_UPDATE_QUEUE_SIZE, new HostUpdateWorkers.Handler() {
+                    @Override
+                    public void process(HostNodeConnector host) {
+                        processHostUpdate(host);
+                    }
+                });
+        hostUpdateWorkers.start();
+        /*
+         * Timer wheel driving the timestamp based aging of the hosts and the
+         * ARP retries of the hosts being discovered
+         */
+        timerWheel = TimerWheel.getSharedWheel();
+        for (Entry<IHostId, HostNodeConnector> entry : hostsDB.entrySet()) {
+            resumeHostAging(entry.getKey(), entry.getValue());
+        }
         keyScheme = HostIdFactory.getScheme();
         logger.debug("startUp: Caches created, timers started");
     }
@@ -208,6 +417,8 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
             this.clusterContainerService.createCache(INACTIVE_HOST_CACHE,
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
+            this.clusterContainerService.createCache(HOST_OWNER_CACHE,
+                    EnumSet.of(IClusterServices.cacheMode.NON_TRANSACTIONAL));
         } catch (CacheConfigException cce) {
             logger.error("Cache couldn't be created for HostTracker -  check cache mode");
         } catch (CacheExistException cce) {
@@ -235,13 +446,20 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
             logger.error("Cache couldn't be retrieved for HostTrackerIH");
         }
         logger.debug("Cache was successfully retrieved for HostTrackerIH");
+        hostOwners = (ConcurrentMap<IHostId, InetAddress>) this.clusterContainerService.getCache(HOST_OWNER_CACHE);
+        if (hostOwners == null) {
+            logger.error("Cache couldn't be retrieved for HostTrackerHO");
+        }
     }
 
     public void nonClusterObjectCreate() {
         hostsDB = new ConcurrentHashMap<IHostId, HostNodeConnector>();
+        hostIndex.clear();
         inactiveStaticHosts = new ConcurrentHashMap<NodeConnector, HostNodeConnector>();
         ARPPendingList = new ConcurrentHashMap<IHostId, ARPPending>();
         failedARPReqList = new ConcurrentHashMap<IHostId, ARPPending>();
+        hostOwners = new ConcurrentHashMap<IHostId, InetAddress>();
+        hostLiveness = new ConcurrentHashMap<IHostId, HostLiveness>();
     }
 
     public void shutDown() {
@@ -400,23 +618,49 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         return list;
     }
 
+    @Override
+    public Set<HostNodeConnector> getHostsByNodeConnector(NodeConnector nodeConnector) {
+        return new HashSet<HostNodeConnector>(hostIndex.getByNodeConnector(nodeConnector).values());
+    }
+
+    @Override
+    public Set<HostNodeConnector> getHostsByNode(Node node) {
+        return new HashSet<HostNodeConnector>(hostIndex.getByNode(node).values());
+    }
+
+    @Override
+    public Set<HostNodeConnector> getHostsByMAC(DataLinkAddress dataLayerAddress) {
+        return new HashSet<HostNodeConnector>(hostIndex.getByMAC(dataLayerAddress).values());
+    }
+
+    /*
+     * Refresh the indices of a host from its current value in hostsDB, to be
+     * called after each write of the host
+     */
+    private void reindexHost(IHostId id) {
+        synchronized (hostIndex) {
+            hostIndex.update(id, hostsDB.get(id));
+        }
+    }
+
     private void addToARPPendingList(IHostId id) {
         ARPPending arphost = new ARPPending();
 
         arphost.setHostId(id);
         arphost.setSent_count((short) 1);
-        ARPPendingList.put(id, arphost);
+        ARPPending previous = ARPPendingList.put(id, arphost);
+        if (previous != null) {
+            previous.cancel();
+        }
+        arphost.schedule();
         logger.debug("Host Added to ARPPending List, IP: {}", decodeIPFromId(id));
 
     }
 
     public void setCallableOnPendingARP(IHostId id, HostTrackerCallable callable) {
-        ARPPending arphost;
-        for (Entry<IHostId, ARPPending> entry : ARPPendingList.entrySet()) {
-            arphost = entry.getValue();
-            if (arphost.getHostId().equals(id)) {
-                arphost.setHostTrackerCallable(callable);
-            }
+        ARPPending arphost = ARPPendingList.get(id);
+        if (arphost != null) {
+            arphost.setHostTrackerCallable(callable);
         }
     }
 
@@ -425,6 +669,7 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
 
         if ((arphost = ARPPendingList.remove(id)) != null) {
             // Remove the arphost from ARPPendingList as it has been learned now
+            arphost.cancel();
             logger.debug("Host Removed from ARPPending List, IP: {}", id);
             HostTrackerCallable htCallable = arphost.getHostTrackerCallable();
             if (htCallable != null) {
@@ -446,12 +691,13 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
     // Learn a new Host
     private void learnNewHost(HostNodeConnector host) {
         IHostId id = HostIdFactory.create(host.getNetworkAddress(), host.getDataLayerAddress());
-        host.initArpSendCountDown();
         HostNodeConnector rHost = hostsDB.putIfAbsent(id, host);
         if (rHost != null) {
             // Another host is already learned for this IP address, replace it
             replaceHost(id, rHost, host);
         } else {
+            reindexHost(id);
+            trackHost(id, host);
             logger.debug("New Host Learned: MAC: {}  IP: {}", HexEncode.bytesToHexString(host
                     .getDataLayerAddressBytes()), host.getNetworkAddress().getHostAddress());
         }
@@ -465,8 +711,6 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
             return;
         }
 
-        newHost.initArpSendCountDown();
-
         if (hostsDB.replace(id, removedHost, newHost)) {
             logger.debug("Host move occurred: Old Host IP:{}, New Host IP: {}", removedHost.getNetworkAddress()
                     .getHostAddress(), newHost.getNetworkAddress().getHostAddress());
@@ -483,6 +727,8 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
             logger.error("Host replacement failed. Overwrite the host. Replaced Host: {}, New Host: {}", removedHost,
                     newHost);
         }
+        reindexHost(id);
+        trackHost(id, newHost);
         notifyHostLearnedOrRemoved(removedHost, false);
         notifyHostLearnedOrRemoved(newHost, true);
         if (!newHost.isStaticHost()) {
@@ -496,49 +742,165 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         if (host != null) {
             logger.debug("Removing Host: IP:{}", host.getNetworkAddress().getHostAddress());
             hostsDB.remove(key);
+            hostOwners.remove(key);
+            reindexHost(key);
+            untrackHost(key);
         } else {
             logger.error("removeKnownHost(): Host for IP address {} not found in hostsDB", decodeIPFromId(key));
         }
     }
 
-    private class NotifyHostThread extends Thread {
+    /*
+     * Start aging a dynamically learned host from now on
+     */
+    private void trackHost(IHostId id, HostNodeConnector host) {
+        if (host.isStaticHost()) {
+            untrackHost(id);
+            return;
+        }
+        InetAddress myAddress = getMyAddress();
+        if (myAddress != null) {
+            hostOwners.put(id, myAddress);
+        }
+        startHostLiveness(new HostLiveness(id, true), HOST_PROBE_START);
+    }
 
-        private final HostNodeConnector host;
+    /*
+     * Watch the owner of a host aged by another cluster node
+     */
+    private void watchHost(IHostId id, HostNodeConnector host) {
+        if ((host == null) || host.isStaticHost()) {
+            untrackHost(id);
+            return;
+        }
+        startHostLiveness(new HostLiveness(id, false), HOST_AGEOUT);
+    }
 
-        public NotifyHostThread(HostNodeConnector h) {
-            this.host = h;
+    private void startHostLiveness(HostLiveness liveness, long delay) {
+        HostLiveness old = hostLiveness.put(liveness.id, liveness);
+        if (old != null) {
+            old.cancel();
         }
+        liveness.schedule(delay);
+    }
 
-        @Override
-        public void run() {
-            HostNodeConnector removedHost = null;
-            InetAddress networkAddr = host.getNetworkAddress();
-            IHostId id = HostIdFactory.create(networkAddr, host.getDataLayerAddress());
-            /* Check for Host Move case */
-            if (hostMoved(host)) {
-                /*
-                 * Host has been moved from one location (switch,port, MAC, or
-                 * VLAN) to another. Replace the existing host and its previous
-                 * location parameters with new information, and notify the
-                 * applications listening to host move.
-                 */
+    /*
+     * Age again a host found in hostsDB at startup, the hosts this cluster
+     * node owned before a restart are owned again, the owners of the others
+     * are checked shortly
+     */
+    private void resumeHostAging(IHostId id, HostNodeConnector host) {
+        InetAddress owner = hostOwners.get(id);
+        if ((owner != null) && owner.equals(getMyAddress())) {
+            trackHost(id, host);
+        } else if ((host != null) && !host.isStaticHost()) {
+            startHostLiveness(new HostLiveness(id, false), ARP_PROBE_INTERVAL);
+        }
+    }
+
+    /*
+     * Run the aging of a host now, for the tests
+     */
+    void ageHost(IHostId id) {
+        HostLiveness liveness = hostLiveness.get(id);
+        if (liveness != null) {
+            liveness.run();
+        }
+    }
+
+    private InetAddress getMyAddress() {
+        return (clusterContainerService == null) ? null : clusterContainerService.getMyAddress();
+    }
 
-                removedHost = hostsDB.get(id);
-                if (removedHost != null) {
-                    replaceHost(id, removedHost, host);
+    private boolean amICoordinator() {
+        return (clusterContainerService == null) || clusterContainerService.amICoordinator();
+    }
+
+    private boolean isHostOwnerAlive(IHostId id) {
+        InetAddress owner = hostOwners.get(id);
+        if ((owner == null) || (clusterContainerService == null)) {
+            return false;
+        }
+        List<InetAddress> controllers = clusterContainerService.getClusteredControllers();
+        return (controllers != null) && controllers.contains(owner);
+    }
+
+    /*
+     * Whether the switch port a host is attached to is still up
+     */
+    private boolean isAttachmentPointUp(HostNodeConnector host) {
+        ISwitchManager sm = switchManager;
+        if (sm == null) {
+            return true;
+        }
+        return Boolean.TRUE.equals(sm.isNodeConnectorEnabled(host.getnodeConnector()));
+    }
+
+    /*
+     * Wrap a task scheduled in the shared timer wheel so that it runs on the
+     * aging executor
+     */
+    private Runnable onAgingExecutor(final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                ExecutorService e = agingExecutor;
+                if ((e == null) || stopping) {
                     return;
-                } else {
-                    logger.error("Host to be removed not found in hostsDB");
+                }
+                try {
+                    e.execute(task);
+                } catch (RejectedExecutionException ree) {
+                    logger.debug("Aging executor stopped, dropping {}", task);
                 }
             }
+        };
+    }
 
-            // It is a new host
-            learnNewHost(host);
+    private void untrackHost(IHostId id) {
+        HostLiveness liveness = hostLiveness.remove(id);
+        if (liveness != null) {
+            liveness.cancel();
+        }
+    }
 
-            /* check if there is an outstanding request for this host */
-            processPendingARPReqs(id);
-            notifyHostLearnedOrRemoved(host, true);
+    /*
+     * Learn a new or moved host, run by the host update worker of the host
+     */
+    private void processHostUpdate(HostNodeConnector host) {
+        HostNodeConnector removedHost = null;
+        InetAddress networkAddr = host.getNetworkAddress();
+        IHostId id = HostIdFactory.create(networkAddr, host.getDataLayerAddress());
+        /* Check for Host Move case */
+        if (hostMoved(host)) {
+            /*
+             * Host has been moved from one location (switch,port, MAC, or
+             * VLAN) to another. Replace the existing host and its previous
+             * location parameters with new information, and notify the
+             * applications listening to host move.
+             */
+
+            removedHost = hostsDB.get(id);
+            if (removedHost != null) {
+                replaceHost(id, removedHost, host);
+                return;
+            } else {
+                logger.error("Host to be removed not found in hostsDB");
+            }
+        } else if (hostExists(host)) {
+            /*
+             * Learned in the meantime from an earlier event, this one merely
+             * refreshes it
+             */
+            return;
         }
+
+        // It is a new host
+        learnNewHost(host);
+
+        /* check if there is an outstanding request for this host */
+        processPendingARPReqs(id);
+        notifyHostLearnedOrRemoved(host, true);
     }
 
     @Override
@@ -547,15 +909,39 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
                 HexEncode.bytesToHexString(host.getDataLayerAddressBytes()), host);
         if (hostExists(host)) {
             IHostId id = HostIdFactory.create(host.getNetworkAddress(), host.getDataLayerAddress());
-            HostNodeConnector existinghost = hostsDB.get(id);
-            existinghost.initArpSendCountDown();
-            // Update the host
-
-            hostsDB.put(id, existinghost);
+            HostLiveness liveness = hostLiveness.get(id);
+            if ((liveness != null) && liveness.owned) {
+                // Refresh of a host aged by this node, nothing to replicate
+                liveness.refresh();
+            } else {
+                HostNodeConnector existinghost = hostsDB.get(id);
+                if ((existinghost != null) && !existinghost.isStaticHost()) {
+                    if (!isHostOwnerAlive(id) || !isAttachmentPointUp(existinghost)) {
+                        /*
+                         * The host has no live owner or the owner can no
+                         * longer see it, take over its aging. The write lets
+                         * the other cluster nodes know they can stop aging
+                         * it.
+                         */
+                        trackHost(id, existinghost);
+                        hostsDB.put(id, existinghost);
+                    } else if (liveness == null) {
+                        /*
+                         * ARPs of a multi-homed or flooded host reach several
+                         * cluster nodes, leave it to its owner
+                         */
+                        watchHost(id, existinghost);
+                    }
+                }
+            }
             logger.debug("hostListener returned without adding the host");
             return;
         }
-        new NotifyHostThread(host).start();
+        IHostId id = HostIdFactory.create(host.getNetworkAddress(), host.getDataLayerAddress());
+        if (!hostUpdateWorkers.submit(id, host)) {
+            logger.debug("Host update queue full, dropped update for Host: IP {}", host.getNetworkAddress()
+                    .getHostAddress());
+        }
     }
 
     // Notify whoever is interested that a new host was learned (dynamically or
@@ -948,142 +1334,6 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         }
     }
 
-    /*
-     * This thread runs every 4 seconds
-     */
-
-    class OutStandingARPHandler extends TimerTask {
-        @Override
-        public void run() {
-            if (stopping) {
-                return;
-            }
-            ARPPending arphost;
-            try {
-                for (Entry<IHostId, ARPPending> entry : ARPPendingList.entrySet()) {
-                    arphost = entry.getValue();
-
-                    if (hostsDB.containsKey(arphost.getHostId())) {
-                        // this host is already learned, shouldn't be in
-                        // ARPPendingList
-                        // Remove it and continue
-                        logger.warn("Learned Host {} found in ARPPendingList", decodeIPFromId(arphost.getHostId()));
-                        ARPPendingList.remove(entry.getKey());
-                        continue;
-                    }
-                    if (arphost.getSent_count() < hostRetryCount) {
-                        /*
-                         * No reply has been received of first ARP Req, send the
-                         * next one. Before sending the ARP, check if ARPHandler
-                         * is available or not
-                         */
-                        if (hostFinder == null) {
-                            logger.warn("ARPHandler Services are not available for Outstanding ARPs");
-                            continue;
-                        }
-                        for (IHostFinder hf : hostFinder) {
-                            hf.find(decodeIPFromId(arphost.getHostId()));
-                        }
-                        arphost.sent_count++;
-                        logger.debug("ARP Sent from ARPPending List, IP: {}", decodeIPFromId(arphost.getHostId()));
-                    } else if (arphost.getSent_count() >= hostRetryCount) {
-                        /*
-                         * ARP requests have been sent without receiving a
-                         * reply, remove this from the pending list
-                         */
-                        ARPPendingList.remove(entry.getKey());
-                        logger.debug(
-                                "ARP reply not received after multiple attempts, removing from Pending List IP: {}",
-                                decodeIPFromId(arphost.getHostId()));
-                        /*
-                         * Add this host to a different list which will be
-                         * processed on link up events
-                         */
-                        logger.debug("Adding the host to FailedARPReqList IP: {}", decodeIPFromId(arphost.getHostId()));
-                        failedARPReqList.put(entry.getKey(), arphost);
-
-                    } else {
-                        logger.error("Inavlid arp_sent count for entry: {}", entry);
-                    }
-                }
-            } catch (IllegalStateException e) {
-                logger.debug("IllegalStateException Received by OutStandingARPHandler from: {}", e.getMessage());
-            }
-        }
-    }
-
-    private class ARPRefreshHandler extends TimerTask {
-        @Override
-        public void run() {
-            if ((clusterContainerService != null) && !clusterContainerService.amICoordinator()) {
-                return;
-            }
-            if (stopping) {
-                return;
-            }
-            if (!hostRefresh) {
-                /*
-                 * The host probe procedure is turned off
-                 */
-                return;
-            }
-            if (hostsDB == null) {
-                /* hostsDB is not allocated yet */
-                logger.error("ARPRefreshHandler(): hostsDB is not allocated yet:");
-                return;
-            }
-            try {
-                for (Entry<IHostId, HostNodeConnector> entry : hostsDB.entrySet()) {
-                    HostNodeConnector host = entry.getValue();
-                    if (host.isStaticHost()) {
-                        /* this host was learned via API3, don't age it out */
-                        continue;
-                    }
-
-                    short arp_cntdown = host.getArpSendCountDown();
-                    arp_cntdown--;
-                    if (arp_cntdown > hostRetryCount) {
-                        host.setArpSendCountDown(arp_cntdown);
-                    } else if (arp_cntdown <= 0) {
-                        /*
-                         * No ARP Reply received in last 2 minutes, remove this
-                         * host and inform applications
-                         */
-                        removeKnownHost(entry.getKey());
-                        notifyHostLearnedOrRemoved(host, false);
-                    } else if (arp_cntdown <= hostRetryCount) {
-                        /*
-                         * Use the services of arphandler to check if host is
-                         * still there
-                         */
-                        if (logger.isTraceEnabled()) {
-                            logger.trace(
-                                    "ARP Probing ({}) for {}({})",
-                                    new Object[] { arp_cntdown, host.getNetworkAddress().getHostAddress(),
-                                            HexEncode.bytesToHexString(host.getDataLayerAddressBytes()) });
-                        }
-                        host.setArpSendCountDown(arp_cntdown);
-                        if (hostFinder == null) {
-                            /*
-                             * If hostfinder is not available, then can't send
-                             * the probe. However, continue the age out the
-                             * hosts since we don't know if the host is indeed
-                             * out there or not.
-                             */
-                            logger.trace("ARPHandler is not avaialable, can't send the probe");
-                            continue;
-                        }
-                        for (IHostFinder hf : hostFinder) {
-                            hf.probe(host);
-                        }
-                    }
-                }
-            } catch (IllegalStateException e) {
-                logger.debug("IllegalStateException  Received by ARPRefreshHandler from: {}", e.getMessage());
-            }
-        }
-    }
-
     /**
      * Inform the controller IP to MAC binding of a host and its connectivity to
      * an openflow switch in terms of Node, port, and VLAN.
@@ -1198,6 +1448,7 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
 
             if ((tobeUpdatedHost = hostsDB.get(networkAddr)) != null) {
                 if (hostsDB.replace(id, tobeUpdatedHost, host)) {
+                    reindexHost(id);
                     logger.debug("Host replaced from hostsDB. Old host: {} New Host: {}", tobeUpdatedHost, host);
                     notifyHostLearnedOrRemoved(tobeUpdatedHost, false);
                     notifyHostLearnedOrRemoved(host, true);
@@ -1288,13 +1539,11 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         switch (type) {
         case REMOVED:
             logger.debug("Received removed node {}", node);
-            for (Entry<IHostId, HostNodeConnector> entry : hostsDB.entrySet()) {
+            for (Entry<IHostId, HostNodeConnector> entry : hostIndex.getByNode(node).entrySet()) {
                 HostNodeConnector host = entry.getValue();
-                if (host.getnodeconnectorNode().equals(node)) {
-                    logger.debug("Node: {} is down, remove from Hosts_DB", node);
-                    removeKnownHost(entry.getKey());
-                    notifyHostLearnedOrRemoved(host, false);
-                }
+                logger.debug("Node: {} is down, remove from Hosts_DB", node);
+                removeKnownHost(entry.getKey());
+                notifyHostLearnedOrRemoved(host, false);
             }
             break;
         default:
@@ -1453,13 +1702,11 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
     private void handleNodeConnectorStatusDown(NodeConnector nodeConnector) {
         logger.trace("handleNodeConnectorStatusDown {}", nodeConnector);
 
-        for (Entry<IHostId, HostNodeConnector> entry : hostsDB.entrySet()) {
+        for (Entry<IHostId, HostNodeConnector> entry : hostIndex.getByNodeConnector(nodeConnector).entrySet()) {
             HostNodeConnector host = entry.getValue();
-            if (host.getnodeConnector().equals(nodeConnector)) {
-                logger.debug(" NodeConnector: {} is down, remove from Hosts_DB", nodeConnector);
-                removeKnownHost(entry.getKey());
-                notifyHostLearnedOrRemoved(host, false);
-            }
+            logger.debug(" NodeConnector: {} is down, remove from Hosts_DB", nodeConnector);
+            removeKnownHost(entry.getKey());
+            notifyHostLearnedOrRemoved(host, false);
         }
     }
 
@@ -1542,9 +1789,9 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
 
     void stopping() {
         stopping = true;
-        arpRefreshTimer.cancel();
-        timer.cancel();
+        hostUpdateWorkers.stop();
         executor.shutdownNow();
+        agingExecutor.shutdownNow();
     }
 
     @Override
@@ -1559,18 +1806,32 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
 
     @Override
     public void entryCreated(IHostId key, String cacheName, boolean originLocal) {
+        reindexHost(key);
         if (originLocal) {
             return;
         }
+        // The host is aged by the cluster node which learned it
+        watchHost(key, hostsDB.get(key));
         processPendingARPReqs(key);
     }
 
     @Override
     public void entryUpdated(IHostId key, HostNodeConnector new_value, String cacheName, boolean originLocal) {
+        reindexHost(key);
+        if (originLocal) {
+            return;
+        }
+        // Host moved or its aging was taken over by another cluster node
+        watchHost(key, new_value);
     }
 
     @Override
     public void entryDeleted(IHostId key, String cacheName, boolean originLocal) {
+        reindexHost(key);
+        if (originLocal) {
+            return;
+        }
+        untrackHost(key);
     }
 
     private void registerWithOSGIConsole() {
@@ -1591,6 +1852,16 @@ public class HostTracker implements IfIptoHost, IfHostListener, ISwitchManagerAw
         }
     }
 
+    public void _dumpHostUpdateStats(CommandInterpreter ci) {
+        ci.println("Queued host updates: " + hostUpdateWorkers.getQueueDepth());
+        ci.println("Processed host updates: " + hostUpdateWorkers.getProcessedCount());
+        ci.println("Merged host updates: " + hostUpdateWorkers.getMergedCount());
+        ci.println("Dropped host updates: " + hostUpdateWorkers.getDroppedCount());
+        ci.println("Average latency (us): "
+                + TimeUnit.NANOSECONDS.toMicros(hostUpdateWorkers.getAverageLatency()));
+        ci.println("Max latency (us): " + TimeUnit.NANOSECONDS.toMicros(hostUpdateWorkers.getMaxLatency()));
+    }
+
     public void _dumpFailedARPReqList(CommandInterpreter ci) {
         ARPPending arphost;
         for (Entry<IHostId, ARPPending> entry : failedARPReqList.entrySet()) {
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.hosttracker.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opendaylight.controller.hosttracker.IHostId;
+import org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fixed pool of worker threads processing the host learn and move events.
+ *
+ * The events are sharded on the host id, so that the events of a host are
+ * processed in order by a single worker. An event for a host which already
+ * has one waiting in its shard replaces it in place: only the latest known
+ * location of the host is processed, once. Each shard holds a bounded number
+ * of hosts, the events beyond are dropped, the host being learned again on
+ * its next ARP.
+ */
+final class HostUpdateWorkers {
+    private static final Logger logger = LoggerFactory.getLogger(HostUpdateWorkers.class);
+
+    /**
+     * Processing of an event, called on the worker thread of the host
+     */
+    interface Handler {
+        void process(HostNodeConnector host);
+    }
+
+    private static final class Update {
+        private HostNodeConnector host;
+        private final long queuedTime;
+
+        Update(HostNodeConnector host, long queuedTime) {
+            this.host = host;
+            this.queuedTime = queuedTime;
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final Map<IHostId, Update> queue = new LinkedHashMap<IHostId, Update>();
+        private Thread thread;
+
+        synchronized boolean offer(IHostId id, HostNodeConnector host) {
+            Update update = queue.get(id);
+            if (update != null) {
+                update.host = host;
+                merged.incrementAndGet();
+                return true;
+            }
+            if (queue.size() >= capacity) {
+                return false;
+            }
+            queue.put(id, new Update(host, System.nanoTime()));
+            notify();
+            return true;
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        private synchronized Update take() throws InterruptedException {
+            while (queue.isEmpty()) {
+                wait();
+            }
+            Iterator<Update> it = queue.values().iterator();
+            Update update = it.next();
+            it.remove();
+            return update;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Update update;
+                try {
+                    update = take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    handler.process(update.host);
+                } catch (Exception e) {
+                    logger.error("Exception while processing host {}", update.host, e);
+                }
+                long latency = System.nanoTime() - update.queuedTime;
+                processed.incrementAndGet();
+                totalLatency.addAndGet(latency);
+                long max = maxLatency.get();
+                while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+                    max = maxLatency.get();
+                }
+            }
+        }
+    }
+
+    private final Handler handler;
+    private final int capacity;
+    private final Shard[] shards;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * @param name
+     *            prefix of the worker thread names
+     * @param workers
+     *            the number of worker threads
+     * @param capacity
+     *            the number of hosts each worker can have waiting
+     * @param handler
+     *            the processing of the events
+     */
+    HostUpdateWorkers(String name, int workers, int capacity, Handler handler) {
+        if (workers <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("workers and capacity must be positive");
+        }
+        this.handler = handler;
+        this.capacity = capacity;
+        this.shards = new Shard[workers];
+        for (int i = 0; i < workers; i++) {
+            shards[i] = new Shard();
+            shards[i].thread = new Thread(shards[i], name + "-" + i);
+            shards[i].thread.setDaemon(true);
+        }
+    }
+
+    void start() {
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Stop the workers, the waiting events are dropped
+     */
+    void stop() {
+        for (Shard shard : shards) {
+            shard.thread.interrupt();
+        }
+    }
+
+    /**
+     * Queue the event of a host for processing
+     *
+     * @param id
+     *            the id of the host
+     * @param host
+     *            the learned or moved host
+     * @return false if the event was dropped because the worker of the host
+     *         is overloaded
+     */
+    boolean submit(IHostId id, HostNodeConnector host) {
+        Shard shard = shards[(id.hashCode() & Integer.MAX_VALUE) % shards.length];
+        if (shard.offer(id, host)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return the number of events waiting for a worker
+     */
+    int getQueueDepth() {
+        int depth = 0;
+        for (Shard shard : shards) {
+            depth += shard.size();
+        }
+        return depth;
+    }
+
+    long getProcessedCount() {
+        return processed.get();
+    }
+
+    long getMergedCount() {
+        return merged.get();
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the average time from the queuing of an event to the end of
+     *         its processing, in nanoseconds
+     */
+    long getAverageLatency() {
+        long count = processed.get();
+        return (count == 0) ? 0 : totalLatency.get() / count;
+    }
+
+    /**
+     * @return the longest time from the queuing of an event to the end of its
+     *         processing, in nanoseconds
+     */
+    long getMaxLatency() {
+        return maxLatency.get();
+    }
+}
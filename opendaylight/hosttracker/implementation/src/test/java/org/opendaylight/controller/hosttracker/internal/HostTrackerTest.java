@@ -8,13 +8,38 @@
 
 package org.opendaylight.controller.hosttracker.internal;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.felix.dm.Component;
 import org.junit.Assert;
 import org.junit.Test;
+import org.opendaylight.controller.clustering.services.IClusterContainerServices;
 import org.opendaylight.controller.hosttracker.IHostId;
 import org.opendaylight.controller.hosttracker.IPHostId;
+import org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector;
+import org.opendaylight.controller.sal.core.ConstructionException;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.core.UpdateType;
+import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
+import org.opendaylight.controller.sal.utils.NodeCreator;
+import org.opendaylight.controller.switchmanager.ISwitchManager;
 
 public class HostTrackerTest {
 
@@ -51,4 +76,272 @@ public class HostTrackerTest {
         hostTracker.nonClusterObjectCreate();
     }
 
+    @Test
+    public void testHostRefreshNotReplicated() throws UnknownHostException, ConstructionException {
+        HostTracker hostTracker = new HostTracker();
+        hostTracker.nonClusterObjectCreate();
+        final AtomicInteger writes = new AtomicInteger();
+        hostTracker.hostsDB = new ConcurrentHashMap<IHostId, HostNodeConnector>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public HostNodeConnector put(IHostId key, HostNodeConnector value) {
+                writes.incrementAndGet();
+                return super.put(key, value);
+            }
+        };
+
+        InetAddress hostIP = InetAddress.getByName("192.168.0.8");
+        byte[] mac = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x01 };
+        Node node = NodeCreator.createOFNode(1L);
+        NodeConnector nc = NodeConnectorCreator.createOFNodeConnector((short) 1, node);
+        HostNodeConnector host = new HostNodeConnector(mac, hostIP, nc, (short) 0);
+        hostTracker.hostsDB.putIfAbsent(IPHostId.fromIP(hostIP), host);
+
+        // The first ARP takes over the aging of the host
+        hostTracker.hostListener(new HostNodeConnector(mac, hostIP, nc, (short) 0));
+        Assert.assertEquals(1, writes.get());
+
+        // Further ARPs from the same host only refresh the local liveness
+        for (int i = 0; i < 10; i++) {
+            hostTracker.hostListener(new HostNodeConnector(mac, hostIP, nc, (short) 0));
+        }
+        Assert.assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void testHostUpdateWorkers() throws UnknownHostException, ConstructionException, InterruptedException {
+        final List<HostNodeConnector> processed = Collections.synchronizedList(new ArrayList<HostNodeConnector>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(3);
+        HostUpdateWorkers workers = new HostUpdateWorkers("test", 1, 2, new HostUpdateWorkers.Handler() {
+            @Override
+            public void process(HostNodeConnector host) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                processed.add(host);
+                done.countDown();
+            }
+        });
+        workers.start();
+        try {
+            byte[] mac = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x01 };
+            Node node = NodeCreator.createOFNode(1L);
+            InetAddress ipA = InetAddress.getByName("192.168.0.8");
+            InetAddress ipB = InetAddress.getByName("192.168.0.9");
+            InetAddress ipC = InetAddress.getByName("192.168.0.10");
+            HostNodeConnector a1 = new HostNodeConnector(mac, ipA,
+                    NodeConnectorCreator.createOFNodeConnector((short) 1, node), (short) 0);
+            HostNodeConnector a2 = new HostNodeConnector(mac, ipA,
+                    NodeConnectorCreator.createOFNodeConnector((short) 2, node), (short) 0);
+            HostNodeConnector a3 = new HostNodeConnector(mac, ipA,
+                    NodeConnectorCreator.createOFNodeConnector((short) 3, node), (short) 0);
+            HostNodeConnector b = new HostNodeConnector(mac, ipB,
+                    NodeConnectorCreator.createOFNodeConnector((short) 4, node), (short) 0);
+            HostNodeConnector c = new HostNodeConnector(mac, ipC,
+                    NodeConnectorCreator.createOFNodeConnector((short) 5, node), (short) 0);
+
+            Assert.assertTrue(workers.submit(IPHostId.fromIP(ipA), a1));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            // a1 is being processed, a2 is queued after b and a3 replaces it
+            Assert.assertTrue(workers.submit(IPHostId.fromIP(ipB), b));
+            Assert.assertTrue(workers.submit(IPHostId.fromIP(ipA), a2));
+            Assert.assertTrue(workers.submit(IPHostId.fromIP(ipA), a3));
+            Assert.assertEquals(2, workers.getQueueDepth());
+            // The queue is full
+            Assert.assertFalse(workers.submit(IPHostId.fromIP(ipC), c));
+            release.countDown();
+
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList(a1, b, a3), processed);
+            Assert.assertEquals(1, workers.getMergedCount());
+            Assert.assertEquals(1, workers.getDroppedCount());
+        } finally {
+            workers.stop();
+        }
+    }
+
+    @Test
+    public void testHostIndex() throws UnknownHostException, ConstructionException {
+        HostTracker hostTracker = new HostTracker();
+        hostTracker.nonClusterObjectCreate();
+
+        byte[] mac1 = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x01 };
+        byte[] mac2 = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x02 };
+        Node node1 = NodeCreator.createOFNode(1L);
+        Node node2 = NodeCreator.createOFNode(2L);
+        NodeConnector nc11 = NodeConnectorCreator.createOFNodeConnector((short) 1, node1);
+        NodeConnector nc12 = NodeConnectorCreator.createOFNodeConnector((short) 2, node1);
+        NodeConnector nc21 = NodeConnectorCreator.createOFNodeConnector((short) 1, node2);
+        InetAddress ip1 = InetAddress.getByName("192.168.0.1");
+        InetAddress ip2 = InetAddress.getByName("192.168.0.2");
+        InetAddress ip3 = InetAddress.getByName("192.168.0.3");
+        HostNodeConnector h1 = new HostNodeConnector(mac1, ip1, nc11, (short) 0);
+        HostNodeConnector h2 = new HostNodeConnector(mac2, ip2, nc12, (short) 0);
+        HostNodeConnector h3 = new HostNodeConnector(mac2, ip3, nc21, (short) 0);
+
+        // Hosts written by another cluster node are indexed from the cache
+        // events
+        for (HostNodeConnector host : Arrays.asList(h1, h2, h3)) {
+            IHostId id = IPHostId.fromIP(host.getNetworkAddress());
+            hostTracker.hostsDB.put(id, host);
+            hostTracker.entryCreated(id, null, false);
+        }
+        Assert.assertEquals(Collections.singleton(h1), hostTracker.getHostsByNodeConnector(nc11));
+        Assert.assertEquals(new HashSet<HostNodeConnector>(Arrays.asList(h1, h2)), hostTracker.getHostsByNode(node1));
+        Assert.assertEquals(new HashSet<HostNodeConnector>(Arrays.asList(h2, h3)),
+                hostTracker.getHostsByMAC(h2.getDataLayerAddress()));
+
+        // h3 moves behind node1
+        HostNodeConnector h3Moved = new HostNodeConnector(mac2, ip3, nc12, (short) 0);
+        hostTracker.hostsDB.put(IPHostId.fromIP(ip3), h3Moved);
+        hostTracker.entryUpdated(IPHostId.fromIP(ip3), h3Moved, null, false);
+        Assert.assertTrue(hostTracker.getHostsByNode(node2).isEmpty());
+        Assert.assertEquals(new HashSet<HostNodeConnector>(Arrays.asList(h2, h3Moved)),
+                hostTracker.getHostsByNodeConnector(nc12));
+
+        // Removing node1 removes its hosts only
+        hostTracker.notifyNode(node1, UpdateType.REMOVED, null);
+        Assert.assertTrue(hostTracker.getAllHosts().isEmpty());
+        Assert.assertTrue(hostTracker.getHostsByNode(node1).isEmpty());
+        Assert.assertTrue(hostTracker.getHostsByMAC(h2.getDataLayerAddress()).isEmpty());
+    }
+
+    private static HostTracker clusterHostTracker(final InetAddress me, final List<InetAddress> controllers,
+            final ConcurrentMap<IHostId, HostNodeConnector> hosts, final ConcurrentMap<IHostId, InetAddress> owners) {
+        HostTracker hostTracker = new HostTracker();
+        hostTracker.clusterContainerService = (IClusterContainerServices) Proxy.newProxyInstance(
+                IClusterContainerServices.class.getClassLoader(), new Class<?>[] { IClusterContainerServices.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getCache")) {
+                            if (HostTracker.ACTIVE_HOST_CACHE.equals(args[0])) {
+                                return hosts;
+                            }
+                            if (HostTracker.HOST_OWNER_CACHE.equals(args[0])) {
+                                return owners;
+                            }
+                            return new ConcurrentHashMap<Object, Object>();
+                        }
+                        if (method.getName().equals("getMyAddress")) {
+                            return me;
+                        }
+                        if (method.getName().equals("getClusteredControllers")) {
+                            return controllers;
+                        }
+                        if (method.getName().equals("amICoordinator")) {
+                            return true;
+                        }
+                        return null;
+                    }
+                });
+        hostTracker.init((Component) Proxy.newProxyInstance(Component.class.getClassLoader(),
+                new Class<?>[] { Component.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return null;
+                    }
+                }));
+        return hostTracker;
+    }
+
+    @Test
+    public void testHostOwnerLeftCluster() throws Exception {
+        final InetAddress me = InetAddress.getByName("10.1.1.1");
+        InetAddress alive = InetAddress.getByName("10.1.1.2");
+        InetAddress dead = InetAddress.getByName("10.1.1.3");
+        final List<InetAddress> controllers = new CopyOnWriteArrayList<InetAddress>(Arrays.asList(me, alive));
+        final ConcurrentMap<IHostId, HostNodeConnector> hosts = new ConcurrentHashMap<IHostId, HostNodeConnector>();
+        final ConcurrentMap<IHostId, InetAddress> owners = new ConcurrentHashMap<IHostId, InetAddress>();
+
+        Node node = NodeCreator.createOFNode(1L);
+        NodeConnector nc = NodeConnectorCreator.createOFNodeConnector((short) 1, node);
+        InetAddress ip1 = InetAddress.getByName("192.168.0.1");
+        InetAddress ip2 = InetAddress.getByName("192.168.0.2");
+        IHostId id1 = IPHostId.fromIP(ip1);
+        IHostId id2 = IPHostId.fromIP(ip2);
+        hosts.put(id1, new HostNodeConnector(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x01 }, ip1, nc, (short) 0));
+        hosts.put(id2, new HostNodeConnector(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x02 }, ip2, nc, (short) 0));
+        owners.put(id1, alive);
+        owners.put(id2, dead);
+
+        HostTracker hostTracker = clusterHostTracker(me, controllers, hosts, owners);
+        try {
+            // The hosts found at startup whose owner is gone are taken over
+            hostTracker.ageHost(id1);
+            hostTracker.ageHost(id2);
+            Assert.assertEquals(alive, owners.get(id1));
+            Assert.assertEquals(me, owners.get(id2));
+
+            // Until their owner leaves the cluster
+            controllers.remove(alive);
+            hostTracker.ageHost(id1);
+            Assert.assertEquals(me, owners.get(id1));
+            Assert.assertEquals(2, hostTracker.getAllHosts().size());
+        } finally {
+            hostTracker.stopping();
+        }
+    }
+
+    @Test
+    public void testHostOwnedElsewhere() throws Exception {
+        final InetAddress me = InetAddress.getByName("10.1.1.1");
+        InetAddress alive = InetAddress.getByName("10.1.1.2");
+        final List<InetAddress> controllers = new CopyOnWriteArrayList<InetAddress>(Arrays.asList(me, alive));
+        final AtomicInteger writes = new AtomicInteger();
+        final ConcurrentMap<IHostId, HostNodeConnector> hosts = new ConcurrentHashMap<IHostId, HostNodeConnector>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public HostNodeConnector put(IHostId key, HostNodeConnector value) {
+                writes.incrementAndGet();
+                return super.put(key, value);
+            }
+        };
+        final ConcurrentMap<IHostId, InetAddress> owners = new ConcurrentHashMap<IHostId, InetAddress>();
+
+        byte[] mac = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x01 };
+        Node node = NodeCreator.createOFNode(1L);
+        final NodeConnector nc = NodeConnectorCreator.createOFNodeConnector((short) 1, node);
+        InetAddress ip = InetAddress.getByName("192.168.0.1");
+        IHostId id = IPHostId.fromIP(ip);
+        hosts.putIfAbsent(id, new HostNodeConnector(mac, ip, nc, (short) 0));
+        owners.put(id, alive);
+
+        HostTracker hostTracker = clusterHostTracker(me, controllers, hosts, owners);
+        final AtomicBoolean portUp = new AtomicBoolean(true);
+        hostTracker.switchManager = (ISwitchManager) Proxy.newProxyInstance(ISwitchManager.class.getClassLoader(),
+                new Class<?>[] { ISwitchManager.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("isNodeConnectorEnabled")) {
+                            return nc.equals(args[0]) && portUp.get();
+                        }
+                        return null;
+                    }
+                });
+        try {
+            // ARPs seen by another cluster node than the owner leave the host
+            // to its owner
+            for (int i = 0; i < 10; i++) {
+                hostTracker.hostListener(new HostNodeConnector(mac, ip, nc, (short) 0));
+            }
+            Assert.assertEquals(alive, owners.get(id));
+            Assert.assertEquals(0, writes.get());
+
+            // Until the owner can no longer see the host
+            portUp.set(false);
+            hostTracker.hostListener(new HostNodeConnector(mac, ip, nc, (short) 0));
+            Assert.assertEquals(me, owners.get(id));
+            Assert.assertEquals(1, writes.get());
+        } finally {
+            hostTracker.stopping();
+        }
+    }
 }
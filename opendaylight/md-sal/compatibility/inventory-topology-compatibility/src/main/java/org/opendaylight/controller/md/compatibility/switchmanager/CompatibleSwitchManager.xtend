@@ -239,6 +239,18 @@ class CompatibleSwitchManager extends ConfigurableSwitchManager implements ISwit
         return ret;
     }
 
+    override getUpNodeConnectorsView(Node node) {
+        Collections.unmodifiableSet(getUpNodeConnectors(node));
+    }
+
+    override getUpPhysicalNodeConnectorsView() {
+        val ret = new HashSet<NodeConnector>();
+        for (node : getNodes()) {
+            ret.addAll(getUpNodeConnectors(node));
+        }
+        return Collections.unmodifiableSet(ret);
+    }
+
     override isNodeConnectorEnabled(NodeConnector nodeConnector) {
         val ref = nodeConnector.toNodeConnectorRef
         val data = readNodeConnector(ref.value);
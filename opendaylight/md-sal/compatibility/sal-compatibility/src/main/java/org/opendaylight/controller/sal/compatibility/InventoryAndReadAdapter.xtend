@@ -76,7 +76,7 @@ import org.slf4j.LoggerFactory
 
 import static extension org.opendaylight.controller.sal.common.util.Arguments.*
 import static extension org.opendaylight.controller.sal.compatibility.NodeMapping.*
-import org.opendaylight.controller.md.sal.binding.util.TypeSafeDataReader
+import org.opendaylight.controller.sal.compatibility.StatisticsRequestLimiter.RequestType
 import java.util.concurrent.ConcurrentHashMap
 import java.util.Map
 import java.util.HashMap
@@ -121,11 +121,22 @@ class InventoryAndReadAdapter implements IPluginInReadService,
 
     private final Lock nodeToNodeConnectorsLock = new ReentrantLock();
 
+    private final InventoryCache inventoryCache = new InventoryCache();
+
+    private final StatisticsRequestLimiter statisticsRequestLimiter = new StatisticsRequestLimiter();
 
     def start(){
         inventoryNotificationProvider.dataProviderService = dataProviderService;
         inventoryNotificationProvider.inventoryPublisher = inventoryPublisher;
         // inventoryNotificationProvider.start();
+        // Also invoked by the dependency manager, before the session provided the data service
+        if (dataService != null) {
+            inventoryCache.start(dataService);
+        }
+    }
+
+    def stop() {
+        inventoryCache.close();
     }
 
     def setInventoryPublisher(IPluginOutInventoryService listener){
@@ -155,6 +166,13 @@ class InventoryAndReadAdapter implements IPluginInReadService,
     }
 
     override readAllFlow(Node node, boolean cached) {
+        requestAllFlowsStatistics(node);
+
+        // Statistics reported by the switch since the last request
+        val reported = inventoryCache.getFlowStatistics(node);
+        if(reported != null){
+            return reported;
+        }
 
         val output = new ArrayList<FlowOnNode>();
         val tableRef = InstanceIdentifier.builder(Nodes)
@@ -185,17 +203,21 @@ class InventoryAndReadAdapter implements IPluginInReadService,
             }
         }
         
-        //TODO (main): Shell we send request to the switch? It will make async request to the switch.
-        // Once plugin receive response, it will let adaptor know through onFlowStatisticsUpdate()
-        // If we assume that md-sal statistics manager will always be running, then its not required
-        // But if not, then sending request will collect the latest data for adaptor atleast.
-        val input = new GetAllFlowsStatisticsFromAllFlowTablesInputBuilder;
-        input.setNode(node.toNodeRef);
-        flowStatisticsService.getAllFlowsStatisticsFromAllFlowTables(input.build)
-        
         return output;
     }
 
+    // Reads return the statistics already collected and request fresh ones from the switch,
+    // as the md-sal statistics manager may not be running. The response reaches the adapter
+    // through onFlowStatisticsUpdate(). Readers polling faster than the request interval
+    // share a single request.
+    private def requestAllFlowsStatistics(Node node) {
+        if(statisticsRequestLimiter.tryAcquire(RequestType.ALL_FLOWS, node, null)){
+            val input = new GetAllFlowsStatisticsFromAllFlowTablesInputBuilder;
+            input.setNode(node.toNodeRef);
+            flowStatisticsService.getAllFlowsStatisticsFromAllFlowTables(input.build)
+        }
+    }
+
     override readAllNodeConnector(Node node, boolean cached) {
         
         val ret = new ArrayList<NodeConnectorStatistics>();
@@ -225,10 +247,12 @@ class InventoryAndReadAdapter implements IPluginInReadService,
              }
          }
 
-        //TODO: Refer TODO (main)
-        val input = new GetAllNodeConnectorsStatisticsInputBuilder();
-        input.setNode(node.toNodeRef);
-        nodeConnectorStatisticsService.getAllNodeConnectorsStatistics(input.build());
+        // Refresh the statistics, see requestAllFlowsStatistics()
+        if(statisticsRequestLimiter.tryAcquire(RequestType.ALL_NODE_CONNECTORS, node, null)){
+            val input = new GetAllNodeConnectorsStatisticsInputBuilder();
+            input.setNode(node.toNodeRef);
+            nodeConnectorStatisticsService.getAllNodeConnectorsStatistics(input.build());
+        }
         return ret;
     }
 
@@ -249,10 +273,8 @@ class InventoryAndReadAdapter implements IPluginInReadService,
              }
          }
 
-        //TODO: Refer TODO (main)
-        val input = new GetFlowTablesStatisticsInputBuilder();
-        input.setNode(node.toNodeRef);
-        flowTableStatisticsService.getFlowTablesStatistics(input.build);
+        // Refresh the statistics, see requestAllFlowsStatistics()
+        requestFlowTablesStatistics(node);
         return ret;
     }
 
@@ -292,11 +314,13 @@ class InventoryAndReadAdapter implements IPluginInReadService,
             }
         }
         
-        //TODO: Refer TODO (main)
-        val input = new GetFlowStatisticsFromFlowTableInputBuilder;
-        input.setNode(node.toNodeRef);
-        input.fieldsFrom(MDFlowMapping.toMDSalflow(targetFlow));
-        flowStatisticsService.getFlowStatisticsFromFlowTable(input.build)
+        // Refresh the statistics, see requestAllFlowsStatistics()
+        if(statisticsRequestLimiter.tryAcquire(RequestType.FLOW, node, targetFlow)){
+            val input = new GetFlowStatisticsFromFlowTableInputBuilder;
+            input.setNode(node.toNodeRef);
+            input.fieldsFrom(MDFlowMapping.toMDSalflow(targetFlow));
+            flowStatisticsService.getFlowStatisticsFromFlowTable(input.build)
+        }
         
         return ret;
         
@@ -322,11 +346,13 @@ class InventoryAndReadAdapter implements IPluginInReadService,
             }
         }
 
-        //TODO: Refer TODO (main)
-        val input = new GetNodeConnectorStatisticsInputBuilder();
-        input.setNode(connector.node.toNodeRef);
-        input.setNodeConnectorId(InventoryMapping.toNodeConnectorKey(connector).id);
-        nodeConnectorStatisticsService.getNodeConnectorStatistics(input.build());
+        // Refresh the statistics, see requestAllFlowsStatistics()
+        if(statisticsRequestLimiter.tryAcquire(RequestType.NODE_CONNECTOR, connector.node, connector)){
+            val input = new GetNodeConnectorStatisticsInputBuilder();
+            input.setNode(connector.node.toNodeRef);
+            input.setNodeConnectorId(InventoryMapping.toNodeConnectorKey(connector).id);
+            nodeConnectorStatisticsService.getNodeConnectorStatistics(input.build());
+        }
         return nodeConnectorStatistics;
     }
 
@@ -349,14 +375,20 @@ class InventoryAndReadAdapter implements IPluginInReadService,
             }
         }
 
-        //TODO: Refer TODO (main)
-        val input = new GetFlowTablesStatisticsInputBuilder();
-        input.setNode(nodeTable.node.toNodeRef);
-        flowTableStatisticsService.getFlowTablesStatistics(input.build);
+        // Refresh the statistics, see requestAllFlowsStatistics()
+        requestFlowTablesStatistics(nodeTable.node);
         
         return nodeStats;
     }
 
+    private def requestFlowTablesStatistics(Node node) {
+        if(statisticsRequestLimiter.tryAcquire(RequestType.FLOW_TABLES, node, null)){
+            val input = new GetFlowTablesStatisticsInputBuilder();
+            input.setNode(node.toNodeRef);
+            flowTableStatisticsService.getFlowTablesStatistics(input.build);
+        }
+    }
+
     override onNodeConnectorRemoved(NodeConnectorRemoved update) {
         // Never received
     }
@@ -366,7 +398,11 @@ class InventoryAndReadAdapter implements IPluginInReadService,
 
         removeNodeConnectors(notification.nodeRef.value);
 
-        publishNodeUpdate(notification.nodeRef.toADNode, UpdateType.REMOVED, properties);
+        val node = notification.nodeRef.toADNode;
+        inventoryCache.removeNode(node);
+        statisticsRequestLimiter.forgetNode(node);
+
+        publishNodeUpdate(node, UpdateType.REMOVED, properties);
     }
 
     override onNodeConnectorUpdated(NodeConnectorUpdated update) {
@@ -402,64 +438,13 @@ class InventoryAndReadAdapter implements IPluginInReadService,
     }
 
     override getNodeProps() {
-        val props = new ConcurrentHashMap<Node, Map<String, org.opendaylight.controller.sal.core.Property>>()
-        
-        val nodes = readAllMDNodes()
-        for (node : nodes.node ) {
-            val fcn = node.getAugmentation(FlowCapableNode)
-            if(fcn != null) {
-                val perNodeProps = fcn.toADNodeProperties(node.id)
-                val perNodePropMap = new ConcurrentHashMap<String, org.opendaylight.controller.sal.core.Property>
-                if(perNodeProps != null ) {
-                    for(perNodeProp : perNodeProps) {
-                        perNodePropMap.put(perNodeProp.name,perNodeProp)
-                    }
-                }
-                props.put(new Node(MD_SAL_TYPE, node.id.toADNodeId),perNodePropMap)
-            }
-        }
-        return props;
-    }
-    
-    private def readAllMDNodes() {
-        val nodesRef = InstanceIdentifier.builder(Nodes)
-            .toInstance
-        val reader = TypeSafeDataReader.forReader(dataService)
-        return reader.readOperationalData(nodesRef)
-    }
-    
-    private def readAllMDNodeConnectors(org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node node) {
-        val nodeRef = InstanceIdentifier.builder(Nodes)
-            .child(org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node,new NodeKey(node.id))
-            .toInstance
-        val reader = TypeSafeDataReader.forReader(dataService)
-        return reader.readOperationalData(nodeRef).nodeConnector
+        return inventoryCache.nodeProps;
     }
 
     override getNodeConnectorProps(Boolean refresh) {
         // Note, because the MD-SAL has a unified data store, we can ignore the Boolean refresh, as we have no secondary 
         // data store to refresh from
-        val props = new ConcurrentHashMap<org.opendaylight.controller.sal.core.NodeConnector, Map<String, org.opendaylight.controller.sal.core.Property>>()
-        val nodes = readAllMDNodes()
-        for (node : nodes.node) {
-            val ncs = node.readAllMDNodeConnectors
-            if(ncs != null) {
-                for( nc : ncs ) {
-                    val fcnc = nc.getAugmentation(FlowCapableNodeConnector)
-                    if(fcnc != null) {
-                        val ncps = fcnc.toADNodeConnectorProperties
-                        val ncpsm = new ConcurrentHashMap<String, org.opendaylight.controller.sal.core.Property>
-                        if(ncps != null) {
-                            for(p : ncps) {
-                                ncpsm.put(p.name,p)
-                            }
-                        }  
-                        props.put(nc.id.toADNodeConnector(node.id),ncpsm)
-                    }
-                }
-            }
-        }
-        return props
+        return inventoryCache.nodeConnectorProps;
     }
 
     private def FlowCapableNode readFlowCapableNode(NodeRef ref) {
@@ -558,6 +543,9 @@ class InventoryAndReadAdapter implements IPluginInReadService,
             if(flowStats.tableId == 0)
                 adsalFlowsStatistics.add(toFlowOnNode(flowStats,nodeRef.toADNode));
         }
+
+        inventoryCache.updateFlowStatistics(nodeRef.toADNode, notification.transactionId,
+            Boolean.TRUE.equals(notification.moreReplies), adsalFlowsStatistics);
         
         for (statsPublisher : statisticsPublisher){
             statsPublisher.nodeFlowStatisticsUpdated(nodeRef.toADNode,adsalFlowsStatistics);
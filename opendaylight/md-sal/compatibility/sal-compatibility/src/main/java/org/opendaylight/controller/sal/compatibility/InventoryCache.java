@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.compatibility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opendaylight.controller.md.sal.common.api.data.DataChangeEvent;
+import org.opendaylight.controller.sal.binding.api.data.DataBrokerService;
+import org.opendaylight.controller.sal.binding.api.data.DataChangeListener;
+import org.opendaylight.controller.sal.core.ConstructionException;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.core.Property;
+import org.opendaylight.controller.sal.core.TimeStamp;
+import org.opendaylight.controller.sal.reader.FlowOnNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeConnector;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Objects;
+
+/**
+ * AD-SAL view of the MD-SAL inventory and of the flow statistics reported by
+ * the switches.
+ *
+ * Node and node connector properties are converted once, when the node or
+ * node connector changes in the operational data store, rather than on every
+ * read. The operational store merges writes, and so does the cache: writers
+ * such as the statistics manager put nodes and node connectors holding only
+ * their key and a statistics augmentation, which leave the converted
+ * properties as they are. Only removals drop them. Flow statistics of table
+ * 0 are kept per node from the statistics notifications, a multipart reply
+ * replacing the previous statistics once its last part is received.
+ */
+public class InventoryCache implements DataChangeListener, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(InventoryCache.class);
+
+    private static final InstanceIdentifier<Nodes> NODES_PATH = InstanceIdentifier.builder(Nodes.class).toInstance();
+    private static final InstanceIdentifier<org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node> NODE_PATH = InstanceIdentifier
+            .builder(Nodes.class).child(org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node.class)
+            .toInstance();
+
+    private static final class PendingFlowStatistics {
+        private final Object transactionId;
+        private final List<FlowOnNode> flows = new ArrayList<>();
+
+        PendingFlowStatistics(final Object transactionId) {
+            this.transactionId = transactionId;
+        }
+    }
+
+    private final ConcurrentMap<Node, Map<String, Property>> nodeProps = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeConnector, Map<String, Property>> nodeConnectorProps = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Node, List<FlowOnNode>> flowStatistics = new ConcurrentHashMap<>();
+
+    /*
+     * Guarded by this
+     */
+    private final Map<Node, Set<NodeConnector>> nodeConnectors = new HashMap<>();
+    private final Map<Node, PendingFlowStatistics> pendingFlowStatistics = new HashMap<>();
+
+    private ListenerRegistration<DataChangeListener> registration;
+
+    /**
+     * Starts tracking the operational inventory, loading the nodes already
+     * present in it.
+     */
+    public synchronized void start(final DataBrokerService dataService) {
+        if (registration != null) {
+            return;
+        }
+        registration = dataService.registerDataChangeListener(NODE_PATH, this);
+
+        // Changes notified since the registration are more recent than the read
+        final DataObject nodes = dataService.readOperationalData(NODES_PATH);
+        if (nodes instanceof Nodes && ((Nodes) nodes).getNode() != null) {
+            for (final org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node node : ((Nodes) nodes)
+                    .getNode()) {
+                if (!nodeConnectors.containsKey(NodeMapping.toADNode(node.getKey().getId()))) {
+                    mergeNode(node.getKey().getId(), node);
+                }
+            }
+        }
+        LOG.debug("Inventory cache started with {} nodes", nodeConnectors.size());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (registration != null) {
+            try {
+                registration.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to unregister inventory cache", e);
+            }
+            registration = null;
+        }
+    }
+
+    /**
+     * @return properties of the flow capable nodes
+     */
+    public ConcurrentMap<Node, Map<String, Property>> getNodeProps() {
+        return copy(nodeProps);
+    }
+
+    /**
+     * @return properties of the flow capable node connectors
+     */
+    public ConcurrentMap<NodeConnector, Map<String, Property>> getNodeConnectorProps() {
+        return copy(nodeConnectorProps);
+    }
+
+    private static <K> ConcurrentMap<K, Map<String, Property>> copy(final Map<K, Map<String, Property>> source) {
+        final ConcurrentMap<K, Map<String, Property>> ret = new ConcurrentHashMap<>(source.size());
+        for (final Map.Entry<K, Map<String, Property>> entry : source.entrySet()) {
+            ret.put(entry.getKey(), new ConcurrentHashMap<>(entry.getValue()));
+        }
+        return ret;
+    }
+
+    /**
+     * @return flow statistics of table 0 of the node, or null if the switch did
+     *         not report them yet
+     */
+    public List<FlowOnNode> getFlowStatistics(final Node node) {
+        final List<FlowOnNode> flows = flowStatistics.get(node);
+        return flows == null ? null : new ArrayList<>(flows);
+    }
+
+    /**
+     * Records a part of the flow statistics reported by a switch.
+     *
+     * @param node
+     *            the node
+     * @param transactionId
+     *            transaction of the statistics request, may be null
+     * @param moreReplies
+     *            true if more parts of the same reply are expected
+     * @param flows
+     *            flow statistics of table 0 in this part
+     */
+    public synchronized void updateFlowStatistics(final Node node, final Object transactionId,
+            final boolean moreReplies, final List<FlowOnNode> flows) {
+        PendingFlowStatistics pending = pendingFlowStatistics.remove(node);
+        if (pending != null && !Objects.equal(pending.transactionId, transactionId)) {
+            LOG.debug("Discarding incomplete flow statistics of node {}", node);
+            pending = null;
+        }
+        if (pending == null) {
+            pending = new PendingFlowStatistics(transactionId);
+        }
+        pending.flows.addAll(flows);
+
+        if (moreReplies) {
+            pendingFlowStatistics.put(node, pending);
+        } else {
+            flowStatistics.put(node, Collections.unmodifiableList(pending.flows));
+        }
+    }
+
+    @Override
+    public synchronized void onDataChanged(final DataChangeEvent<InstanceIdentifier<?>, DataObject> change) {
+        final Map<InstanceIdentifier<?>, DataObject> changed = new HashMap<>(change.getCreatedOperationalData());
+        changed.putAll(change.getUpdatedOperationalData());
+
+        boolean nodeChanged = false;
+        for (final Map.Entry<InstanceIdentifier<?>, DataObject> entry : changed.entrySet()) {
+            final InstanceIdentifier<?> path = entry.getKey();
+            final DataObject data = entry.getValue();
+            if (data instanceof org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node) {
+                // Identified by the path, partial writes may lack the identifier
+                mergeNode(NodeMapping.toNodeId(path),
+                        (org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node) data);
+                nodeChanged = true;
+            } else if (data instanceof org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector) {
+                try {
+                    mergeNodeConnector(NodeMapping.toADNodeConnector(new NodeConnectorRef(path)),
+                            (org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector) data);
+                } catch (ConstructionException e) {
+                    LOG.warn("Failed to map node connector {}", path, e);
+                }
+            }
+        }
+
+        // The whole inventory was written at once
+        if (!nodeChanged) {
+            for (final DataObject data : changed.values()) {
+                if (data instanceof Nodes && ((Nodes) data).getNode() != null) {
+                    for (final org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node node : ((Nodes) data)
+                            .getNode()) {
+                        mergeNode(node.getKey().getId(), node);
+                    }
+                }
+            }
+        }
+
+        for (final InstanceIdentifier<?> path : change.getRemovedOperationalData()) {
+            final Class<?> type = path.getTargetType();
+            if (org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node.class.equals(type)) {
+                removeNode(NodeMapping.toADNode(NodeMapping.toNodeId(path)));
+            } else if (org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector.class
+                    .equals(type)) {
+                try {
+                    removeNodeConnector(NodeMapping.toADNodeConnector(new NodeConnectorRef(path)));
+                } catch (ConstructionException e) {
+                    LOG.warn("Failed to map removed node connector {}", path, e);
+                }
+            } else if (Nodes.class.equals(type)) {
+                for (final Node node : new ArrayList<>(nodeConnectors.keySet())) {
+                    removeNode(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets a node, its node connectors and its flow statistics.
+     */
+    public synchronized void removeNode(final Node node) {
+        nodeProps.remove(node);
+        flowStatistics.remove(node);
+        pendingFlowStatistics.remove(node);
+        final Set<NodeConnector> connectors = nodeConnectors.remove(node);
+        if (connectors != null) {
+            for (final NodeConnector connector : connectors) {
+                nodeConnectorProps.remove(connector);
+            }
+        }
+    }
+
+    /*
+     * Merges a node written to the store. Its properties are converted again
+     * only if it holds the flow capable augmentation, and node connectors it
+     * does not list are kept, as the store merges lists too.
+     */
+    private void mergeNode(final NodeId nodeId,
+            final org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node node) {
+        final Node adNode = NodeMapping.toADNode(nodeId);
+        final FlowCapableNode fcn = node.getAugmentation(FlowCapableNode.class);
+        if (fcn != null) {
+            final Map<String, Property> props = toMap(NodeMapping.toADNodeProperties(fcn, nodeId));
+            // Keep the time the node connected at
+            final Map<String, Property> previous = nodeProps.get(adNode);
+            if (previous != null && previous.containsKey(TimeStamp.TimeStampPropName)) {
+                props.put(TimeStamp.TimeStampPropName, previous.get(TimeStamp.TimeStampPropName));
+            }
+            nodeProps.put(adNode, props);
+        }
+        getNodeConnectors(adNode);
+
+        if (node.getNodeConnector() != null) {
+            for (final org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector nc : node
+                    .getNodeConnector()) {
+                mergeNodeConnector(NodeMapping.toADNodeConnector(nc.getKey().getId(), nodeId), nc);
+            }
+        }
+    }
+
+    /*
+     * Merges a node connector written to the store. Its properties are
+     * converted again only if it holds the flow capable augmentation.
+     */
+    private void mergeNodeConnector(final NodeConnector connector,
+            final org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector nc) {
+        final FlowCapableNodeConnector fcnc = nc.getAugmentation(FlowCapableNodeConnector.class);
+        if (fcnc != null) {
+            nodeConnectorProps.put(connector, toMap(NodeMapping.toADNodeConnectorProperties(fcnc)));
+        }
+        getNodeConnectors(connector.getNode()).add(connector);
+    }
+
+    private Set<NodeConnector> getNodeConnectors(final Node node) {
+        Set<NodeConnector> connectors = nodeConnectors.get(node);
+        if (connectors == null) {
+            connectors = new HashSet<>();
+            nodeConnectors.put(node, connectors);
+        }
+        return connectors;
+    }
+
+    private void removeNodeConnector(final NodeConnector connector) {
+        nodeConnectorProps.remove(connector);
+        final Set<NodeConnector> connectors = nodeConnectors.get(connector.getNode());
+        if (connectors != null) {
+            connectors.remove(connector);
+        }
+    }
+
+    private static Map<String, Property> toMap(final Set<Property> properties) {
+        final Map<String, Property> ret = new ConcurrentHashMap<>();
+        if (properties != null) {
+            for (final Property property : properties) {
+                ret.put(property.getName(), property);
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.compatibility;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opendaylight.controller.sal.core.Node;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+/**
+ * De-duplicates the statistics requests sent to the switches on behalf of
+ * AD-SAL readers.
+ *
+ * A request is identified by its type, the node it targets and an optional
+ * target within the node. Identical requests are let through at most once per
+ * interval: readers polling more often are served the statistics collected by
+ * the previous request. Requests older than the interval are evicted at most
+ * once per interval, so targets no longer polled are not tracked forever.
+ */
+public class StatisticsRequestLimiter {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 5000;
+
+    public enum RequestType {
+        ALL_FLOWS,
+        FLOW,
+        ALL_NODE_CONNECTORS,
+        NODE_CONNECTOR,
+        FLOW_TABLES
+    }
+
+    private static final class RequestKey {
+        private final RequestType type;
+        private final Node node;
+        private final Object target;
+
+        RequestKey(final RequestType type, final Node node, final Object target) {
+            this.type = type;
+            this.node = node;
+            this.target = target;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(type, node, target);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RequestKey)) {
+                return false;
+            }
+            final RequestKey other = (RequestKey) obj;
+            return type == other.type && Objects.equal(node, other.node) && Objects.equal(target, other.target);
+        }
+    }
+
+    private final long intervalNanos;
+    private final Ticker ticker;
+    private final ConcurrentMap<RequestKey, Long> lastRequests = new ConcurrentHashMap<>();
+    private final AtomicLong lastEviction;
+
+    public StatisticsRequestLimiter() {
+        this(DEFAULT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, Ticker.systemTicker());
+    }
+
+    public StatisticsRequestLimiter(final long interval, final TimeUnit unit, final Ticker ticker) {
+        Preconditions.checkArgument(interval >= 0, "Interval must not be negative");
+        this.intervalNanos = unit.toNanos(interval);
+        this.ticker = Preconditions.checkNotNull(ticker);
+        this.lastEviction = new AtomicLong(ticker.read());
+    }
+
+    /**
+     * Checks whether a request should be sent, recording it if so.
+     *
+     * @param type
+     *            type of the request
+     * @param node
+     *            node the request is sent to
+     * @param target
+     *            target of the request within the node, may be null
+     * @return true if no identical request was sent within the interval
+     */
+    public boolean tryAcquire(final RequestType type, final Node node, final Object target) {
+        final RequestKey key = new RequestKey(type, node, target);
+        final long now = ticker.read();
+        evictExpired(now);
+        while (true) {
+            final Long last = lastRequests.get(key);
+            if (last == null) {
+                if (lastRequests.putIfAbsent(key, now) == null) {
+                    return true;
+                }
+            } else if (now - last < intervalNanos) {
+                return false;
+            } else if (lastRequests.replace(key, last, now)) {
+                return true;
+            }
+        }
+    }
+
+    private void evictExpired(final long now) {
+        final long last = lastEviction.get();
+        if (now - last < intervalNanos || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        for (final Map.Entry<RequestKey, Long> entry : lastRequests.entrySet()) {
+            if (now - entry.getValue() >= intervalNanos) {
+                lastRequests.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return number of requests tracked
+     */
+    public int getTrackedRequestCount() {
+        return lastRequests.size();
+    }
+
+    /**
+     * Forgets the requests sent to a node, so that the next ones are let
+     * through.
+     */
+    public void forgetNode(final Node node) {
+        final Iterator<RequestKey> it = lastRequests.keySet().iterator();
+        while (it.hasNext()) {
+            if (Objects.equal(node, it.next().node)) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@
 package org.opendaylight.controller.sal.compatibility.adsal;
 
 import org.opendaylight.controller.sal.compatibility.NodeMapping;
+import org.opendaylight.controller.sal.core.NodeConnector;
 import org.opendaylight.controller.sal.packet.IPluginInDataPacketService;
 import org.opendaylight.controller.sal.packet.RawPacket;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorRef;
@@ -21,17 +22,20 @@ public class DataPacketServiceAdapter implements IPluginInDataPacketService {
 
     @Override
     public void transmitDataPacket(RawPacket outPkt) {
-        TransmitPacketInput packet = toTransmitPacketInput(outPkt);
-        delegate.transmitPacket(packet);
+        // The packet processing service has a single egress, send a copy
+        // per outgoing node connector
+        for (NodeConnector outPort : outPkt.getOutgoingNodeConnectors()) {
+            TransmitPacketInput packet = toTransmitPacketInput(outPkt, outPort);
+            delegate.transmitPacket(packet);
+        }
     }
 
-    private TransmitPacketInput toTransmitPacketInput(RawPacket rawPacket) {
+    private TransmitPacketInput toTransmitPacketInput(RawPacket rawPacket, NodeConnector outPort) {
         TransmitPacketInputBuilder builderTPIB = new TransmitPacketInputBuilder();
 
-        builderTPIB.setNode(NodeMapping.toNodeRef(rawPacket.getOutgoingNodeConnector().getNode()));
+        builderTPIB.setNode(NodeMapping.toNodeRef(outPort.getNode()));
 
-        NodeConnectorRef egress = rawPacket.getOutgoingNodeConnector() == null ? null :
-                NodeMapping.toNodeConnectorRef(rawPacket.getOutgoingNodeConnector());
+        NodeConnectorRef egress = NodeMapping.toNodeConnectorRef(outPort);
         NodeConnectorRef ingress = rawPacket.getIncomingNodeConnector() == null ? null :
                 NodeMapping.toNodeConnectorRef(rawPacket.getIncomingNodeConnector());
         byte[] payload = rawPacket.getPacketData();
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.compatibility.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.common.api.data.DataChangeEvent;
+import org.opendaylight.controller.sal.compatibility.InventoryCache;
+import org.opendaylight.controller.sal.compatibility.NodeMapping;
+import org.opendaylight.controller.sal.core.Name;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.core.Property;
+import org.opendaylight.controller.sal.core.TimeStamp;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeConnector;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeConnectorBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.statistics.rev131111.NodeGroupFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.statistics.rev131111.NodeGroupFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnectorBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnectorKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.port.statistics.rev131214.FlowCapableNodeConnectorStatisticsData;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.port.statistics.rev131214.FlowCapableNodeConnectorStatisticsDataBuilder;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class InventoryCacheTest {
+
+    private static final NodeId NODE_ID = new NodeId("openflow:1");
+    private static final NodeConnectorId CONNECTOR_ID = new NodeConnectorId("openflow:1:1");
+
+    private static final InstanceIdentifier<org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node> NODE_PATH = InstanceIdentifier
+            .builder(Nodes.class)
+            .child(org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node.class,
+                    new NodeKey(NODE_ID)).toInstance();
+    private static final InstanceIdentifier<org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector> CONNECTOR_PATH = InstanceIdentifier
+            .builder(NODE_PATH)
+            .child(org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector.class,
+                    new NodeConnectorKey(CONNECTOR_ID)).toInstance();
+
+    private InventoryCache cache;
+    private Node node;
+    private NodeConnector connector;
+
+    /*
+     * Change event of operational data written or removed at a path
+     */
+    private static DataChangeEvent<InstanceIdentifier<?>, DataObject> change(final InstanceIdentifier<?> path,
+            final DataObject data) {
+        final Map<InstanceIdentifier<?>, DataObject> updated = data == null ? Collections
+                .<InstanceIdentifier<?>, DataObject> emptyMap() : Collections
+                .<InstanceIdentifier<?>, DataObject> singletonMap(path, data);
+        final Set<InstanceIdentifier<?>> removed = data == null ? Collections.<InstanceIdentifier<?>> singleton(path)
+                : Collections.<InstanceIdentifier<?>> emptySet();
+        final Map<InstanceIdentifier<?>, DataObject> empty = Collections.emptyMap();
+        return new DataChangeEvent<InstanceIdentifier<?>, DataObject>() {
+            @Override
+            public Map<InstanceIdentifier<?>, DataObject> getCreatedOperationalData() {
+                return empty;
+            }
+
+            @Override
+            public Map<InstanceIdentifier<?>, DataObject> getCreatedConfigurationData() {
+                return empty;
+            }
+
+            @Override
+            public Map<InstanceIdentifier<?>, DataObject> getUpdatedOperationalData() {
+                return updated;
+            }
+
+            @Override
+            public Map<InstanceIdentifier<?>, DataObject> getUpdatedConfigurationData() {
+                return empty;
+            }
+
+            @Override
+            public Set<InstanceIdentifier<?>> getRemovedConfigurationData() {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public Set<InstanceIdentifier<?>> getRemovedOperationalData() {
+                return removed;
+            }
+
+            @Override
+            public Map<InstanceIdentifier<?>, DataObject> getOriginalConfigurationData() {
+                return empty;
+            }
+
+            @Override
+            public Map<InstanceIdentifier<?>, DataObject> getOriginalOperationalData() {
+                return empty;
+            }
+
+            @Override
+            public DataObject getOriginalConfigurationSubtree() {
+                return null;
+            }
+
+            @Override
+            public DataObject getOriginalOperationalSubtree() {
+                return null;
+            }
+
+            @Override
+            public DataObject getUpdatedConfigurationSubtree() {
+                return null;
+            }
+
+            @Override
+            public DataObject getUpdatedOperationalSubtree() {
+                return null;
+            }
+        };
+    }
+
+    @Before
+    public void setUp() {
+        cache = new InventoryCache();
+        node = NodeMapping.toADNode(NODE_ID);
+        connector = NodeMapping.toADNodeConnector(CONNECTOR_ID, NODE_ID);
+
+        // Writes of the inventory manager
+        cache.onDataChanged(change(NODE_PATH, new NodeBuilder().setKey(new NodeKey(NODE_ID)).setId(NODE_ID)
+                .addAugmentation(FlowCapableNode.class, new FlowCapableNodeBuilder().build()).build()));
+        cache.onDataChanged(change(CONNECTOR_PATH, new NodeConnectorBuilder()
+                .setKey(new NodeConnectorKey(CONNECTOR_ID)).setId(CONNECTOR_ID)
+                .addAugmentation(FlowCapableNodeConnector.class,
+                        new FlowCapableNodeConnectorBuilder().setName("eth1").build()).build()));
+    }
+
+    @Test
+    public void testStatisticsWritesKeepProperties() {
+        final Map<String, Property> nodeProps = cache.getNodeProps().get(node);
+        assertNotNull(nodeProps);
+        assertTrue(nodeProps.containsKey(TimeStamp.TimeStampPropName));
+        assertEquals(new Name("eth1"), cache.getNodeConnectorProps().get(connector).get(Name.NamePropName));
+
+        // Writes of the statistics manager, holding a key and an augmentation
+        cache.onDataChanged(change(CONNECTOR_PATH, new NodeConnectorBuilder()
+                .setKey(new NodeConnectorKey(CONNECTOR_ID))
+                .addAugmentation(FlowCapableNodeConnectorStatisticsData.class,
+                        new FlowCapableNodeConnectorStatisticsDataBuilder().build()).build()));
+        cache.onDataChanged(change(NODE_PATH, new NodeBuilder().setKey(new NodeKey(NODE_ID))
+                .addAugmentation(NodeGroupFeatures.class, new NodeGroupFeaturesBuilder().build()).build()));
+
+        assertEquals(nodeProps, cache.getNodeProps().get(node));
+        assertEquals(new Name("eth1"), cache.getNodeConnectorProps().get(connector).get(Name.NamePropName));
+    }
+
+    @Test
+    public void testRemovedNodeDropsProperties() {
+        cache.onDataChanged(change(NODE_PATH, null));
+
+        assertNull(cache.getNodeProps().get(node));
+        assertNull(cache.getNodeConnectorProps().get(connector));
+    }
+}
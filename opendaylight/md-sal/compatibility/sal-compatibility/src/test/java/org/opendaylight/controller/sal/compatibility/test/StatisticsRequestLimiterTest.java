@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.compatibility.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.sal.compatibility.NodeMapping;
+import org.opendaylight.controller.sal.compatibility.StatisticsRequestLimiter;
+import org.opendaylight.controller.sal.compatibility.StatisticsRequestLimiter.RequestType;
+import org.opendaylight.controller.sal.core.ConstructionException;
+import org.opendaylight.controller.sal.core.Node;
+
+import com.google.common.base.Ticker;
+
+public class StatisticsRequestLimiterTest {
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long time, final TimeUnit unit) {
+            nanos += unit.toNanos(time);
+        }
+    }
+
+    private ManualTicker ticker;
+    private StatisticsRequestLimiter limiter;
+    private Node node1;
+    private Node node2;
+
+    @Before
+    public void setUp() throws ConstructionException {
+        ticker = new ManualTicker();
+        limiter = new StatisticsRequestLimiter(5, TimeUnit.SECONDS, ticker);
+        node1 = new Node(NodeMapping.MD_SAL_TYPE, "openflow:1");
+        node2 = new Node(NodeMapping.MD_SAL_TYPE, "openflow:2");
+    }
+
+    @Test
+    public void testDuplicateRequestsWithinInterval() {
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+        assertFalse(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+
+        ticker.advance(4, TimeUnit.SECONDS);
+        assertFalse(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+        assertFalse(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+    }
+
+    @Test
+    public void testDistinctRequests() {
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node2, null));
+        assertTrue(limiter.tryAcquire(RequestType.FLOW_TABLES, node1, null));
+        assertTrue(limiter.tryAcquire(RequestType.FLOW, node1, "flow1"));
+        assertTrue(limiter.tryAcquire(RequestType.FLOW, node1, "flow2"));
+        assertFalse(limiter.tryAcquire(RequestType.FLOW, node1, "flow1"));
+    }
+
+    @Test
+    public void testForgetNode() {
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node2, null));
+
+        limiter.forgetNode(node1);
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node1, null));
+        assertFalse(limiter.tryAcquire(RequestType.ALL_FLOWS, node2, null));
+    }
+
+    @Test
+    public void testExpiredRequestsAreEvicted() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(RequestType.FLOW, node1, "flow" + i));
+        }
+        assertEquals(10, limiter.getTrackedRequestCount());
+
+        ticker.advance(3, TimeUnit.SECONDS);
+        assertTrue(limiter.tryAcquire(RequestType.ALL_FLOWS, node2, null));
+        assertEquals(11, limiter.getTrackedRequestCount());
+
+        // Only the request sent within the interval is left
+        ticker.advance(3, TimeUnit.SECONDS);
+        assertFalse(limiter.tryAcquire(RequestType.ALL_FLOWS, node2, null));
+        assertEquals(1, limiter.getTrackedRequestCount());
+    }
+}
@@ -14,6 +14,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeRem
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeUpdated
 import org.opendaylight.controller.sal.binding.api.NotificationProviderService
 import org.opendaylight.controller.sal.binding.api.data.DataProviderService
+import org.opendaylight.controller.sal.binding.api.data.DataWriteBatch
 import org.opendaylight.yangtools.concepts.Registration
 import org.opendaylight.yangtools.yang.binding.NotificationListener
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier
@@ -30,12 +31,20 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.N
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeBuilder
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey
 import org.slf4j.LoggerFactory
+import java.util.concurrent.TimeUnit
 
 class FlowCapableInventoryProvider implements AutoCloseable {
 
 
     static val LOG = LoggerFactory.getLogger(FlowCapableInventoryProvider);
 
+    /*
+     * Inventory notifications arrive in bursts when switches connect, their
+     * updates are committed together
+     */
+    static val BATCH_MAX_TRANSACTIONS = 256;
+    static val BATCH_FLUSH_MILLIS = 100L;
+
     @Property
     DataProviderService dataService;
 
@@ -45,19 +54,23 @@ class FlowCapableInventoryProvider implements AutoCloseable {
 
     Registration<NotificationListener> listenerRegistration
 
+    DataWriteBatch batch
+
     def void start() {
+        batch = dataService.createWriteBatch(BATCH_MAX_TRANSACTIONS, BATCH_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
         listenerRegistration = notificationService.registerNotificationListener(changeCommiter);
         LOG.info("Flow Capable Inventory Provider started.");
         
     }
 
     protected def startChange() {
-        return dataService.beginTransaction;
+        return batch.newTransaction;
     }
 
     override close() {
        LOG.info("Flow Capable Inventory Provider stopped.");
         listenerRegistration?.close();
+        batch?.close();
     }
     
 }
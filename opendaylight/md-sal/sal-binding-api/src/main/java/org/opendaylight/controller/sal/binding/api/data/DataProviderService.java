@@ -8,6 +8,8 @@
 package org.opendaylight.controller.sal.binding.api.data;
 
 
+import java.util.concurrent.TimeUnit;
+
 import org.opendaylight.controller.md.sal.common.api.data.DataProvisionService;
 import org.opendaylight.controller.md.sal.common.api.data.DataReader;
 import org.opendaylight.controller.sal.binding.api.BindingAwareProvider;
@@ -34,4 +36,15 @@ public interface DataProviderService extends DataBrokerService, DataProvisionSer
      * @return Registration object for reader. Invoking {@link Registration#close()} will unregister reader.
      */
     Registration<DataReader<InstanceIdentifier<? extends DataObject>,DataObject>> registerDataReader(InstanceIdentifier<? extends DataObject> path,DataReader<InstanceIdentifier<? extends DataObject>,DataObject> reader);
+
+    /**
+     * Creates a batch merging the transactions of a producer, which commits
+     * many small transactions, into fewer commits.
+     *
+     * @param maxTransactions Number of transactions after which a merged commit is submitted
+     * @param flushTimeout Time after which a merged commit is submitted, counted from its first transaction
+     * @param unit Unit of the flush timeout
+     * @return New batch. Invoking {@link DataWriteBatch#close()} commits its pending transactions.
+     */
+    DataWriteBatch createWriteBatch(int maxTransactions, long flushTimeout, TimeUnit unit);
 }
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.binding.api.data;
+
+import org.opendaylight.controller.md.sal.common.api.data.WriteBatch;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Batch of the binding-aware transactions of a single producer.
+ *
+ * @see DataProviderService#createWriteBatch(int, long, java.util.concurrent.TimeUnit)
+ */
+public interface DataWriteBatch extends WriteBatch<InstanceIdentifier<? extends DataObject>, DataObject> {
+
+    @Override
+    DataModificationTransaction newTransaction();
+}
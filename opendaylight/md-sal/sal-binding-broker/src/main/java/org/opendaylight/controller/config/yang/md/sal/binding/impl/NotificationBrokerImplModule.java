@@ -8,7 +8,7 @@
 package org.opendaylight.controller.config.yang.md.sal.binding.impl;
 
 import org.opendaylight.controller.sal.binding.codegen.impl.SingletonHolder;
-import org.opendaylight.controller.sal.binding.impl.NotificationBrokerImpl;
+import org.opendaylight.controller.sal.binding.impl.RootNotificationBrokerImpl;
 
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -38,7 +38,8 @@ public final class NotificationBrokerImplModule extends
     @Override
     public java.lang.AutoCloseable createInstance() {
         ListeningExecutorService listeningExecutor = SingletonHolder.getDefaultNotificationExecutor();
-        NotificationBrokerImpl broker = new NotificationBrokerImpl(listeningExecutor);
+        RootNotificationBrokerImpl broker = new RootNotificationBrokerImpl(listeningExecutor);
+        broker.registerRuntimeBean(getRootRuntimeBeanRegistratorWrapper());
         return broker;
     }
 }
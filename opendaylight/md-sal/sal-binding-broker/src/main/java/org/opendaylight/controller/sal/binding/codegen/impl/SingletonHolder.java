@@ -9,6 +9,7 @@ package org.opendaylight.controller.sal.binding.codegen.impl;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 import javassist.ClassPool;
@@ -30,6 +31,7 @@ public class SingletonHolder {
     private static ListeningExecutorService NOTIFICATION_EXECUTOR = null;
     private static ListeningExecutorService COMMIT_EXECUTOR = null;
     private static ListeningExecutorService CHANGE_EVENT_EXECUTOR = null;
+    private static ScheduledExecutorService BATCH_FLUSH_EXECUTOR = null;
 
     public static synchronized final ListeningExecutorService getDefaultNotificationExecutor() {
         if (NOTIFICATION_EXECUTOR == null) {
@@ -60,6 +62,18 @@ public class SingletonHolder {
         return COMMIT_EXECUTOR;
     }
 
+    /**
+     * Executor running the flush timers of write batches. Flushing a batch
+     * only submits its commit, so a single thread is shared by all batches.
+     */
+    public static synchronized final ScheduledExecutorService getDefaultBatchFlushExecutor() {
+        if (BATCH_FLUSH_EXECUTOR == null) {
+            ThreadFactory factory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("md-sal-binding-batch-%d").build();
+            BATCH_FLUSH_EXECUTOR = Executors.newSingleThreadScheduledExecutor(factory);
+        }
+        return BATCH_FLUSH_EXECUTOR;
+    }
+
     private static ListeningExecutorService createNamedExecutor(String format) {
         ThreadFactory factory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat(format).build();
         ExecutorService executor = Executors.newCachedThreadPool(factory);
@@ -7,19 +7,27 @@
  */
 package org.opendaylight.controller.sal.binding.impl;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.opendaylight.controller.md.sal.common.impl.service.AbstractDataBroker;
 import org.opendaylight.controller.sal.binding.api.data.DataChangeListener;
 import org.opendaylight.controller.sal.binding.api.data.DataProviderService;
+import org.opendaylight.controller.sal.binding.api.data.DataWriteBatch;
+import org.opendaylight.controller.sal.binding.codegen.impl.SingletonHolder;
 import org.opendaylight.controller.sal.binding.impl.util.BindingAwareDataReaderRouter;
 import org.opendaylight.controller.sal.common.DataStoreIdentifier;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.binding.DataRoot;
+import org.opendaylight.yangtools.yang.binding.Identifiable;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier.IdentifiableItem;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier.Item;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.binding.util.DataObjectReadingUtil;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 
@@ -78,6 +86,12 @@ public class DataBrokerImpl extends AbstractDataBroker<InstanceIdentifier<? exte
         return new DataTransactionImpl(transactionId,this);
     }
 
+    @Override
+    public DataWriteBatch createWriteBatch(int maxTransactions, long flushTimeout, TimeUnit unit) {
+        return new DataWriteBatchImpl(this, SingletonHolder.getDefaultBatchFlushExecutor(), maxTransactions,
+                flushTimeout, unit);
+    }
+
     @Override
     @Deprecated
     public <T extends DataRoot> T getData(DataStoreIdentifier store, Class<T> rootType) {
@@ -156,6 +170,28 @@ public class DataBrokerImpl extends AbstractDataBroker<InstanceIdentifier<? exte
         return new IsContainedWildcarded(key);
     }
 
+    @Override
+    protected List<PathArgument> getPathArguments(InstanceIdentifier<? extends DataObject> path) {
+        return path.getPath();
+    }
+
+    /**
+     * The wildcard of a list entry is the item of the list type, which
+     * {@link InstanceIdentifier#containsWildcarded(InstanceIdentifier)}
+     * matches against any entry of the list.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    protected Object getWildcard(Object argument) {
+        if (argument instanceof IdentifiableItem) {
+            return new Item(((IdentifiableItem) argument).getType());
+        }
+        if (argument instanceof Item && Identifiable.class.isAssignableFrom(((Item) argument).getType())) {
+            return argument;
+        }
+        return null;
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Override
     protected Map<InstanceIdentifier<? extends DataObject>, DataObject> deepGetBySubpath(
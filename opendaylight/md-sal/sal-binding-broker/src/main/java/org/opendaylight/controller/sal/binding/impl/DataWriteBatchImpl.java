@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.binding.impl;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.controller.md.sal.common.api.TransactionStatus;
+import org.opendaylight.controller.md.sal.common.api.data.DataModification;
+import org.opendaylight.controller.md.sal.common.impl.service.WriteBatchImpl;
+import org.opendaylight.controller.sal.binding.api.data.DataModificationTransaction;
+import org.opendaylight.controller.sal.binding.api.data.DataWriteBatch;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.concepts.util.ListenerRegistry;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class DataWriteBatchImpl extends WriteBatchImpl<InstanceIdentifier<? extends DataObject>, DataObject> //
+        implements DataWriteBatch {
+
+    public DataWriteBatchImpl(DataBrokerImpl dataBroker, ScheduledExecutorService timerExecutor,
+            int maxTransactions, long flushTimeout, TimeUnit unit) {
+        super(dataBroker, dataBroker, timerExecutor, maxTransactions, flushTimeout, unit);
+    }
+
+    @Override
+    public DataModificationTransaction newTransaction() {
+        return (DataModificationTransaction) super.newTransaction();
+    }
+
+    @Override
+    protected BatchedTransaction<InstanceIdentifier<? extends DataObject>, DataObject> createTransaction(
+            Object identifier) {
+        return new BatchedDataTransaction(this, identifier);
+    }
+
+    /**
+     * Transaction of the batch. Its listeners are notified of the status of
+     * the merged transaction it belongs to, once it was committed.
+     */
+    private static final class BatchedDataTransaction extends
+            BatchedTransaction<InstanceIdentifier<? extends DataObject>, DataObject> implements
+            DataModificationTransaction {
+
+        private final ListenerRegistry<DataTransactionListener> listeners =
+                new ListenerRegistry<DataTransactionListener>();
+
+        BatchedDataTransaction(DataWriteBatchImpl batch, Object identifier) {
+            super(batch, identifier);
+        }
+
+        @Override
+        public ListenerRegistration<DataTransactionListener> registerListener(DataTransactionListener listener) {
+            return listeners.register(listener);
+        }
+
+        @Override
+        protected void onMerged(DataModification<InstanceIdentifier<? extends DataObject>, DataObject> delegate) {
+            ((DataModificationTransaction) delegate).registerListener(new DataTransactionListener() {
+                @Override
+                public void onStatusUpdated(DataModificationTransaction transaction, TransactionStatus status) {
+                    for (ListenerRegistration<DataTransactionListener> registration : listeners) {
+                        registration.getInstance().onStatusUpdated(BatchedDataTransaction.this, status);
+                    }
+                }
+            });
+        }
+    }
+}
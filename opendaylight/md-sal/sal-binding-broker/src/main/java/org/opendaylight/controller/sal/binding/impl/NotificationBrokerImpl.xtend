@@ -7,11 +7,6 @@
  */
 package org.opendaylight.controller.sal.binding.impl
 
-import com.google.common.collect.HashMultimap
-import com.google.common.collect.Multimap
-import java.util.Collection
-import java.util.Collections
-import java.util.concurrent.Callable
 import java.util.concurrent.ExecutorService
 import org.opendaylight.controller.sal.binding.api.NotificationListener
 import org.opendaylight.controller.sal.binding.api.NotificationProviderService
@@ -21,18 +16,21 @@ import org.opendaylight.yangtools.concepts.ListenerRegistration
 import org.opendaylight.yangtools.concepts.Registration
 import org.opendaylight.yangtools.yang.binding.Notification
 import org.slf4j.LoggerFactory
-import org.opendaylight.controller.sal.binding.codegen.impl.SingletonHolderimport com.google.common.collect.Multimaps
+import org.opendaylight.controller.sal.binding.codegen.impl.SingletonHolder
 import org.opendaylight.yangtools.concepts.util.ListenerRegistry
-import org.opendaylight.controller.sal.binding.api.NotificationProviderService.NotificationInterestListenerimport java.util.Set
-import java.util.Set
-import com.google.common.collect.ImmutableSet
-import java.util.concurrent.Future
+import org.opendaylight.controller.sal.binding.api.NotificationProviderService.NotificationInterestListener
 
 class NotificationBrokerImpl implements NotificationProviderService, AutoCloseable {
+
+    /**
+     * Number of notifications which may wait for delivery to a single
+     * listener, further notifications are dropped for that listener.
+     */
+    public static val DEFAULT_LISTENER_QUEUE_CAPACITY = 4096;
     
     val ListenerRegistry<NotificationInterestListener> interestListeners = ListenerRegistry.create;
     
-    val Multimap<Class<? extends Notification>, NotificationListener<?>> listeners;
+    val NotificationDispatcher listeners;
 
     @Property
     var ExecutorService executor;
@@ -40,38 +38,41 @@ class NotificationBrokerImpl implements NotificationProviderService, AutoCloseab
     val logger = LoggerFactory.getLogger(NotificationBrokerImpl)
 
     new() {
-        listeners = Multimaps.synchronizedSetMultimap(HashMultimap.create())
+        listeners = new NotificationDispatcher(DEFAULT_LISTENER_QUEUE_CAPACITY)
     }
 
     @Deprecated
     new(ExecutorService executor) {
-        listeners = Multimaps.synchronizedSetMultimap(HashMultimap.create())
+        listeners = new NotificationDispatcher(DEFAULT_LISTENER_QUEUE_CAPACITY)
         this.executor = executor;
     }
 
     @Deprecated
     override <T extends Notification> addNotificationListener(Class<T> notificationType,
         NotificationListener<T> listener) {
-        listeners.put(notificationType, listener)
+        listeners.addListener(notificationType, listener)
     }
 
     @Deprecated
     override <T extends Notification> removeNotificationListener(Class<T> notificationType,
         NotificationListener<T> listener) {
-        listeners.remove(notificationType, listener)
+        listeners.removeListener(notificationType, listener)
     }
 
     override notify(Notification notification) {
         publish(notification)
     }
 
-    def getNotificationTypes(Notification notification) {
-        notification.class.interfaces.filter[it != Notification && Notification.isAssignableFrom(it)]
+    def long getPublishedNotificationsCount() {
+        listeners.publishedCount
+    }
+
+    def long getDroppedNotificationsCount() {
+        listeners.droppedCount
     }
 
-    @SuppressWarnings("unchecked")
-    private def notifyAll(Collection<NotificationListener<?>> listeners, Notification notification) {
-        listeners.forEach[(it as NotificationListener).onNotification(notification)]
+    def long getQueuedNotificationsCount() {
+        listeners.queuedCount
     }
 
     @Deprecated
@@ -96,28 +97,13 @@ class NotificationBrokerImpl implements NotificationProviderService, AutoCloseab
     }
 
     override publish(Notification notification, ExecutorService service) {
-        val allTypes = notification.notificationTypes
-
-        var Iterable<NotificationListener<?>> listenerToNotify = Collections.emptySet();
-        for (type : allTypes) {
-            listenerToNotify = listenerToNotify + listeners.get(type as Class<? extends Notification>)
-        }
-        val tasks = listenerToNotify.map[new NotifyTask(it, notification)].toSet;
-        submitAll(executor,tasks);
-    }
-    
-    def submitAll(ExecutorService service, Set<NotifyTask> tasks) {
-        val ret = ImmutableSet.<Future<Object>>builder();
-        for(task : tasks) {
-            ret.add(service.submit(task));
-        }
-        return ret.build();
+        listeners.publish(notification, service);
     }
     
     override <T extends Notification> registerNotificationListener(Class<T> notificationType,
         NotificationListener<T> listener) {
         val reg = new GenericNotificationRegistration<T>(notificationType, listener, this);
-        listeners.put(notificationType, listener);
+        listeners.addListener(notificationType, listener);
         announceNotificationSubscription(notificationType);
         return reg;
     }
@@ -136,7 +122,7 @@ class NotificationBrokerImpl implements NotificationProviderService, AutoCloseab
         org.opendaylight.yangtools.yang.binding.NotificationListener listener) {
         val invoker = SingletonHolder.INVOKER_FACTORY.invokerFor(listener);
         for (notifyType : invoker.supportedNotifications) {
-            listeners.put(notifyType, invoker.invocationProxy)
+            listeners.addListener(notifyType, invoker.invocationProxy)
             announceNotificationSubscription(notifyType)
         }
         val registration = new GeneratedListenerRegistration(listener, invoker,this);
@@ -144,12 +130,12 @@ class NotificationBrokerImpl implements NotificationProviderService, AutoCloseab
     }
 
     protected def unregisterListener(GenericNotificationRegistration<?> reg) {
-        listeners.remove(reg.type, reg.instance);
+        listeners.removeListener(reg.type, reg.instance);
     }
 
     protected def unregisterListener(GeneratedListenerRegistration reg) {
         for (notifyType : reg.invoker.supportedNotifications) {
-            listeners.remove(notifyType, reg.invoker.invocationProxy)
+            listeners.removeListener(notifyType, reg.invoker.invocationProxy)
         }
     }
     
@@ -160,7 +146,7 @@ class NotificationBrokerImpl implements NotificationProviderService, AutoCloseab
     override registerInterestListener(NotificationInterestListener interestListener) {
         val registration = interestListeners.register(interestListener);
         
-        for(notification : listeners.keySet) {
+        for(notification : listeners.notificationTypes) {
             interestListener.onNotificationSubscribtion(notification);
         }
         return registration
@@ -206,34 +192,3 @@ class GeneratedListenerRegistration extends AbstractObjectRegistration<org.opend
         invoker.close();
     }
 }
-
-@Data
-class NotifyTask implements Callable<Object> {
-
-    private static val log = LoggerFactory.getLogger(NotifyTask);
-
-    @SuppressWarnings("rawtypes")
-    val NotificationListener listener;
-    val Notification notification;
-
-    override call() {
-        //Only logging the complete notification in debug mode
-        try {
-            if(log.isDebugEnabled){
-                log.debug("Delivering notification {} to {}",notification,listener);
-            } else {
-                log.trace("Delivering notification {} to {}",notification.class.name,listener);
-            }
-            listener.onNotification(notification);
-            if(log.isDebugEnabled){
-                log.debug("Notification delivered {} to {}",notification,listener);
-            } else {
-                log.trace("Notification delivered {} to {}",notification.class.name,listener);
-            }
-        } catch (Exception e) {
-            log.error("Unhandled exception thrown by listener: {}", listener, e);
-        }
-        return null;
-    }
-
-}
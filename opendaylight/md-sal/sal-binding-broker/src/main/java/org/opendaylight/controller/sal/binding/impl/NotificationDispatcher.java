@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.binding.impl;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opendaylight.controller.sal.binding.api.NotificationListener;
+import org.opendaylight.yangtools.yang.binding.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+/**
+ * Delivers notifications to the listeners registered for their types.
+ *
+ * Listeners of each concrete notification class are looked up once and
+ * cached until the registrations change, so publishing a notification does
+ * not take locks nor use reflection. Every listener has a bounded queue,
+ * drained by at most one task at a time: a listener receives notifications
+ * in publishing order, and a slow listener does not delay the others. A
+ * notification which does not fit in the queue of a listener is dropped for
+ * that listener.
+ */
+final class NotificationDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    /*
+     * Maximum number of notifications delivered by a single drain task,
+     * before it yields its thread to other listeners
+     */
+    private static final int MAX_DRAIN_BATCH = 128;
+
+    private static final ListenerQueue[] NO_LISTENERS = new ListenerQueue[0];
+
+    private static final Executor SAME_THREAD = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    /*
+     * Registered listeners, with the listeners of each concrete notification
+     * class resolved from them. Replaced as a whole on registration changes.
+     */
+    private static final class Routes {
+        private final ImmutableSetMultimap<Class<? extends Notification>, ListenerQueue> listeners;
+        private final ConcurrentMap<Class<?>, ListenerQueue[]> byClass = new ConcurrentHashMap<>();
+
+        Routes(final ImmutableSetMultimap<Class<? extends Notification>, ListenerQueue> listeners) {
+            this.listeners = listeners;
+        }
+
+        ListenerQueue[] get(final Class<?> notificationClass) {
+            ListenerQueue[] ret = byClass.get(notificationClass);
+            if (ret == null) {
+                ret = resolve(notificationClass);
+                byClass.put(notificationClass, ret);
+            }
+            return ret;
+        }
+
+        private ListenerQueue[] resolve(final Class<?> notificationClass) {
+            final Set<ListenerQueue> ret = new LinkedHashSet<>();
+            for (final Class<?> type : notificationClass.getInterfaces()) {
+                if (type != Notification.class && Notification.class.isAssignableFrom(type)) {
+                    ret.addAll(listeners.get(type.asSubclass(Notification.class)));
+                }
+            }
+            return ret.isEmpty() ? NO_LISTENERS : ret.toArray(new ListenerQueue[ret.size()]);
+        }
+    }
+
+    private final class ListenerQueue implements Runnable {
+        @SuppressWarnings("rawtypes")
+        private final NotificationListener listener;
+        private final Queue<Notification> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean overflowing;
+        private volatile Executor executor;
+        private int registrations;
+
+        ListenerQueue(final NotificationListener<?> listener) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void offer(final Notification notification, final Executor executor) {
+            if (!queue.offer(notification)) {
+                dropped.incrementAndGet();
+                if (!overflowing) {
+                    overflowing = true;
+                    LOG.warn("Notification queue of listener {} is full, dropping notifications", listener);
+                }
+                return;
+            }
+            this.executor = executor;
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    LOG.error("Executor {} rejected delivery of notifications to {}", executor, listener, e);
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < MAX_DRAIN_BATCH; i++) {
+                    final Notification notification = queue.poll();
+                    if (notification == null) {
+                        break;
+                    }
+                    try {
+                        LOG.trace("Delivering notification {} to {}", notification.getClass().getName(), listener);
+                        listener.onNotification(notification);
+                    } catch (Exception e) {
+                        LOG.error("Unhandled exception thrown by listener: {}", listener, e);
+                    }
+                }
+
+                if (queue.isEmpty()) {
+                    overflowing = false;
+                }
+            } finally {
+                // An error thrown by the listener must not leave the queue
+                // marked as scheduled, or it would never be drained again
+                scheduled.set(false);
+                // Notifications queued while the flag was still set
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    private final int queueCapacity;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong droppedByRemoved = new AtomicLong();
+    private final Map<NotificationListener<?>, ListenerQueue> queues = new HashMap<>();
+    private volatile Routes routes = new Routes(ImmutableSetMultimap.<Class<? extends Notification>, ListenerQueue> of());
+
+    NotificationDispatcher(final int queueCapacity) {
+        Preconditions.checkArgument(queueCapacity > 0, "Queue capacity must be positive");
+        this.queueCapacity = queueCapacity;
+    }
+
+    synchronized void addListener(final Class<? extends Notification> type, final NotificationListener<?> listener) {
+        ListenerQueue queue = queues.get(listener);
+        if (queue == null) {
+            queue = new ListenerQueue(listener);
+            queues.put(listener, queue);
+        }
+        if (routes.listeners.containsEntry(type, queue)) {
+            return;
+        }
+        queue.registrations++;
+        routes = new Routes(ImmutableSetMultimap.<Class<? extends Notification>, ListenerQueue> builder()
+                .putAll(routes.listeners).put(type, queue).build());
+    }
+
+    synchronized void removeListener(final Class<? extends Notification> type, final NotificationListener<?> listener) {
+        final ListenerQueue queue = queues.get(listener);
+        if (queue == null || !routes.listeners.containsEntry(type, queue)) {
+            return;
+        }
+        final ImmutableSetMultimap.Builder<Class<? extends Notification>, ListenerQueue> builder = ImmutableSetMultimap
+                .builder();
+        for (final Map.Entry<Class<? extends Notification>, ListenerQueue> entry : routes.listeners.entries()) {
+            if (!(entry.getKey() == type && entry.getValue() == queue)) {
+                builder.put(entry);
+            }
+        }
+        routes = new Routes(builder.build());
+
+        if (--queue.registrations == 0) {
+            queues.remove(listener);
+            droppedByRemoved.addAndGet(queue.dropped.get());
+        }
+    }
+
+    /**
+     * @return notification types with at least one listener
+     */
+    Set<Class<? extends Notification>> getNotificationTypes() {
+        return ImmutableSet.copyOf(routes.listeners.keySet());
+    }
+
+    /**
+     * Queues a notification for its listeners.
+     *
+     * @param notification
+     *            the notification
+     * @param executor
+     *            executor delivering the notification, or null to deliver it
+     *            in the calling thread
+     */
+    void publish(final Notification notification, final Executor executor) {
+        published.incrementAndGet();
+        final Executor deliveryExecutor = executor != null ? executor : SAME_THREAD;
+        for (final ListenerQueue queue : routes.get(notification.getClass())) {
+            queue.offer(notification, deliveryExecutor);
+        }
+    }
+
+    long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * @return number of notifications dropped because the queue of their
+     *         listener was full
+     */
+    synchronized long getDroppedCount() {
+        long ret = droppedByRemoved.get();
+        for (final ListenerQueue queue : queues.values()) {
+            ret += queue.dropped.get();
+        }
+        return ret;
+    }
+
+    /**
+     * @return number of notifications waiting in the queues of the listeners
+     */
+    synchronized long getQueuedCount() {
+        long ret = 0;
+        for (final ListenerQueue queue : queues.values()) {
+            ret += queue.queue.size();
+        }
+        return ret;
+    }
+}
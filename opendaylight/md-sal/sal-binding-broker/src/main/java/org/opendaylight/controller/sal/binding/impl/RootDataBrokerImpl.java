@@ -7,17 +7,22 @@
  */
 package org.opendaylight.controller.sal.binding.impl;
 
+import org.opendaylight.controller.config.yang.md.sal.binding.impl.CommitLatency;
 import org.opendaylight.controller.config.yang.md.sal.binding.impl.Data;
 import org.opendaylight.controller.config.yang.md.sal.binding.impl.DataBrokerImplRuntimeMXBean;
 import org.opendaylight.controller.config.yang.md.sal.binding.impl.DataBrokerImplRuntimeRegistration;
 import org.opendaylight.controller.config.yang.md.sal.binding.impl.DataBrokerImplRuntimeRegistrator;
+import org.opendaylight.controller.config.yang.md.sal.binding.impl.IdentifierCache;
 import org.opendaylight.controller.config.yang.md.sal.binding.impl.Transactions;
 import org.opendaylight.controller.sal.binding.impl.connect.dom.BindingIndependentConnector;
+import org.opendaylight.controller.sal.binding.impl.connect.dom.InstanceIdentifierCodecCache;
 
 public class RootDataBrokerImpl extends DataBrokerImpl implements DataBrokerImplRuntimeMXBean {
 
     private final Transactions transactions = new Transactions();
+    private final CommitLatency commitLatency = new CommitLatency();
     private final Data data = new Data();
+    private final IdentifierCache identifierCache = new IdentifierCache();
     private BindingIndependentConnector bindingIndependentConnector;
     private DataBrokerImplRuntimeRegistration runtimeBeanRegistration;
 
@@ -33,12 +38,37 @@ public class RootDataBrokerImpl extends DataBrokerImpl implements DataBrokerImpl
         return transactions;
     }
 
+    public CommitLatency getCommitLatency() {
+        commitLatency.setQueueAverage(getQueueLatency().getAverageMicros());
+        commitLatency.setQueueMax(getQueueLatency().getMaxMicros());
+        commitLatency.setRequestCommitAverage(getRequestCommitLatency().getAverageMicros());
+        commitLatency.setRequestCommitMax(getRequestCommitLatency().getMaxMicros());
+        commitLatency.setFinishAverage(getFinishLatency().getAverageMicros());
+        commitLatency.setFinishMax(getFinishLatency().getMaxMicros());
+        commitLatency.setPublishAverage(getPublishLatency().getAverageMicros());
+        commitLatency.setPublishMax(getPublishLatency().getMaxMicros());
+        return commitLatency;
+    }
+
     @Override
     public Data getData() {
         data.setTransactions(getTransactions());
+        data.setCommitLatency(getCommitLatency());
         return data;
     }
 
+    @Override
+    public IdentifierCache getIdentifierCache() {
+        InstanceIdentifierCodecCache codecCache = bindingIndependentConnector != null ? bindingIndependentConnector
+                .getIdentifierCodecCache() : null;
+        if (codecCache != null) {
+            identifierCache.setSize(codecCache.getSize());
+            identifierCache.setHits(codecCache.getHitCount());
+            identifierCache.setMisses(codecCache.getMissCount());
+        }
+        return identifierCache;
+    }
+
     public void setBindingIndependentConnector(BindingIndependentConnector runtimeMapping) {
         this.bindingIndependentConnector = runtimeMapping;
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.binding.impl;
+
+import java.util.concurrent.ExecutorService;
+
+import org.opendaylight.controller.config.yang.md.sal.binding.impl.NotificationBrokerImplRuntimeMXBean;
+import org.opendaylight.controller.config.yang.md.sal.binding.impl.NotificationBrokerImplRuntimeRegistration;
+import org.opendaylight.controller.config.yang.md.sal.binding.impl.NotificationBrokerImplRuntimeRegistrator;
+import org.opendaylight.controller.config.yang.md.sal.binding.impl.Notifications;
+
+public class RootNotificationBrokerImpl extends NotificationBrokerImpl implements NotificationBrokerImplRuntimeMXBean {
+
+    private final Notifications notifications = new Notifications();
+    private NotificationBrokerImplRuntimeRegistration runtimeBeanRegistration;
+
+    public RootNotificationBrokerImpl(ExecutorService executor) {
+        setExecutor(executor);
+    }
+
+    @Override
+    public Notifications getNotifications() {
+        notifications.setPublished(getPublishedNotificationsCount());
+        notifications.setDropped(getDroppedNotificationsCount());
+        notifications.setQueued(getQueuedNotificationsCount());
+        return notifications;
+    }
+
+    public void registerRuntimeBean(NotificationBrokerImplRuntimeRegistrator rootRegistrator) {
+        runtimeBeanRegistration = rootRegistrator.register(this);
+    }
+
+    @Override
+    public void close() {
+        if (runtimeBeanRegistration != null) {
+            runtimeBeanRegistration.close();
+            runtimeBeanRegistration = null;
+        }
+        super.close();
+    }
+}
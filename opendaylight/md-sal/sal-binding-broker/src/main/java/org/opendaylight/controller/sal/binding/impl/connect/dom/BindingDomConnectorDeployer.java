@@ -16,6 +16,7 @@ import org.opendaylight.yangtools.yang.data.impl.codec.BindingIndependentMapping
 import org.opendaylight.controller.sal.binding.impl.RootBindingAwareBroker;
 import org.opendaylight.controller.sal.core.api.Broker.ProviderSession;
 import org.opendaylight.controller.sal.core.api.RpcProvisionRegistry;
+import org.opendaylight.controller.sal.core.api.model.SchemaService;
 import org.opendaylight.controller.sal.core.api.notify.NotificationPublishService;
 
 public class BindingDomConnectorDeployer {
@@ -39,11 +40,16 @@ public class BindingDomConnectorDeployer {
     public static BindingIndependentConnector createConnector(BindingIndependentConnector source) {
         BindingIndependentConnector connector = new BindingIndependentConnector();
         connector.setMappingService(source.getMappingService());
+        connector.setIdentifierCodecCache(source.getIdentifierCodecCache());
         return connector;
     }
 
     public static void startDataForwarding(BindingIndependentConnector connector, DataProviderService baService,
             ProviderSession domContext) {
+        if (connector.isDataForwarding()) {
+            return;
+        }
+        connector.setSchemaService(domContext.getService(SchemaService.class));
         startDataForwarding(connector, baService,
                 domContext.getService(org.opendaylight.controller.sal.core.api.data.DataProviderService.class));
     }
@@ -56,6 +56,7 @@ import org.opendaylight.controller.sal.core.api.Provider;
 import org.opendaylight.controller.sal.core.api.RpcImplementation;
 import org.opendaylight.controller.sal.core.api.RpcProvisionRegistry;
 import org.opendaylight.controller.sal.core.api.data.DataModificationTransaction;
+import org.opendaylight.controller.sal.core.api.model.SchemaService;
 import org.opendaylight.controller.sal.core.api.notify.NotificationListener;
 import org.opendaylight.controller.sal.core.api.notify.NotificationPublishService;
 import org.opendaylight.yangtools.concepts.ListenerRegistration;
@@ -79,6 +80,7 @@ import org.opendaylight.yangtools.yang.data.api.Node;
 import org.opendaylight.yangtools.yang.data.impl.ImmutableCompositeNode;
 import org.opendaylight.yangtools.yang.data.impl.codec.BindingIndependentMappingService;
 import org.opendaylight.yangtools.yang.data.impl.codec.DeserializationException;
+import org.opendaylight.yangtools.yang.model.api.SchemaServiceListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -109,6 +111,10 @@ public class BindingIndependentConnector implements //
 
     private BindingIndependentMappingService mappingService;
 
+    private InstanceIdentifierCodecCache identifierCodec;
+
+    private ListenerRegistration<SchemaServiceListener> schemaListenerRegistration;
+
     private org.opendaylight.controller.sal.core.api.data.DataProviderService biDataService;
 
     private DataProviderService baDataService;
@@ -134,7 +140,7 @@ public class BindingIndependentConnector implements //
 
         @Override
         public org.opendaylight.yangtools.yang.data.api.InstanceIdentifier apply(InstanceIdentifier<?> input) {
-            return mappingService.toDataDom(input);
+            return identifierCodec.toDataDom(input);
         }
 
     };
@@ -164,7 +170,7 @@ public class BindingIndependentConnector implements //
     @Override
     public DataObject readOperationalData(InstanceIdentifier<? extends DataObject> path) {
         try {
-            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biPath = mappingService.toDataDom(path);
+            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biPath = identifierCodec.toDataDom(path);
             CompositeNode result = biDataService.readOperationalData(biPath);
             return potentialAugmentationRead(path, biPath, result);
         } catch (DeserializationException e) {
@@ -177,7 +183,7 @@ public class BindingIndependentConnector implements //
             throws DeserializationException {
         Class<? extends DataObject> targetType = path.getTargetType();
         if (Augmentation.class.isAssignableFrom(targetType)) {
-            path = mappingService.fromDataDom(biPath);
+            path = identifierCodec.fromDataDom(biPath);
             Class<? extends Augmentation<?>> augmentType = (Class<? extends Augmentation<?>>) targetType;
             DataObject parentTo = mappingService.dataObjectFromDataDom(path, result);
             if (parentTo instanceof Augmentable<?>) {
@@ -190,7 +196,7 @@ public class BindingIndependentConnector implements //
     @Override
     public DataObject readConfigurationData(InstanceIdentifier<? extends DataObject> path) {
         try {
-            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biPath = mappingService.toDataDom(path);
+            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biPath = identifierCodec.toDataDom(path);
             CompositeNode result = biDataService.readConfigurationData(biPath);
             return potentialAugmentationRead(path, biPath, result);
         } catch (DeserializationException e) {
@@ -217,12 +223,12 @@ public class BindingIndependentConnector implements //
             LOG.debug("Update of Binding Operational Data {} is translated to {}",entry,biEntry);
         }
         for (InstanceIdentifier<? extends DataObject> entry : source.getRemovedConfigurationData()) {
-            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biEntry = mappingService.toDataDom(entry);
+            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biEntry = identifierCodec.toDataDom(entry);
             target.removeConfigurationData(biEntry);
             LOG.debug("Delete of Binding Configuration Data {} is translated to {}",entry,biEntry);
         }
         for (InstanceIdentifier<? extends DataObject> entry : source.getRemovedOperationalData()) {
-            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biEntry = mappingService.toDataDom(entry);
+            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier biEntry = identifierCodec.toDataDom(entry);
             target.removeOperationalData(biEntry);
             LOG.debug("Delete of Binding Operational Data {} is translated to {}",entry,biEntry);
         }
@@ -236,7 +242,7 @@ public class BindingIndependentConnector implements //
         for (Entry<org.opendaylight.yangtools.yang.data.api.InstanceIdentifier, CompositeNode> entry : source
                 .getUpdatedConfigurationData().entrySet()) {
             try {
-                InstanceIdentifier<?> baKey = mappingService.fromDataDom(entry.getKey());
+                InstanceIdentifier<?> baKey = identifierCodec.fromDataDom(entry.getKey());
                 DataObject baData = mappingService.dataObjectFromDataDom(baKey, entry.getValue());
                 target.putConfigurationData(baKey, baData);
             } catch (DeserializationException e) {
@@ -247,7 +253,7 @@ public class BindingIndependentConnector implements //
                 .getUpdatedOperationalData().entrySet()) {
             try {
 
-                InstanceIdentifier<?> baKey = mappingService.fromDataDom(entry.getKey());
+                InstanceIdentifier<?> baKey = identifierCodec.fromDataDom(entry.getKey());
                 DataObject baData = mappingService.dataObjectFromDataDom(baKey, entry.getValue());
                 target.putOperationalData(baKey, baData);
             } catch (DeserializationException e) {
@@ -257,7 +263,7 @@ public class BindingIndependentConnector implements //
         for (org.opendaylight.yangtools.yang.data.api.InstanceIdentifier entry : source.getRemovedConfigurationData()) {
             try {
 
-                InstanceIdentifier<?> baEntry = mappingService.fromDataDom(entry);
+                InstanceIdentifier<?> baEntry = identifierCodec.fromDataDom(entry);
                 target.removeConfigurationData(baEntry);
             } catch (DeserializationException e) {
                 LOG.error("Ommiting from BA transaction: {}.", entry, e);
@@ -266,7 +272,7 @@ public class BindingIndependentConnector implements //
         for (org.opendaylight.yangtools.yang.data.api.InstanceIdentifier entry : source.getRemovedOperationalData()) {
             try {
 
-                InstanceIdentifier<?> baEntry = mappingService.fromDataDom(entry);
+                InstanceIdentifier<?> baEntry = identifierCodec.fromDataDom(entry);
                 target.removeOperationalData(baEntry);
             } catch (DeserializationException e) {
                 LOG.error("Ommiting from BA transaction: {}.", entry, e);
@@ -332,6 +338,17 @@ public class BindingIndependentConnector implements //
 
     protected void setMappingService(BindingIndependentMappingService mappingService) {
         this.mappingService = mappingService;
+        this.identifierCodec = new InstanceIdentifierCodecCache(mappingService);
+    }
+
+    /**
+     * Shares the identifier translations cached by another connector, using
+     * the same mapping service.
+     */
+    protected void setIdentifierCodecCache(InstanceIdentifierCodecCache identifierCodec) {
+        checkArgument(identifierCodec.getMappingService() == mappingService,
+                "Cache uses a different mapping service");
+        this.identifierCodec = identifierCodec;
     }
 
     @Override
@@ -343,7 +360,21 @@ public class BindingIndependentConnector implements //
     public void onSessionInitiated(ProviderSession session) {
         setDomDataService(session.getService(org.opendaylight.controller.sal.core.api.data.DataProviderService.class));
         setDomRpcRegistry(session.getService(RpcProvisionRegistry.class));
+        setSchemaService(session.getService(SchemaService.class));
+    }
 
+    /**
+     * Drops the cached identifier translations whenever the global schema
+     * context of the service is updated.
+     */
+    protected void setSchemaService(SchemaService schemaService) {
+        if (schemaListenerRegistration != null) {
+            schemaListenerRegistration.close();
+            schemaListenerRegistration = null;
+        }
+        if (schemaService != null) {
+            schemaListenerRegistration = schemaService.registerSchemaServiceListener(identifierCodec);
+        }
     }
 
     public <T extends RpcService> void onRpcRouterCreated(Class<T> serviceType, RpcRouter<T> router) {
@@ -362,6 +393,9 @@ public class BindingIndependentConnector implements //
         if (biCommitHandlerRegistration != null) {
             biCommitHandlerRegistration.close();
         }
+        if (schemaListenerRegistration != null) {
+            schemaListenerRegistration.close();
+        }
 
     }
 
@@ -475,7 +509,7 @@ public class BindingIndependentConnector implements //
         @Override
         public void onRegister(DataCommitHandlerRegistration<InstanceIdentifier<? extends DataObject>, DataObject> registration) {
 
-            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier domPath = mappingService.toDataDom(registration
+            org.opendaylight.yangtools.yang.data.api.InstanceIdentifier domPath = identifierCodec.toDataDom(registration
                     .getPath());
 
         }
@@ -891,6 +925,10 @@ public class BindingIndependentConnector implements //
         return mappingService;
     }
 
+    public InstanceIdentifierCodecCache getIdentifierCodecCache() {
+        return identifierCodec;
+    }
+
     public void setBindingNotificationService(NotificationProviderService baService) {
         this.baNotifyService = baService;
 
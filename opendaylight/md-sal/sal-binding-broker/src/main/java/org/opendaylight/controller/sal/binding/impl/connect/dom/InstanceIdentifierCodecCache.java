@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.binding.impl.connect.dom;
+
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.impl.codec.BindingIndependentMappingService;
+import org.opendaylight.yangtools.yang.data.impl.codec.DeserializationException;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaServiceListener;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Translates instance identifiers between their binding and DOM forms,
+ * caching the most recently used translations.
+ *
+ * Each direction is cached on its own: the translation from binding to DOM
+ * is not injective, an augmentation and the node it augments having the same
+ * DOM identifier, so a translation does not tell the reverse one. Each
+ * direction holds at most the configured number of identifiers, least
+ * recently used ones being evicted first. Failed translations are not cached.
+ *
+ * Translations depend on the schema context of the mapping service, so the
+ * cache is dropped when the global context is updated.
+ */
+public class InstanceIdentifierCodecCache implements SchemaServiceListener {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 16384;
+
+    private final BindingIndependentMappingService mappingService;
+    private final Cache<InstanceIdentifier<? extends DataObject>, org.opendaylight.yangtools.yang.data.api.InstanceIdentifier> toDom;
+    private final Cache<org.opendaylight.yangtools.yang.data.api.InstanceIdentifier, InstanceIdentifier<? extends DataObject>> fromDom;
+
+    public InstanceIdentifierCodecCache(final BindingIndependentMappingService mappingService) {
+        this(mappingService, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public InstanceIdentifierCodecCache(final BindingIndependentMappingService mappingService, final int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "Maximum size must be positive");
+        this.mappingService = Preconditions.checkNotNull(mappingService);
+        this.toDom = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+        this.fromDom = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    public BindingIndependentMappingService getMappingService() {
+        return mappingService;
+    }
+
+    public org.opendaylight.yangtools.yang.data.api.InstanceIdentifier toDataDom(
+            final InstanceIdentifier<? extends DataObject> path) {
+        org.opendaylight.yangtools.yang.data.api.InstanceIdentifier ret = toDom.getIfPresent(path);
+        if (ret == null) {
+            ret = mappingService.toDataDom(path);
+            if (ret != null) {
+                toDom.put(path, ret);
+            }
+        }
+        return ret;
+    }
+
+    public InstanceIdentifier<? extends DataObject> fromDataDom(
+            final org.opendaylight.yangtools.yang.data.api.InstanceIdentifier path) throws DeserializationException {
+        InstanceIdentifier<? extends DataObject> ret = fromDom.getIfPresent(path);
+        if (ret == null) {
+            ret = mappingService.fromDataDom(path);
+            if (ret != null) {
+                fromDom.put(path, ret);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Drops all cached translations.
+     */
+    public void invalidateAll() {
+        toDom.invalidateAll();
+        fromDom.invalidateAll();
+    }
+
+    @Override
+    public void onGlobalContextUpdated(final SchemaContext context) {
+        invalidateAll();
+    }
+
+    public long getSize() {
+        return toDom.size() + fromDom.size();
+    }
+
+    public long getHitCount() {
+        return toDom.stats().hitCount() + fromDom.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return toDom.stats().missCount() + fromDom.stats().missCount();
+    }
+}
@@ -114,7 +114,7 @@ public class DomForwardedBindingBrokerImpl extends RootBindingAwareBroker implem
     public synchronized void tryToDeployDomForwarder(org.opendaylight.yangtools.yang.data.api.InstanceIdentifier domPath) {
         InstanceIdentifier<?> baPath;
         try {
-            baPath = connector.getMappingService().fromDataDom(domPath);
+            baPath = connector.getIdentifierCodecCache().fromDataDom(domPath);
             BindingIndependentConnector potentialConnector = connectors.get(baPath);
             if (potentialConnector != null) {
                 return;
@@ -130,7 +130,7 @@ public class DomForwardedBindingBrokerImpl extends RootBindingAwareBroker implem
         if (potentialConnector != null) {
             return;
         }
-        org.opendaylight.yangtools.yang.data.api.InstanceIdentifier domPath = connector.getMappingService().toDataDom(baPath);
+        org.opendaylight.yangtools.yang.data.api.InstanceIdentifier domPath = connector.getIdentifierCodecCache().toDataDom(baPath);
         tryToDeployConnector(baPath, domPath);
     }
 
@@ -23,6 +23,7 @@ public class DomForwardedDataBrokerImpl extends RootDataBrokerImpl implements Pr
 
     public void setConnector(BindingIndependentConnector connector) {
         this.connector = connector;
+        setBindingIndependentConnector(connector);
     }
 
     @Override
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.binding.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.sal.binding.api.NotificationListener;
+import org.opendaylight.yangtools.yang.binding.DataContainer;
+import org.opendaylight.yangtools.yang.binding.Notification;
+
+public class NotificationDispatcherTest {
+
+    private interface FooNotification extends Notification {
+    }
+
+    private interface BarNotification extends Notification {
+    }
+
+    private static class Foo implements FooNotification {
+        @Override
+        public Class<? extends DataContainer> getImplementedInterface() {
+            return FooNotification.class;
+        }
+    }
+
+    private static class FooBar implements FooNotification, BarNotification {
+        @Override
+        public Class<? extends DataContainer> getImplementedInterface() {
+            return FooNotification.class;
+        }
+    }
+
+    private static class RecordingListener<T extends Notification> implements NotificationListener<T> {
+        private final List<T> received = new ArrayList<>();
+
+        @Override
+        public void onNotification(final T notification) {
+            received.add(notification);
+        }
+    }
+
+    /*
+     * Executor running the submitted tasks on demand
+     */
+    private static class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(final Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private NotificationDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = new NotificationDispatcher(4);
+    }
+
+    @Test
+    public void testDeliveryByType() {
+        final RecordingListener<FooNotification> fooListener = new RecordingListener<>();
+        final RecordingListener<BarNotification> barListener = new RecordingListener<>();
+        dispatcher.addListener(FooNotification.class, fooListener);
+        dispatcher.addListener(BarNotification.class, barListener);
+
+        final Foo foo = new Foo();
+        final FooBar fooBar = new FooBar();
+        dispatcher.publish(foo, null);
+        dispatcher.publish(fooBar, null);
+
+        assertEquals(2, fooListener.received.size());
+        assertEquals(Collections.singletonList(fooBar), barListener.received);
+        assertEquals(2, dispatcher.getPublishedCount());
+    }
+
+    @Test
+    public void testListenerOfSeveralTypesReceivesOnce() {
+        final RecordingListener<Notification> listener = new RecordingListener<>();
+        dispatcher.addListener(FooNotification.class, listener);
+        dispatcher.addListener(BarNotification.class, listener);
+
+        final FooBar fooBar = new FooBar();
+        dispatcher.publish(fooBar, null);
+        assertEquals(Collections.<Notification> singletonList(fooBar), listener.received);
+
+        // The listener stays registered for its other type
+        dispatcher.removeListener(FooNotification.class, listener);
+        dispatcher.publish(new Foo(), null);
+        dispatcher.publish(fooBar, null);
+        assertEquals(2, listener.received.size());
+        assertEquals(Collections.<Class<? extends Notification>> singleton(BarNotification.class),
+                dispatcher.getNotificationTypes());
+    }
+
+    @Test
+    public void testRemovedListener() {
+        final RecordingListener<FooNotification> listener = new RecordingListener<>();
+        dispatcher.addListener(FooNotification.class, listener);
+        dispatcher.publish(new Foo(), null);
+        dispatcher.removeListener(FooNotification.class, listener);
+        dispatcher.publish(new Foo(), null);
+
+        assertEquals(1, listener.received.size());
+        assertTrue(dispatcher.getNotificationTypes().isEmpty());
+    }
+
+    @Test
+    public void testOrderingAndDrops() {
+        final ManualExecutor executor = new ManualExecutor();
+        final RecordingListener<FooNotification> listener = new RecordingListener<>();
+        dispatcher.addListener(FooNotification.class, listener);
+
+        final List<Foo> published = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final Foo foo = new Foo();
+            published.add(foo);
+            dispatcher.publish(foo, executor);
+        }
+        // A single drain task is scheduled for the listener
+        assertEquals(1, executor.tasks.size());
+        assertEquals(4, dispatcher.getQueuedCount());
+        assertEquals(2, dispatcher.getDroppedCount());
+
+        executor.runAll();
+        assertEquals(published.subList(0, 4), listener.received);
+        assertEquals(0, dispatcher.getQueuedCount());
+
+        // Dropped notifications are still counted once the listener is removed
+        dispatcher.removeListener(FooNotification.class, listener);
+        assertEquals(2, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopDelivery() {
+        final RecordingListener<FooNotification> listener = new RecordingListener<>();
+        dispatcher.addListener(FooNotification.class, new NotificationListener<FooNotification>() {
+            @Override
+            public void onNotification(final FooNotification notification) {
+                throw new IllegalStateException("Failing listener");
+            }
+        });
+        dispatcher.addListener(FooNotification.class, listener);
+
+        dispatcher.publish(new Foo(), null);
+        dispatcher.publish(new Foo(), null);
+        assertEquals(2, listener.received.size());
+    }
+
+    @Test
+    public void testListenerErrorKeepsQueueDrained() {
+        final ManualExecutor executor = new ManualExecutor();
+        final List<FooNotification> received = new ArrayList<>();
+        dispatcher.addListener(FooNotification.class, new NotificationListener<FooNotification>() {
+            @Override
+            public void onNotification(final FooNotification notification) {
+                received.add(notification);
+                if (received.size() == 1) {
+                    throw new ListenerError();
+                }
+            }
+        });
+        dispatcher.publish(new Foo(), executor);
+        dispatcher.publish(new Foo(), executor);
+        try {
+            executor.runAll();
+            fail("Error of the listener should reach the executor");
+        } catch (ListenerError e) {
+            // Expected
+        }
+
+        // The notification left in the queue was rescheduled
+        executor.runAll();
+        assertEquals(2, received.size());
+        dispatcher.publish(new Foo(), executor);
+        executor.runAll();
+        assertEquals(3, received.size());
+    }
+
+    private static class ListenerError extends Error {
+        private static final long serialVersionUID = 1L;
+    }
+}
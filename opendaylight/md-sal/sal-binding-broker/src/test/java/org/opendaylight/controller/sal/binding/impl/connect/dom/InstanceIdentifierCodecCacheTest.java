@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.binding.impl.connect.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.sal.binding.test.mock.ReferencableObject;
+import org.opendaylight.controller.sal.binding.test.mock.ReferencableObjectKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier.IdentifiableItem;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.impl.codec.BindingIndependentMappingService;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class InstanceIdentifierCodecCacheTest {
+
+    private static final URI NAMESPACE = URI.create("urn:opendaylight:test");
+
+    private BindingIndependentMappingService mappingService;
+    private InstanceIdentifierCodecCache cache;
+
+    @Before
+    public void setUp() {
+        mappingService = mock(BindingIndependentMappingService.class);
+        cache = new InstanceIdentifierCodecCache(mappingService, 2);
+    }
+
+    private static InstanceIdentifier<ReferencableObject> bindingPath(final int i) {
+        IdentifiableItem<ReferencableObject, ReferencableObjectKey> pathArg = new IdentifiableItem<>(
+                ReferencableObject.class, new ReferencableObjectKey(i));
+        return new InstanceIdentifier<ReferencableObject>(Arrays.<PathArgument> asList(pathArg),
+                ReferencableObject.class);
+    }
+
+    private org.opendaylight.yangtools.yang.data.api.InstanceIdentifier domPath(final int i) {
+        org.opendaylight.yangtools.yang.data.api.InstanceIdentifier ret = org.opendaylight.yangtools.yang.data.api.InstanceIdentifier
+                .builder().node(new QName(NAMESPACE, "object-" + i)).toInstance();
+        when(mappingService.toDataDom(bindingPath(i))).thenReturn(ret);
+        return ret;
+    }
+
+    @Test
+    public void testTranslationsAreCached() throws Exception {
+        org.opendaylight.yangtools.yang.data.api.InstanceIdentifier expected = domPath(1);
+        when(mappingService.fromDataDom(expected)).thenReturn(bindingPath(1));
+
+        assertSame(expected, cache.toDataDom(bindingPath(1)));
+        assertSame(expected, cache.toDataDom(bindingPath(1)));
+        verify(mappingService, times(1)).toDataDom(bindingPath(1));
+
+        assertEquals(bindingPath(1), cache.fromDataDom(expected));
+        assertEquals(bindingPath(1), cache.fromDataDom(expected));
+        verify(mappingService, times(1)).fromDataDom(expected);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void testReverseTranslationIsNotPrimed() throws Exception {
+        // Like an augmentation and the node it augments, both paths have the same DOM identifier
+        org.opendaylight.yangtools.yang.data.api.InstanceIdentifier shared = domPath(1);
+        when(mappingService.toDataDom(bindingPath(2))).thenReturn(shared);
+        when(mappingService.fromDataDom(shared)).thenReturn(bindingPath(1));
+
+        assertSame(shared, cache.toDataDom(bindingPath(2)));
+        assertEquals(bindingPath(1), cache.fromDataDom(shared));
+        verify(mappingService, times(1)).fromDataDom(shared);
+    }
+
+    @Test
+    public void testSchemaUpdateDropsTranslations() throws Exception {
+        domPath(1);
+        cache.toDataDom(bindingPath(1));
+        assertEquals(1, cache.getSize());
+
+        cache.onGlobalContextUpdated(mock(SchemaContext.class));
+        assertEquals(0, cache.getSize());
+        cache.toDataDom(bindingPath(1));
+        verify(mappingService, times(2)).toDataDom(bindingPath(1));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        domPath(1);
+        domPath(2);
+        domPath(3);
+
+        cache.toDataDom(bindingPath(1));
+        cache.toDataDom(bindingPath(2));
+        cache.toDataDom(bindingPath(3));
+        cache.toDataDom(bindingPath(3));
+        cache.toDataDom(bindingPath(1));
+
+        verify(mappingService, times(2)).toDataDom(bindingPath(1));
+        verify(mappingService, times(1)).toDataDom(bindingPath(3));
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void testFailedTranslationIsNotCached() throws Exception {
+        assertNull(cache.toDataDom(bindingPath(1)));
+        assertNull(cache.toDataDom(bindingPath(1)));
+        verify(mappingService, times(2)).toDataDom(bindingPath(1));
+        assertEquals(0, cache.getSize());
+    }
+}
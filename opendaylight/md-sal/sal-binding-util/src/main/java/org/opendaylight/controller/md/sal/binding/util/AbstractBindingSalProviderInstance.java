@@ -8,6 +8,7 @@
 package org.opendaylight.controller.md.sal.binding.util;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.opendaylight.controller.md.sal.common.api.RegistrationListener;
 import org.opendaylight.controller.md.sal.common.api.data.DataCommitHandler;
@@ -19,6 +20,7 @@ import org.opendaylight.controller.sal.binding.api.BindingAwareBroker.RpcRegistr
 import org.opendaylight.controller.sal.binding.api.NotificationProviderService;
 import org.opendaylight.controller.sal.binding.api.RpcProviderRegistry;
 import org.opendaylight.controller.sal.binding.api.data.DataProviderService;
+import org.opendaylight.controller.sal.binding.api.data.DataWriteBatch;
 import org.opendaylight.controller.sal.binding.api.rpc.RpcContextIdentifier;
 import org.opendaylight.yangtools.concepts.ListenerRegistration;
 import org.opendaylight.yangtools.concepts.Registration;
@@ -59,6 +61,11 @@ public abstract class AbstractBindingSalProviderInstance<D extends DataProviderS
         return getDataBrokerChecked().registerCommitHandlerListener(commitHandlerListener);
     }
 
+    @Override
+    public DataWriteBatch createWriteBatch(int maxTransactions, long flushTimeout, TimeUnit unit) {
+        return getDataBrokerChecked().createWriteBatch(maxTransactions, flushTimeout, unit);
+    }
+
     @Override
     public <T extends RpcService> RpcRegistration<T> addRpcImplementation(Class<T> type, T implementation)
             throws IllegalStateException {
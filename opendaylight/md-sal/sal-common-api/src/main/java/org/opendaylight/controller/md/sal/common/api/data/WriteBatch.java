@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.api.data;
+
+import java.util.concurrent.Future;
+
+import org.opendaylight.controller.md.sal.common.api.TransactionStatus;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+
+/**
+ * A batch of the transactions of a single producer, merged into fewer commits.
+ *
+ * Transactions of a batch are used as standalone transactions, but committing
+ * one only hands it over to the batch. The batch merges the transactions
+ * committed one after another into one and commits it once the flush timeout
+ * elapsed since the first of them was committed, once it holds the maximum
+ * number of transactions, or when the batch is flushed or closed. Writes are
+ * merged in commit order and merged commits are submitted in that order too.
+ * The result of each transaction is the result of the merged commit.
+ *
+ * A transaction which is not committed is simply dropped, its writes are
+ * not merged.
+ */
+public interface WriteBatch<P/* extends Path<P> */, D> extends AutoCloseable {
+    /**
+     * Opens a new transaction of the batch. Like a standalone transaction, it
+     * reads the data committed to the store, which does not include the
+     * writes still held by the batch.
+     *
+     * @return New transaction of the batch.
+     * @throws TransactionChainClosedException if the batch has been closed.
+     */
+    DataModification<P, D> newTransaction();
+
+    /**
+     * Commits the transactions of the batch without waiting for the flush
+     * timeout.
+     *
+     * @return Result of the last merged commit.
+     */
+    Future<RpcResult<TransactionStatus>> flush();
+
+    /**
+     * Flushes the batch and closes it.
+     */
+    @Override
+    void close();
+}
@@ -10,6 +10,7 @@ package org.opendaylight.controller.md.sal.common.impl;
 import static org.opendaylight.controller.md.sal.common.api.TransactionStatus.NEW;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -113,6 +114,41 @@ public abstract class AbstractDataModification<P extends Path<P>, D> implements
         configurationRemove.put(path, path);
     }
 
+    /**
+     * Drops the operational data written by the transaction at or below a
+     * path, without removing the path from the store.
+     *
+     * @param path
+     *            path of the dropped data
+     */
+    public final void discardOperationalData(P path) {
+        checkMutable();
+        discard(path, operationalUpdate);
+        discard(path, operationalCreated);
+    }
+
+    /**
+     * Drops the configuration data written by the transaction at or below a
+     * path, without removing the path from the store.
+     *
+     * @param path
+     *            path of the dropped data
+     */
+    public final void discardConfigurationData(P path) {
+        checkMutable();
+        discard(path, configurationUpdate);
+        discard(path, configurationCreated);
+    }
+
+    private static <P extends Path<P>> void discard(P path, Map<P, ?> data) {
+        Iterator<P> iterator = data.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (path.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
     private final void checkMutable() {
         if (!NEW.equals(this.getStatus()))
             throw new IllegalStateException("Transaction was already submitted");
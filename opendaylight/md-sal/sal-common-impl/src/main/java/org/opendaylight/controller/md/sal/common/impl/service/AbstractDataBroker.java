@@ -11,17 +11,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
-import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.opendaylight.controller.md.sal.common.api.RegistrationListener;
 import org.opendaylight.controller.md.sal.common.api.TransactionStatus;
 import org.opendaylight.controller.md.sal.common.api.data.DataChangeEvent;
@@ -43,14 +40,10 @@ import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import com.google.common.util.concurrent.MoreExecutors;
 
 public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DCL extends DataChangeListener<P, D>>
@@ -86,6 +79,16 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
 
     private final AtomicLong finishedTransactionsCount = new AtomicLong();
 
+    private final LatencyStatistics queueLatency = new LatencyStatistics();
+
+    private final LatencyStatistics requestCommitLatency = new LatencyStatistics();
+
+    private final LatencyStatistics finishLatency = new LatencyStatistics();
+
+    private final LatencyStatistics publishLatency = new LatencyStatistics();
+
+    private final CommitCoordinator<P> commitCoordinator = new CommitCoordinator<>(queueLatency);
+
     public AbstractDataReadRouter<P, D> getDataReadRouter() {
         return this.dataReadRouter;
     }
@@ -106,13 +109,42 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
         return this.finishedTransactionsCount;
     }
 
-    private final Multimap<P, DataChangeListenerRegistration<P, D, DCL>> listeners = Multimaps
-            .synchronizedSetMultimap(HashMultimap.<P, DataChangeListenerRegistration<P, D, DCL>> create());
+    /**
+     * @return time spent by commits waiting for the completion of the
+     *         conflicting commits submitted before them
+     */
+    public LatencyStatistics getQueueLatency() {
+        return this.queueLatency;
+    }
+
+    /**
+     * @return time spent by commits looking up the affected listeners and
+     *         commit handlers and requesting the commit from the handlers
+     */
+    public LatencyStatistics getRequestCommitLatency() {
+        return this.requestCommitLatency;
+    }
+
+    /**
+     * @return time spent by commits finishing the handler transactions
+     */
+    public LatencyStatistics getFinishLatency() {
+        return this.finishLatency;
+    }
 
-    private final Multimap<P, DataCommitHandlerRegistrationImpl<P, D>> commitHandlers = Multimaps
-            .synchronizedSetMultimap(HashMultimap.<P, DataCommitHandlerRegistrationImpl<P, D>> create());
+    /**
+     * @return time spent by commits capturing the changes and submitting
+     *         them to the listeners
+     */
+    public LatencyStatistics getPublishLatency() {
+        return this.publishLatency;
+    }
 
-    private final Lock registrationLock = new ReentrantLock();
+    private final RegistrationIndex<P, DataChangeListenerRegistration<P, D, DCL>> listeners = new RegistrationIndex<>(
+            this);
+
+    private final RegistrationIndex<P, DataCommitHandlerRegistrationImpl<P, D>> commitHandlers = new RegistrationIndex<>(
+            this);
 
     private final ListenerRegistry<RegistrationListener<DataCommitHandlerRegistration<P, D>>> commitHandlerRegistrationListeners = new ListenerRegistry<RegistrationListener<DataCommitHandlerRegistration<P, D>>>();
 
@@ -120,89 +152,22 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
     }
 
     protected ImmutableList<DataCommitHandler<P, D>> affectedCommitHandlers(final Set<P> paths) {
-        final Callable<ImmutableList<DataCommitHandler<P, D>>> _function = new Callable<ImmutableList<DataCommitHandler<P, D>>>() {
-            @Override
-            public ImmutableList<DataCommitHandler<P, D>> call() throws Exception {
-                Map<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>> _asMap = commitHandlers.asMap();
-                Set<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _entrySet = _asMap.entrySet();
-                FluentIterable<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _from = FluentIterable
-                        .<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> from(_entrySet);
-                final Predicate<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _function = new Predicate<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>>() {
-                    @Override
-                    public boolean apply(final Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>> it) {
-                        P _key = it.getKey();
-                        boolean _isAffectedBy = isAffectedBy(_key, paths);
-                        return _isAffectedBy;
-                    }
-                };
-                FluentIterable<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _filter = _from
-                        .filter(_function);
-                final Function<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>, Collection<DataCommitHandlerRegistrationImpl<P, D>>> _function_1 = new Function<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>, Collection<DataCommitHandlerRegistrationImpl<P, D>>>() {
-                    @Override
-                    public Collection<DataCommitHandlerRegistrationImpl<P, D>> apply(
-                            final Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>> it) {
-                        Collection<DataCommitHandlerRegistrationImpl<P, D>> _value = it.getValue();
-                        return _value;
-                    }
-                };
-                FluentIterable<DataCommitHandlerRegistrationImpl<P, D>> _transformAndConcat = _filter
-                        .<DataCommitHandlerRegistrationImpl<P, D>> transformAndConcat(_function_1);
-                final Function<DataCommitHandlerRegistrationImpl<P, D>, DataCommitHandler<P, D>> _function_2 = new Function<DataCommitHandlerRegistrationImpl<P, D>, DataCommitHandler<P, D>>() {
-                    @Override
-                    public DataCommitHandler<P, D> apply(final DataCommitHandlerRegistrationImpl<P, D> it) {
-                        DataCommitHandler<P, D> _instance = it.getInstance();
-                        return _instance;
-                    }
-                };
-                FluentIterable<DataCommitHandler<P, D>> _transform = _transformAndConcat
-                        .<DataCommitHandler<P, D>> transform(_function_2);
-                return _transform.toList();
-            }
-        };
-        return AbstractDataBroker.<ImmutableList<DataCommitHandler<P, D>>> withLock(this.registrationLock, _function);
+        return toCommitHandlers(commitHandlers.findContaining(paths));
     }
 
     protected ImmutableList<DataCommitHandler<P, D>> probablyAffectedCommitHandlers(final HashSet<P> paths) {
-        final Callable<ImmutableList<DataCommitHandler<P, D>>> _function = new Callable<ImmutableList<DataCommitHandler<P, D>>>() {
-            @Override
-            public ImmutableList<DataCommitHandler<P, D>> call() throws Exception {
-                Map<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>> _asMap = commitHandlers.asMap();
-                Set<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _entrySet = _asMap.entrySet();
-                FluentIterable<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _from = FluentIterable
-                        .<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> from(_entrySet);
-                final Predicate<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _function = new Predicate<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>>() {
-                    @Override
-                    public boolean apply(final Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>> it) {
-                        P _key = it.getKey();
-                        boolean _isProbablyAffectedBy = isProbablyAffectedBy(_key, paths);
-                        return _isProbablyAffectedBy;
-                    }
-                };
-                FluentIterable<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>> _filter = _from
-                        .filter(_function);
-                final Function<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>, Collection<DataCommitHandlerRegistrationImpl<P, D>>> _function_1 = new Function<Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>>, Collection<DataCommitHandlerRegistrationImpl<P, D>>>() {
-                    @Override
-                    public Collection<DataCommitHandlerRegistrationImpl<P, D>> apply(
-                            final Entry<P, Collection<DataCommitHandlerRegistrationImpl<P, D>>> it) {
-                        Collection<DataCommitHandlerRegistrationImpl<P, D>> _value = it.getValue();
-                        return _value;
-                    }
-                };
-                FluentIterable<DataCommitHandlerRegistrationImpl<P, D>> _transformAndConcat = _filter
-                        .<DataCommitHandlerRegistrationImpl<P, D>> transformAndConcat(_function_1);
-                final Function<DataCommitHandlerRegistrationImpl<P, D>, DataCommitHandler<P, D>> _function_2 = new Function<DataCommitHandlerRegistrationImpl<P, D>, DataCommitHandler<P, D>>() {
-                    @Override
-                    public DataCommitHandler<P, D> apply(final DataCommitHandlerRegistrationImpl<P, D> it) {
-                        DataCommitHandler<P, D> _instance = it.getInstance();
-                        return _instance;
-                    }
-                };
-                FluentIterable<DataCommitHandler<P, D>> _transform = _transformAndConcat
-                        .<DataCommitHandler<P, D>> transform(_function_2);
-                return _transform.toList();
+        return toCommitHandlers(commitHandlers.findContainedIn(paths));
+    }
+
+    private static <P extends Path<P>, D> ImmutableList<DataCommitHandler<P, D>> toCommitHandlers(
+            final Collection<RegistrationIndex.Node<P, DataCommitHandlerRegistrationImpl<P, D>>> nodes) {
+        final ImmutableList.Builder<DataCommitHandler<P, D>> handlers = ImmutableList.builder();
+        for (final RegistrationIndex.Node<P, DataCommitHandlerRegistrationImpl<P, D>> node : nodes) {
+            for (final DataCommitHandlerRegistrationImpl<P, D> registration : node.getRegistrations()) {
+                handlers.add(registration.getInstance());
             }
-        };
-        return AbstractDataBroker.<ImmutableList<DataCommitHandler<P, D>>> withLock(this.registrationLock, _function);
+        }
+        return handlers.build();
     }
 
     protected Map<P, D> deepGetBySubpath(final Map<P, D> dataSet, final P path) {
@@ -221,24 +186,13 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
         return _dataReadRouter.readOperationalData(path);
     }
 
-    private static <T extends Object> T withLock(final Lock lock, final Callable<T> method) {
-        lock.lock();
-        try {
-            return method.call();
-        } catch (Exception e) {
-            throw Exceptions.sneakyThrow(e);
-        } finally {
-            lock.unlock();
-        }
-    }
-
     @Override
     public final Registration<DataCommitHandler<P, D>> registerCommitHandler(final P path,
             final DataCommitHandler<P, D> commitHandler) {
         synchronized (commitHandler) {
             final DataCommitHandlerRegistrationImpl<P, D> registration = new DataCommitHandlerRegistrationImpl<P, D>(
                     path, commitHandler, this);
-            commitHandlers.put(path, registration);
+            commitHandlers.register(path, registration);
             LOG.trace("Registering Commit Handler {} for path: {}", commitHandler, path);
             for (final ListenerRegistration<RegistrationListener<DataCommitHandlerRegistration<P, D>>> listener : commitHandlerRegistrationListeners) {
                 try {
@@ -257,7 +211,7 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
         synchronized (listeners) {
             final DataChangeListenerRegistration<P, D, DCL> reg = new DataChangeListenerRegistration<P, D, DCL>(path,
                     listener, AbstractDataBroker.this);
-            listeners.put(path, reg);
+            listeners.register(path, reg);
             final D initialConfig = getDataReadRouter().readConfigurationData(path);
             final D initialOperational = getDataReadRouter().readOperationalData(path);
             final DataChangeEvent<P, D> event = createInitialListenerEvent(path, initialConfig, initialOperational);
@@ -290,15 +244,13 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
     }
 
     protected final void removeListener(final DataChangeListenerRegistration<P, D, DCL> registration) {
-        synchronized (listeners) {
-            listeners.remove(registration.getPath(), registration);
-        }
+        listeners.unregister(registration.getPath(), registration);
     }
 
     protected final void removeCommitHandler(final DataCommitHandlerRegistrationImpl<P, D> registration) {
         synchronized (commitHandlers) {
 
-            commitHandlers.remove(registration.getPath(), registration);
+            commitHandlers.unregister(registration.getPath(), registration);
             LOG.trace("Removing Commit Handler {} for path: {}", registration.getInstance(), registration.getPath());
             for (final ListenerRegistration<RegistrationListener<DataCommitHandlerRegistration<P, D>>> listener : commitHandlerRegistrationListeners) {
                 try {
@@ -317,50 +269,72 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
     }
 
     protected ImmutableList<ListenerStateCapture<P, D, DCL>> affectedListeners(final Set<P> paths) {
-
-        synchronized (listeners) {
-            return FluentIterable //
-                    .from(listeners.asMap().entrySet()) //
-                    .filter(new Predicate<Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>>>() {
-                        @Override
-                        public boolean apply(final Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>> it) {
-                            return isAffectedBy(it.getKey(), paths);
-                        }
-                    }) //
-                    .transform(
-                            new Function<Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>>, ListenerStateCapture<P, D, DCL>>() {
-                                @Override
-                                public ListenerStateCapture<P, D, DCL> apply(
-                                        final Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>> it) {
-                                    return new ListenerStateCapture<P, D, DCL>(it.getKey(), it.getValue(),
-                                            createContainsPredicate(it.getKey()));
-                                }
-                            }) //
-                    .toList();
+        final ImmutableList.Builder<ListenerStateCapture<P, D, DCL>> captures = ImmutableList.builder();
+        for (final RegistrationIndex.Node<P, DataChangeListenerRegistration<P, D, DCL>> node : listeners
+                .findContaining(paths)) {
+            captures.add(new ListenerStateCapture<P, D, DCL>(node.getPath(), node.getRegistrations(),
+                    createContainsPredicate(node.getPath())));
         }
+        return captures.build();
     }
 
     protected ImmutableList<ListenerStateCapture<P, D, DCL>> probablyAffectedListeners(final Set<P> paths) {
-        synchronized (listeners) {
-            return FluentIterable //
-                    .from(listeners.asMap().entrySet()) //
-                    .filter(new Predicate<Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>>>() {
-                        @Override
-                        public boolean apply(final Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>> it) {
-                            return isProbablyAffectedBy(it.getKey(), paths);
-                        }
-                    }) //
-                    .transform(
-                            new Function<Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>>, ListenerStateCapture<P, D, DCL>>() {
-                                @Override
-                                public ListenerStateCapture<P, D, DCL> apply(
-                                        final Entry<P, Collection<DataChangeListenerRegistration<P, D, DCL>>> it) {
-                                    return new ListenerStateCapture<P, D, DCL>(it.getKey(), it.getValue(),
-                                            createIsContainedPredicate(it.getKey()));
-                                }
-                            }) //
-                    .toList();
+        final ImmutableList.Builder<ListenerStateCapture<P, D, DCL>> captures = ImmutableList.builder();
+        for (final RegistrationIndex.Node<P, DataChangeListenerRegistration<P, D, DCL>> node : listeners
+                .findContainedIn(paths)) {
+            captures.add(new ListenerStateCapture<P, D, DCL>(node.getPath(), node.getRegistrations(),
+                    createIsContainedPredicate(node.getPath())));
         }
+        return captures.build();
+    }
+
+    /**
+     * Returns the arguments of a path, by which the registrations of
+     * listeners and commit handlers are indexed. Two paths contain each other
+     * if the arguments of the shorter one are a prefix of the arguments of the
+     * longer one, up to the wildcards returned by {@link #getWildcard(Object)}.
+     *
+     * @param path
+     *            path
+     * @return the arguments of the path, or null if the path cannot be split,
+     *         in which case the registrations for it are matched by scanning
+     */
+    protected List<?> getPathArguments(final P path) {
+        return null;
+    }
+
+    /**
+     * Returns the wildcard argument which stands for any entry of the keyed
+     * list addressed by a path argument.
+     *
+     * @param argument
+     *            path argument
+     * @return the wildcard, the argument itself if it already is a wildcard,
+     *         or null if the argument does not address a keyed list
+     */
+    protected Object getWildcard(final Object argument) {
+        return null;
+    }
+
+    /**
+     * Applies the changes of a transaction below a path to the data read at
+     * that path before the transaction.
+     *
+     * @param path
+     *            path of the data
+     * @param original
+     *            data read at the path before the transaction, null if there
+     *            was none
+     * @param updated
+     *            data written strictly below the path, as committed
+     * @param removed
+     *            paths removed strictly below the path
+     * @return the data at the path after the transaction, or absent if it
+     *         cannot be derived from the original data, in which case it is
+     *         read back from the store
+     */
+    protected Optional<D> applyChanges(final P path, final D original, final Map<P, D> updated, final Set<P> removed) {
+        return Optional.absent();
     }
 
     protected Predicate<P> createContainsPredicate(final P key) {
@@ -408,9 +382,8 @@ public abstract class AbstractDataBroker<P extends Path<P>, D extends Object, DC
         Preconditions.checkNotNull(transaction);
         transaction.changeStatus(TransactionStatus.SUBMITED);
         final TwoPhaseCommit<P, D, DCL> task = new TwoPhaseCommit<P, D, DCL>(transaction, this);
-        ;
         this.getSubmittedTransactionsCount().getAndIncrement();
-        return this.getExecutor().submit(task);
+        return commitCoordinator.submit(task.getChangedPaths(), task, this.getExecutor());
     }
 
     private static class DataCommitHandlerRegistrationImpl<P extends Path<P>, D extends Object> //
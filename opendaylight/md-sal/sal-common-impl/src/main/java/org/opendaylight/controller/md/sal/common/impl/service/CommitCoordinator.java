@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.opendaylight.yangtools.concepts.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+/**
+ * Schedules the commits of a data broker on its executor.
+ *
+ * A commit starts once every commit submitted before it, whose changed paths
+ * contain or are contained in its own changed paths, has completed.
+ * Commits of independent subtrees are not ordered and run concurrently, as
+ * far as the executor allows, while conflicting commits complete in the
+ * order of submission. A commit waiting for its predecessors does not occupy
+ * a thread of the executor.
+ *
+ * The returned futures are {@link com.google.common.util.concurrent.ListenableFuture}s,
+ * so callers can chain on them without blocking.
+ *
+ * @param <P>
+ *            path type
+ */
+final class CommitCoordinator<P extends Path<P>> {
+    private final static Logger LOG = LoggerFactory.getLogger(CommitCoordinator.class);
+
+    private final class PendingCommit<T> implements Runnable {
+        private final Set<P> paths;
+        private final ListenableFutureTask<T> task;
+        private final Executor executor;
+        private final List<PendingCommit<?>> successors = new ArrayList<>();
+        private final long submitted = System.nanoTime();
+        private int predecessors;
+
+        PendingCommit(final Set<P> paths, final Callable<T> task, final Executor executor) {
+            this.paths = paths;
+            this.task = ListenableFutureTask.create(task);
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            queueLatency.record(System.nanoTime() - submitted);
+            try {
+                task.run();
+            } finally {
+                completed(this);
+            }
+        }
+    }
+
+    private final LatencyStatistics queueLatency;
+
+    /*
+     * Submitted commits which did not complete yet, in submission order
+     */
+    private final Set<PendingCommit<?>> pending = new LinkedHashSet<>();
+
+    CommitCoordinator(final LatencyStatistics queueLatency) {
+        this.queueLatency = queueLatency;
+    }
+
+    /**
+     * Submits a commit.
+     *
+     * @param paths
+     *            paths changed by the commit
+     * @param task
+     *            the commit
+     * @param executor
+     *            executor running the commit
+     * @return the result of the commit
+     */
+    <T> Future<T> submit(final Set<P> paths, final Callable<T> task, final Executor executor) {
+        final PendingCommit<T> commit = new PendingCommit<>(paths, task, executor);
+        final boolean ready;
+        synchronized (this) {
+            for (final PendingCommit<?> previous : pending) {
+                if (conflicts(previous.paths, paths)) {
+                    previous.successors.add(commit);
+                    commit.predecessors++;
+                }
+            }
+            pending.add(commit);
+            ready = commit.predecessors == 0;
+        }
+        if (ready) {
+            execute(commit);
+        }
+        return commit.task;
+    }
+
+    private void execute(final PendingCommit<?> commit) {
+        try {
+            commit.executor.execute(commit);
+        } catch (RejectedExecutionException e) {
+            LOG.error("Commit rejected by executor {}", commit.executor, e);
+            commit.task.cancel(false);
+            completed(commit);
+        }
+    }
+
+    private void completed(final PendingCommit<?> commit) {
+        final List<PendingCommit<?>> ready = new ArrayList<>();
+        synchronized (this) {
+            pending.remove(commit);
+            for (final PendingCommit<?> successor : commit.successors) {
+                if (--successor.predecessors == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+        for (final PendingCommit<?> successor : ready) {
+            execute(successor);
+        }
+    }
+
+    private static <P extends Path<P>> boolean conflicts(final Set<P> first, final Set<P> second) {
+        for (final P firstPath : first) {
+            for (final P secondPath : second) {
+                if (firstPath.contains(secondPath) || secondPath.contains(firstPath)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count, average and maximum of the durations of a commit phase, updated
+ * without locking.
+ */
+public final class LatencyStatistics {
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(final long nanos) {
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getAverageMicros() {
+        final long samples = count.get();
+        return samples == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.get() / samples);
+    }
+
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opendaylight.yangtools.concepts.Path;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Index of the registrations of a data broker by path, organized as a trie of
+ * the path arguments.
+ *
+ * Finding the registrations affected by a change walks the trie along the
+ * changed paths, its cost does not depend on the number of registrations
+ * elsewhere in the tree. A path argument of a keyed list entry also matches the
+ * wildcard of the list, and the other way around.
+ *
+ * Lookups do not lock: the children of the trie nodes are held in concurrent
+ * maps and the registrations of a node in an immutable set replaced on
+ * update. Updates are serialized on the index.
+ *
+ * Paths which the broker cannot split in arguments are kept in a flat map and
+ * matched by scanning it.
+ *
+ * @param <P>
+ *            path type
+ * @param <R>
+ *            registration type
+ */
+final class RegistrationIndex<P extends Path<P>, R> {
+
+    static final class Node<P, R> {
+        private final Node<P, R> parent;
+        private final Object argument;
+        private final ConcurrentMap<Object, Node<P, R>> children = new ConcurrentHashMap<>();
+        private volatile P path;
+        private volatile ImmutableSet<R> registrations = ImmutableSet.of();
+
+        Node(final Node<P, R> parent, final Object argument) {
+            this.parent = parent;
+            this.argument = argument;
+        }
+
+        P getPath() {
+            return path;
+        }
+
+        ImmutableSet<R> getRegistrations() {
+            return registrations;
+        }
+    }
+
+    private final AbstractDataBroker<P, ?, ?> broker;
+    private final Node<P, R> root = new Node<>(null, null);
+    private final ConcurrentMap<P, Node<P, R>> unindexed = new ConcurrentHashMap<>();
+
+    RegistrationIndex(final AbstractDataBroker<P, ?, ?> broker) {
+        this.broker = broker;
+    }
+
+    synchronized void register(final P path, final R registration) {
+        final List<?> arguments = broker.getPathArguments(path);
+        Node<P, R> node;
+        if (arguments == null) {
+            node = unindexed.get(path);
+            if (node == null) {
+                node = new Node<>(null, path);
+                unindexed.put(path, node);
+            }
+        } else {
+            node = root;
+            for (final Object argument : arguments) {
+                Node<P, R> child = node.children.get(argument);
+                if (child == null) {
+                    child = new Node<>(node, argument);
+                    node.children.put(argument, child);
+                }
+                node = child;
+            }
+        }
+        node.path = path;
+        node.registrations = ImmutableSet.<R> builder().addAll(node.registrations).add(registration).build();
+    }
+
+    synchronized void unregister(final P path, final R registration) {
+        final List<?> arguments = broker.getPathArguments(path);
+        Node<P, R> node;
+        if (arguments == null) {
+            node = unindexed.get(path);
+        } else {
+            node = root;
+            for (int i = 0; node != null && i < arguments.size(); i++) {
+                node = node.children.get(arguments.get(i));
+            }
+        }
+        if (node == null || !node.registrations.contains(registration)) {
+            return;
+        }
+        final ImmutableSet.Builder<R> remaining = ImmutableSet.builder();
+        for (final R existing : node.registrations) {
+            if (!existing.equals(registration)) {
+                remaining.add(existing);
+            }
+        }
+        node.registrations = remaining.build();
+
+        if (arguments == null) {
+            if (node.registrations.isEmpty()) {
+                unindexed.remove(path);
+            }
+            return;
+        }
+        // Prune the nodes left without registrations nor children
+        while (node.parent != null && node.registrations.isEmpty() && node.children.isEmpty()) {
+            node.parent.children.remove(node.argument);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Returns the registrations for the paths which contain one of the
+     * changed paths, grouped by registered path.
+     */
+    Collection<Node<P, R>> findContaining(final Set<P> changedPaths) {
+        final Set<Node<P, R>> result = new LinkedHashSet<>();
+        for (final P changed : changedPaths) {
+            final List<?> arguments = broker.getPathArguments(changed);
+            if (arguments == null) {
+                continue;
+            }
+            Collection<Node<P, R>> frontier = Collections.singletonList(root);
+            addRegistered(frontier, result);
+            for (int i = 0; !frontier.isEmpty() && i < arguments.size(); i++) {
+                frontier = matchChildren(frontier, arguments.get(i));
+                addRegistered(frontier, result);
+            }
+        }
+        for (final Node<P, R> node : unindexed.values()) {
+            if (broker.isAffectedBy(node.path, changedPaths)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the registrations for the paths which are contained in one of
+     * the changed paths, grouped by registered path.
+     */
+    Collection<Node<P, R>> findContainedIn(final Set<P> changedPaths) {
+        final Set<Node<P, R>> result = new LinkedHashSet<>();
+        for (final P changed : changedPaths) {
+            final List<?> arguments = broker.getPathArguments(changed);
+            if (arguments == null) {
+                continue;
+            }
+            Collection<Node<P, R>> frontier = Collections.singletonList(root);
+            for (int i = 0; !frontier.isEmpty() && i < arguments.size(); i++) {
+                frontier = matchChildren(frontier, arguments.get(i));
+            }
+            for (final Node<P, R> node : frontier) {
+                addSubtree(node, result);
+            }
+        }
+        for (final Node<P, R> node : unindexed.values()) {
+            if (broker.isProbablyAffectedBy(node.path, changedPaths)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return all the registrations with their path
+     */
+    Collection<Entry<P, R>> entries() {
+        final Set<Node<P, R>> nodes = new LinkedHashSet<>();
+        addSubtree(root, nodes);
+        nodes.addAll(unindexed.values());
+        final List<Entry<P, R>> result = new ArrayList<>();
+        for (final Node<P, R> node : nodes) {
+            for (final R registration : node.registrations) {
+                result.add(new SimpleImmutableEntry<>(node.path, registration));
+            }
+        }
+        return result;
+    }
+
+    private Collection<Node<P, R>> matchChildren(final Collection<Node<P, R>> nodes, final Object argument) {
+        final Object wildcard = broker.getWildcard(argument);
+        final ImmutableList.Builder<Node<P, R>> matches = ImmutableList.builder();
+        for (final Node<P, R> node : nodes) {
+            final Node<P, R> exact = node.children.get(argument);
+            if (exact != null) {
+                matches.add(exact);
+            }
+            if (wildcard == null) {
+                continue;
+            }
+            if (!wildcard.equals(argument)) {
+                // Entry of a list, registrations for the whole list match
+                final Node<P, R> any = node.children.get(wildcard);
+                if (any != null) {
+                    matches.add(any);
+                }
+            } else {
+                // Wildcard, registrations for any entry of the list match
+                for (final Node<P, R> child : node.children.values()) {
+                    if (child != exact && wildcard.equals(broker.getWildcard(child.argument))) {
+                        matches.add(child);
+                    }
+                }
+            }
+        }
+        return matches.build();
+    }
+
+    private static <P, R> void addRegistered(final Collection<Node<P, R>> nodes, final Set<Node<P, R>> result) {
+        for (final Node<P, R> node : nodes) {
+            if (!node.registrations.isEmpty()) {
+                result.add(node);
+            }
+        }
+    }
+
+    private static <P, R> void addSubtree(final Node<P, R> node, final Set<Node<P, R>> result) {
+        if (!node.registrations.isEmpty()) {
+            result.add(node);
+        }
+        for (final Node<P, R> child : node.children.values()) {
+            addSubtree(child, result);
+        }
+    }
+}
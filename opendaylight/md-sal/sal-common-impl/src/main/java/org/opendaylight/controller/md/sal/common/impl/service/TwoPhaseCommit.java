@@ -9,18 +9,24 @@ package org.opendaylight.controller.md.sal.common.impl.service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.opendaylight.controller.md.sal.common.api.TransactionStatus;
 import org.opendaylight.controller.md.sal.common.api.data.DataChangeEvent;
 import org.opendaylight.controller.md.sal.common.api.data.DataChangeListener;
 import org.opendaylight.controller.md.sal.common.api.data.DataCommitHandler;
 import org.opendaylight.controller.md.sal.common.api.data.DataCommitHandler.DataCommitTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.DataModification;
 import org.opendaylight.controller.sal.common.util.Rpcs;
 import org.opendaylight.yangtools.concepts.Path;
 import org.opendaylight.yangtools.yang.common.RpcError;
@@ -43,24 +49,30 @@ public class TwoPhaseCommit<P extends Path<P>, D extends Object, DCL extends Dat
 
     private final AbstractDataBroker<P, D, DCL> dataBroker;
 
+    private final Set<P> changedPaths;
+
     public TwoPhaseCommit(final AbstractDataTransaction<P, D> transaction, final AbstractDataBroker<P, D, DCL> broker) {
         this.transaction = transaction;
         this.dataBroker = broker;
-    }
-
-    @Override
-    public RpcResult<TransactionStatus> call() throws Exception {
-        final Object transactionId = this.transaction.getIdentifier();
-
-        Set<P> changedPaths = ImmutableSet.<P> builder().addAll(transaction.getUpdatedConfigurationData().keySet())
+        this.changedPaths = ImmutableSet.<P> builder().addAll(transaction.getUpdatedConfigurationData().keySet())
                 .addAll(transaction.getCreatedConfigurationData().keySet())
                 .addAll(transaction.getRemovedConfigurationData())
                 .addAll(transaction.getUpdatedOperationalData().keySet())
                 .addAll(transaction.getCreatedOperationalData().keySet())
                 .addAll(transaction.getRemovedOperationalData()).build();
+    }
+
+    Set<P> getChangedPaths() {
+        return changedPaths;
+    }
+
+    @Override
+    public RpcResult<TransactionStatus> call() throws Exception {
+        final Object transactionId = this.transaction.getIdentifier();
 
         log.trace("Transaction: {} Affected Subtrees:", transactionId, changedPaths);
 
+        long phaseStart = System.nanoTime();
         final ImmutableList.Builder<ListenerStateCapture<P, D, DCL>> listenersBuilder = ImmutableList.builder();
         listenersBuilder.addAll(dataBroker.affectedListeners(changedPaths));
         filterProbablyAffectedListeners(dataBroker.probablyAffectedListeners(changedPaths),listenersBuilder);
@@ -68,31 +80,23 @@ public class TwoPhaseCommit<P extends Path<P>, D extends Object, DCL extends Dat
 
 
         final ImmutableList<ListenerStateCapture<P, D, DCL>> listeners = listenersBuilder.build();
-        final Iterable<DataCommitHandler<P, D>> commitHandlers = dataBroker.affectedCommitHandlers(changedPaths);
+        final List<DataCommitHandler<P, D>> commitHandlers = dataBroker.affectedCommitHandlers(changedPaths);
         captureInitialState(listeners);
 
 
         log.trace("Transaction: {} Starting Request Commit.",transactionId);
         final List<DataCommitTransaction<P, D>> handlerTransactions = new ArrayList<>();
-        try {
-            for (final DataCommitHandler<P, D> handler : commitHandlers) {
-                DataCommitTransaction<P, D> requestCommit = handler.requestCommit(this.transaction);
-                if (requestCommit != null) {
-                    handlerTransactions.add(requestCommit);
-                } else {
-                    log.debug("Transaction: {}, Handler {}  is not participating in transaction.", transactionId,
-                            handler);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Transaction: {} Request Commit failed", transactionId, e);
+        final Exception requestFailure = requestCommit(commitHandlers, handlerTransactions);
+        dataBroker.getRequestCommitLatency().record(System.nanoTime() - phaseStart);
+        if (requestFailure != null) {
+            log.error("Transaction: {} Request Commit failed", transactionId, requestFailure);
             dataBroker.getFailedTransactionsCount().getAndIncrement();
             this.transaction.changeStatus(TransactionStatus.FAILED);
-            return this.rollback(handlerTransactions, e);
-
+            return this.rollback(handlerTransactions, requestFailure);
         }
 
         log.trace("Transaction: {} Starting Finish.",transactionId);
+        phaseStart = System.nanoTime();
         final List<RpcResult<Void>> results = new ArrayList<RpcResult<Void>>();
         try {
             for (final DataCommitTransaction<P, D> subtransaction : handlerTransactions) {
@@ -103,6 +107,8 @@ public class TwoPhaseCommit<P extends Path<P>, D extends Object, DCL extends Dat
             dataBroker.getFailedTransactionsCount().getAndIncrement();
             transaction.changeStatus(TransactionStatus.FAILED);
             return this.rollback(handlerTransactions, e);
+        } finally {
+            dataBroker.getFinishLatency().record(System.nanoTime() - phaseStart);
         }
 
 
@@ -111,15 +117,78 @@ public class TwoPhaseCommit<P extends Path<P>, D extends Object, DCL extends Dat
 
         log.trace("Transaction: {} Finished successfully.", transactionId);
 
-        captureFinalState(listeners);
+        phaseStart = System.nanoTime();
+        captureFinalState(listeners, handlerTransactions);
 
         log.trace("Transaction: {} Notifying listeners.");
 
         publishDataChangeEvent(listeners);
+        dataBroker.getPublishLatency().record(System.nanoTime() - phaseStart);
         return Rpcs.<TransactionStatus> getRpcResult(true, TransactionStatus.COMMITED,
                 Collections.<RpcError> emptySet());
     }
 
+    /*
+     * Handlers vote on the transaction independently of each other, so their
+     * requests are run concurrently on the broker executor. Requests not yet
+     * picked up by the executor run on the committing thread, which thus never
+     * waits for a request which did not start.
+     */
+    private Exception requestCommit(final List<DataCommitHandler<P, D>> commitHandlers,
+            final List<DataCommitTransaction<P, D>> handlerTransactions) {
+        final List<FutureTask<DataCommitTransaction<P, D>>> requests = new ArrayList<>(commitHandlers.size());
+        for (final DataCommitHandler<P, D> handler : commitHandlers) {
+            requests.add(new FutureTask<>(new Callable<DataCommitTransaction<P, D>>() {
+                @Override
+                public DataCommitTransaction<P, D> call() throws Exception {
+                    return handler.requestCommit(transaction);
+                }
+            }));
+        }
+        final ExecutorService executor = dataBroker.getExecutor();
+        for (int i = 1; i < requests.size(); i++) {
+            try {
+                executor.execute(requests.get(i));
+            } catch (RejectedExecutionException e) {
+                log.debug("Transaction: {} Request Commit of handler {} runs on the committing thread",
+                        transaction.getIdentifier(), commitHandlers.get(i), e);
+            }
+        }
+        for (final FutureTask<DataCommitTransaction<P, D>> request : requests) {
+            request.run();
+        }
+
+        Exception failure = null;
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                final DataCommitTransaction<P, D> requestCommit = requests.get(i).get();
+                if (requestCommit != null) {
+                    handlerTransactions.add(requestCommit);
+                } else {
+                    log.debug("Transaction: {}, Handler {}  is not participating in transaction.",
+                            transaction.getIdentifier(), commitHandlers.get(i));
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        return failure;
+    }
+
+    /*
+     * The initial states are read from the store rather than taken from the
+     * modification: the original data of the modification is read when a
+     * path is first written, possibly long before the commit. Commits
+     * conflicting with this one are not run concurrently with it, so the
+     * initial states hold the changes of all the commits it is ordered after.
+     */
     private void captureInitialState(ImmutableList<ListenerStateCapture<P, D, DCL>> listeners) {
         for (ListenerStateCapture<P, D, DCL> state : listeners) {
             state.setInitialConfigurationState(dataBroker.readConfigurationData(state.getPath()));
@@ -127,12 +196,79 @@ public class TwoPhaseCommit<P extends Path<P>, D extends Object, DCL extends Dat
         }
     }
 
-
-    private void captureFinalState(ImmutableList<ListenerStateCapture<P, D, DCL>> listeners) {
+    /*
+     * The final states are the initial ones with the changes of this commit
+     * applied, so that commits changing other paths below a listener and
+     * finishing meanwhile do not show up in its events.
+     */
+    private void captureFinalState(ImmutableList<ListenerStateCapture<P, D, DCL>> listeners,
+            List<DataCommitTransaction<P, D>> handlerTransactions) {
+        final Map<P, D> updatedConfig = committedUpdates(handlerTransactions, true);
+        final Map<P, D> updatedOper = committedUpdates(handlerTransactions, false);
         for (ListenerStateCapture<P, D, DCL> state : listeners) {
-            state.setFinalConfigurationState(dataBroker.readConfigurationData(state.getPath()));
-            state.setFinalOperationalState(dataBroker.readOperationalData(state.getPath()));
+            state.setFinalConfigurationState(finalState(state.getPath(), state.getInitialConfigurationState(),
+                    updatedConfig, transaction.getRemovedConfigurationData(), true));
+            state.setFinalOperationalState(finalState(state.getPath(), state.getInitialOperationalState(),
+                    updatedOper, transaction.getRemovedOperationalData(), false));
+        }
+    }
+
+    /*
+     * The data written by this commit as the handlers committed it, the
+     * store merging it with the data it already holds
+     */
+    private Map<P, D> committedUpdates(List<DataCommitTransaction<P, D>> handlerTransactions, boolean config) {
+        final Map<P, D> updated = new HashMap<>(config ? transaction.getUpdatedConfigurationData()
+                : transaction.getUpdatedOperationalData());
+        for (DataCommitTransaction<P, D> handlerTransaction : handlerTransactions) {
+            final DataModification<P, D> modification = handlerTransaction.getModification();
+            if (modification == null || modification == transaction) {
+                continue;
+            }
+            final Map<P, D> committed = config ? modification.getUpdatedConfigurationData()
+                    : modification.getUpdatedOperationalData();
+            for (Entry<P, D> entry : committed.entrySet()) {
+                if (updated.containsKey(entry.getKey())) {
+                    updated.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return updated;
+    }
+
+    /*
+     * Changes at or above the path conflict with any other commit below it,
+     * so in that case the store is read back, holding the changes of this
+     * commit only.
+     */
+    private D finalState(P path, D initial, Map<P, D> updated, Set<P> removed, boolean config) {
+        final Map<P, D> updatedBelow = new HashMap<>();
+        final Set<P> removedBelow = new HashSet<>();
+        boolean replaced = false;
+        for (Entry<P, D> entry : updated.entrySet()) {
+            if (entry.getKey().contains(path)) {
+                replaced = true;
+            } else if (path.contains(entry.getKey())) {
+                updatedBelow.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (P removedPath : removed) {
+            if (removedPath.contains(path)) {
+                replaced = true;
+            } else if (path.contains(removedPath)) {
+                removedBelow.add(removedPath);
+            }
+        }
+        if (!replaced) {
+            if (updatedBelow.isEmpty() && removedBelow.isEmpty()) {
+                return initial;
+            }
+            final Optional<D> applied = dataBroker.applyChanges(path, initial, updatedBelow, removedBelow);
+            if (applied.isPresent()) {
+                return applied.get();
+            }
         }
+        return config ? dataBroker.readConfigurationData(path) : dataBroker.readOperationalData(path);
     }
 
     private void filterProbablyAffectedListeners(
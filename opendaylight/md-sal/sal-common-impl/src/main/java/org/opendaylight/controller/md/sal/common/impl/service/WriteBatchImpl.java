@@ -0,0 +1,451 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opendaylight.controller.md.sal.common.api.TransactionStatus;
+import org.opendaylight.controller.md.sal.common.api.data.DataModification;
+import org.opendaylight.controller.md.sal.common.api.data.DataModificationTransactionFactory;
+import org.opendaylight.controller.md.sal.common.api.data.DataReader;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionChainClosedException;
+import org.opendaylight.controller.md.sal.common.api.data.WriteBatch;
+import org.opendaylight.controller.md.sal.common.impl.AbstractDataModification;
+import org.opendaylight.controller.sal.common.util.Rpcs;
+import org.opendaylight.yangtools.concepts.Path;
+import org.opendaylight.yangtools.yang.common.RpcError;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Batch merging the transactions of a producer into transactions of a
+ * {@link DataModificationTransactionFactory}.
+ *
+ * A transaction of the batch buffers its writes until it is committed. They
+ * are then replayed into the current generation, backed by a single
+ * transaction of the factory, so transactions committed one after another
+ * share it. A generation is committed when its flush timer fires, when it
+ * holds the maximum number of transactions or when the batch is flushed.
+ * Generations are committed with the batch locked, in the order they were
+ * started.
+ *
+ * @param <P>
+ *            path type
+ * @param <D>
+ *            data type
+ */
+public class WriteBatchImpl<P extends Path<P>, D> implements WriteBatch<P, D> {
+    private final static Logger LOG = LoggerFactory.getLogger(WriteBatchImpl.class);
+    private final static AtomicLong TRANSACTION_COUNTER = new AtomicLong();
+
+    private final class Generation implements Runnable {
+        private final DataModification<P, D> transaction;
+        private final SettableFuture<RpcResult<TransactionStatus>> result = SettableFuture.create();
+        private ScheduledFuture<?> timer;
+        private int transactions;
+
+        Generation(final DataModification<P, D> transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public void run() {
+            synchronized (WriteBatchImpl.this) {
+                if (current == this) {
+                    commitCurrent();
+                }
+            }
+        }
+    }
+
+    private final DataModificationTransactionFactory<P, D> factory;
+    private final DataReader<P, D> reader;
+    private final ScheduledExecutorService timerExecutor;
+    private final long flushTimeout;
+    private final TimeUnit unit;
+    private final int maxTransactions;
+
+    private Generation current;
+    private boolean closed;
+
+    public WriteBatchImpl(final DataModificationTransactionFactory<P, D> factory, final DataReader<P, D> reader,
+            final ScheduledExecutorService timerExecutor, final int maxTransactions, final long flushTimeout,
+            final TimeUnit unit) {
+        Preconditions.checkArgument(maxTransactions > 0, "Maximum number of transactions must be positive");
+        this.factory = Preconditions.checkNotNull(factory);
+        this.reader = Preconditions.checkNotNull(reader);
+        this.timerExecutor = Preconditions.checkNotNull(timerExecutor);
+        this.maxTransactions = maxTransactions;
+        this.flushTimeout = flushTimeout;
+        this.unit = Preconditions.checkNotNull(unit);
+    }
+
+    @Override
+    public synchronized DataModification<P, D> newTransaction() {
+        if (closed) {
+            throw new TransactionChainClosedException("Write batch " + this + " was closed");
+        }
+        return createTransaction("batch-" + TRANSACTION_COUNTER.incrementAndGet());
+    }
+
+    /**
+     * Creates the transaction handed to the producer.
+     *
+     * @param identifier
+     *            identifier of the transaction
+     * @return transaction of the batch
+     */
+    protected BatchedTransaction<P, D> createTransaction(final Object identifier) {
+        return new BatchedTransaction<>(this, identifier);
+    }
+
+    @Override
+    public synchronized Future<RpcResult<TransactionStatus>> flush() {
+        if (current == null) {
+            return Futures.immediateFuture(committed());
+        }
+        return commitCurrent();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        flush();
+    }
+
+    /*
+     * Replays a committed transaction of the batch into the current
+     * generation. Transactions committed after the batch was closed are
+     * committed right away, as no flush follows.
+     */
+    private synchronized Future<RpcResult<TransactionStatus>> submit(final BatchedTransaction<P, D> transaction) {
+        Generation generation = current;
+        if (generation == null) {
+            generation = new Generation(factory.beginTransaction());
+            generation.timer = timerExecutor.schedule(generation, flushTimeout, unit);
+            current = generation;
+        }
+        transaction.merge(generation.transaction);
+        generation.transactions++;
+        if (closed || generation.transactions >= maxTransactions) {
+            commitCurrent();
+        }
+        return generation.result;
+    }
+
+    /*
+     * Commits the current generation. Invoked with the batch locked, so the
+     * commits are submitted in order.
+     */
+    private Future<RpcResult<TransactionStatus>> commitCurrent() {
+        final Generation generation = current;
+        current = null;
+        generation.timer.cancel(false);
+        commit(generation);
+        return generation.result;
+    }
+
+    private void commit(final Generation generation) {
+        final DataModification<P, D> transaction = generation.transaction;
+        if (isEmpty(transaction)) {
+            generation.result.set(committed());
+            return;
+        }
+        LOG.trace("Committing {} batched transactions as {}", generation.transactions, transaction.getIdentifier());
+        final Future<RpcResult<TransactionStatus>> commit;
+        try {
+            commit = transaction.commit();
+        } catch (Exception e) {
+            LOG.error("Failed to commit batched transaction {}", transaction.getIdentifier(), e);
+            generation.result.setException(e);
+            return;
+        }
+        Futures.addCallback(JdkFutureAdapters.listenInPoolThread(commit),
+                new FutureCallback<RpcResult<TransactionStatus>>() {
+                    @Override
+                    public void onSuccess(final RpcResult<TransactionStatus> result) {
+                        generation.result.set(result);
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable t) {
+                        generation.result.setException(t);
+                    }
+                });
+    }
+
+    private static boolean isEmpty(final DataModification<?, ?> transaction) {
+        return transaction.getUpdatedConfigurationData().isEmpty()
+                && transaction.getUpdatedOperationalData().isEmpty()
+                && transaction.getRemovedConfigurationData().isEmpty()
+                && transaction.getRemovedOperationalData().isEmpty();
+    }
+
+    private static RpcResult<TransactionStatus> committed() {
+        return Rpcs.<TransactionStatus> getRpcResult(true, TransactionStatus.COMMITED,
+                Collections.<RpcError> emptySet());
+    }
+
+    /**
+     * Transaction of a batch. It buffers its writes and reads the data
+     * committed to the store, like a standalone transaction. Committing it
+     * replays its writes into the transaction of the current generation, whose
+     * created and original data it reports from then on.
+     *
+     * @param <P>
+     *            path type
+     * @param <D>
+     *            data type
+     */
+    protected static class BatchedTransaction<P extends Path<P>, D> implements DataModification<P, D> {
+        private final WriteBatchImpl<P, D> batch;
+        private final Object identifier;
+        private final Map<P, D> operationalUpdate = new HashMap<>();
+        private final Map<P, D> configurationUpdate = new HashMap<>();
+        private final Set<P> operationalRemove = new HashSet<>();
+        private final Set<P> configurationRemove = new HashSet<>();
+        private volatile DataModification<P, D> delegate;
+        private boolean submitted;
+
+        protected BatchedTransaction(final WriteBatchImpl<P, D> batch, final Object identifier) {
+            this.batch = batch;
+            this.identifier = identifier;
+        }
+
+        /**
+         * Returns the transaction of the generation the transaction was
+         * merged into.
+         *
+         * @return transaction of the generation, null until the transaction
+         *         is committed
+         */
+        protected DataModification<P, D> getDelegate() {
+            return delegate;
+        }
+
+        /**
+         * Invoked with the batch locked once the writes of the transaction
+         * were replayed into the transaction of its generation.
+         *
+         * @param delegate
+         *            transaction of the generation
+         */
+        protected void onMerged(final DataModification<P, D> delegate) {
+            // Nothing to do by default
+        }
+
+        private void checkMutable() {
+            Preconditions.checkState(!submitted, "Transaction was already submitted");
+        }
+
+        /*
+         * Replays the writes: removals come first, as the store applies them
+         * before updates, and drop the updates they cover which were
+         * replayed by earlier transactions of the generation.
+         */
+        private synchronized void merge(final DataModification<P, D> generation) {
+            for (final P path : operationalRemove) {
+                discardOperationalData(generation, path);
+                generation.removeOperationalData(path);
+            }
+            for (final P path : configurationRemove) {
+                discardConfigurationData(generation, path);
+                generation.removeConfigurationData(path);
+            }
+            for (final Map.Entry<P, D> entry : operationalUpdate.entrySet()) {
+                generation.putOperationalData(entry.getKey(), entry.getValue());
+            }
+            for (final Map.Entry<P, D> entry : configurationUpdate.entrySet()) {
+                generation.putConfigurationData(entry.getKey(), entry.getValue());
+            }
+            delegate = generation;
+            onMerged(generation);
+        }
+
+        /*
+         * Generations not backed by an AbstractDataModification can only
+         * drop the covered updates by removing their paths as well.
+         */
+        private static <P extends Path<P>, D> void discardOperationalData(final DataModification<P, D> generation,
+                final P path) {
+            if (generation instanceof AbstractDataModification) {
+                ((AbstractDataModification<P, D>) generation).discardOperationalData(path);
+                return;
+            }
+            for (final P updated : covered(path, generation.getUpdatedOperationalData().keySet())) {
+                generation.removeOperationalData(updated);
+            }
+        }
+
+        private static <P extends Path<P>, D> void discardConfigurationData(final DataModification<P, D> generation,
+                final P path) {
+            if (generation instanceof AbstractDataModification) {
+                ((AbstractDataModification<P, D>) generation).discardConfigurationData(path);
+                return;
+            }
+            for (final P updated : covered(path, generation.getUpdatedConfigurationData().keySet())) {
+                generation.removeConfigurationData(updated);
+            }
+        }
+
+        private static <P extends Path<P>> Set<P> covered(final P path, final Set<P> updated) {
+            final Set<P> covered = new HashSet<>();
+            for (final P candidate : updated) {
+                if (path.contains(candidate)) {
+                    covered.add(candidate);
+                }
+            }
+            return covered;
+        }
+
+        /*
+         * A removal drops the updates of this transaction it covers, so that
+         * a later update below the removed path survives it.
+         */
+        private static <P extends Path<P>> void remove(final P path, final Map<P, ?> updates, final Set<P> removals) {
+            final Iterator<P> iterator = updates.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (path.contains(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+            removals.add(path);
+        }
+
+        @Override
+        public Object getIdentifier() {
+            return identifier;
+        }
+
+        @Override
+        public TransactionStatus getStatus() {
+            final DataModification<P, D> merged = delegate;
+            if (merged == null) {
+                return TransactionStatus.NEW;
+            }
+            final TransactionStatus status = merged.getStatus();
+            return status == TransactionStatus.NEW ? TransactionStatus.SUBMITED : status;
+        }
+
+        @Override
+        @Deprecated
+        public void putRuntimeData(final P path, final D data) {
+            putOperationalData(path, data);
+        }
+
+        @Override
+        public synchronized void putOperationalData(final P path, final D data) {
+            checkMutable();
+            operationalUpdate.put(path, data);
+        }
+
+        @Override
+        public synchronized void putConfigurationData(final P path, final D data) {
+            checkMutable();
+            configurationUpdate.put(path, data);
+        }
+
+        @Override
+        @Deprecated
+        public void removeRuntimeData(final P path) {
+            removeOperationalData(path);
+        }
+
+        @Override
+        public synchronized void removeOperationalData(final P path) {
+            checkMutable();
+            remove(path, operationalUpdate, operationalRemove);
+        }
+
+        @Override
+        public synchronized void removeConfigurationData(final P path) {
+            checkMutable();
+            remove(path, configurationUpdate, configurationRemove);
+        }
+
+        @Override
+        public Future<RpcResult<TransactionStatus>> commit() {
+            synchronized (this) {
+                checkMutable();
+                submitted = true;
+            }
+            return batch.submit(this);
+        }
+
+        @Override
+        public D readOperationalData(final P path) {
+            return batch.reader.readOperationalData(path);
+        }
+
+        @Override
+        public D readConfigurationData(final P path) {
+            return batch.reader.readConfigurationData(path);
+        }
+
+        @Override
+        public Map<P, D> getCreatedOperationalData() {
+            final DataModification<P, D> merged = delegate;
+            return merged == null ? Collections.<P, D> emptyMap() : merged.getCreatedOperationalData();
+        }
+
+        @Override
+        public Map<P, D> getCreatedConfigurationData() {
+            final DataModification<P, D> merged = delegate;
+            return merged == null ? Collections.<P, D> emptyMap() : merged.getCreatedConfigurationData();
+        }
+
+        @Override
+        public synchronized Map<P, D> getUpdatedOperationalData() {
+            return Collections.unmodifiableMap(new HashMap<>(operationalUpdate));
+        }
+
+        @Override
+        public synchronized Map<P, D> getUpdatedConfigurationData() {
+            return Collections.unmodifiableMap(new HashMap<>(configurationUpdate));
+        }
+
+        @Override
+        public synchronized Set<P> getRemovedConfigurationData() {
+            return Collections.unmodifiableSet(new HashSet<>(configurationRemove));
+        }
+
+        @Override
+        public synchronized Set<P> getRemovedOperationalData() {
+            return Collections.unmodifiableSet(new HashSet<>(operationalRemove));
+        }
+
+        @Override
+        public Map<P, D> getOriginalConfigurationData() {
+            final DataModification<P, D> merged = delegate;
+            return merged == null ? Collections.<P, D> emptyMap() : merged.getOriginalConfigurationData();
+        }
+
+        @Override
+        public Map<P, D> getOriginalOperationalData() {
+            final DataModification<P, D> merged = delegate;
+            return merged == null ? Collections.<P, D> emptyMap() : merged.getOriginalOperationalData();
+        }
+    }
+}
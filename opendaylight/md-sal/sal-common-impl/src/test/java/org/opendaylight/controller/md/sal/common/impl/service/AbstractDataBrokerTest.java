@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.common.api.TransactionStatus;
+import org.opendaylight.controller.md.sal.common.api.data.DataChangeEvent;
+import org.opendaylight.controller.md.sal.common.api.data.DataChangeListener;
+import org.opendaylight.controller.md.sal.common.api.data.DataCommitHandler;
+import org.opendaylight.controller.md.sal.common.api.data.DataModification;
+import org.opendaylight.controller.md.sal.common.api.data.DataReader;
+import org.opendaylight.controller.md.sal.common.impl.routing.AbstractDataReadRouter;
+import org.opendaylight.controller.sal.common.util.Rpcs;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.concepts.Registration;
+import org.opendaylight.yangtools.yang.common.RpcError;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class AbstractDataBrokerTest {
+
+    private static final class TestBroker extends
+            AbstractDataBroker<TestPath, Object, DataChangeListener<TestPath, Object>> {
+        private final boolean indexed;
+
+        TestBroker(final boolean indexed) {
+            this.indexed = indexed;
+            setDataReadRouter(new AbstractDataReadRouter<TestPath, Object>() {
+                @Override
+                protected Object merge(final TestPath path, final Iterable<Object> data) {
+                    return Iterables.getFirst(data, null);
+                }
+            });
+        }
+
+        @Override
+        public DataModification<TestPath, Object> beginTransaction() {
+            return new TestTransaction(this);
+        }
+
+        @Override
+        protected List<?> getPathArguments(final TestPath path) {
+            return indexed ? path.arguments : null;
+        }
+
+        @Override
+        protected Object getWildcard(final Object argument) {
+            final String string = (String) argument;
+            final int separator = string.indexOf('=');
+            return separator < 0 ? null : string.substring(0, separator) + "=*";
+        }
+
+        /*
+         * Data read at a path with children is the map of the data of its
+         * direct children by their last argument
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Optional<Object> applyChanges(final TestPath path, final Object original,
+                final Map<TestPath, Object> updated, final Set<TestPath> removed) {
+            if (original != null && !(original instanceof Map)) {
+                return Optional.absent();
+            }
+            final Map<String, Object> children = new TreeMap<>();
+            if (original != null) {
+                children.putAll((Map<String, Object>) original);
+            }
+            for (final TestPath removedPath : removed) {
+                if (removedPath.arguments.size() == path.arguments.size() + 1) {
+                    children.remove(removedPath.arguments.get(path.arguments.size()));
+                }
+            }
+            for (final Map.Entry<TestPath, Object> entry : updated.entrySet()) {
+                if (entry.getKey().arguments.size() == path.arguments.size() + 1) {
+                    children.put(entry.getKey().arguments.get(path.arguments.size()), entry.getValue());
+                }
+            }
+            return children.isEmpty() ? Optional.absent() : Optional.<Object> of(children);
+        }
+    }
+
+    private static final class TestTransaction extends AbstractDataTransaction<TestPath, Object> {
+        TestTransaction(final TestBroker broker) {
+            super(new Object(), broker);
+        }
+
+        @Override
+        protected void onStatusChange(final TransactionStatus status) {
+            // NOOP
+        }
+    }
+
+    private static final class TestListener implements DataChangeListener<TestPath, Object> {
+        private final List<DataChangeEvent<TestPath, Object>> changes = new ArrayList<>();
+        private DataChangeEvent<TestPath, Object> lastChange;
+
+        @Override
+        public void onDataChanged(final DataChangeEvent<TestPath, Object> change) {
+            this.changes.add(change);
+            this.lastChange = change;
+        }
+    }
+
+    /*
+     * Configuration store recording the paths read from it, appending the
+     * written values to the stored ones when merging, and reading a path with
+     * stored children as the map of their values by their last argument
+     */
+    private static final class TestStore implements DataReader<TestPath, Object>, DataCommitHandler<TestPath, Object> {
+        private final Map<TestPath, Object> configuration = new ConcurrentHashMap<>();
+        private final List<TestPath> configurationReads = new ArrayList<>();
+        private boolean merging;
+
+        @Override
+        public Object readConfigurationData(final TestPath path) {
+            configurationReads.add(path);
+            final Map<String, Object> children = new TreeMap<>();
+            for (final Map.Entry<TestPath, Object> entry : configuration.entrySet()) {
+                final List<String> arguments = entry.getKey().arguments;
+                if (arguments.size() == path.arguments.size() + 1 && path.contains(entry.getKey())) {
+                    children.put(arguments.get(path.arguments.size()), entry.getValue());
+                }
+            }
+            return children.isEmpty() ? configuration.get(path) : children;
+        }
+
+        @Override
+        public Object readOperationalData(final TestPath path) {
+            return null;
+        }
+
+        @Override
+        public DataCommitTransaction<TestPath, Object> requestCommit(
+                final DataModification<TestPath, Object> modification) {
+            return new DataCommitTransaction<TestPath, Object>() {
+                @Override
+                public DataModification<TestPath, Object> getModification() {
+                    return modification;
+                }
+
+                @Override
+                public RpcResult<Void> finish() {
+                    configuration.keySet().removeAll(modification.getRemovedConfigurationData());
+                    for (final Map.Entry<TestPath, Object> entry : modification.getUpdatedConfigurationData()
+                            .entrySet()) {
+                        final Object stored = configuration.get(entry.getKey());
+                        configuration.put(entry.getKey(), (merging && stored != null) ? stored + "," + entry.getValue()
+                                : entry.getValue());
+                    }
+                    return Rpcs.<Void> getRpcResult(true, null, Collections.<RpcError> emptySet());
+                }
+
+                @Override
+                public RpcResult<Void> rollback() {
+                    return Rpcs.<Void> getRpcResult(true, null, Collections.<RpcError> emptySet());
+                }
+            };
+        }
+    }
+
+    private static Set<TestPath> paths(final String... paths) {
+        final Set<TestPath> result = new HashSet<>();
+        for (final String path : paths) {
+            result.add(new TestPath(path));
+        }
+        return result;
+    }
+
+    private static Set<TestPath> captured(
+            final ImmutableList<ListenerStateCapture<TestPath, Object, DataChangeListener<TestPath, Object>>> captures) {
+        final Set<TestPath> result = new HashSet<>();
+        for (final ListenerStateCapture<TestPath, Object, DataChangeListener<TestPath, Object>> capture : captures) {
+            assertTrue(capture.listeners.iterator().hasNext());
+            result.add(capture.getPath());
+        }
+        return result;
+    }
+
+    private static void testListenerLookup(final TestBroker broker) {
+        final String[] registered = { "", "nodes", "nodes/node=1", "nodes/node=2", "nodes/node=*",
+                "nodes/node=1/table=0", "nodes/node=*/table=0", "topology" };
+        final ListenerRegistration<?>[] registrations = new ListenerRegistration<?>[registered.length];
+        for (int i = 0; i < registered.length; i++) {
+            registrations[i] = broker.registerDataChangeListener(new TestPath(registered[i]), new TestListener());
+        }
+
+        // Listeners at or above the changed paths
+        assertEquals(
+                paths("", "nodes", "nodes/node=1", "nodes/node=*", "nodes/node=1/table=0", "nodes/node=*/table=0"),
+                captured(broker.affectedListeners(paths("nodes/node=1/table=0/flow=5"))));
+        assertEquals(paths("", "nodes", "nodes/node=2", "nodes/node=*"),
+                captured(broker.affectedListeners(paths("nodes/node=2/table=1"))));
+        // A wildcard change matches the listeners of any entry
+        assertEquals(paths("", "nodes", "nodes/node=1", "nodes/node=2", "nodes/node=*"),
+                captured(broker.affectedListeners(paths("nodes/node=*"))));
+
+        // Listeners at or below the changed paths
+        assertEquals(paths("nodes/node=1", "nodes/node=*", "nodes/node=1/table=0", "nodes/node=*/table=0"),
+                captured(broker.probablyAffectedListeners(paths("nodes/node=1"))));
+        assertEquals(paths("topology", "nodes/node=2", "nodes/node=*", "nodes/node=*/table=0"),
+                captured(broker.probablyAffectedListeners(paths("topology", "nodes/node=2"))));
+
+        // Closing the registrations removes the listeners
+        registrations[5].close();
+        registrations[6].close();
+        assertEquals(paths("", "nodes", "nodes/node=1", "nodes/node=*"),
+                captured(broker.affectedListeners(paths("nodes/node=1/table=0/flow=5"))));
+        assertEquals(paths("nodes/node=1", "nodes/node=*"),
+                captured(broker.probablyAffectedListeners(paths("nodes/node=1"))));
+    }
+
+    @Test
+    public void testListenerLookup() {
+        testListenerLookup(new TestBroker(true));
+    }
+
+    @Test
+    public void testUnindexedListenerLookup() {
+        testListenerLookup(new TestBroker(false));
+    }
+
+    @Test
+    public void testCommitHandlerLookup() throws Exception {
+        final TestBroker broker = new TestBroker(true);
+        final DataCommitHandler<TestPath, Object> nodeHandler = new DataCommitHandler<TestPath, Object>() {
+            @Override
+            public DataCommitTransaction<TestPath, Object> requestCommit(
+                    final DataModification<TestPath, Object> modification) {
+                return null;
+            }
+        };
+        final DataCommitHandler<TestPath, Object> tableHandler = new DataCommitHandler<TestPath, Object>() {
+            @Override
+            public DataCommitTransaction<TestPath, Object> requestCommit(
+                    final DataModification<TestPath, Object> modification) {
+                return null;
+            }
+        };
+        final Registration<?> nodeRegistration = broker.registerCommitHandler(new TestPath("nodes/node=*"),
+                nodeHandler);
+        broker.registerCommitHandler(new TestPath("nodes/node=1/table=0"), tableHandler);
+        assertEquals(2, broker.getActiveCommitHandlers().size());
+
+        assertEquals(ImmutableList.of(nodeHandler),
+                broker.affectedCommitHandlers(paths("nodes/node=1/table=1")));
+        assertEquals(new HashSet<>(Arrays.asList(nodeHandler, tableHandler)),
+                new HashSet<>(broker.affectedCommitHandlers(paths("nodes/node=1/table=0"))));
+        assertEquals(ImmutableList.of(tableHandler),
+                broker.probablyAffectedCommitHandlers(new HashSet<>(paths("nodes/node=1/table=0"))));
+
+        nodeRegistration.close();
+        assertEquals(1, broker.getActiveCommitHandlers().size());
+        assertTrue(broker.affectedCommitHandlers(paths("nodes/node=1/table=1")).isEmpty());
+    }
+
+    @Test
+    public void testCommitEvents() throws Exception {
+        final TestBroker broker = new TestBroker(true);
+        broker.setExecutor(MoreExecutors.sameThreadExecutor());
+        final TestStore store = new TestStore();
+        broker.registerDataReader(new TestPath(""), store);
+        broker.registerCommitHandler(new TestPath(""), store);
+        store.configuration.put(new TestPath("nodes/node=1"), "old");
+        final TestListener nodeListener = new TestListener();
+        broker.registerDataChangeListener(new TestPath("nodes/node=1"), nodeListener);
+        final TestListener nodesListener = new TestListener();
+        broker.registerDataChangeListener(new TestPath("nodes"), nodesListener);
+
+        final DataModification<TestPath, Object> transaction = broker.beginTransaction();
+        transaction.putConfigurationData(new TestPath("nodes/node=1"), "new");
+        store.configurationReads.clear();
+        assertEquals(TransactionStatus.COMMITED, transaction.commit().get().getResult());
+
+        assertEquals("new", store.configuration.get(new TestPath("nodes/node=1")));
+        assertEquals("old", nodeListener.lastChange.getOriginalConfigurationSubtree());
+        assertEquals("new", nodeListener.lastChange.getUpdatedConfigurationSubtree());
+        assertTrue(nodesListener.lastChange.getUpdatedConfigurationData().containsKey(new TestPath("nodes/node=1")));
+        assertEquals(1, broker.getFinishLatency().getCount());
+    }
+
+    @Test
+    public void testCommitEventsReadStore() throws Exception {
+        final TestBroker broker = new TestBroker(true);
+        broker.setExecutor(MoreExecutors.sameThreadExecutor());
+        final TestStore store = new TestStore();
+        store.merging = true;
+        broker.registerDataReader(new TestPath(""), store);
+        broker.registerCommitHandler(new TestPath(""), store);
+        store.configuration.put(new TestPath("nodes/node=1"), "old");
+        final TestListener nodeListener = new TestListener();
+        broker.registerDataChangeListener(new TestPath("nodes/node=1"), nodeListener);
+
+        final DataModification<TestPath, Object> transaction = broker.beginTransaction();
+        transaction.putConfigurationData(new TestPath("nodes/node=1"), "new");
+        // Changed by another transaction after the put
+        store.configuration.put(new TestPath("nodes/node=1"), "other");
+        assertEquals(TransactionStatus.COMMITED, transaction.commit().get().getResult());
+
+        // The states are those of the store at commit time, not the ones of
+        // the modification
+        assertEquals("other", nodeListener.lastChange.getOriginalConfigurationSubtree());
+        assertEquals("other,new", nodeListener.lastChange.getUpdatedConfigurationSubtree());
+    }
+
+    @Test
+    public void testInterleavedCommitEvents() throws Exception {
+        final TestBroker broker = new TestBroker(true);
+        broker.setExecutor(MoreExecutors.sameThreadExecutor());
+        final TestStore store = new TestStore();
+        broker.registerDataReader(new TestPath(""), store);
+        broker.registerCommitHandler(new TestPath(""), store);
+        store.configuration.put(new TestPath("nodes/node=1"), "old");
+        final TestListener nodesListener = new TestListener();
+        broker.registerDataChangeListener(new TestPath("nodes"), nodesListener);
+
+        // Commits another node while the first commit is requested, the
+        // commits changing different paths below the listener
+        final DataModification<TestPath, Object> other = broker.beginTransaction();
+        other.putConfigurationData(new TestPath("nodes/node=2"), "other");
+        broker.registerCommitHandler(new TestPath("nodes/node=1"), new DataCommitHandler<TestPath, Object>() {
+            @Override
+            public DataCommitTransaction<TestPath, Object> requestCommit(
+                    final DataModification<TestPath, Object> modification) {
+                try {
+                    assertEquals(TransactionStatus.COMMITED, other.commit().get().getResult());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            }
+        });
+
+        final DataModification<TestPath, Object> transaction = broker.beginTransaction();
+        transaction.putConfigurationData(new TestPath("nodes/node=1"), "new");
+        nodesListener.changes.clear();
+        assertEquals(TransactionStatus.COMMITED, transaction.commit().get().getResult());
+        assertEquals(2, nodesListener.changes.size());
+
+        // Each event holds the changes of its own commit only
+        final Map<String, Object> original = new TreeMap<>();
+        original.put("node=1", "old");
+        final Map<String, Object> otherUpdated = new TreeMap<>(original);
+        otherUpdated.put("node=2", "other");
+        final Map<String, Object> updated = new TreeMap<>(original);
+        updated.put("node=1", "new");
+        final DataChangeEvent<TestPath, Object> otherChange = nodesListener.changes.get(0);
+        assertEquals(original, otherChange.getOriginalConfigurationSubtree());
+        assertEquals(otherUpdated, otherChange.getUpdatedConfigurationSubtree());
+        final DataChangeEvent<TestPath, Object> change = nodesListener.changes.get(1);
+        assertNotNull(change.getUpdatedConfigurationData().get(new TestPath("nodes/node=1")));
+        assertEquals(original, change.getOriginalConfigurationSubtree());
+        assertEquals(updated, change.getUpdatedConfigurationSubtree());
+
+        // The store holds both
+        otherUpdated.put("node=1", "new");
+        assertEquals(otherUpdated, store.readConfigurationData(new TestPath("nodes")));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CommitCoordinatorTest {
+
+    private ExecutorService executor;
+    private CommitCoordinator<TestPath> coordinator;
+    private final List<String> completed = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        coordinator = new CommitCoordinator<>(new LatencyStatistics());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Set<TestPath> paths(final String... paths) {
+        final Set<TestPath> result = new HashSet<>();
+        for (final String path : paths) {
+            result.add(new TestPath(path));
+        }
+        return result;
+    }
+
+    private Future<String> submit(final String name, final CountDownLatch release, final String... paths) {
+        return coordinator.submit(paths(paths), new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+                completed.add(name);
+                return name;
+            }
+        }, executor);
+    }
+
+    @Test
+    public void testConflictingCommitsAreOrdered() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(0);
+
+        final Future<String> node = submit("node", blocked, "nodes/node=1");
+        final Future<String> table = submit("table", released, "nodes/node=1/table=0");
+        final Future<String> nodes = submit("nodes", released, "nodes");
+        final Future<String> other = submit("other", released, "topology");
+
+        // Independent of the blocked commit
+        assertEquals("other", other.get(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(table.isDone());
+        assertFalse(nodes.isDone());
+
+        blocked.countDown();
+        assertEquals("node", node.get(10, TimeUnit.SECONDS));
+        assertEquals("table", table.get(10, TimeUnit.SECONDS));
+        assertEquals("nodes", nodes.get(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("other", "node", "table", "nodes"), completed);
+    }
+
+    @Test
+    public void testRejectedCommitReleasesSuccessors() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final Future<String> first = submit("first", blocked, "nodes");
+        executor.shutdown();
+        final Future<String> second = submit("second", new CountDownLatch(0), "nodes/node=1");
+
+        blocked.countDown();
+        assertEquals("first", first.get(10, TimeUnit.SECONDS));
+        try {
+            second.get(10, TimeUnit.SECONDS);
+            fail("Commit rejected by the executor should be cancelled");
+        } catch (CancellationException e) {
+            // Expected
+        }
+        assertEquals(Collections.singletonList("first"), completed);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.opendaylight.yangtools.concepts.Path;
+
+/**
+ * Path of "/" separated arguments, "type=key" being an entry of a keyed
+ * list and "type=*" its wildcard
+ */
+final class TestPath implements Path<TestPath> {
+    final List<String> arguments;
+
+    TestPath(final String path) {
+        this.arguments = path.isEmpty() ? Collections.<String> emptyList() : Arrays.asList(path.split("/"));
+    }
+
+    @Override
+    public boolean contains(final TestPath other) {
+        if (arguments.size() > other.arguments.size()) {
+            return false;
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            final String argument = arguments.get(i);
+            final String otherArgument = other.arguments.get(i);
+            if (!argument.equals(otherArgument) && !(argument.endsWith("=*") || otherArgument.endsWith("=*"))
+                    || !type(argument).equals(type(otherArgument))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String type(final String argument) {
+        final int separator = argument.indexOf('=');
+        return separator < 0 ? argument : argument.substring(0, separator);
+    }
+
+    @Override
+    public int hashCode() {
+        return arguments.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof TestPath && ((TestPath) obj).arguments.equals(arguments);
+    }
+
+    @Override
+    public String toString() {
+        return arguments.toString();
+    }
+}
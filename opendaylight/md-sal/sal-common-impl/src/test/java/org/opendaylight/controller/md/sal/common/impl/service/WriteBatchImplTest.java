@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.sal.common.impl.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.common.api.TransactionStatus;
+import org.opendaylight.controller.md.sal.common.api.data.DataModification;
+import org.opendaylight.controller.md.sal.common.api.data.DataModificationTransactionFactory;
+import org.opendaylight.controller.md.sal.common.api.data.DataReader;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionChainClosedException;
+import org.opendaylight.controller.md.sal.common.impl.AbstractDataModification;
+import org.opendaylight.controller.sal.common.util.Rpcs;
+import org.opendaylight.yangtools.yang.common.RpcError;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+
+public class WriteBatchImplTest {
+
+    private static final DataReader<TestPath, Object> EMPTY_READER = new DataReader<TestPath, Object>() {
+        @Override
+        public Object readConfigurationData(final TestPath path) {
+            return null;
+        }
+
+        @Override
+        public Object readOperationalData(final TestPath path) {
+            return null;
+        }
+    };
+
+    /*
+     * Factory of transactions recording the committed ones
+     */
+    private static final class TestFactory implements DataModificationTransactionFactory<TestPath, Object> {
+        private final List<DataModification<TestPath, Object>> committed = new CopyOnWriteArrayList<>();
+        private int nextIdentifier;
+
+        @Override
+        public DataModification<TestPath, Object> beginTransaction() {
+            final int identifier = nextIdentifier++;
+            return new AbstractDataModification<TestPath, Object>(EMPTY_READER) {
+                private TransactionStatus status = TransactionStatus.NEW;
+
+                @Override
+                public Object getIdentifier() {
+                    return identifier;
+                }
+
+                @Override
+                public TransactionStatus getStatus() {
+                    return status;
+                }
+
+                @Override
+                public Future<RpcResult<TransactionStatus>> commit() {
+                    status = TransactionStatus.COMMITED;
+                    committed.add(this);
+                    return Futures.immediateFuture(Rpcs.<TransactionStatus> getRpcResult(true,
+                            TransactionStatus.COMMITED, Collections.<RpcError> emptySet()));
+                }
+            };
+        }
+    }
+
+    private ScheduledExecutorService timerExecutor;
+    private TestFactory factory;
+
+    @Before
+    public void setUp() {
+        timerExecutor = Executors.newSingleThreadScheduledExecutor();
+        factory = new TestFactory();
+    }
+
+    @After
+    public void tearDown() {
+        timerExecutor.shutdownNow();
+    }
+
+    private static void put(final DataModification<TestPath, Object> transaction, final String path) {
+        transaction.putOperationalData(new TestPath(path), path);
+    }
+
+    @Test
+    public void testTransactionsAreMerged() throws Exception {
+        final WriteBatchImpl<TestPath, Object> batch = new WriteBatchImpl<>(factory, EMPTY_READER, timerExecutor, 2,
+                1, TimeUnit.HOURS);
+        final DataModification<TestPath, Object> first = batch.newTransaction();
+        final DataModification<TestPath, Object> second = batch.newTransaction();
+        final DataModification<TestPath, Object> third = batch.newTransaction();
+        put(first, "nodes/node=1");
+        put(second, "nodes/node=2");
+        put(third, "nodes/node=3");
+
+        final Future<RpcResult<TransactionStatus>> firstResult = first.commit();
+        assertEquals(TransactionStatus.SUBMITED, first.getStatus());
+        assertTrue(factory.committed.isEmpty());
+        final Future<RpcResult<TransactionStatus>> secondResult = second.commit();
+        assertEquals(TransactionStatus.COMMITED, firstResult.get(10, TimeUnit.SECONDS).getResult());
+        assertEquals(TransactionStatus.COMMITED, secondResult.get(10, TimeUnit.SECONDS).getResult());
+        assertEquals(TransactionStatus.COMMITED, first.getStatus());
+        assertEquals(1, factory.committed.size());
+        assertEquals(ImmutableMap.<TestPath, Object> of(new TestPath("nodes/node=1"), "nodes/node=1",
+                new TestPath("nodes/node=2"), "nodes/node=2"), factory.committed.get(0).getUpdatedOperationalData());
+
+        // The maximum number of transactions started another generation
+        final Future<RpcResult<TransactionStatus>> thirdResult = third.commit();
+        assertFalse(thirdResult.isDone());
+        batch.close();
+        assertEquals(TransactionStatus.COMMITED, thirdResult.get(10, TimeUnit.SECONDS).getResult());
+        assertEquals(2, factory.committed.size());
+        assertEquals(Collections.singleton(new TestPath("nodes/node=3")), factory.committed.get(1)
+                .getUpdatedOperationalData().keySet());
+    }
+
+    @Test
+    public void testUncommittedTransactionIsDropped() throws Exception {
+        final WriteBatchImpl<TestPath, Object> batch = new WriteBatchImpl<>(factory, EMPTY_READER, timerExecutor, 10,
+                1, TimeUnit.HOURS);
+        final DataModification<TestPath, Object> first = batch.newTransaction();
+        final DataModification<TestPath, Object> second = batch.newTransaction();
+        put(first, "nodes/node=1");
+        put(second, "nodes/node=2");
+        final Future<RpcResult<TransactionStatus>> result = second.commit();
+
+        // The flush does not wait for the first transaction
+        assertEquals(TransactionStatus.COMMITED, batch.flush().get(10, TimeUnit.SECONDS).getResult());
+        assertEquals(TransactionStatus.COMMITED, result.get(10, TimeUnit.SECONDS).getResult());
+        assertEquals(1, factory.committed.size());
+        assertEquals(Collections.singleton(new TestPath("nodes/node=2")), factory.committed.get(0)
+                .getUpdatedOperationalData().keySet());
+        assertEquals(TransactionStatus.NEW, first.getStatus());
+    }
+
+    @Test
+    public void testRemovalDropsCoveredUpdates() throws Exception {
+        final WriteBatchImpl<TestPath, Object> batch = new WriteBatchImpl<>(factory, EMPTY_READER, timerExecutor, 10,
+                1, TimeUnit.HOURS);
+        final DataModification<TestPath, Object> connectorUpdated = batch.newTransaction();
+        put(connectorUpdated, "nodes/node=1/connector=1");
+        put(connectorUpdated, "nodes/node=2");
+        connectorUpdated.commit();
+        final DataModification<TestPath, Object> nodeRemoved = batch.newTransaction();
+        put(nodeRemoved, "nodes/node=3/connector=1");
+        nodeRemoved.removeOperationalData(new TestPath("nodes/node=1"));
+        nodeRemoved.removeOperationalData(new TestPath("nodes/node=3"));
+        nodeRemoved.commit();
+        final DataModification<TestPath, Object> connectorAdded = batch.newTransaction();
+        put(connectorAdded, "nodes/node=1/connector=2");
+        connectorAdded.commit();
+        batch.flush().get(10, TimeUnit.SECONDS);
+
+        // Only the update written after the removal of its node is left
+        assertEquals(1, factory.committed.size());
+        final DataModification<TestPath, Object> committed = factory.committed.get(0);
+        assertEquals(ImmutableSet.of(new TestPath("nodes/node=2"), new TestPath("nodes/node=1/connector=2")),
+                committed.getUpdatedOperationalData().keySet());
+        assertTrue(committed.getRemovedOperationalData().contains(new TestPath("nodes/node=1")));
+        assertTrue(committed.getRemovedOperationalData().contains(new TestPath("nodes/node=3")));
+    }
+
+    @Test
+    public void testRemovalIsNotReplayedOnCoveredUpdates() throws Exception {
+        final WriteBatchImpl<TestPath, Object> batch = new WriteBatchImpl<>(factory, EMPTY_READER, timerExecutor, 10,
+                1, TimeUnit.HOURS);
+        final DataModification<TestPath, Object> connectorAdded = batch.newTransaction();
+        put(connectorAdded, "nodes/node=1/connector=1");
+        put(connectorAdded, "nodes/node=2");
+        connectorAdded.commit();
+        final DataModification<TestPath, Object> nodeRemoved = batch.newTransaction();
+        nodeRemoved.removeOperationalData(new TestPath("nodes/node=1"));
+        nodeRemoved.commit();
+        batch.flush().get(10, TimeUnit.SECONDS);
+
+        // The covered update is neither created nor removed
+        final DataModification<TestPath, Object> committed = factory.committed.get(0);
+        assertEquals(Collections.singleton(new TestPath("nodes/node=1")), committed.getRemovedOperationalData());
+        assertEquals(Collections.singleton(new TestPath("nodes/node=2")), committed.getCreatedOperationalData()
+                .keySet());
+        assertEquals(Collections.singleton(new TestPath("nodes/node=2")), committed.getUpdatedOperationalData()
+                .keySet());
+    }
+
+    @Test
+    public void testFlushTimeout() throws Exception {
+        final WriteBatchImpl<TestPath, Object> batch = new WriteBatchImpl<>(factory, EMPTY_READER, timerExecutor, 10,
+                50, TimeUnit.MILLISECONDS);
+        final DataModification<TestPath, Object> transaction = batch.newTransaction();
+        put(transaction, "nodes/node=1");
+        assertEquals(TransactionStatus.COMMITED, transaction.commit().get(10, TimeUnit.SECONDS).getResult());
+        assertEquals(1, factory.committed.size());
+    }
+
+    @Test
+    public void testEmptyGenerationIsNotCommitted() throws Exception {
+        final WriteBatchImpl<TestPath, Object> batch = new WriteBatchImpl<>(factory, EMPTY_READER, timerExecutor, 10,
+                1, TimeUnit.HOURS);
+        final DataModification<TestPath, Object> transaction = batch.newTransaction();
+        final Future<RpcResult<TransactionStatus>> result = transaction.commit();
+        batch.close();
+        assertEquals(TransactionStatus.COMMITED, result.get(10, TimeUnit.SECONDS).getResult());
+        assertTrue(factory.committed.isEmpty());
+    }
+
+    @Test
+    public void testClosedBatch() throws Exception {
+        final WriteBatchImpl<TestPath, Object> batch = new WriteBatchImpl<>(factory, EMPTY_READER, timerExecutor, 10,
+                1, TimeUnit.HOURS);
+        final DataModification<TestPath, Object> transaction = batch.newTransaction();
+        final DataModification<TestPath, Object> late = batch.newTransaction();
+        put(transaction, "nodes/node=1");
+        transaction.commit();
+        try {
+            put(transaction, "nodes/node=2");
+            fail("Submitted transaction should not be modifiable");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        batch.close();
+        assertEquals(1, factory.committed.size());
+        try {
+            batch.newTransaction();
+            fail("Closed batch should not open transactions");
+        } catch (TransactionChainClosedException e) {
+            // Expected
+        }
+
+        // No flush follows the close, so a late transaction is committed alone
+        put(late, "nodes/node=3");
+        assertEquals(TransactionStatus.COMMITED, late.commit().get(10, TimeUnit.SECONDS).getResult());
+        assertEquals(2, factory.committed.size());
+    }
+}
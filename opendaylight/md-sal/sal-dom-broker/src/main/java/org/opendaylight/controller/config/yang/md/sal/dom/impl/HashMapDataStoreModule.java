@@ -7,7 +7,7 @@
  */
 package org.opendaylight.controller.config.yang.md.sal.dom.impl;
 
-import org.opendaylight.controller.sal.dom.broker.impl.HashMapDataStore;
+import org.opendaylight.controller.sal.dom.broker.impl.DataTreeDataStore;
 
 /**
 *
@@ -31,7 +31,7 @@ public final class HashMapDataStoreModule extends org.opendaylight.controller.co
 
     @Override
     public java.lang.AutoCloseable createInstance() {
-        HashMapDataStore store = new HashMapDataStore();
+        DataTreeDataStore store = new DataTreeDataStore();
         return store;
     }
 }
@@ -7,6 +7,7 @@
  */
 package org.opendaylight.controller.config.yang.md.sal.dom.statistics;
 
+import org.opendaylight.controller.config.yang.md.sal.dom.impl.CommitLatency;
 import org.opendaylight.controller.config.yang.md.sal.dom.impl.Data;
 import org.opendaylight.controller.config.yang.md.sal.dom.impl.DomBrokerImplRuntimeMXBean;
 import org.opendaylight.controller.config.yang.md.sal.dom.impl.Transactions;
@@ -17,6 +18,7 @@ public class DomBrokerRuntimeMXBeanImpl implements
     
     private final DataBrokerImpl dataService;
     private final Transactions transactions = new Transactions();
+    private final CommitLatency commitLatency = new CommitLatency();
     private final Data data = new Data();
     
     public DomBrokerRuntimeMXBeanImpl(DataBrokerImpl dataService) {
@@ -38,6 +40,19 @@ public class DomBrokerRuntimeMXBeanImpl implements
         transactions.setSuccessful(dataService.getFinishedTransactionsCount().get());
         transactions.setFailed(dataService.getFailedTransactionsCount().get());
         data.setTransactions(transactions);
+        data.setCommitLatency(getCommitLatency());
         return data;
     }
+
+    public CommitLatency getCommitLatency() {
+        commitLatency.setQueueAverage(dataService.getQueueLatency().getAverageMicros());
+        commitLatency.setQueueMax(dataService.getQueueLatency().getMaxMicros());
+        commitLatency.setRequestCommitAverage(dataService.getRequestCommitLatency().getAverageMicros());
+        commitLatency.setRequestCommitMax(dataService.getRequestCommitLatency().getMaxMicros());
+        commitLatency.setFinishAverage(dataService.getFinishLatency().getAverageMicros());
+        commitLatency.setFinishMax(dataService.getFinishLatency().getMaxMicros());
+        commitLatency.setPublishAverage(dataService.getPublishLatency().getAverageMicros());
+        commitLatency.setPublishMax(dataService.getPublishLatency().getMaxMicros());
+        return commitLatency;
+    }
 }
@@ -7,6 +7,11 @@
  */
 package org.opendaylight.controller.sal.dom.broker;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.opendaylight.controller.md.sal.common.api.data.DataReader;
@@ -17,9 +22,17 @@ import org.opendaylight.controller.sal.core.api.data.DataProviderService;
 import org.opendaylight.controller.sal.core.api.data.DataValidator;
 import org.opendaylight.controller.sal.dom.broker.impl.DataReaderRouter;
 import org.opendaylight.yangtools.concepts.Registration;
+import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.CompositeNode;
 import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.api.SimpleNode;
+import org.opendaylight.yangtools.yang.data.impl.CompositeNodeTOImpl;
 
+import com.google.common.base.Optional;
 import com.google.common.util.concurrent.MoreExecutors;
 
 public class DataBrokerImpl extends AbstractDataBroker<InstanceIdentifier, CompositeNode, DataChangeListener> implements
@@ -86,4 +99,87 @@ public class DataBrokerImpl extends AbstractDataBroker<InstanceIdentifier, Compo
         
     }
 
+    @Override
+    protected List<PathArgument> getPathArguments(InstanceIdentifier path) {
+        return path.getPath();
+    }
+
+    /**
+     * Applies the changes to the direct children of the path the way the
+     * store reads a path, that is the data stored at the path with the data
+     * stored at its direct children appended. Changes deeper in the subtree
+     * leave that data unchanged.
+     */
+    @Override
+    protected Optional<CompositeNode> applyChanges(InstanceIdentifier path, CompositeNode original,
+            Map<InstanceIdentifier, CompositeNode> updated, Set<InstanceIdentifier> removed) {
+        final int depth = path.getPath().size();
+        if (depth == 0) {
+            return Optional.absent();
+        }
+        final List<Node<?>> children = new ArrayList<>();
+        if (original != null) {
+            children.addAll(original.getChildren());
+        }
+        for (InstanceIdentifier removedPath : removed) {
+            if (removedPath.getPath().size() == depth + 1) {
+                final List<Integer> matching = matchingChildren(children, removedPath.getPath().get(depth));
+                if (matching.size() > 1) {
+                    return Optional.absent();
+                }
+                for (Integer index : matching) {
+                    children.remove(index.intValue());
+                }
+            }
+        }
+        for (Entry<InstanceIdentifier, CompositeNode> entry : updated.entrySet()) {
+            if (entry.getKey().getPath().size() == depth + 1) {
+                final List<Integer> matching = matchingChildren(children, entry.getKey().getPath().get(depth));
+                if (matching.size() > 1) {
+                    return Optional.absent();
+                }
+                if (matching.isEmpty()) {
+                    children.add(entry.getValue());
+                } else {
+                    children.set(matching.get(0), entry.getValue());
+                }
+            }
+        }
+        if (children.isEmpty()) {
+            // Empty or absent, depending on the data stored at the path itself
+            return Optional.absent();
+        }
+        final QName qname = original != null ? original.getNodeType() : path.getPath().get(depth - 1).getNodeType();
+        return Optional.<CompositeNode> of(new CompositeNodeTOImpl(qname, null, children));
+    }
+
+    /**
+     * @return indexes of the nodes addressed by the path argument
+     */
+    private static List<Integer> matchingChildren(List<Node<?>> children, PathArgument argument) {
+        final List<Integer> result = new ArrayList<>(1);
+        for (int i = 0; i < children.size(); i++) {
+            if (matches(children.get(i), argument)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(Node<?> node, PathArgument argument) {
+        if (!(node instanceof CompositeNode) || !argument.getNodeType().equals(node.getNodeType())) {
+            return false;
+        }
+        if (argument instanceof NodeIdentifierWithPredicates) {
+            for (Entry<QName, Object> key : ((NodeIdentifierWithPredicates) argument).getKeyValues().entrySet()) {
+                final SimpleNode<?> leaf = ((CompositeNode) node).getFirstSimpleByName(key.getKey());
+                if (leaf == null || !key.getValue().equals(leaf.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return argument instanceof NodeIdentifier;
+    }
+
 }
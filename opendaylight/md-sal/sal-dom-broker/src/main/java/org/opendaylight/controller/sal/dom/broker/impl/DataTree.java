@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.dom.broker.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.PathArgument;
+
+/**
+ * In-memory tree of data, keyed by the path arguments of the
+ * {@link InstanceIdentifier}s.
+ *
+ * The tree is immutable, each commit builds a new root which shares every
+ * subtree it did not modify with the previous one. Readers work on a
+ * {@link Snapshot} of the root and never lock. A write copies the nodes on
+ * the path to the modified node, and a removal drops the subtree of the
+ * removed node from its parent, so both cost in proportion to the depth of
+ * the path, not to the amount of stored data.
+ */
+public final class DataTree {
+
+    private volatile TreeNode root = TreeNode.EMPTY;
+
+    /**
+     * Returns a consistent view of the tree, unaffected by later commits.
+     *
+     * @return snapshot of the current content
+     */
+    public Snapshot takeSnapshot() {
+        return new Snapshot(root);
+    }
+
+    /**
+     * Atomically applies a modification to the tree. The removals are applied
+     * before the updates, a removal removes the whole subtree of the path.
+     *
+     * @param removals
+     *            paths to remove
+     * @param updates
+     *            data to store, by path
+     */
+    public synchronized void commit(Iterable<InstanceIdentifier> removals,
+            Map<InstanceIdentifier, CompositeNode> updates) {
+        TreeNode updated = root;
+        for (InstanceIdentifier removal : removals) {
+            updated = remove(updated, removal.getPath(), 0);
+            if (updated == null) {
+                updated = TreeNode.EMPTY;
+            }
+        }
+        for (Entry<InstanceIdentifier, CompositeNode> entry : updates.entrySet()) {
+            updated = write(updated, entry.getKey().getPath(), 0, entry.getValue());
+        }
+        root = updated;
+    }
+
+    private static TreeNode write(TreeNode node, List<PathArgument> path, int depth, CompositeNode data) {
+        if (depth == path.size()) {
+            return node.withData(data);
+        }
+        PathArgument argument = path.get(depth);
+        TreeNode child = node.children.get(argument);
+        if (child == null) {
+            child = TreeNode.EMPTY;
+        }
+        return node.withChild(argument, write(child, path, depth + 1, data));
+    }
+
+    /*
+     * Returns null if the node has to be removed from its parent
+     */
+    private static TreeNode remove(TreeNode node, List<PathArgument> path, int depth) {
+        if (depth == path.size()) {
+            return null;
+        }
+        PathArgument argument = path.get(depth);
+        TreeNode child = node.children.get(argument);
+        if (child == null) {
+            return node;
+        }
+        TreeNode updated = remove(child, path, depth + 1);
+        if (updated == child) {
+            return node;
+        }
+        TreeNode result = updated == null ? node.withoutChild(argument) : node.withChild(argument, updated);
+        // Prune the nodes which only existed to hold the removed subtree
+        return result.isEmpty() && depth > 0 ? null : result;
+    }
+
+    private static final class TreeNode {
+
+        static final TreeNode EMPTY = new TreeNode(null, HashTrieMap.<PathArgument, TreeNode> empty());
+
+        private final CompositeNode data;
+        private final HashTrieMap<PathArgument, TreeNode> children;
+
+        TreeNode(CompositeNode data, HashTrieMap<PathArgument, TreeNode> children) {
+            this.data = data;
+            this.children = children;
+        }
+
+        boolean isEmpty() {
+            return data == null && children.isEmpty();
+        }
+
+        TreeNode withData(CompositeNode data) {
+            return new TreeNode(data, children);
+        }
+
+        TreeNode withChild(PathArgument argument, TreeNode child) {
+            return new TreeNode(data, children.put(argument, child));
+        }
+
+        TreeNode withoutChild(PathArgument argument) {
+            return new TreeNode(data, children.remove(argument));
+        }
+    }
+
+    /**
+     * Immutable view of the tree.
+     */
+    public static final class Snapshot {
+
+        private final TreeNode root;
+
+        private Snapshot(TreeNode root) {
+            this.root = root;
+        }
+
+        private TreeNode find(InstanceIdentifier path) {
+            TreeNode node = root;
+            for (PathArgument argument : path.getPath()) {
+                node = node.children.get(argument);
+                if (node == null) {
+                    return null;
+                }
+            }
+            return node;
+        }
+
+        /**
+         * @param path
+         *            path of the data
+         * @return the data stored at the path, null if there is none
+         */
+        public CompositeNode read(InstanceIdentifier path) {
+            TreeNode node = find(path);
+            return node != null ? node.data : null;
+        }
+
+        /**
+         * @param path
+         *            path of the data
+         * @return true if data is stored at the path
+         */
+        public boolean contains(InstanceIdentifier path) {
+            return read(path) != null;
+        }
+
+        /**
+         * Returns the data stored directly below a path, one level deep.
+         *
+         * @param path
+         *            path of the parent
+         * @return the data of the children of the path which hold data
+         */
+        public List<CompositeNode> readChildren(InstanceIdentifier path) {
+            TreeNode node = find(path);
+            if (node == null || node.children.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<CompositeNode> result = new ArrayList<>(node.children.size());
+            for (Entry<PathArgument, TreeNode> child : node.children) {
+                if (child.getValue().data != null) {
+                    result.add(child.getValue().data);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return the paths of all the stored data
+         */
+        public List<InstanceIdentifier> getStoredPaths() {
+            List<InstanceIdentifier> result = new ArrayList<>();
+            collectPaths(root, new ArrayList<PathArgument>(), result);
+            return result;
+        }
+
+        /**
+         * @param path
+         *            root of the subtree
+         * @return the paths of the data stored in the subtree of the path,
+         *         including the path itself
+         */
+        public List<InstanceIdentifier> getStoredPaths(InstanceIdentifier path) {
+            TreeNode node = find(path);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            List<InstanceIdentifier> result = new ArrayList<>();
+            collectPaths(node, new ArrayList<>(path.getPath()), result);
+            return result;
+        }
+
+        private static void collectPaths(TreeNode node, List<PathArgument> prefix, List<InstanceIdentifier> result) {
+            if (node.data != null) {
+                result.add(new InstanceIdentifier(new ArrayList<>(prefix)));
+            }
+            for (Entry<PathArgument, TreeNode> child : node.children) {
+                prefix.add(child.getKey());
+                collectPaths(child.getValue(), prefix, result);
+                prefix.remove(prefix.size() - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.dom.broker.impl;
+
+import java.util.Collections;
+
+import org.opendaylight.controller.md.sal.common.api.data.DataCommitHandler.DataCommitTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.DataModification;
+import org.opendaylight.controller.sal.common.util.Rpcs;
+import org.opendaylight.yangtools.yang.common.RpcError;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+
+/**
+ * Data store keeping the configuration and operational data in
+ * {@link DataTree}s.
+ *
+ * Reads are served from snapshots of the trees without locking, commits are
+ * applied atomically when the transaction is finished.
+ */
+public class DataTreeDataStore implements HierarchicalDataStore, AutoCloseable {
+
+    private final DataTree configuration = new DataTree();
+    private final DataTree operational = new DataTree();
+
+    @Override
+    public DataTree.Snapshot takeConfigurationSnapshot() {
+        return configuration.takeSnapshot();
+    }
+
+    @Override
+    public DataTree.Snapshot takeOperationalSnapshot() {
+        return operational.takeSnapshot();
+    }
+
+    @Override
+    public boolean containsConfigurationPath(InstanceIdentifier path) {
+        return configuration.takeSnapshot().contains(path);
+    }
+
+    @Override
+    public boolean containsOperationalPath(InstanceIdentifier path) {
+        return operational.takeSnapshot().contains(path);
+    }
+
+    @Override
+    public Iterable<InstanceIdentifier> getStoredConfigurationPaths() {
+        return configuration.takeSnapshot().getStoredPaths();
+    }
+
+    @Override
+    public Iterable<InstanceIdentifier> getStoredOperationalPaths() {
+        return operational.takeSnapshot().getStoredPaths();
+    }
+
+    @Override
+    public CompositeNode readConfigurationData(InstanceIdentifier path) {
+        return configuration.takeSnapshot().read(path);
+    }
+
+    @Override
+    public CompositeNode readOperationalData(InstanceIdentifier path) {
+        return operational.takeSnapshot().read(path);
+    }
+
+    @Override
+    public DataCommitTransaction<InstanceIdentifier, CompositeNode> requestCommit(
+            DataModification<InstanceIdentifier, CompositeNode> modification) {
+        return new DataTreeTransaction(modification);
+    }
+
+    @Override
+    public void close() {
+        // NOOP
+    }
+
+    private class DataTreeTransaction implements DataCommitTransaction<InstanceIdentifier, CompositeNode> {
+
+        private final DataModification<InstanceIdentifier, CompositeNode> modification;
+
+        public DataTreeTransaction(DataModification<InstanceIdentifier, CompositeNode> modification) {
+            this.modification = modification;
+        }
+
+        @Override
+        public DataModification<InstanceIdentifier, CompositeNode> getModification() {
+            return modification;
+        }
+
+        @Override
+        public RpcResult<Void> finish() throws IllegalStateException {
+            configuration.commit(modification.getRemovedConfigurationData(),
+                    modification.getUpdatedConfigurationData());
+            operational.commit(modification.getRemovedOperationalData(), modification.getUpdatedOperationalData());
+            return Rpcs.<Void> getRpcResult(true, null, Collections.<RpcError> emptySet());
+        }
+
+        @Override
+        public RpcResult<Void> rollback() throws IllegalStateException {
+            return Rpcs.<Void> getRpcResult(true, null, Collections.<RpcError> emptySet());
+        }
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.dom.broker.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent hash array mapped trie.
+ *
+ * Instances are immutable, {@link #put(Object, Object)} and
+ * {@link #remove(Object)} return a new map sharing all the branches of the
+ * trie which were not on the path of the modified key. An update copies at
+ * most seven branches of 32 slots, whatever the size of the map.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class HashTrieMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final HashTrieMap<Object, Object> EMPTY = new HashTrieMap<>(new Branch(0, new Object[0]), 0);
+
+    private final Branch root;
+    private final int size;
+
+    private HashTrieMap(Branch root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> HashTrieMap<K, V> empty() {
+        return (HashTrieMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        int hash = hash(key);
+        Object node = root;
+        int shift = 0;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int bit = bit(hash, shift);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            node = branch.slots[branch.index(bit)];
+            shift += BITS;
+        }
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            return leaf.hash == hash && leaf.key.equals(key) ? (V) leaf.value : null;
+        }
+        Leaf leaf = ((Collision) node).find(hash, key);
+        return leaf != null ? (V) leaf.value : null;
+    }
+
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with the key mapped to the value.
+     *
+     * @param key
+     *            key, not null
+     * @param value
+     *            value, not null
+     * @return the updated map, this map if the key was already mapped to the
+     *         same value
+     */
+    HashTrieMap<K, V> put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        Leaf leaf = new Leaf(hash(key), key, value);
+        boolean[] added = new boolean[1];
+        Branch updated = put(root, 0, leaf, added);
+        if (updated == root) {
+            return this;
+        }
+        return new HashTrieMap<>(updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the key.
+     *
+     * @param key
+     *            key
+     * @return the updated map, this map if the key was not mapped
+     */
+    HashTrieMap<K, V> remove(Object key) {
+        if (key == null) {
+            return this;
+        }
+        Object updated = remove(root, 0, hash(key), key);
+        if (updated == root) {
+            return this;
+        }
+        if (size == 1) {
+            return empty();
+        }
+        if (updated instanceof Branch) {
+            return new HashTrieMap<>((Branch) updated, size - 1);
+        }
+        // The root is always a branch
+        return new HashTrieMap<>(new Branch(bit(((Node) updated).hash(), 0), new Object[] { updated }), size - 1);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+    }
+
+    private static Branch put(Branch branch, int shift, Leaf leaf, boolean[] added) {
+        int bit = bit(leaf.hash, shift);
+        int index = branch.index(bit);
+        if ((branch.bitmap & bit) == 0) {
+            added[0] = true;
+            return branch.insert(bit, index, leaf);
+        }
+        Object child = branch.slots[index];
+        Object updated;
+        if (child instanceof Branch) {
+            updated = put((Branch) child, shift + BITS, leaf, added);
+        } else if (child instanceof Leaf) {
+            Leaf existing = (Leaf) child;
+            if (existing.hash == leaf.hash && existing.key.equals(leaf.key)) {
+                updated = existing.value == leaf.value ? existing : leaf;
+            } else {
+                added[0] = true;
+                updated = merge(existing, leaf, shift + BITS);
+            }
+        } else {
+            Collision collision = (Collision) child;
+            if (collision.hash == leaf.hash) {
+                updated = collision.put(leaf, added);
+            } else {
+                added[0] = true;
+                updated = merge(collision, leaf, shift + BITS);
+            }
+        }
+        return updated == child ? branch : branch.replace(index, updated);
+    }
+
+    /*
+     * Two nodes of different hashes sharing the bits above shift
+     */
+    private static Object merge(Node first, Leaf second, int shift) {
+        if (first.hash() == second.hash) {
+            return new Collision(second.hash, new Leaf[] { (Leaf) first, second });
+        }
+        int firstBit = bit(first.hash(), shift);
+        int secondBit = bit(second.hash, shift);
+        if (firstBit == secondBit) {
+            return new Branch(firstBit, new Object[] { merge(first, second, shift + BITS) });
+        }
+        // Slots are ordered by bit index, compared unsigned as the bit 31 is
+        // negative
+        if ((firstBit ^ Integer.MIN_VALUE) < (secondBit ^ Integer.MIN_VALUE)) {
+            return new Branch(firstBit | secondBit, new Object[] { first, second });
+        }
+        return new Branch(firstBit | secondBit, new Object[] { second, first });
+    }
+
+    /*
+     * Returns the branch unchanged if the key was not found, null if the
+     * branch became empty and its last node if it holds only one leaf or
+     * collision, which then moves up to its parent
+     */
+    private static Object remove(Branch branch, int shift, int hash, Object key) {
+        int bit = bit(hash, shift);
+        if ((branch.bitmap & bit) == 0) {
+            return branch;
+        }
+        int index = branch.index(bit);
+        Object child = branch.slots[index];
+        Object updated;
+        if (child instanceof Branch) {
+            updated = remove((Branch) child, shift + BITS, hash, key);
+        } else if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            updated = leaf.hash == hash && leaf.key.equals(key) ? null : leaf;
+        } else {
+            updated = ((Collision) child).remove(hash, key);
+        }
+        if (updated == child) {
+            return branch;
+        }
+        if (updated == null) {
+            if (branch.slots.length == 1) {
+                return null;
+            }
+            Branch removed = branch.delete(bit, index);
+            if (removed.slots.length == 1 && !(removed.slots[0] instanceof Branch)) {
+                return removed.slots[0];
+            }
+            return removed;
+        }
+        if (branch.slots.length == 1 && !(updated instanceof Branch)) {
+            return updated;
+        }
+        return branch.replace(index, updated);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        // Spread the low entropy bits of the hash codes of the path arguments
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private interface Node {
+        int hash();
+    }
+
+    private static final class Branch {
+        private final int bitmap;
+        private final Object[] slots;
+
+        Branch(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Branch insert(int bit, int index, Object node) {
+            Object[] copy = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            copy[index] = node;
+            System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+            return new Branch(bitmap | bit, copy);
+        }
+
+        Branch replace(int index, Object node) {
+            Object[] copy = slots.clone();
+            copy[index] = node;
+            return new Branch(bitmap, copy);
+        }
+
+        Branch delete(int bit, int index) {
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, copy.length - index);
+            return new Branch(bitmap & ~bit, copy);
+        }
+    }
+
+    private static final class Leaf implements Node, Map.Entry<Object, Object> {
+        private final int hash;
+        private final Object key;
+        private final Object value;
+
+        Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public int hash() {
+            return hash;
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException("Map is immutable");
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /*
+     * Keys of the same hash
+     */
+    private static final class Collision implements Node {
+        private final int hash;
+        private final Leaf[] leaves;
+
+        Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        public int hash() {
+            return hash;
+        }
+
+        Leaf find(int hash, Object key) {
+            if (hash == this.hash) {
+                for (Leaf leaf : leaves) {
+                    if (leaf.key.equals(key)) {
+                        return leaf;
+                    }
+                }
+            }
+            return null;
+        }
+
+        Collision put(Leaf leaf, boolean[] added) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(leaf.key)) {
+                    if (leaves[i].value == leaf.value) {
+                        return this;
+                    }
+                    Leaf[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new Collision(hash, copy);
+                }
+            }
+            Leaf[] copy = new Leaf[leaves.length + 1];
+            System.arraycopy(leaves, 0, copy, 0, leaves.length);
+            copy[leaves.length] = leaf;
+            added[0] = true;
+            return new Collision(hash, copy);
+        }
+
+        Object remove(int hash, Object key) {
+            if (hash != this.hash) {
+                return this;
+            }
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(key)) {
+                    if (leaves.length == 2) {
+                        return leaves[1 - i];
+                    }
+                    Leaf[] copy = new Leaf[leaves.length - 1];
+                    System.arraycopy(leaves, 0, copy, 0, i);
+                    System.arraycopy(leaves, i + 1, copy, i, copy.length - i);
+                    return new Collision(hash, copy);
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Leaf next;
+
+        EntryIterator(Branch root) {
+            push(root.slots);
+            advance();
+        }
+
+        private void push(Object[] slots) {
+            arrays.push(slots);
+            positions.push(0);
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !arrays.isEmpty()) {
+                Object[] slots = arrays.peek();
+                int position = positions.pop();
+                if (position == slots.length) {
+                    arrays.pop();
+                    continue;
+                }
+                positions.push(position + 1);
+                Object node = slots[position];
+                if (node instanceof Leaf) {
+                    next = (Leaf) node;
+                } else if (node instanceof Branch) {
+                    push(((Branch) node).slots);
+                } else {
+                    push(((Collision) node).leaves);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = (Map.Entry) next;
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Map is immutable");
+        }
+    }
+}
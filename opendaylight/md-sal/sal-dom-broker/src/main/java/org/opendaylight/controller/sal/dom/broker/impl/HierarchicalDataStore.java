@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.dom.broker.impl;
+
+import org.opendaylight.controller.sal.core.api.data.DataStore;
+
+/**
+ * {@link DataStore} keeping its data in a tree.
+ *
+ * A node and its children can be read from the same consistent snapshot, and
+ * removing a path removes the whole subtree of the path, so the callers do
+ * not have to look up and remove the subpaths themselves.
+ */
+public interface HierarchicalDataStore extends DataStore {
+
+    /**
+     * @return snapshot of the current configuration data
+     */
+    DataTree.Snapshot takeConfigurationSnapshot();
+
+    /**
+     * @return snapshot of the current operational data
+     */
+    DataTree.Snapshot takeOperationalSnapshot();
+}
@@ -227,8 +227,12 @@ public class SchemaAwareDataStoreAdapter extends AbstractLockableDelegator<DataS
                 if (path.getPath().isEmpty()) {
                     return null;
                 }
+                DataStore delegate = getDelegate();
+                if (delegate instanceof HierarchicalDataStore) {
+                    return mergeFirstLevel(path, ((HierarchicalDataStore) delegate).takeConfigurationSnapshot());
+                }
                 QName qname = null;
-                CompositeNode original = getDelegate().readConfigurationData(path);
+                CompositeNode original = delegate.readConfigurationData(path);
                 ArrayList<Node<?>> childNodes = new ArrayList<Node<?>>();
                 if (original != null) {
                     childNodes.addAll(original.getChildren());
@@ -270,8 +274,12 @@ public class SchemaAwareDataStoreAdapter extends AbstractLockableDelegator<DataS
                 if (path.getPath().isEmpty()) {
                     return null;
                 }
+                DataStore delegate = getDelegate();
+                if (delegate instanceof HierarchicalDataStore) {
+                    return mergeFirstLevel(path, ((HierarchicalDataStore) delegate).takeOperationalSnapshot());
+                }
                 QName qname = null;
-                CompositeNode original = getDelegate().readOperationalData(path);
+                CompositeNode original = delegate.readOperationalData(path);
                 ArrayList<Node<?>> childNodes = new ArrayList<Node<?>>();
                 if (original != null) {
                     childNodes.addAll(original.getChildren());
@@ -308,6 +316,27 @@ public class SchemaAwareDataStoreAdapter extends AbstractLockableDelegator<DataS
         }
     }
 
+    /**
+     * Reads the node and its direct children from the same snapshot, without
+     * scanning the stored paths.
+     */
+    private static CompositeNode mergeFirstLevel(InstanceIdentifier path, DataTree.Snapshot snapshot) {
+        QName qname = null;
+        CompositeNode original = snapshot.read(path);
+        ArrayList<Node<?>> childNodes = new ArrayList<Node<?>>();
+        if (original != null) {
+            childNodes.addAll(original.getChildren());
+            qname = original.getNodeType();
+        } else {
+            qname = path.getPath().get(path.getPath().size() - 1).getNodeType();
+        }
+        childNodes.addAll(snapshot.readChildren(path));
+        if (original == null && childNodes.isEmpty()) {
+            return null;
+        }
+        return new CompositeNodeTOImpl(qname, null, childNodes);
+    }
+
     private class NormalizedDataModification extends AbstractDataModification<InstanceIdentifier, CompositeNode> {
 
         private final Object identifier;
@@ -322,11 +351,16 @@ public class SchemaAwareDataStoreAdapter extends AbstractLockableDelegator<DataS
         /**
          *
          * Ensures all subpaths are removed - this currently does slow lookup in
-         * all keys.
+         * all keys, unless the delegate is a {@link HierarchicalDataStore},
+         * which removes the whole subtree of a path.
          *
          * @param entry
          */
         public void deepRemoveOperationalData(InstanceIdentifier entry) {
+            if (getDelegate() instanceof HierarchicalDataStore) {
+                removeOperationalData(entry);
+                return;
+            }
             Iterable<InstanceIdentifier> paths = getOperationalSubpaths(entry);
             removeOperationalData(entry);
             for (InstanceIdentifier potential : paths) {
@@ -335,6 +369,10 @@ public class SchemaAwareDataStoreAdapter extends AbstractLockableDelegator<DataS
         }
 
         public void deepRemoveConfigurationData(InstanceIdentifier entry) {
+            if (getDelegate() instanceof HierarchicalDataStore) {
+                removeConfigurationData(entry);
+                return;
+            }
             Iterable<InstanceIdentifier> paths = getConfigurationSubpaths(entry);
             removeConfigurationData(entry);
             for (InstanceIdentifier potential : paths) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.dom.broker.impl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.impl.CompositeNodeTOImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of reading, writing and deleting inventory nodes in a
+ * {@link DataTree} holding a large inventory, each node having a few node
+ * connectors stored below it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataTreeBenchmark {
+    private static final URI NAMESPACE = URI.create("urn:opendaylight:inventory");
+    private static final QName NODES = new QName(NAMESPACE, "nodes");
+    private static final QName NODE = new QName(NAMESPACE, "node");
+    private static final QName NODE_CONNECTOR = new QName(NAMESPACE, "node-connector");
+    private static final QName ID = new QName(NAMESPACE, "id");
+    private static final int CONNECTORS = 4;
+
+    @Param({ "100000" })
+    public int nodes;
+
+    private DataTree tree;
+    private InstanceIdentifier[] nodePaths;
+    private Map<InstanceIdentifier, CompositeNode>[] nodeUpdates;
+    private CompositeNode nodeData;
+    private int next;
+
+    private static InstanceIdentifier child(InstanceIdentifier parent, QName type, String id) {
+        List<PathArgument> path = new ArrayList<>(parent.getPath());
+        path.add(new NodeIdentifierWithPredicates(type, ID, id));
+        return new InstanceIdentifier(path);
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        InstanceIdentifier nodesPath = new InstanceIdentifier(Collections.<PathArgument> singletonList(
+                new NodeIdentifier(NODES)));
+        this.nodeData = new CompositeNodeTOImpl(NODE, null, Collections.<Node<?>> emptyList());
+        CompositeNode connectorData = new CompositeNodeTOImpl(NODE_CONNECTOR, null,
+                Collections.<Node<?>> emptyList());
+        this.tree = new DataTree();
+        this.nodePaths = new InstanceIdentifier[this.nodes];
+        this.nodeUpdates = new Map[this.nodes];
+        Map<InstanceIdentifier, CompositeNode> inventory = new HashMap<>();
+        for (int i = 0; i < this.nodes; i++) {
+            String id = "openflow:" + i;
+            this.nodePaths[i] = child(nodesPath, NODE, id);
+            this.nodeUpdates[i] = new HashMap<>();
+            this.nodeUpdates[i].put(this.nodePaths[i], this.nodeData);
+            for (int j = 0; j < CONNECTORS; j++) {
+                this.nodeUpdates[i].put(child(this.nodePaths[i], NODE_CONNECTOR, id + ":" + j), connectorData);
+            }
+            inventory.putAll(this.nodeUpdates[i]);
+        }
+        this.tree.commit(Collections.<InstanceIdentifier> emptyList(), inventory);
+    }
+
+    private int nextNode() {
+        int node = this.next++;
+        if (this.next == this.nodes) {
+            this.next = 0;
+        }
+        return node;
+    }
+
+    @Benchmark
+    public CompositeNode read() {
+        return this.tree.takeSnapshot().read(this.nodePaths[nextNode()]);
+    }
+
+    @Benchmark
+    public List<CompositeNode> readChildren() {
+        return this.tree.takeSnapshot().readChildren(this.nodePaths[nextNode()]);
+    }
+
+    @Benchmark
+    public void write() {
+        this.tree.commit(Collections.<InstanceIdentifier> emptyList(),
+                Collections.singletonMap(this.nodePaths[nextNode()], this.nodeData));
+    }
+
+    /**
+     * Deletes a node with its node connectors, the node is restored outside of
+     * the measurement.
+     */
+    @State(Scope.Thread)
+    public static class Removal {
+        private int node;
+
+        @Setup(Level.Invocation)
+        public void restore(DataTreeBenchmark benchmark) {
+            benchmark.tree.commit(Collections.<InstanceIdentifier> emptyList(), benchmark.nodeUpdates[this.node]);
+        }
+    }
+
+    @Benchmark
+    public void delete(Removal removal) {
+        removal.node = nextNode();
+        this.tree.commit(Collections.singletonList(this.nodePaths[removal.node]),
+                Collections.<InstanceIdentifier, CompositeNode> emptyMap());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(DataTreeBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.dom.broker.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.impl.CompositeNodeTOImpl;
+
+public class DataTreeTest {
+
+    private static final URI NAMESPACE = URI.create("urn:opendaylight:inventory");
+    private static final QName NODES = new QName(NAMESPACE, "nodes");
+    private static final QName NODE = new QName(NAMESPACE, "node");
+    private static final QName NODE_CONNECTOR = new QName(NAMESPACE, "node-connector");
+    private static final QName ID = new QName(NAMESPACE, "id");
+
+    private static final InstanceIdentifier NODES_PATH = path(new NodeIdentifier(NODES));
+
+    private static InstanceIdentifier path(PathArgument... arguments) {
+        List<PathArgument> path = new ArrayList<>();
+        Collections.addAll(path, arguments);
+        return new InstanceIdentifier(path);
+    }
+
+    private static InstanceIdentifier child(InstanceIdentifier parent, QName type, String id) {
+        List<PathArgument> path = new ArrayList<>(parent.getPath());
+        path.add(new NodeIdentifierWithPredicates(type, ID, id));
+        return new InstanceIdentifier(path);
+    }
+
+    private static CompositeNode data(QName type) {
+        return new CompositeNodeTOImpl(type, null, Collections.<Node<?>> emptyList());
+    }
+
+    private static Map<InstanceIdentifier, CompositeNode> updates(InstanceIdentifier... paths) {
+        Map<InstanceIdentifier, CompositeNode> updates = new HashMap<>();
+        for (InstanceIdentifier path : paths) {
+            updates.put(path, data(path.getPath().get(path.getPath().size() - 1).getNodeType()));
+        }
+        return updates;
+    }
+
+    private static List<InstanceIdentifier> removals(InstanceIdentifier... paths) {
+        List<InstanceIdentifier> removals = new ArrayList<>();
+        Collections.addAll(removals, paths);
+        return removals;
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        DataTree tree = new DataTree();
+        InstanceIdentifier node = child(NODES_PATH, NODE, "openflow:1");
+        InstanceIdentifier connector = child(node, NODE_CONNECTOR, "openflow:1:1");
+
+        // Data can be stored below a path without data
+        tree.commit(removals(), updates(connector));
+        DataTree.Snapshot snapshot = tree.takeSnapshot();
+        assertNull(snapshot.read(node));
+        assertFalse(snapshot.contains(node));
+        assertTrue(snapshot.contains(connector));
+        assertEquals(NODE_CONNECTOR, snapshot.read(connector).getNodeType());
+        assertEquals(Collections.singletonList(connector), snapshot.getStoredPaths());
+
+        tree.commit(removals(), updates(node));
+        snapshot = tree.takeSnapshot();
+        assertTrue(snapshot.contains(node));
+        assertEquals(1, snapshot.readChildren(node).size());
+        assertEquals(1, snapshot.readChildren(NODES_PATH).size());
+        assertEquals(2, snapshot.getStoredPaths().size());
+    }
+
+    @Test
+    public void testSnapshotIsolation() {
+        DataTree tree = new DataTree();
+        InstanceIdentifier node1 = child(NODES_PATH, NODE, "openflow:1");
+        InstanceIdentifier node2 = child(NODES_PATH, NODE, "openflow:2");
+        tree.commit(removals(), updates(node1));
+        DataTree.Snapshot before = tree.takeSnapshot();
+        CompositeNode data1 = before.read(node1);
+
+        tree.commit(removals(node1), updates(node2));
+        assertSame(data1, before.read(node1));
+        assertFalse(before.contains(node2));
+
+        DataTree.Snapshot after = tree.takeSnapshot();
+        assertFalse(after.contains(node1));
+        assertTrue(after.contains(node2));
+    }
+
+    @Test
+    public void testSubtreeRemoval() {
+        DataTree tree = new DataTree();
+        InstanceIdentifier node1 = child(NODES_PATH, NODE, "openflow:1");
+        InstanceIdentifier node2 = child(NODES_PATH, NODE, "openflow:2");
+        InstanceIdentifier connector11 = child(node1, NODE_CONNECTOR, "openflow:1:1");
+        InstanceIdentifier connector12 = child(node1, NODE_CONNECTOR, "openflow:1:2");
+        InstanceIdentifier connector21 = child(node2, NODE_CONNECTOR, "openflow:2:1");
+        tree.commit(removals(), updates(NODES_PATH, node1, connector11, connector12, connector21));
+        assertEquals(5, tree.takeSnapshot().getStoredPaths().size());
+        assertEquals(new HashSet<>(removals(node1, connector11, connector12)),
+                new HashSet<>(tree.takeSnapshot().getStoredPaths(node1)));
+
+        // Removals are applied before the updates of the same commit
+        tree.commit(removals(node1), updates(connector12));
+        DataTree.Snapshot snapshot = tree.takeSnapshot();
+        assertFalse(snapshot.contains(node1));
+        assertFalse(snapshot.contains(connector11));
+        assertTrue(snapshot.contains(connector12));
+        assertEquals(new HashSet<>(removals(NODES_PATH, connector12, connector21)),
+                new HashSet<>(snapshot.getStoredPaths()));
+
+        // The nodes left without data nor children are pruned
+        tree.commit(removals(connector12, connector21), updates());
+        snapshot = tree.takeSnapshot();
+        assertEquals(Collections.singletonList(NODES_PATH), snapshot.getStoredPaths());
+        assertTrue(snapshot.readChildren(NODES_PATH).isEmpty());
+        assertTrue(snapshot.getStoredPaths(node2).isEmpty());
+
+        // Removing the root clears the tree
+        tree.commit(removals(path()), updates());
+        assertTrue(tree.takeSnapshot().getStoredPaths().isEmpty());
+    }
+
+    @Test
+    public void testManyChildren() {
+        DataTree tree = new DataTree();
+        InstanceIdentifier[] nodes = new InstanceIdentifier[10000];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = child(NODES_PATH, NODE, "openflow:" + i);
+        }
+        tree.commit(removals(), updates(nodes));
+        assertEquals(nodes.length, tree.takeSnapshot().readChildren(NODES_PATH).size());
+
+        for (int i = 0; i < nodes.length; i += 2) {
+            tree.commit(removals(nodes[i]), updates());
+        }
+        DataTree.Snapshot snapshot = tree.takeSnapshot();
+        assertEquals(nodes.length / 2, snapshot.readChildren(NODES_PATH).size());
+        for (int i = 0; i < nodes.length; i++) {
+            assertEquals(i % 2 == 1, snapshot.contains(nodes[i]));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.sal.dom.broker.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HashTrieMapTest {
+
+    /*
+     * Key with a chosen hash code
+     */
+    private static final class Key {
+        private final int hash;
+        private final int id;
+
+        Key(int hash, int id) {
+            this.hash = hash;
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).hash == hash && ((Key) obj).id == id;
+        }
+    }
+
+    private static <K, V> void assertContent(Map<K, V> expected, HashTrieMap<K, V> map) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<K, V> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Map<K, V> iterated = new HashMap<>();
+        for (Map.Entry<K, V> entry : map) {
+            iterated.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        HashTrieMap<Integer, Integer> map = HashTrieMap.empty();
+        for (int i = 0; i < 100000; i++) {
+            Integer key = random.nextInt(20000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+        assertContent(expected, map);
+
+        for (Integer key : expected.keySet()) {
+            map = map.remove(key);
+        }
+        assertTrue(map.isEmpty());
+        assertTrue(!map.iterator().hasNext());
+    }
+
+    @Test
+    public void testPersistence() {
+        HashTrieMap<Integer, String> empty = HashTrieMap.empty();
+        HashTrieMap<Integer, String> one = empty.put(1, "one");
+        HashTrieMap<Integer, String> two = one.put(2, "two");
+        HashTrieMap<Integer, String> replaced = two.put(1, "uno");
+
+        assertEquals(0, empty.size());
+        assertEquals("one", one.get(1));
+        assertNull(one.get(2));
+        assertEquals("one", two.get(1));
+        assertEquals("uno", replaced.get(1));
+        assertEquals(2, replaced.size());
+
+        // No copy when nothing changes
+        assertSame(two, two.remove(3));
+        assertSame(one, one.put(1, one.get(1)));
+    }
+
+    @Test
+    public void testCollisions() {
+        Map<Key, Integer> expected = new HashMap<>();
+        HashTrieMap<Key, Integer> map = HashTrieMap.empty();
+        // Keys sharing their whole hash, or their lowest bits only
+        for (int i = 0; i < 64; i++) {
+            Key key = new Key((i % 4) << 25, i);
+            expected.put(key, i);
+            map = map.put(key, i);
+        }
+        assertContent(expected, map);
+
+        for (int i = 0; i < 64; i += 3) {
+            Key key = new Key((i % 4) << 25, i);
+            expected.remove(key);
+            map = map.remove(key);
+        }
+        assertContent(expected, map);
+        assertNull(map.get(new Key(0, 3)));
+    }
+}
@@ -14,7 +14,6 @@ import org.opendaylight.controller.sal.connector.api.RpcRouter;
 import org.opendaylight.controller.sal.connector.remoterpc.api.RoutingTable;
 import org.opendaylight.controller.sal.connector.remoterpc.dto.Message;
 import org.opendaylight.controller.sal.connector.remoterpc.dto.RouteIdentifierImpl;
-import org.opendaylight.controller.sal.connector.remoterpc.util.XmlUtils;
 import org.opendaylight.controller.sal.core.api.RpcImplementation;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.common.RpcError;
@@ -110,7 +109,7 @@ public class ClientImpl implements RemoteRpcClient {
         .sender(Context.getInstance().getLocalUri())
         .recipient(address)
         .route(routeId)
-        .payload(XmlUtils.compositeNodeToXml(input))
+        .payload(input)
         .build();
 
     List<RpcError> errors = new ArrayList<RpcError>();
@@ -119,8 +118,8 @@ public class ClientImpl implements RemoteRpcClient {
       Message response = handler.handle(request);
       CompositeNode payload = null;
 
-      if ( response != null )
-        payload = XmlUtils.xmlToCompositeNode((String) response.getPayload());
+      if ( response != null && response.getPayload() instanceof CompositeNode )
+        payload = (CompositeNode) response.getPayload();
 
       return Rpcs.getRpcResult(true, payload, errors);
 
@@ -10,6 +10,7 @@ package org.opendaylight.controller.sal.connector.remoterpc;
 
 import com.google.common.base.Preconditions;
 import org.opendaylight.controller.sal.connector.remoterpc.dto.Message;
+import org.opendaylight.controller.sal.connector.remoterpc.dto.MessageCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zeromq.ZMQ;
@@ -44,9 +45,15 @@ class ClientRequestHandler implements AutoCloseable{
    */
   private Map<String, String> connectedServers;
 
+  /*
+   * Message format negotiated with each connected remote server
+   */
+  private Map<String, MessageCodec.Format> serverFormats;
+
   protected ClientRequestHandler(ZMQ.Context context) {
     this.context = context;
     connectedServers = new ConcurrentHashMap<String, String>();
+    serverFormats = new ConcurrentHashMap<String, MessageCodec.Format>();
     start();
   }
 
@@ -70,6 +77,8 @@ class ClientRequestHandler implements AutoCloseable{
         Preconditions.checkState( worker != null );
         String remoteServerAddress = worker.getRemoteServerAddress();
         connectedServers.remove(remoteServerAddress);
+        //the server may have been restarted with another version
+        serverFormats.remove(remoteServerAddress);
 
         if ( t != null ){
           _logger.debug("Exception caught while terminating worker [{},{}]. " +
@@ -106,17 +115,34 @@ class ClientRequestHandler implements AutoCloseable{
 
     try {
       socket.connect( INPROC_PROTOCOL_PREFIX + address);
-      socket.send(Message.serialize(request));
+      MessageCodec.Format format = serverFormats.get(address);
+      if (format == null) {
+        format = negotiateFormat(socket, request.getSender());
+        serverFormats.put(address, format);
+        _logger.debug("Using message format [{}] with server [{}]", format, address);
+      }
+      socket.send(MessageCodec.encode(request, format));
       _logger.debug("Request sent. Waiting for reply...");
       byte[] reply = socket.recv(0);
       _logger.debug("Response received");
-      response = (Message) Message.deserialize(reply);
+      response = MessageCodec.decode(reply);
     } finally {
       socket.close();
     }
     return response;
   }
 
+  /**
+   * Probes the server for the binary message format. The probe is sent with
+   * Java serialization, which every server understands.
+   */
+  private MessageCodec.Format negotiateFormat(ZMQ.Socket socket, String sender)
+      throws IOException, ClassNotFoundException {
+    socket.send(MessageCodec.encode(MessageCodec.createProbe(sender), MessageCodec.Format.JAVA_SERIALIZATION));
+    byte[] reply = socket.recv(0);
+    return MessageCodec.negotiatedFormat(MessageCodec.decode(reply));
+  }
+
   /**
    * This gets called automatically if used with try-with-resources
    */
@@ -9,7 +9,7 @@
 package org.opendaylight.controller.sal.connector.remoterpc;
 
 import org.opendaylight.controller.sal.connector.remoterpc.dto.Message;
-import org.opendaylight.controller.sal.connector.remoterpc.util.XmlUtils;
+import org.opendaylight.controller.sal.connector.remoterpc.dto.MessageCodec;
 import org.opendaylight.controller.sal.core.api.Broker;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.common.RpcResult;
@@ -101,10 +101,16 @@ public class ServerRequestHandler implements AutoCloseable{
 
         while (!Thread.currentThread().isInterrupted()) {
 
-          Message request = parseMessage(socket);
+          byte[] bytes = socket.recv(); //this blocks
+          _logger.debug("Received bytes:[{}]", bytes.length);
+          //reply in the format of the request
+          MessageCodec.Format format = MessageCodec.formatOf(bytes);
+          Message request = MessageCodec.decode(bytes);
           _logger.debug("Received rpc request [{}]", request);
 
-          if (request != null) {
+          if (request != null && MessageCodec.isProbe(request)) {
+            socket.send(MessageCodec.encode(MessageCodec.createProbeReply(serverAddress), format));
+          } else if (request != null) {
             // Call broker to process the message then reply
             Future<RpcResult<CompositeNode>> rpc = null;
             RpcResult<CompositeNode> result = null;
@@ -113,7 +119,7 @@ public class ServerRequestHandler implements AutoCloseable{
             try {
               rpc = broker.rpc(
                   (QName) request.getRoute().getType(),
-                  XmlUtils.xmlToCompositeNode((String) request.getPayload()));
+                  (CompositeNode) request.getPayload());
 
               result = (rpc != null) ? rpc.get() : null;
 
@@ -127,13 +133,13 @@ public class ServerRequestHandler implements AutoCloseable{
                 .type(Message.MessageType.RESPONSE)
                 .sender(serverAddress)
                 .route(request.getRoute())
-                .payload(XmlUtils.compositeNodeToXml(payload))
+                .payload(payload)
                 .build();
 
             _logger.debug("Sending rpc response [{}]", response);
 
             try {
-              socket.send(Message.serialize(response));
+              socket.send(MessageCodec.encode(response, format));
             } catch (Exception e) {
               _logger.debug("rpc response send failed for message [{}]", response);
               _logger.debug("{}", e);
@@ -147,16 +153,6 @@ public class ServerRequestHandler implements AutoCloseable{
       }
     }
 
-    /**
-     * @param socket
-     * @return
-     */
-    private Message parseMessage(ZMQ.Socket socket) throws Exception {
-      byte[] bytes = socket.recv(); //this blocks
-      _logger.debug("Received bytes:[{}]", bytes.length);
-      return (Message) Message.deserialize(bytes);
-    }
-
     private void printException(Exception e) {
       try (StringWriter s = new StringWriter();
            PrintWriter p = new PrintWriter(s)) {
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.connector.remoterpc.dto;
+
+import org.opendaylight.controller.sal.connector.remoterpc.util.CompositeNodeCodec;
+import org.opendaylight.controller.sal.connector.remoterpc.util.XmlUtils;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+
+import java.io.IOException;
+
+/**
+ * Encodes {@link Message}s on the wire.
+ *
+ * Two formats are supported. {@link Format#JAVA_SERIALIZATION} is understood
+ * by every peer: the message is serialized with {@link Message#serialize}, an
+ * RPC payload being carried as XML. {@link Format#BINARY} is a compact frame
+ * starting with a magic byte, an RPC payload being encoded with
+ * {@link CompositeNodeCodec}. Decoding detects the format from the first
+ * byte.
+ *
+ * A client learns whether a server supports the binary format by sending it
+ * a probe in the Java serialization format. Servers supporting the binary
+ * format answer with an acknowledgement; older servers fail to execute the
+ * probe as an RPC and answer with an empty response.
+ */
+public final class MessageCodec {
+
+  public static enum Format {
+    JAVA_SERIALIZATION,
+    BINARY
+  }
+
+  /*
+   * Java serialization streams start with 0xACED
+   */
+  private static final byte MAGIC = (byte) 0xB1;
+  private static final byte VERSION = 1;
+
+  private static final byte NO_ROUTE = 0;
+  private static final byte ROUTE = 1;
+
+  private static final byte PAYLOAD_NULL = 0;
+  private static final byte PAYLOAD_COMPOSITE_NODE = 1;
+  private static final byte PAYLOAD_STRING = 2;
+
+  private static final String PROBE = "remoterpc-codec?";
+  private static final String PROBE_ACK = "remoterpc-codec:binary-1";
+
+  private MessageCodec() {
+    throw new UnsupportedOperationException("Utility class");
+  }
+
+  /**
+   * @return format of an encoded message
+   */
+  public static Format formatOf(byte[] bytes) {
+    return bytes.length > 0 && bytes[0] == MAGIC ? Format.BINARY : Format.JAVA_SERIALIZATION;
+  }
+
+  /**
+   * Encodes a message. Messages which cannot be represented in the binary
+   * format, such as messages with a route instance identifier or with a
+   * payload other than a string or a composite node, are encoded with Java
+   * serialization.
+   */
+  public static byte[] encode(Message message, Format format) throws IOException {
+    if (format == Format.BINARY && isBinaryEncodable(message)) {
+      return encodeBinary(message);
+    }
+    return Message.serialize(toSerializable(message));
+  }
+
+  public static Message decode(byte[] bytes) throws IOException, ClassNotFoundException {
+    if (formatOf(bytes) == Format.BINARY) {
+      return decodeBinary(bytes);
+    }
+    Message message = (Message) Message.deserialize(bytes);
+    if (isRpc(message) && message.getPayload() instanceof String) {
+      message.setPayload(XmlUtils.xmlToCompositeNode((String) message.getPayload()));
+    }
+    return message;
+  }
+
+  public static Message createProbe(String sender) {
+    return new Message.MessageBuilder()
+        .type(Message.MessageType.HEARTBEAT)
+        .sender(sender)
+        .payload(PROBE)
+        .build();
+  }
+
+  public static boolean isProbe(Message message) {
+    return message.getType() == Message.MessageType.HEARTBEAT && PROBE.equals(message.getPayload());
+  }
+
+  public static Message createProbeReply(String sender) {
+    return new Message.MessageBuilder()
+        .type(Message.MessageType.HEARTBEAT)
+        .sender(sender)
+        .payload(PROBE_ACK)
+        .build();
+  }
+
+  /**
+   * @param reply reply of a server to a probe, may be null
+   * @return format supported by the server
+   */
+  public static Format negotiatedFormat(Message reply) {
+    if (reply != null && reply.getType() == Message.MessageType.HEARTBEAT
+        && PROBE_ACK.equals(reply.getPayload())) {
+      return Format.BINARY;
+    }
+    return Format.JAVA_SERIALIZATION;
+  }
+
+  private static boolean isRpc(Message message) {
+    return message.getType() == Message.MessageType.REQUEST || message.getType() == Message.MessageType.RESPONSE;
+  }
+
+  private static boolean isBinaryEncodable(Message message) {
+    if (message.getClass() != Message.class) {
+      return false;
+    }
+    Object route = message.getRoute();
+    if (route != null && !(route instanceof RouteIdentifierImpl && ((RouteIdentifierImpl) route).getRoute() == null)) {
+      return false;
+    }
+    Object payload = message.getPayload();
+    return payload == null || payload instanceof CompositeNode || payload instanceof String;
+  }
+
+  /*
+   * Older peers expect RPC payloads as XML
+   */
+  private static Message toSerializable(Message message) {
+    if (!(message.getPayload() instanceof CompositeNode)) {
+      return message;
+    }
+    Message ret;
+    if (message instanceof Message.Response) {
+      Message.Response response = new Message.Response();
+      response.setCode(((Message.Response) message).getCode());
+      ret = response;
+    } else {
+      ret = new Message();
+    }
+    ret.setType(message.getType());
+    ret.setSender(message.getSender());
+    ret.setRecipient(message.getRecipient());
+    ret.setRoute(message.getRoute());
+    ret.setPayload(XmlUtils.compositeNodeToXml((CompositeNode) message.getPayload()));
+    return ret;
+  }
+
+  private static byte[] encodeBinary(Message message) {
+    CompositeNodeCodec.Writer writer = new CompositeNodeCodec.Writer();
+    writer.writeByte(MAGIC);
+    writer.writeByte(VERSION);
+    writer.writeByte(message.getType() != null ? message.getType().getType() : -1);
+    writer.writeString(message.getSender());
+    writer.writeString(message.getRecipient());
+
+    RouteIdentifierImpl route = (RouteIdentifierImpl) message.getRoute();
+    if (route == null) {
+      writer.writeByte(NO_ROUTE);
+    } else {
+      writer.writeByte(ROUTE);
+      writer.writeQName(route.getContext());
+      writer.writeQName(route.getType());
+    }
+
+    Object payload = message.getPayload();
+    if (payload instanceof CompositeNode) {
+      writer.writeByte(PAYLOAD_COMPOSITE_NODE);
+      writer.writeNode((CompositeNode) payload);
+    } else if (payload instanceof String) {
+      writer.writeByte(PAYLOAD_STRING);
+      writer.writeString((String) payload);
+    } else {
+      writer.writeByte(PAYLOAD_NULL);
+    }
+    return writer.toByteArray();
+  }
+
+  private static Message decodeBinary(byte[] bytes) throws IOException {
+    CompositeNodeCodec.Reader reader = new CompositeNodeCodec.Reader(bytes, 1);
+    byte version = reader.readByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported message format version " + version);
+    }
+
+    Message message = new Message();
+    message.setType(toMessageType(reader.readByte()));
+    message.setSender(reader.readString());
+    message.setRecipient(reader.readString());
+
+    byte route = reader.readByte();
+    if (route == ROUTE) {
+      RouteIdentifierImpl routeId = new RouteIdentifierImpl();
+      routeId.setContext(reader.readQName());
+      routeId.setType(reader.readQName());
+      message.setRoute(routeId);
+    } else if (route != NO_ROUTE) {
+      throw new IOException("Invalid route " + route);
+    }
+
+    byte payload = reader.readByte();
+    switch (payload) {
+    case PAYLOAD_NULL:
+      break;
+    case PAYLOAD_COMPOSITE_NODE:
+      message.setPayload(reader.readCompositeNode());
+      break;
+    case PAYLOAD_STRING:
+      message.setPayload(reader.readString());
+      break;
+    default:
+      throw new IOException("Invalid payload " + payload);
+    }
+
+    if (reader.position() != bytes.length) {
+      throw new IOException("Unexpected data after the message");
+    }
+    return message;
+  }
+
+  private static Message.MessageType toMessageType(byte type) throws IOException {
+    if (type == -1) {
+      return null;
+    }
+    for (Message.MessageType messageType : Message.MessageType.values()) {
+      if (messageType.getType() == type) {
+        return messageType;
+      }
+    }
+    throw new IOException("Invalid message type " + type);
+  }
+}
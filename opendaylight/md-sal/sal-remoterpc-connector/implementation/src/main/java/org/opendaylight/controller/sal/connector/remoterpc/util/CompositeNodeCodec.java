@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.connector.remoterpc.util;
+
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.api.SimpleNode;
+import org.opendaylight.yangtools.yang.data.impl.ImmutableCompositeNode;
+import org.opendaylight.yangtools.yang.data.impl.NodeFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of {@link CompositeNode}s.
+ *
+ * QNames and their modules (namespace, revision and prefix) are written once
+ * per encoded stream and referred to by their index afterwards. Lengths and counts are written as varints. Leaf
+ * values keep their Java type: strings, booleans, integral and decimal
+ * numbers, binary data, QNames and instance identifiers are written with a
+ * type tag. Values of any other type are written as their string
+ * representation, as the XML encoding does.
+ */
+public final class CompositeNodeCodec {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final byte NODE_COMPOSITE = 0;
+  private static final byte NODE_SIMPLE = 1;
+
+  private static final byte VALUE_NULL = 0;
+  private static final byte VALUE_STRING = 1;
+  private static final byte VALUE_FALSE = 2;
+  private static final byte VALUE_TRUE = 3;
+  private static final byte VALUE_BYTE = 4;
+  private static final byte VALUE_SHORT = 5;
+  private static final byte VALUE_INTEGER = 6;
+  private static final byte VALUE_LONG = 7;
+  private static final byte VALUE_BIG_INTEGER = 8;
+  private static final byte VALUE_BIG_DECIMAL = 9;
+  private static final byte VALUE_BINARY = 10;
+  private static final byte VALUE_QNAME = 11;
+  private static final byte VALUE_INSTANCE_IDENTIFIER = 12;
+
+  private static final byte PATH_NODE = 0;
+  private static final byte PATH_PREDICATES = 1;
+  private static final byte PATH_VALUE = 2;
+
+  private CompositeNodeCodec() {
+    throw new UnsupportedOperationException("Utility class");
+  }
+
+  public static byte[] toBinary(CompositeNode node) {
+    Writer writer = new Writer();
+    writer.writeNode(node);
+    return writer.toByteArray();
+  }
+
+  public static CompositeNode fromBinary(byte[] bytes) throws IOException {
+    Reader reader = new Reader(bytes, 0);
+    CompositeNode ret = reader.readCompositeNode();
+    if (reader.position() != bytes.length) {
+      throw new IOException("Unexpected data after the encoded node");
+    }
+    return ret;
+  }
+
+  /**
+   * Writes nodes and their components to a growing buffer. QNames and
+   * modules written once are referenced by index afterwards.
+   */
+  public static final class Writer {
+    private final Map<QName, Integer> qnames = new HashMap<QName, Integer>();
+    private final Map<List<Object>, Integer> modules = new HashMap<List<Object>, Integer>();
+    private byte[] buffer = new byte[256];
+    private int size;
+
+    public byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+      }
+    }
+
+    public void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes) {
+      writeVarInt(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    public void writeVarInt(int value) {
+      writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    public void writeVarLong(long value) {
+      ensureCapacity(10);
+      long remaining = value;
+      while ((remaining & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      buffer[size++] = (byte) remaining;
+    }
+
+    private void writeSignedVarLong(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a string which may be null.
+     */
+    public void writeString(String value) {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      byte[] bytes = value.getBytes(UTF8);
+      writeVarInt(bytes.length + 1);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    /**
+     * Writes a QName which may be null. A QName written before is written as
+     * its index.
+     */
+    public void writeQName(QName qname) {
+      if (qname == null) {
+        writeVarInt(0);
+        return;
+      }
+      Integer index = qnames.get(qname);
+      if (index != null) {
+        writeVarInt(index + 1);
+        return;
+      }
+      qnames.put(qname, qnames.size());
+      writeVarInt(qnames.size());
+      writeModule(qname);
+      writeString(qname.getLocalName());
+    }
+
+    private void writeModule(QName qname) {
+      List<Object> module = Arrays.<Object>asList(qname.getNamespace(), qname.getRevision(), qname.getPrefix());
+      Integer index = modules.get(module);
+      if (index != null) {
+        writeVarInt(index + 1);
+        return;
+      }
+      modules.put(module, modules.size());
+      writeVarInt(modules.size());
+      writeString(qname.getNamespace() != null ? qname.getNamespace().toString() : null);
+      Date revision = qname.getRevision();
+      if (revision == null) {
+        writeByte(0);
+      } else {
+        writeByte(1);
+        writeSignedVarLong(revision.getTime());
+      }
+      writeString(qname.getPrefix());
+    }
+
+    public void writeNode(Node<?> node) {
+      if (node instanceof CompositeNode) {
+        writeByte(NODE_COMPOSITE);
+        writeQName(node.getNodeType());
+        List<Node<?>> children = ((CompositeNode) node).getChildren();
+        writeVarInt(children.size());
+        for (Node<?> child : children) {
+          writeNode(child);
+        }
+      } else if (node instanceof SimpleNode) {
+        writeByte(NODE_SIMPLE);
+        writeQName(node.getNodeType());
+        writeValue(node.getValue());
+      } else {
+        throw new IllegalArgumentException("Unsupported node " + node);
+      }
+    }
+
+    public void writeValue(Object value) {
+      if (value == null) {
+        writeByte(VALUE_NULL);
+      } else if (value instanceof String) {
+        writeByte(VALUE_STRING);
+        writeString((String) value);
+      } else if (value instanceof Boolean) {
+        writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+      } else if (value instanceof Byte) {
+        writeByte(VALUE_BYTE);
+        writeByte((Byte) value);
+      } else if (value instanceof Short) {
+        writeByte(VALUE_SHORT);
+        writeSignedVarLong((Short) value);
+      } else if (value instanceof Integer) {
+        writeByte(VALUE_INTEGER);
+        writeSignedVarLong((Integer) value);
+      } else if (value instanceof Long) {
+        writeByte(VALUE_LONG);
+        writeSignedVarLong((Long) value);
+      } else if (value instanceof BigInteger) {
+        writeByte(VALUE_BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (value instanceof BigDecimal) {
+        writeByte(VALUE_BIG_DECIMAL);
+        writeString(value.toString());
+      } else if (value instanceof byte[]) {
+        writeByte(VALUE_BINARY);
+        writeBytes((byte[]) value);
+      } else if (value instanceof QName) {
+        writeByte(VALUE_QNAME);
+        writeQName((QName) value);
+      } else if (value instanceof InstanceIdentifier && isSupported((InstanceIdentifier) value)) {
+        writeByte(VALUE_INSTANCE_IDENTIFIER);
+        writeInstanceIdentifier((InstanceIdentifier) value);
+      } else {
+        writeByte(VALUE_STRING);
+        writeString(value.toString());
+      }
+    }
+
+    private boolean isSupported(InstanceIdentifier identifier) {
+      for (PathArgument argument : identifier.getPath()) {
+        if (!(argument instanceof NodeIdentifier || argument instanceof NodeIdentifierWithPredicates
+            || argument instanceof NodeWithValue)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void writeInstanceIdentifier(InstanceIdentifier identifier) {
+      List<PathArgument> path = identifier.getPath();
+      writeVarInt(path.size());
+      for (PathArgument argument : path) {
+        if (argument instanceof NodeIdentifierWithPredicates) {
+          writeByte(PATH_PREDICATES);
+          writeQName(argument.getNodeType());
+          Map<QName, Object> keys = ((NodeIdentifierWithPredicates) argument).getKeyValues();
+          writeVarInt(keys.size());
+          for (Map.Entry<QName, Object> key : keys.entrySet()) {
+            writeQName(key.getKey());
+            writeValue(key.getValue());
+          }
+        } else if (argument instanceof NodeWithValue) {
+          writeByte(PATH_VALUE);
+          writeQName(argument.getNodeType());
+          writeValue(((NodeWithValue) argument).getValue());
+        } else {
+          writeByte(PATH_NODE);
+          writeQName(argument.getNodeType());
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads what a {@link Writer} wrote.
+   */
+  public static final class Reader {
+    private final List<QName> qnames = new ArrayList<QName>();
+    private final List<Module> modules = new ArrayList<Module>();
+    private final byte[] bytes;
+    private int position;
+
+    public Reader(byte[] bytes, int offset) {
+      this.bytes = bytes;
+      this.position = offset;
+    }
+
+    public int position() {
+      return position;
+    }
+
+    private void require(int length) throws EOFException {
+      if (length < 0 || length > bytes.length - position) {
+        throw new EOFException("Truncated data at offset " + position);
+      }
+    }
+
+    public byte readByte() throws IOException {
+      require(1);
+      return bytes[position++];
+    }
+
+    public byte[] readBytes() throws IOException {
+      int length = readVarInt();
+      require(length);
+      byte[] ret = Arrays.copyOfRange(bytes, position, position + length);
+      position += length;
+      return ret;
+    }
+
+    public int readVarInt() throws IOException {
+      long value = readVarLong();
+      if (value > Integer.MAX_VALUE) {
+        throw new IOException("Invalid length " + value);
+      }
+      return (int) value;
+    }
+
+    public long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed varint at offset " + position);
+    }
+
+    private long readSignedVarLong() throws IOException {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() throws IOException {
+      int length = readVarInt() - 1;
+      if (length < 0) {
+        return null;
+      }
+      require(length);
+      String ret = new String(bytes, position, length, UTF8);
+      position += length;
+      return ret;
+    }
+
+    public QName readQName() throws IOException {
+      int index = readVarInt();
+      if (index == 0) {
+        return null;
+      }
+      if (index <= qnames.size()) {
+        return qnames.get(index - 1);
+      }
+      if (index != qnames.size() + 1) {
+        throw new IOException("Invalid QName reference " + index);
+      }
+      Module module = readModule();
+      QName ret = new QName(module.namespace, module.revision, module.prefix, readString());
+      qnames.add(ret);
+      return ret;
+    }
+
+    private Module readModule() throws IOException {
+      int index = readVarInt();
+      if (index == 0 || index > modules.size() + 1) {
+        throw new IOException("Invalid module reference " + index);
+      }
+      if (index <= modules.size()) {
+        return modules.get(index - 1);
+      }
+      String namespace = readString();
+      Module ret = new Module();
+      try {
+        ret.namespace = namespace != null ? new URI(namespace) : null;
+      } catch (URISyntaxException e) {
+        throw new IOException("Invalid namespace", e);
+      }
+      ret.revision = readByte() != 0 ? new Date(readSignedVarLong()) : null;
+      ret.prefix = readString();
+      modules.add(ret);
+      return ret;
+    }
+
+    public CompositeNode readCompositeNode() throws IOException {
+      Node<?> ret = readNode();
+      if (!(ret instanceof CompositeNode)) {
+        throw new IOException("Expected a composite node, got " + ret);
+      }
+      return (CompositeNode) ret;
+    }
+
+    public Node<?> readNode() throws IOException {
+      byte type = readByte();
+      QName qname = readQName();
+      switch (type) {
+      case NODE_COMPOSITE:
+        int count = readVarInt();
+        // Every child takes at least two bytes
+        require(count * 2);
+        List<Node<?>> children = new ArrayList<Node<?>>(count);
+        for (int i = 0; i < count; i++) {
+          children.add(readNode());
+        }
+        return ImmutableCompositeNode.create(qname, children);
+      case NODE_SIMPLE:
+        return NodeFactory.createImmutableSimpleNode(qname, null, readValue());
+      default:
+        throw new IOException("Invalid node type " + type);
+      }
+    }
+
+    public Object readValue() throws IOException {
+      byte type = readByte();
+      switch (type) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_STRING:
+        return readString();
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_BYTE:
+        return readByte();
+      case VALUE_SHORT:
+        return (short) readSignedVarLong();
+      case VALUE_INTEGER:
+        return (int) readSignedVarLong();
+      case VALUE_LONG:
+        return readSignedVarLong();
+      case VALUE_BIG_INTEGER:
+        return new BigInteger(readBytes());
+      case VALUE_BIG_DECIMAL:
+        return new BigDecimal(readString());
+      case VALUE_BINARY:
+        return readBytes();
+      case VALUE_QNAME:
+        return readQName();
+      case VALUE_INSTANCE_IDENTIFIER:
+        return readInstanceIdentifier();
+      default:
+        throw new IOException("Invalid value type " + type);
+      }
+    }
+
+    private InstanceIdentifier readInstanceIdentifier() throws IOException {
+      int count = readVarInt();
+      require(count * 2);
+      List<PathArgument> path = new ArrayList<PathArgument>(count);
+      for (int i = 0; i < count; i++) {
+        byte type = readByte();
+        QName qname = readQName();
+        switch (type) {
+        case PATH_NODE:
+          path.add(new NodeIdentifier(qname));
+          break;
+        case PATH_PREDICATES:
+          int keyCount = readVarInt();
+          require(keyCount * 2);
+          Map<QName, Object> keys = new LinkedHashMap<QName, Object>();
+          for (int j = 0; j < keyCount; j++) {
+            keys.put(readQName(), readValue());
+          }
+          path.add(new NodeIdentifierWithPredicates(qname, keys));
+          break;
+        case PATH_VALUE:
+          path.add(new NodeWithValue(qname, readValue()));
+          break;
+        default:
+          throw new IOException("Invalid path argument type " + type);
+        }
+      }
+      return new InstanceIdentifier(path);
+    }
+
+    private static final class Module {
+      private URI namespace;
+      private Date revision;
+      private String prefix;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.connector.remoterpc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.opendaylight.controller.sal.connector.remoterpc.util.CompositeNodeCodec;
+import org.opendaylight.controller.sal.connector.remoterpc.util.XmlUtils;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.impl.ImmutableCompositeNode;
+import org.opendaylight.yangtools.yang.data.impl.NodeFactory;
+
+public class CompositeNodeCodecTest {
+
+  private static final URI FLOW_SERVICE = URI.create("urn:opendaylight:flow:service");
+  private static final URI INVENTORY = URI.create("urn:opendaylight:inventory");
+  private static final Date REVISION = new Date(1376870400000L); // 2013-08-19
+
+  private static QName flowQName(String localName) {
+    return new QName(FLOW_SERVICE, REVISION, "sal-flow", localName);
+  }
+
+  private static Node<?> leaf(String localName, Object value) {
+    return NodeFactory.createImmutableSimpleNode(flowQName(localName), null, value);
+  }
+
+  private static CompositeNode container(String localName, Node<?>... children) {
+    return ImmutableCompositeNode.create(flowQName(localName), new ArrayList<Node<?>>(Arrays.asList(children)));
+  }
+
+  private static InstanceIdentifier nodePath(String nodeId) {
+    QName nodeQName = new QName(INVENTORY, REVISION, "inv", "node");
+    List<PathArgument> path = new ArrayList<PathArgument>();
+    path.add(new NodeIdentifier(new QName(INVENTORY, REVISION, "inv", "nodes")));
+    path.add(new NodeIdentifierWithPredicates(nodeQName,
+        Collections.<QName, Object>singletonMap(new QName(INVENTORY, REVISION, "inv", "id"), nodeId)));
+    return new InstanceIdentifier(path);
+  }
+
+  /**
+   * Creates the input of an add-flow RPC, as the binding broker passes it to
+   * the DOM broker.
+   *
+   * @param actions number of output actions of the flow
+   */
+  static CompositeNode createFlowAddInput(int actions) {
+    List<Node<?>> actionList = new ArrayList<Node<?>>();
+    for (int i = 0; i < actions; i++) {
+      actionList.add(container("action",
+          leaf("order", i),
+          container("output-action",
+              leaf("output-node-connector", "openflow:1:" + (i + 1)),
+              leaf("max-length", 65535))));
+    }
+    CompositeNode applyActions = ImmutableCompositeNode.create(flowQName("apply-actions"), actionList);
+
+    return container("input",
+        leaf("node", nodePath("openflow:1")),
+        leaf("table_id", (short) 0),
+        leaf("priority", 32768),
+        leaf("cookie", new BigInteger("18446744073709551615")),
+        leaf("idle-timeout", 0),
+        leaf("hard-timeout", 0),
+        leaf("barrier", Boolean.FALSE),
+        leaf("flow-name", "flow-add benchmark"),
+        container("match",
+            container("ethernet-match",
+                container("ethernet-type", leaf("type", 2048L))),
+            leaf("ipv4-destination", "10.0.0.1/32"),
+            container("ip-match", leaf("ip-protocol", (short) 6))),
+        container("instructions",
+            container("instruction",
+                leaf("order", 0),
+                applyActions)));
+  }
+
+  static void assertNodeEquals(Node<?> expected, Node<?> actual) {
+    assertEquals(expected.getNodeType(), actual.getNodeType());
+    if (expected instanceof CompositeNode) {
+      assertTrue(actual instanceof CompositeNode);
+      List<Node<?>> expectedChildren = ((CompositeNode) expected).getChildren();
+      List<Node<?>> actualChildren = ((CompositeNode) actual).getChildren();
+      assertEquals(expectedChildren.size(), actualChildren.size());
+      for (int i = 0; i < expectedChildren.size(); i++) {
+        assertNodeEquals(expectedChildren.get(i), actualChildren.get(i));
+      }
+    } else if (expected.getValue() instanceof byte[]) {
+      assertArrayEquals((byte[]) expected.getValue(), (byte[]) actual.getValue());
+    } else {
+      assertEquals(expected.getValue(), actual.getValue());
+    }
+  }
+
+  @Test
+  public void testFlowAddRoundTrip() throws IOException {
+    CompositeNode input = createFlowAddInput(4);
+    CompositeNode decoded = CompositeNodeCodec.fromBinary(CompositeNodeCodec.toBinary(input));
+    assertNodeEquals(input, decoded);
+  }
+
+  @Test
+  public void testLeafTypes() throws IOException {
+    Object[] values = { null, "", "text \u00e9\u4e2d", Boolean.TRUE, Boolean.FALSE, (byte) -5, (short) 255,
+        Integer.MIN_VALUE, 4294967295L, Long.MIN_VALUE, new BigInteger("-18446744073709551617"),
+        new BigDecimal("-12.3450"), new byte[] { 0, 1, (byte) 0xFF }, flowQName("identity"),
+        nodePath("openflow:7") };
+    List<Node<?>> leaves = new ArrayList<Node<?>>();
+    for (Object value : values) {
+      leaves.add(leaf("leaf", value));
+    }
+    CompositeNode node = ImmutableCompositeNode.create(flowQName("input"), leaves);
+
+    assertNodeEquals(node, CompositeNodeCodec.fromBinary(CompositeNodeCodec.toBinary(node)));
+  }
+
+  @Test
+  public void testUnknownValueWrittenAsString() throws IOException {
+    CompositeNode node = container("input", leaf("uri", URI.create("http://example.com")));
+    CompositeNode decoded = CompositeNodeCodec.fromBinary(CompositeNodeCodec.toBinary(node));
+    assertEquals("http://example.com", decoded.getChildren().get(0).getValue());
+  }
+
+  @Test
+  public void testSmallerThanXml() {
+    CompositeNode input = createFlowAddInput(16);
+    int binary = CompositeNodeCodec.toBinary(input).length;
+    int xml = XmlUtils.compositeNodeToXml(input).getBytes().length;
+    assertTrue("binary " + binary + " bytes, xml " + xml + " bytes", binary * 2 < xml);
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedData() throws IOException {
+    byte[] bytes = CompositeNodeCodec.toBinary(createFlowAddInput(1));
+    CompositeNodeCodec.fromBinary(Arrays.copyOf(bytes, bytes.length - 3));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTrailingData() throws IOException {
+    byte[] bytes = CompositeNodeCodec.toBinary(createFlowAddInput(1));
+    CompositeNodeCodec.fromBinary(Arrays.copyOf(bytes, bytes.length + 1));
+  }
+}
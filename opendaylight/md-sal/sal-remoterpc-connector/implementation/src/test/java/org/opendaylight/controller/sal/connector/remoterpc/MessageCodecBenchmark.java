@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.connector.remoterpc;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.controller.sal.connector.remoterpc.dto.Message;
+import org.opendaylight.controller.sal.connector.remoterpc.dto.MessageCodec;
+import org.opendaylight.controller.sal.connector.remoterpc.dto.RouteIdentifierImpl;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of encoding and decoding an add-flow RPC request, with XML carried in
+ * a Java serialized message and with the binary message format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+  @Param({ "1", "16" })
+  public int actions;
+
+  private Message request;
+  private byte[] serializedRequest;
+  private byte[] binaryRequest;
+
+  @Setup
+  public void setup() throws Exception {
+    RouteIdentifierImpl routeId = new RouteIdentifierImpl();
+    routeId.setType(new QName(URI.create("urn:opendaylight:flow:service"), "add-flow"));
+
+    request = new Message.MessageBuilder()
+        .type(Message.MessageType.REQUEST)
+        .sender("tcp://10.0.0.1:5555")
+        .recipient("tcp://10.0.0.2:5555")
+        .route(routeId)
+        .payload(CompositeNodeCodecTest.createFlowAddInput(actions))
+        .build();
+    serializedRequest = MessageCodec.encode(request, MessageCodec.Format.JAVA_SERIALIZATION);
+    binaryRequest = MessageCodec.encode(request, MessageCodec.Format.BINARY);
+  }
+
+  @Benchmark
+  public byte[] encodeJavaSerialization() throws Exception {
+    return MessageCodec.encode(request, MessageCodec.Format.JAVA_SERIALIZATION);
+  }
+
+  @Benchmark
+  public byte[] encodeBinary() throws Exception {
+    return MessageCodec.encode(request, MessageCodec.Format.BINARY);
+  }
+
+  @Benchmark
+  public Message decodeJavaSerialization() throws Exception {
+    return MessageCodec.decode(serializedRequest);
+  }
+
+  @Benchmark
+  public Message decodeBinary() throws Exception {
+    return MessageCodec.decode(binaryRequest);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(MessageCodecBenchmark.class.getSimpleName()).build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.connector.remoterpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.opendaylight.controller.sal.connector.remoterpc.dto.Message;
+import org.opendaylight.controller.sal.connector.remoterpc.dto.MessageCodec;
+import org.opendaylight.controller.sal.connector.remoterpc.dto.RouteIdentifierImpl;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.InstanceIdentifier.PathArgument;
+
+public class MessageCodecTest {
+
+  private static final QName ADD_FLOW = new QName(URI.create("urn:opendaylight:flow:service"), "add-flow");
+
+  private static Message createRequest(CompositeNode payload) {
+    RouteIdentifierImpl routeId = new RouteIdentifierImpl();
+    routeId.setType(ADD_FLOW);
+
+    return new Message.MessageBuilder()
+        .type(Message.MessageType.REQUEST)
+        .sender("tcp://10.0.0.1:5555")
+        .recipient("tcp://10.0.0.2:5555")
+        .route(routeId)
+        .payload(payload)
+        .build();
+  }
+
+  @Test
+  public void testBinaryRoundTrip() throws Exception {
+    CompositeNode input = CompositeNodeCodecTest.createFlowAddInput(4);
+    byte[] bytes = MessageCodec.encode(createRequest(input), MessageCodec.Format.BINARY);
+    assertEquals(MessageCodec.Format.BINARY, MessageCodec.formatOf(bytes));
+
+    Message message = MessageCodec.decode(bytes);
+    assertEquals(Message.MessageType.REQUEST, message.getType());
+    assertEquals("tcp://10.0.0.1:5555", message.getSender());
+    assertEquals("tcp://10.0.0.2:5555", message.getRecipient());
+    assertEquals(ADD_FLOW, message.getRoute().getType());
+    assertNull(message.getRoute().getContext());
+    CompositeNodeCodecTest.assertNodeEquals(input, (CompositeNode) message.getPayload());
+  }
+
+  @Test
+  public void testJavaSerializationCarriesXml() throws Exception {
+    CompositeNode input = CompositeNodeCodecTest.createFlowAddInput(1);
+    byte[] bytes = MessageCodec.encode(createRequest(input), MessageCodec.Format.JAVA_SERIALIZATION);
+    assertEquals(MessageCodec.Format.JAVA_SERIALIZATION, MessageCodec.formatOf(bytes));
+
+    // What older peers read
+    Message legacy = (Message) Message.deserialize(bytes);
+    assertTrue(legacy.getPayload() instanceof String);
+
+    Message message = MessageCodec.decode(bytes);
+    assertEquals(ADD_FLOW, message.getRoute().getType());
+    CompositeNode payload = (CompositeNode) message.getPayload();
+    assertEquals(input.getNodeType().getLocalName(), payload.getNodeType().getLocalName());
+    assertEquals(input.getChildren().size(), payload.getChildren().size());
+  }
+
+  @Test
+  public void testDecodeLegacyMessage() throws Exception {
+    Message message = MessageCodec.decode(Message.serialize(new Message()));
+    assertNull(message.getType());
+    assertNull(message.getPayload());
+  }
+
+  @Test
+  public void testRouteWithInstanceIdentifierFallsBack() throws Exception {
+    List<PathArgument> path = new ArrayList<PathArgument>();
+    path.add(new NodeIdentifier(ADD_FLOW));
+    Message request = createRequest(null);
+    ((RouteIdentifierImpl) request.getRoute()).setRoute(new InstanceIdentifier(path));
+
+    byte[] bytes = MessageCodec.encode(request, MessageCodec.Format.BINARY);
+    assertEquals(MessageCodec.Format.JAVA_SERIALIZATION, MessageCodec.formatOf(bytes));
+    assertEquals(ADD_FLOW, MessageCodec.decode(bytes).getRoute().getType());
+  }
+
+  @Test
+  public void testNegotiation() throws Exception {
+    Message probe = MessageCodec.decode(MessageCodec.encode(MessageCodec.createProbe("client"),
+        MessageCodec.Format.JAVA_SERIALIZATION));
+    assertTrue(MessageCodec.isProbe(probe));
+
+    // Server supporting the binary format
+    Message reply = MessageCodec.decode(MessageCodec.encode(MessageCodec.createProbeReply("server"),
+        MessageCodec.Format.JAVA_SERIALIZATION));
+    assertEquals(MessageCodec.Format.BINARY, MessageCodec.negotiatedFormat(reply));
+
+    // Echo of the probe
+    assertEquals(MessageCodec.Format.JAVA_SERIALIZATION, MessageCodec.negotiatedFormat(probe));
+
+    // Older server failing to execute the probe as an RPC
+    Message response = new Message.MessageBuilder()
+        .type(Message.MessageType.RESPONSE)
+        .sender("server")
+        .payload("")
+        .build();
+    Message legacyReply = MessageCodec.decode(Message.serialize(response));
+    assertEquals(MessageCodec.Format.JAVA_SERIALIZATION, MessageCodec.negotiatedFormat(legacyReply));
+    assertEquals(MessageCodec.Format.JAVA_SERIALIZATION, MessageCodec.negotiatedFormat(null));
+  }
+}
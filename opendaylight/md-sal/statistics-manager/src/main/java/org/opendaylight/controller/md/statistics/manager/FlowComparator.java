@@ -10,6 +10,7 @@ package org.opendaylight.controller.md.statistics.manager;
 import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
@@ -67,6 +68,52 @@ final class FlowComparator {
         return true;
     }
 
+    /**
+     * Returns a key of the fields compared by {@link #flowEquals(Flow, Flow)},
+     * normalized the same way: flows which it considers equal have equal keys,
+     * so flows can be matched by hash lookup. IPv4 prefixes are reduced to
+     * their network address and the default priority replaces a missing one.
+     *
+     * @param flow
+     * @return key usable in hash based collections
+     */
+    public static Object matchingKey(Flow flow) {
+        Integer priority = flow.getPriority();
+        if (priority == null) {
+            priority = 0x8000;
+        }
+        Match match = flow.getMatch();
+        return Arrays.asList(flow.getContainerName(), match == null ? null : matchKey(match), priority,
+                flow.getTableId());
+    }
+
+    private static Object matchKey(Match match) {
+        return Arrays.asList(match.getEthernetMatch(), match.getIcmpv4Match(), match.getIcmpv6Match(),
+                match.getInPhyPort(), match.getInPort(), match.getIpMatch(), layer3MatchKey(match.getLayer3Match()),
+                match.getLayer4Match(), match.getMetadata(), match.getProtocolMatchFields(), match.getTunnel(),
+                match.getVlanMatch());
+    }
+
+    private static Object layer3MatchKey(Layer3Match layer3Match) {
+        if (layer3Match instanceof Ipv4Match) {
+            Ipv4Match ipv4Match = (Ipv4Match) layer3Match;
+            return Arrays.asList(Ipv4Match.class, ipv4PrefixKey(ipv4Match.getIpv4Destination()),
+                    ipv4PrefixKey(ipv4Match.getIpv4Source()));
+        }
+        return layer3Match;
+    }
+
+    private static Object ipv4PrefixKey(Ipv4Prefix prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        IntegerIpAddress address = StrIpToIntIp(prefix.getValue());
+        if (address == null) {
+            return prefix;
+        }
+        return Arrays.asList(address.getIp() & address.getMask(), address.getMask());
+    }
+
     /**
      * Explicit equals method to compare the 'match' for flows stored in the data-stores and flow fetched from the switch.
      * Flow installation process has three steps
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.md.statistics.manager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+
+/**
+ * Index of the flows of the tables of a node, keyed by
+ * {@link FlowComparator#matchingKey}.
+ *
+ * Configured flows are the flows of the config data store, unaccounted flows
+ * are the flows reported by the switch which are not configured, with the
+ * keys assigned to them by the statistics manager. A table is indexed once
+ * loaded, and kept up to date by its owner afterwards.
+ */
+final class FlowIndex {
+    private static final class TableIndex {
+        private final Map<Object, FlowKey> configured = new HashMap<>();
+        private final Map<FlowKey, Object> configuredKeys = new HashMap<>();
+        private final Map<Object, FlowKey> unaccounted = new HashMap<>();
+        private final Map<FlowKey, Object> unaccountedKeys = new HashMap<>();
+    }
+
+    private final Map<Short, TableIndex> tables = new HashMap<>();
+
+    private TableIndex table(Short tableId) {
+        TableIndex table = tables.get(tableId);
+        if (table == null) {
+            table = new TableIndex();
+            tables.put(tableId, table);
+        }
+        return table;
+    }
+
+    public synchronized boolean isLoaded(Short tableId) {
+        return tables.containsKey(tableId);
+    }
+
+    /**
+     * Marks a table as loaded. Configured and unaccounted flows of the table
+     * are added afterwards.
+     */
+    public synchronized void load(Short tableId) {
+        table(tableId);
+    }
+
+    /**
+     * Drops a table, which is loaded again on its next use.
+     */
+    public synchronized void invalidate(Short tableId) {
+        tables.remove(tableId);
+    }
+
+    public synchronized void invalidateAll() {
+        tables.clear();
+    }
+
+    public synchronized FlowKey getConfigured(Short tableId, Object matchingKey) {
+        final TableIndex table = tables.get(tableId);
+        return table == null ? null : table.configured.get(matchingKey);
+    }
+
+    public synchronized FlowKey getUnaccounted(Short tableId, Object matchingKey) {
+        final TableIndex table = tables.get(tableId);
+        return table == null ? null : table.unaccounted.get(matchingKey);
+    }
+
+    /**
+     * Adds or updates a configured flow of a loaded table. An unaccounted flow
+     * with the same matching key is superseded by it.
+     */
+    public synchronized void putConfigured(Short tableId, Object matchingKey, FlowKey flowKey) {
+        final TableIndex table = tables.get(tableId);
+        if (table == null) {
+            return;
+        }
+        final Object previous = table.configuredKeys.put(flowKey, matchingKey);
+        if (previous != null && flowKey.equals(table.configured.get(previous))) {
+            table.configured.remove(previous);
+        }
+        table.configured.put(matchingKey, flowKey);
+
+        final FlowKey unaccounted = table.unaccounted.remove(matchingKey);
+        if (unaccounted != null) {
+            table.unaccountedKeys.remove(unaccounted);
+        }
+    }
+
+    public synchronized void removeConfigured(Short tableId, FlowKey flowKey) {
+        final TableIndex table = tables.get(tableId);
+        if (table == null) {
+            return;
+        }
+        final Object matchingKey = table.configuredKeys.remove(flowKey);
+        if (matchingKey != null && flowKey.equals(table.configured.get(matchingKey))) {
+            table.configured.remove(matchingKey);
+        }
+    }
+
+    public synchronized void putUnaccounted(Short tableId, Object matchingKey, FlowKey flowKey) {
+        final TableIndex table = table(tableId);
+        table.unaccounted.put(matchingKey, flowKey);
+        table.unaccountedKeys.put(flowKey, matchingKey);
+    }
+
+    public synchronized void removeUnaccounted(Short tableId, FlowKey flowKey) {
+        final TableIndex table = tables.get(tableId);
+        if (table == null) {
+            return;
+        }
+        final Object matchingKey = table.unaccountedKeys.remove(flowKey);
+        if (matchingKey != null) {
+            table.unaccounted.remove(matchingKey);
+        }
+    }
+}
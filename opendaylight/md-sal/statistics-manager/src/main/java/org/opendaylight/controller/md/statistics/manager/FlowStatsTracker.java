@@ -7,6 +7,7 @@
  */
 package org.opendaylight.controller.md.statistics.manager;
 
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.opendaylight.controller.md.sal.common.api.data.DataChangeEvent;
@@ -37,6 +38,8 @@ import org.slf4j.LoggerFactory;
 final class FlowStatsTracker extends AbstractListeningStatsTracker<FlowAndStatisticsMapList, FlowStatsEntry> {
     private static final Logger logger = LoggerFactory.getLogger(FlowStatsTracker.class);
     private final OpendaylightFlowStatisticsService flowStatsService;
+    private static final String UNACCOUNTED_FLOW_PREFIX = "#UF$TABLE*";
+    private final FlowIndex flowIndex = new FlowIndex();
     private int unaccountedFlowsCounter = 1;
 
     FlowStatsTracker(OpendaylightFlowStatisticsService flowStatsService, final FlowCapableContext context, long lifetimeNanos) {
@@ -46,6 +49,7 @@ final class FlowStatsTracker extends AbstractListeningStatsTracker<FlowAndStatis
 
     @Override
     protected void cleanupSingleStat(DataModificationTransaction trans, FlowStatsEntry item) {
+        flowIndex.removeUnaccounted(item.getTableId(), item.getFlow().getKey());
         InstanceIdentifier<?> flowRef = getNodeIdentifierBuilder()
                             .augmentation(FlowCapableNode.class)
                             .child(Table.class, new TableKey(item.getTableId()))
@@ -124,73 +128,90 @@ final class FlowStatsTracker extends AbstractListeningStatsTracker<FlowAndStatis
         InstanceIdentifier<Table> tableRef = getNodeIdentifierBuilder()
                 .augmentation(FlowCapableNode.class).child(Table.class, new TableKey(tableId)).toInstance();
 
-        //TODO: Not a good way to do it, need to figure out better way.
-        //TODO: major issue in any alternate approach is that flow key is incrementally assigned
-        //to the flows stored in data store.
-        // Augment same statistics to all the matching masked flow
-        Table table= (Table)trans.readConfigurationData(tableRef);
-        if(table != null){
-            for(Flow existingFlow : table.getFlow()){
-                logger.debug("Existing flow in data store : {}",existingFlow.toString());
-                if(FlowComparator.flowEquals(flowRule,existingFlow)){
-                    InstanceIdentifier<Flow> flowRef = getNodeIdentifierBuilder()
-                            .augmentation(FlowCapableNode.class)
-                            .child(Table.class, new TableKey(tableId))
-                            .child(Flow.class,existingFlow.getKey()).toInstance();
-                    flowBuilder.setKey(existingFlow.getKey());
-                    flowBuilder.addAugmentation(FlowStatisticsData.class, flowStatisticsData.build());
-                    logger.debug("Found matching flow in the datastore, augmenting statistics");
-                    // Update entry with timestamp of latest response
-                    flow.setKey(existingFlow.getKey());
-                    FlowStatsEntry flowStatsEntry = new FlowStatsEntry(tableId,flow.build());
-                    trans.putOperationalData(flowRef, flowBuilder.build());
-                    return flowStatsEntry;
-                }
+        // Flow keys are assigned to the flows stored in the data store, the
+        // statistics are attached to the stored flow matching the reported one
+        loadTable(trans, tableId, tableRef);
+        final Object matchingKey = FlowComparator.matchingKey(flowRule);
+        FlowKey flowKey = flowIndex.getConfigured(tableId, matchingKey);
+        if (flowKey != null) {
+            logger.debug("Found matching flow in the datastore, augmenting statistics");
+        } else {
+            flowKey = flowIndex.getUnaccounted(tableId, matchingKey);
+            if (flowKey != null) {
+                logger.debug("Found matching unaccounted flow in the operational datastore, augmenting statistics");
+            } else {
+                flowKey = new FlowKey(new FlowId(UNACCOUNTED_FLOW_PREFIX + Short.toString(tableId) + "*"
+                        + Integer.toString(this.unaccountedFlowsCounter)));
+                this.unaccountedFlowsCounter++;
+                flowIndex.putUnaccounted(tableId, matchingKey, flowKey);
+                logger.debug("Flow {} is not present in config data store, augmenting statistics as an unaccounted flow",
+                        flowRule);
+            }
+        }
+
+        InstanceIdentifier<Flow> flowRef = getNodeIdentifierBuilder().augmentation(FlowCapableNode.class)
+                    .child(Table.class, new TableKey(tableId))
+                    .child(Flow.class, flowKey).toInstance();
+        flowBuilder.setKey(flowKey);
+        flowBuilder.addAugmentation(FlowStatisticsData.class, flowStatisticsData.build());
+
+        // Update entry with timestamp of latest response
+        flow.setKey(flowKey);
+        FlowStatsEntry flowStatsEntry = new FlowStatsEntry(tableId,flow.build());
+        trans.putOperationalData(flowRef, flowBuilder.build());
+        return flowStatsEntry;
+    }
+
+    /*
+     * Indexes the flows of a table on its first use: the configured flows,
+     * and the unaccounted flows already present in the operational data
+     * store, so that they keep their keys.
+     */
+    private void loadTable(DataModificationTransaction trans, short tableId, InstanceIdentifier<Table> tableRef) {
+        if (flowIndex.isLoaded(tableId)) {
+            return;
+        }
+        flowIndex.load(tableId);
+
+        Table table = (Table)trans.readConfigurationData(tableRef);
+        if (table != null && table.getFlow() != null) {
+            for (Flow existingFlow : table.getFlow()) {
+                flowIndex.putConfigured(tableId, FlowComparator.matchingKey(existingFlow), existingFlow.getKey());
             }
         }
 
         table = (Table)trans.readOperationalData(tableRef);
-        if(table != null){
-            for(Flow existingFlow : table.getFlow()){
+        if (table != null && table.getFlow() != null) {
+            for (Flow existingFlow : table.getFlow()) {
                 FlowStatisticsData augmentedflowStatisticsData = existingFlow.getAugmentation(FlowStatisticsData.class);
-                if(augmentedflowStatisticsData != null){
+                String flowId = existingFlow.getKey().getId().getValue();
+                if (augmentedflowStatisticsData != null && flowId.startsWith(UNACCOUNTED_FLOW_PREFIX)) {
                     FlowBuilder existingOperationalFlow = new FlowBuilder();
                     existingOperationalFlow.fieldsFrom(augmentedflowStatisticsData.getFlowStatistics());
-                    logger.debug("Existing unaccounted flow in operational data store : {}",existingFlow.toString());
-                    if(FlowComparator.flowEquals(flowRule,existingOperationalFlow.build())){
-                        InstanceIdentifier<Flow> flowRef = getNodeIdentifierBuilder()
-                                .augmentation(FlowCapableNode.class)
-                                .child(Table.class, new TableKey(tableId))
-                                .child(Flow.class,existingFlow.getKey()).toInstance();
-                        flowBuilder.setKey(existingFlow.getKey());
-                        flowBuilder.addAugmentation(FlowStatisticsData.class, flowStatisticsData.build());
-                        logger.debug("Found matching unaccounted flow in the operational datastore, augmenting statistics");
-                        // Update entry with timestamp of latest response
-                        flow.setKey(existingFlow.getKey());
-                        FlowStatsEntry flowStatsEntry = new FlowStatsEntry(tableId,flow.build());
-                        trans.putOperationalData(flowRef, flowBuilder.build());
-                        return flowStatsEntry;
+                    final Object matchingKey = FlowComparator.matchingKey(existingOperationalFlow.build());
+                    if (flowIndex.getConfigured(tableId, matchingKey) == null) {
+                        flowIndex.putUnaccounted(tableId, matchingKey, existingFlow.getKey());
+                        reserveUnaccountedKey(flowId);
                     }
                 }
             }
         }
+        logger.debug("Indexed flows of table {} on node {}", tableId, getNodeIdentifier());
+    }
 
-        String flowKey = "#UF$TABLE*"+Short.toString(tableId)+"*"+Integer.toString(this.unaccountedFlowsCounter);
-        this.unaccountedFlowsCounter++;
-        FlowKey newFlowKey = new FlowKey(new FlowId(flowKey));
-        InstanceIdentifier<Flow> flowRef = getNodeIdentifierBuilder().augmentation(FlowCapableNode.class)
-                    .child(Table.class, new TableKey(tableId))
-                    .child(Flow.class,newFlowKey).toInstance();
-        flowBuilder.setKey(newFlowKey);
-        flowBuilder.addAugmentation(FlowStatisticsData.class, flowStatisticsData.build());
-        logger.debug("Flow {} is not present in config data store, augmenting statistics as an unaccounted flow",
-                    flowBuilder.build());
-
-        // Update entry with timestamp of latest response
-        flow.setKey(newFlowKey);
-        FlowStatsEntry flowStatsEntry = new FlowStatsEntry(tableId,flow.build());
-        trans.putOperationalData(flowRef, flowBuilder.build());
-        return flowStatsEntry;
+    /*
+     * Keeps the counter of unaccounted flows above the ones already in use.
+     */
+    private void reserveUnaccountedKey(String flowId) {
+        final int separator = flowId.lastIndexOf('*');
+        try {
+            final int counter = Integer.parseInt(flowId.substring(separator + 1));
+            if (counter >= this.unaccountedFlowsCounter) {
+                this.unaccountedFlowsCounter = counter + 1;
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring malformed unaccounted flow id {}", flowId, e);
+        }
     }
 
     @Override
@@ -235,6 +256,8 @@ final class FlowStatsTracker extends AbstractListeningStatsTracker<FlowAndStatis
 
     @Override
     public void onDataChanged(DataChangeEvent<InstanceIdentifier<?>, DataObject> change) {
+        updateIndex(change.getUpdatedConfigurationData());
+        updateIndex(change.getCreatedConfigurationData());
         for (Entry<InstanceIdentifier<?>, DataObject> e : change.getCreatedConfigurationData().entrySet()) {
             if (Flow.class.equals(e.getKey().getTargetType())) {
                 final Flow flow = (Flow) e.getValue();
@@ -255,11 +278,39 @@ final class FlowStatsTracker extends AbstractListeningStatsTracker<FlowAndStatis
                 logger.debug("Key {} triggered remove of augmentation {}", key, del);
 
                 trans.removeOperationalData(del);
+                flowIndex.removeConfigured(key.firstKeyOf(Table.class, TableKey.class).getId(),
+                        key.firstKeyOf(Flow.class, FlowKey.class));
+            } else {
+                invalidateIndex(key);
             }
         }
         trans.commit();
     }
 
+    private void updateIndex(Map<InstanceIdentifier<?>, DataObject> flows) {
+        for (Entry<InstanceIdentifier<?>, DataObject> e : flows.entrySet()) {
+            if (Flow.class.equals(e.getKey().getTargetType())) {
+                final Flow flow = (Flow) e.getValue();
+                flowIndex.putConfigured(e.getKey().firstKeyOf(Table.class, TableKey.class).getId(),
+                        FlowComparator.matchingKey(flow), e.getKey().firstKeyOf(Flow.class, FlowKey.class));
+            } else {
+                invalidateIndex(e.getKey());
+            }
+        }
+    }
+
+    /*
+     * A table or a node replaced as a whole is indexed again on its next use
+     */
+    private void invalidateIndex(InstanceIdentifier<?> key) {
+        final TableKey tableKey = key.firstKeyOf(Table.class, TableKey.class);
+        if (tableKey != null) {
+            flowIndex.invalidate(tableKey.getId());
+        } else {
+            flowIndex.invalidateAll();
+        }
+    }
+
     @Override
     public void start(final DataBrokerService dbs) {
         if (flowStatsService == null) {
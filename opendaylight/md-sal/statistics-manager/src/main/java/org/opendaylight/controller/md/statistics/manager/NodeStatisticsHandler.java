@@ -15,6 +15,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.opendaylight.controller.sal.binding.api.data.DataModificationTransaction;
 import org.opendaylight.controller.sal.binding.api.data.DataProviderService;
+import org.opendaylight.controller.sal.binding.api.data.DataWriteBatch;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableBuilder;
@@ -72,6 +73,13 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
     private static final long FIRST_COLLECTION_MILLIS = TimeUnit.SECONDS.toMillis(5);
     private static final int NUMBER_OF_WAIT_CYCLES = 2;
 
+    /*
+     * Statistics replies of a collection cycle arrive in bursts of small
+     * updates, which are committed together
+     */
+    private static final int BATCH_MAX_TRANSACTIONS = 64;
+    private static final long BATCH_FLUSH_MILLIS = 500;
+
     private final MultipartMessageManager msgManager;
     private final InstanceIdentifier<Node> targetNodeIdentifier;
     private final FlowStatsTracker flowStats;
@@ -83,6 +91,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
     private final NodeConnectorStatsTracker nodeConnectorStats;
     private final QueueStatsTracker queueStats;
     private final DataProviderService dps;
+    private final DataWriteBatch batch;
     private final NodeRef targetNodeRef;
     private final NodeKey targetNodeKey;
     private final TimerTask task = new TimerTask() {
@@ -101,6 +110,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
             final OpendaylightPortStatisticsService portStatsService,
             final OpendaylightQueueStatisticsService queueStatsService) {
         this.dps = Preconditions.checkNotNull(dps);
+        this.batch = dps.createWriteBatch(BATCH_MAX_TRANSACTIONS, BATCH_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
         this.targetNodeKey = Preconditions.checkNotNull(nodeKey);
         this.targetNodeIdentifier = InstanceIdentifier.builder(Nodes.class).child(Node.class, targetNodeKey).build();
         this.targetNodeRef = new NodeRef(targetNodeIdentifier);
@@ -134,7 +144,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
 
     @Override
     public DataModificationTransaction startDataModification() {
-        return dps.beginTransaction();
+        return batch.newTransaction();
     }
 
     public synchronized void updateGroupDescStats(TransactionAware transaction, Boolean more, List<GroupDescStats> list) {
@@ -182,7 +192,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
     public synchronized void updateAggregateFlowStats(TransactionAware transaction, Boolean more, AggregateFlowStatistics flowStats) {
         final Short tableId = msgManager.isExpectedTableTransaction(transaction, more);
         if (tableId != null) {
-            final DataModificationTransaction trans = dps.beginTransaction();
+            final DataModificationTransaction trans = startDataModification();
             InstanceIdentifier<Table> tableRef = InstanceIdentifier.builder(Nodes.class).child(Node.class, targetNodeKey)
                     .augmentation(FlowCapableNode.class).child(Table.class, new TableKey(tableId)).toInstance();
 
@@ -210,7 +220,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
     }
 
     public synchronized void updateGroupFeatures(GroupFeatures notification) {
-        final DataModificationTransaction trans = dps.beginTransaction();
+        final DataModificationTransaction trans = startDataModification();
 
         final NodeBuilder nodeData = new NodeBuilder();
         nodeData.setKey(targetNodeKey);
@@ -228,7 +238,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
     }
 
     public synchronized void updateMeterFeatures(MeterFeatures features) {
-        final DataModificationTransaction trans = dps.beginTransaction();
+        final DataModificationTransaction trans = startDataModification();
 
         final NodeBuilder nodeData = new NodeBuilder();
         nodeData.setKey(targetNodeKey);
@@ -246,7 +256,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
     }
 
     public synchronized void cleanStaleStatistics() {
-        final DataModificationTransaction trans = dps.beginTransaction();
+        final DataModificationTransaction trans = startDataModification();
         final long now = System.nanoTime();
 
         flowStats.cleanup(trans, now);
@@ -308,6 +318,7 @@ public final class NodeStatisticsHandler implements AutoCloseable, FlowCapableCo
         meterConfigStats.close();
         meterStats.close();
         queueStats.close();
+        batch.close();
 
         logger.debug("Statistics handler for {} shut down", targetNodeKey.getId());
     }
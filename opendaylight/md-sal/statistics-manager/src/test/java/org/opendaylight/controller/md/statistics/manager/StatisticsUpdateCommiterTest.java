@@ -11,6 +11,9 @@ package org.opendaylight.controller.md.statistics.manager;
 import org.junit.Assert;
 import org.junit.Test;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4Match;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchBuilder;
 import org.slf4j.Logger;
@@ -77,6 +80,36 @@ public class StatisticsUpdateCommiterTest {
         }
     }
 
+    /**
+     * Test method for {@link FlowComparator#matchingKey(Flow)}: flows considered
+     * equal by {@link FlowComparator#flowEquals(Flow, Flow)} have equal keys.
+     */
+    @Test
+    public void testMatchingKey() {
+        Flow statsFlow = prepareFlow("10.1.2.0/24", 0x8000);
+        Flow storedFlow = prepareFlow("10.1.2.1/24", null);
+        Assert.assertTrue(FlowComparator.flowEquals(statsFlow, storedFlow));
+        Assert.assertEquals(FlowComparator.matchingKey(storedFlow), FlowComparator.matchingKey(statsFlow));
+        Assert.assertEquals(FlowComparator.matchingKey(storedFlow).hashCode(),
+                FlowComparator.matchingKey(statsFlow).hashCode());
+
+        Assert.assertFalse(FlowComparator.matchingKey(prepareFlow("10.1.3.0/24", 0x8000))
+                .equals(FlowComparator.matchingKey(statsFlow)));
+        Assert.assertFalse(FlowComparator.matchingKey(prepareFlow("10.1.2.0/24", 10))
+                .equals(FlowComparator.matchingKey(statsFlow)));
+    }
+
+    private static Flow prepareFlow(String source, Integer priority) {
+        MatchBuilder matchBuilder = new MatchBuilder();
+        matchBuilder.setLayer3Match(prepareIPv4Match(source, null));
+
+        FlowBuilder flowBuilder = new FlowBuilder();
+        flowBuilder.setMatch(matchBuilder.build());
+        flowBuilder.setPriority(priority);
+        flowBuilder.setTableId((short) 0);
+        return flowBuilder.build();
+    }
+
     /**
      * @param m1Source match1 - src
      * @param m1Destination match1 - dest
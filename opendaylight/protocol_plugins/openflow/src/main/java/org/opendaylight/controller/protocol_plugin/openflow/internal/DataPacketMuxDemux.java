@@ -8,7 +8,7 @@
 
 package org.opendaylight.controller.protocol_plugin.openflow.internal;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -296,7 +296,6 @@ public class DataPacketMuxDemux implements IContainerListener,
             return;
         }
 
-        Short port = (Short) outPort.getID();
         Long swID = (Long) outPort.getNode().getID();
         ISwitch sw = this.swID2ISwitch.get(swID);
 
@@ -308,13 +307,26 @@ public class DataPacketMuxDemux implements IContainerListener,
         }
 
         byte[] data = outPkt.getPacketData();
-        // build action
-        OFActionOutput action = new OFActionOutput().setPort(port);
+        // build actions, one output per port so that the switch replicates
+        // the frame instead of receiving a copy per port
+        List<OFAction> actions = new ArrayList<OFAction>();
+        for (NodeConnector nc : outPkt.getOutgoingNodeConnectors()) {
+            if (!nc.getType().equals(NodeConnector.NodeConnectorIDType.OPENFLOW)
+                    || !nc.getNode().equals(outPort.getNode())) {
+                logger.debug("Skipping outPort {} not on {}", nc, outPort.getNode());
+                continue;
+            }
+            actions.add(new OFActionOutput().setPort((Short) nc.getID()));
+        }
+        if (actions.isEmpty()) {
+            logger.debug("No outPort left on {}, not sending outPkt: {}", outPort.getNode(), outPkt);
+            return;
+        }
         // build packet out
         OFPacketOut po = new OFPacketOut()
                 .setBufferId(OFPacketOut.BUFFER_ID_NONE)
-                .setActions(Collections.singletonList((OFAction) action))
-                .setActionsLength((short) OFActionOutput.MINIMUM_LENGTH);
+                .setActions(actions)
+                .setActionsLength((short) (OFActionOutput.MINIMUM_LENGTH * actions.size()));
         if(outPkt.getIncomingNodeConnector() != null) {
             po.setInPort((Short)outPkt.getIncomingNodeConnector().getID());
         } else {
@@ -13,6 +13,13 @@
  * @brief  Implementation of a routing engine using
  * dijkstra. Implementation of dijkstra come from Jung2 library
  *
+ * The shortest paths are served from an immutable RoutingGraph
+ * snapshot per bandwidth class, derived incrementally from the previous
+ * one after every topology change, so route lookups don't need to take
+ * any lock. The Jung2 graphs are
+ * still the master copy of the topology and are used for the max
+ * throughput computation.
+ *
  */
 package org.opendaylight.controller.routing.dijkstra_implementation.internal;
 
@@ -25,8 +32,10 @@ import org.opendaylight.controller.sal.core.NodeConnector;
 import org.opendaylight.controller.sal.core.Path;
 import org.opendaylight.controller.sal.core.Property;
 import org.opendaylight.controller.sal.core.UpdateType;
+import org.opendaylight.controller.sal.routing.IListenRoutingChanges;
 import org.opendaylight.controller.sal.routing.IListenRoutingUpdates;
 import org.opendaylight.controller.sal.routing.IRouting;
+import org.opendaylight.controller.sal.routing.RoutingChange;
 import org.opendaylight.controller.sal.topology.TopoEdgeUpdate;
 import org.opendaylight.controller.switchmanager.ISwitchManager;
 import org.opendaylight.controller.topologymanager.ITopologyManager;
@@ -37,6 +46,7 @@ import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.SparseMultigraph;
 import edu.uci.ics.jung.graph.util.EdgeType;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -54,7 +64,8 @@ import org.apache.commons.collections15.Transformer;
 public class DijkstraImplementation implements IRouting, ITopologyManagerClusterWideAware {
     private static Logger log = LoggerFactory.getLogger(DijkstraImplementation.class);
     private ConcurrentMap<Short, Graph<Node, Edge>> topologyBWAware;
-    private ConcurrentMap<Short, DijkstraShortestPath<Node, Edge>> sptBWAware;
+    private ConcurrentMap<Short, RoutingGraph> routingBWAware;
+    private Set<Short> staleBWTopologies;
     DijkstraShortestPath<Node, Edge> mtp; // Max Throughput Path
     private Set<IListenRoutingUpdates> routingAware;
     private ISwitchManager switchManager;
@@ -195,15 +206,13 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
     }
 
     @Override
-    public synchronized Path getRoute(final Node src, final Node dst, final Short Bw) {
-        DijkstraShortestPath<Node, Edge> spt = this.sptBWAware.get(Bw);
-        if (spt == null) {
+    public Path getRoute(final Node src, final Node dst, final Short Bw) {
+        RoutingGraph rg = this.routingBWAware.get(Bw);
+        if (rg == null) {
             return null;
         }
-        List<Edge> path;
-        try {
-            path = spt.getPath(src, dst);
-        } catch (IllegalArgumentException ie) {
+        List<Edge> path = rg.getPath(src, dst);
+        if (path == null) {
             log.debug("A vertex is yet not known between {} {}", src, dst);
             return null;
         }
@@ -218,14 +227,51 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
     }
 
     @Override
-    public synchronized void clear() {
-        DijkstraShortestPath<Node, Edge> spt;
-        for (Short bw : this.sptBWAware.keySet()) {
-            spt = this.sptBWAware.get(bw);
-            if (spt != null) {
-                spt.reset();
+    public List<Path> getEqualCostRoutes(final Node src, final Node dst, final int maxPaths) {
+        return getEqualCostRoutes(src, dst, (short) 0, maxPaths);
+    }
+
+    @Override
+    public List<Path> getEqualCostRoutes(final Node src, final Node dst, final Short Bw, final int maxPaths) {
+        RoutingGraph rg = this.routingBWAware.get(Bw);
+        if ((rg == null) || (src == null) || (dst == null)) {
+            return new ArrayList<Path>();
+        }
+        return toPaths(rg.getEqualCostPaths(src, dst, maxPaths));
+    }
+
+    @Override
+    public List<Path> getKShortestRoutes(final Node src, final Node dst, final int k) {
+        return getKShortestRoutes(src, dst, (short) 0, k);
+    }
+
+    @Override
+    public List<Path> getKShortestRoutes(final Node src, final Node dst, final Short Bw, final int k) {
+        RoutingGraph rg = this.routingBWAware.get(Bw);
+        if ((rg == null) || (src == null) || (dst == null)) {
+            return new ArrayList<Path>();
+        }
+        return toPaths(rg.getKShortestPaths(src, dst, k));
+    }
+
+    private List<Path> toPaths(List<List<Edge>> edgeLists) {
+        List<Path> res = new ArrayList<Path>(edgeLists.size());
+        for (List<Edge> edges : edgeLists) {
+            try {
+                res.add(new Path(edges));
+            } catch (ConstructionException e) {
+                log.error("", e);
             }
         }
+        return res;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (Map.Entry<Short, Graph<Node, Edge>> entry : this.topologyBWAware.entrySet()) {
+            this.routingBWAware.put(entry.getKey(), RoutingGraph.build(entry.getValue().getEdges()));
+        }
+        this.staleBWTopologies.clear();
         clearMaxThroughput();
     }
 
@@ -239,7 +285,6 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
     @SuppressWarnings({ "unchecked" })
     private synchronized boolean updateTopo(Edge edge, Short bw, UpdateType type) {
         Graph<Node, Edge> topo = this.topologyBWAware.get(bw);
-        DijkstraShortestPath<Node, Edge> spt = this.sptBWAware.get(bw);
         boolean edgePresentInGraph = false;
         Short baseBW = Short.valueOf((short) 0);
 
@@ -248,17 +293,11 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
             Graph<Node, Edge> g = new SparseMultigraph();
             this.topologyBWAware.put(bw, g);
             topo = this.topologyBWAware.get(bw);
-            this.sptBWAware.put(bw, new DijkstraShortestPath(g));
-            spt = this.sptBWAware.get(bw);
         }
 
         if (topo != null) {
             NodeConnector src = edge.getTailNodeConnector();
             NodeConnector dst = edge.getHeadNodeConnector();
-            if (spt == null) {
-                spt = new DijkstraShortestPath(topo);
-                this.sptBWAware.put(bw, spt);
-            }
 
             switch (type) {
             case ADDED:
@@ -274,6 +313,7 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
                         log.error("", e);
                         return edgePresentInGraph;
                     }
+                    this.staleBWTopologies.add(bw);
                 }
             case CHANGED:
                 // Mainly raised only on properties update, so not really useful
@@ -301,9 +341,9 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
                     log.debug("Removing vertex {}", dst);
                     topo.removeVertex(dst.getNode());
                 }
+                this.staleBWTopologies.add(bw);
                 break;
             }
-            spt.reset();
             if (bw.equals(baseBW)) {
                 clearMaxThroughput();
             }
@@ -313,6 +353,39 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
         return edgePresentInGraph;
     }
 
+    /**
+     * Update the routing snapshot of every bandwidth class whose topology
+     * changed since the last refresh and publish it for the lookups
+     *
+     * @return the routes changed in the default topology
+     */
+    private synchronized RoutingChange refreshRoutingGraphs() {
+        Short baseBW = Short.valueOf((short) 0);
+        Set<Edge> added = new HashSet<Edge>();
+        Set<Edge> removed = new HashSet<Edge>();
+        Map<Node, Set<Node>> changedRoutes = new HashMap<Node, Set<Node>>();
+        for (Short bw : this.staleBWTopologies) {
+            Graph<Node, Edge> topo = this.topologyBWAware.get(bw);
+            if (topo == null) {
+                continue;
+            }
+            RoutingGraph rg = this.routingBWAware.get(bw);
+            if (rg == null) {
+                rg = RoutingGraph.build(topo.getEdges());
+            } else if (bw.equals(baseBW)) {
+                rg = rg.update(topo.getEdges(), added, removed, changedRoutes);
+            } else {
+                rg = rg.update(topo.getEdges(), new HashSet<Edge>(), new HashSet<Edge>(),
+                        new HashMap<Node, Set<Node>>());
+            }
+            log.trace("Routing graph for BW {} updated, {} nodes and {} edges",
+                    new Object[] { bw, rg.getNodeCount(), rg.getEdgeCount() });
+            this.routingBWAware.put(bw, rg);
+        }
+        this.staleBWTopologies.clear();
+        return new RoutingChange(added, removed, changedRoutes);
+    }
+
     private boolean edgeUpdate(Edge e, UpdateType type, Set<Property> props, boolean local) {
         String srcType = null;
         String dstType = null;
@@ -371,6 +444,7 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
                 callListeners = true;
             }
         }
+        RoutingChange change = refreshRoutingGraphs();
 
         // The routing listeners should only be called on the coordinator, to
         // avoid multiple controller cluster nodes to actually do the
@@ -380,10 +454,15 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
             amICoordinator = this.clusterContainerService.amICoordinator();
         }
         if ((callListeners) && (this.routingAware != null) && amICoordinator) {
-            log.trace("Calling the routing listeners");
+            log.trace("Calling the routing listeners, {} destinations changed", change.getChangedDestinations()
+                    .size());
             for (IListenRoutingUpdates ra : this.routingAware) {
                 try {
-                    ra.recalculateDone();
+                    if (ra instanceof IListenRoutingChanges) {
+                        ((IListenRoutingChanges) ra).recalculateDone(change);
+                    } else {
+                        ra.recalculateDone();
+                    }
                 } catch (Exception ex) {
                     log.error("Exception on routingAware listener call", ex);
                 }
@@ -401,13 +480,14 @@ public class DijkstraImplementation implements IRouting, ITopologyManagerCluster
     public void init() {
         log.debug("Routing init() is called");
         this.topologyBWAware = new ConcurrentHashMap<Short, Graph<Node, Edge>>();
-        this.sptBWAware = new ConcurrentHashMap<Short, DijkstraShortestPath<Node, Edge>>();
+        this.routingBWAware = new ConcurrentHashMap<Short, RoutingGraph>();
+        this.staleBWTopologies = new HashSet<Short>();
         // Now create the default topology, which doesn't consider the
-        // BW, also create the corresponding Dijkstra calculation
+        // BW, also create the corresponding routing snapshot
         Graph<Node, Edge> g = new SparseMultigraph();
         Short sZero = Short.valueOf((short) 0);
         this.topologyBWAware.put(sZero, g);
-        this.sptBWAware.put(sZero, new DijkstraShortestPath(g));
+        this.routingBWAware.put(sZero, RoutingGraph.build(g.getEdges()));
         // Topologies for other BW will be added on a needed base
     }
 
@@ -0,0 +1,785 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+/**
+ * @file   RoutingGraph.java
+ *
+ *
+ * @brief  Immutable snapshot of a routing topology stored in
+ * compressed-sparse-row form, together with the shortest path tree
+ * towards every destination
+ *
+ */
+package org.opendaylight.controller.routing.dijkstra_implementation.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.opendaylight.controller.sal.core.Edge;
+import org.opendaylight.controller.sal.core.Node;
+
+/**
+ * A RoutingGraph is never modified once published, so any number of threads
+ * can query it without synchronization. Nodes are mapped to integer ids
+ * that stay stable across snapshots (ids of nodes that left the topology
+ * are reused) and the outgoing links of node i are stored in the range
+ * [offsets[i], offsets[i + 1]) of the heads/edges arrays, in the order the
+ * links were learned. For each destination d, dist[d] holds the hop count
+ * of every source towards d and next[d] the next node on the shortest path;
+ * among parallel links the first one learned is used.
+ *
+ * A new snapshot is derived from the previous one with
+ * {@link #update(Collection, Set, Set, Map)}, which repairs only the
+ * shortest path trees touched by the link changes and shares every other
+ * row with the previous snapshot.
+ */
+final class RoutingGraph {
+    static final int NO_ROUTE = -1;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final Node[] nodes;
+    private final Map<Node, Integer> ids;
+    private final int[] offsets;
+    private final int[] heads;
+    private final Edge[] edges;
+    private final int[] inOffsets;
+    private final int[] inTails;
+    private final int[][] dist;
+    private final int[][] next;
+
+    private RoutingGraph(Node[] nodes, Map<Node, Integer> ids, List<List<Edge>> adjacency, int[][] dist,
+            int[][] next) {
+        int n = nodes.length;
+        this.nodes = nodes;
+        this.ids = ids;
+        this.dist = dist;
+        this.next = next;
+
+        this.offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            this.offsets[i + 1] = this.offsets[i] + adjacency.get(i).size();
+        }
+        int m = this.offsets[n];
+        this.heads = new int[m];
+        this.edges = new Edge[m];
+        this.inOffsets = new int[n + 1];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            for (Edge e : adjacency.get(i)) {
+                int head = ids.get(e.getHeadNodeConnector().getNode());
+                this.heads[pos] = head;
+                this.edges[pos] = e;
+                this.inOffsets[head + 1]++;
+                pos++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            this.inOffsets[i + 1] += this.inOffsets[i];
+        }
+        this.inTails = new int[m];
+        int[] fill = Arrays.copyOf(this.inOffsets, n);
+        for (int tail = 0; tail < n; tail++) {
+            for (int i = this.offsets[tail]; i < this.offsets[tail + 1]; i++) {
+                this.inTails[fill[this.heads[i]]++] = tail;
+            }
+        }
+    }
+
+    /**
+     * Build a routing snapshot from scratch out of a set of directed links,
+     * computing the shortest path tree of every destination
+     *
+     * @param links
+     *            the directed links of the topology
+     * @return the immutable routing snapshot
+     */
+    static RoutingGraph build(Collection<Edge> links) {
+        Map<Node, Integer> ids = new HashMap<Node, Integer>();
+        List<Node> nodeList = new ArrayList<Node>();
+        List<List<Edge>> adjacency = new ArrayList<List<Edge>>();
+        for (Edge e : links) {
+            int tail = assignId(e.getTailNodeConnector().getNode(), ids, nodeList, adjacency);
+            assignId(e.getHeadNodeConnector().getNode(), ids, nodeList, adjacency);
+            adjacency.get(tail).add(e);
+        }
+        int n = nodeList.size();
+        RoutingGraph g = new RoutingGraph(nodeList.toArray(new Node[n]), ids, adjacency, new int[n][], new int[n][]);
+        int[] queue = new int[n];
+        for (int d = 0; d < n; d++) {
+            g.computeRow(d, queue);
+        }
+        return g;
+    }
+
+    private static int assignId(Node node, Map<Node, Integer> ids, List<Node> nodeList, List<List<Edge>> adjacency) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            id = nodeList.size();
+            ids.put(node, id);
+            nodeList.add(node);
+            adjacency.add(new ArrayList<Edge>());
+        }
+        return id;
+    }
+
+    /**
+     * Derive the snapshot matching a new set of links. Removed links are
+     * handled first: for every destination whose tree used the link, only
+     * the subtree hanging below it is detached and reattached with a
+     * Dijkstra run restricted to it. Added links are then handled by
+     * propagating the distance decrease they cause, if any, upstream.
+     * Destinations that appear get a full tree computation.
+     *
+     * @param links
+     *            the directed links of the new topology
+     * @param addedLinks
+     *            filled with the links not present in this snapshot
+     * @param removedLinks
+     *            filled with the links of this snapshot no longer present
+     * @param changedRoutes
+     *            filled, for every destination, with the sources whose
+     *            route towards it is different in the new snapshot
+     * @return the new snapshot, or this one if the set of links didn't change
+     */
+    RoutingGraph update(Collection<Edge> links, Set<Edge> addedLinks, Set<Edge> removedLinks,
+            Map<Node, Set<Node>> changedRoutes) {
+        Set<Edge> linkSet = new LinkedHashSet<Edge>(links);
+        Set<Edge> current = new HashSet<Edge>(Arrays.asList(this.edges));
+        List<Edge> removed = new ArrayList<Edge>();
+        for (Edge e : this.edges) {
+            if (!linkSet.contains(e)) {
+                removed.add(e);
+            }
+        }
+        List<Edge> added = new ArrayList<Edge>();
+        for (Edge e : linkSet) {
+            if (!current.contains(e)) {
+                added.add(e);
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        addedLinks.addAll(added);
+        removedLinks.addAll(removed);
+
+        // Phase 1: take the removed links out and repair the trees using them
+        int oldCapacity = this.nodes.length;
+        List<List<Edge>> adjacency = adjacency();
+        for (Edge e : removed) {
+            adjacency.get(this.ids.get(e.getTailNodeConnector().getNode())).remove(e);
+        }
+        RoutingGraph g1 = new RoutingGraph(this.nodes, this.ids, adjacency, this.dist.clone(), this.next.clone());
+        boolean[] owned = new boolean[oldCapacity];
+        BitSet[] touched = new BitSet[oldCapacity];
+        int[] mark = new int[oldCapacity];
+        int[] queue = new int[oldCapacity];
+        int stamp = 0;
+        for (Edge e : removed) {
+            int u = this.ids.get(e.getTailNodeConnector().getNode());
+            int v = this.ids.get(e.getHeadNodeConnector().getNode());
+            if (u == v) {
+                continue;
+            }
+            if (g1.firstLink(u, v) != null) {
+                // A parallel link survives, trees are unchanged but the
+                // routes that went through this very link now use the
+                // parallel one
+                if (e.equals(this.firstLink(u, v))) {
+                    for (int d = 0; d < oldCapacity; d++) {
+                        if ((this.next[d] != null) && (this.next[d][u] == v)) {
+                            int count = this.collectSubtree(d, u, mark, ++stamp, queue);
+                            touch(touched, d, queue, count);
+                        }
+                    }
+                }
+                continue;
+            }
+            for (int d = 0; d < oldCapacity; d++) {
+                if ((g1.next[d] != null) && (g1.next[d][u] == v)) {
+                    g1.ownRow(d, owned);
+                    int count = g1.repairRemoval(d, u, mark, ++stamp, queue);
+                    touch(touched, d, queue, count);
+                }
+            }
+        }
+
+        // Phase 2: release the nodes without links, give an id to the new
+        // ones and add the new links. Ids released now are only reused by a
+        // later update, so that every id names the same node in this
+        // snapshot and in the new one
+        Set<Node> endpoints = new HashSet<Node>();
+        for (Edge e : linkSet) {
+            endpoints.add(e.getTailNodeConnector().getNode());
+            endpoints.add(e.getHeadNodeConnector().getNode());
+        }
+        Map<Node, Integer> ids = new HashMap<Node, Integer>(this.ids);
+        List<Integer> freeIds = new ArrayList<Integer>();
+        List<Integer> goneIds = new ArrayList<Integer>();
+        for (int i = 0; i < oldCapacity; i++) {
+            if (this.nodes[i] == null) {
+                freeIds.add(i);
+            } else if (!endpoints.contains(this.nodes[i])) {
+                goneIds.add(i);
+                ids.remove(this.nodes[i]);
+            }
+        }
+        List<Node> newNodes = new ArrayList<Node>();
+        for (Node node : endpoints) {
+            if (!ids.containsKey(node)) {
+                newNodes.add(node);
+            }
+        }
+        int capacity = oldCapacity;
+        if (newNodes.size() > freeIds.size()) {
+            capacity = Math.max(oldCapacity + newNodes.size() - freeIds.size(), oldCapacity * 2);
+            for (int i = oldCapacity; i < capacity; i++) {
+                freeIds.add(i);
+            }
+        }
+        Node[] nodes = Arrays.copyOf(this.nodes, capacity);
+        int[][] dist = Arrays.copyOf(g1.dist, capacity);
+        int[][] next = Arrays.copyOf(g1.next, capacity);
+        for (int id : goneIds) {
+            nodes[id] = null;
+            dist[id] = null;
+            next[id] = null;
+        }
+        if (capacity > oldCapacity) {
+            // Widen every row, the new columns are not reachable yet
+            for (int d = 0; d < oldCapacity; d++) {
+                if (dist[d] != null) {
+                    dist[d] = widen(dist[d], capacity, UNREACHABLE);
+                    next[d] = widen(next[d], capacity, NO_ROUTE);
+                }
+            }
+            owned = new boolean[capacity];
+            Arrays.fill(owned, true);
+            touched = Arrays.copyOf(touched, capacity);
+            mark = new int[capacity];
+            queue = new int[capacity];
+        }
+        BitSet newDestinations = new BitSet();
+        for (int i = 0; i < newNodes.size(); i++) {
+            int id = freeIds.get(i);
+            nodes[id] = newNodes.get(i);
+            ids.put(newNodes.get(i), id);
+            newDestinations.set(id);
+        }
+        while (adjacency.size() < capacity) {
+            adjacency.add(new ArrayList<Edge>());
+        }
+        for (Edge e : added) {
+            adjacency.get(ids.get(e.getTailNodeConnector().getNode())).add(e);
+        }
+        RoutingGraph g2 = new RoutingGraph(nodes, ids, adjacency, dist, next);
+        for (Edge e : added) {
+            int u = ids.get(e.getTailNodeConnector().getNode());
+            int v = ids.get(e.getHeadNodeConnector().getNode());
+            for (int d = 0; d < capacity; d++) {
+                if ((dist[d] == null) || newDestinations.get(d)) {
+                    continue;
+                }
+                if ((dist[d][v] != UNREACHABLE) && (dist[d][v] + 1 < dist[d][u])) {
+                    g2.ownRow(d, owned);
+                    int count = g2.repairAddition(d, u, v, queue);
+                    touch(touched, d, queue, count);
+                }
+            }
+        }
+        for (int d = newDestinations.nextSetBit(0); d >= 0; d = newDestinations.nextSetBit(d + 1)) {
+            g2.computeRow(d, queue);
+        }
+
+        // Report the routes that really differ between the two snapshots
+        for (int d = 0; d < oldCapacity; d++) {
+            if ((touched[d] == null) || (this.dist[d] == null) || (g2.dist[d] == null)) {
+                continue;
+            }
+            Set<Node> sources = new HashSet<Node>();
+            for (int s = touched[d].nextSetBit(0); s >= 0; s = touched[d].nextSetBit(s + 1)) {
+                Node src = (s < oldCapacity) && (this.nodes[s] != null) ? this.nodes[s] : g2.nodes[s];
+                List<Edge> before = this.getPath(src, this.nodes[d]);
+                List<Edge> after = g2.getPath(src, this.nodes[d]);
+                if ((before == null) ? (after != null) : !before.equals(after)) {
+                    sources.add(src);
+                }
+            }
+            if (!sources.isEmpty()) {
+                changedRoutes.put(this.nodes[d], sources);
+            }
+        }
+        for (int d : goneIds) {
+            addReachable(this, d, changedRoutes);
+        }
+        for (int d = newDestinations.nextSetBit(0); d >= 0; d = newDestinations.nextSetBit(d + 1)) {
+            addReachable(g2, d, changedRoutes);
+        }
+        return g2;
+    }
+
+    private static void addReachable(RoutingGraph g, int d, Map<Node, Set<Node>> changedRoutes) {
+        Set<Node> sources = new HashSet<Node>();
+        for (int s = 0; s < g.nodes.length; s++) {
+            if ((s != d) && (g.nodes[s] != null) && (g.dist[d][s] != UNREACHABLE)) {
+                sources.add(g.nodes[s]);
+            }
+        }
+        if (!sources.isEmpty()) {
+            changedRoutes.put(g.nodes[d], sources);
+        }
+    }
+
+    private static void touch(BitSet[] touched, int d, int[] queue, int count) {
+        if (touched[d] == null) {
+            touched[d] = new BitSet();
+        }
+        for (int i = 0; i < count; i++) {
+            touched[d].set(queue[i]);
+        }
+    }
+
+    private static int[] widen(int[] row, int capacity, int filler) {
+        int[] res = Arrays.copyOf(row, capacity);
+        Arrays.fill(res, row.length, capacity, filler);
+        return res;
+    }
+
+    private List<List<Edge>> adjacency() {
+        List<List<Edge>> adjacency = new ArrayList<List<Edge>>(this.nodes.length);
+        for (int i = 0; i < this.nodes.length; i++) {
+            adjacency.add(new ArrayList<Edge>(Arrays.asList(this.edges).subList(this.offsets[i], this.offsets[i + 1])));
+        }
+        return adjacency;
+    }
+
+    /**
+     * Make sure row d is not shared with a published snapshot before
+     * modifying it
+     */
+    private void ownRow(int d, boolean[] owned) {
+        if (!owned[d]) {
+            this.dist[d] = this.dist[d].clone();
+            this.next[d] = this.next[d].clone();
+            owned[d] = true;
+        }
+    }
+
+    /**
+     * Compute the whole shortest path tree towards d with a breadth first
+     * search over the reversed links
+     */
+    private void computeRow(int d, int[] queue) {
+        int n = this.nodes.length;
+        int[] dRow = new int[n];
+        int[] nRow = new int[n];
+        Arrays.fill(dRow, UNREACHABLE);
+        Arrays.fill(nRow, NO_ROUTE);
+        dRow[d] = 0;
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = d;
+        while (qHead < qTail) {
+            int v = queue[qHead++];
+            for (int i = this.inOffsets[v]; i < this.inOffsets[v + 1]; i++) {
+                int w = this.inTails[i];
+                if (dRow[w] == UNREACHABLE) {
+                    dRow[w] = dRow[v] + 1;
+                    nRow[w] = v;
+                    queue[qTail++] = w;
+                }
+            }
+        }
+        this.dist[d] = dRow;
+        this.next[d] = nRow;
+    }
+
+    /**
+     * Collect in queue the nodes whose route towards d goes through u,
+     * u included, and mark them with stamp
+     *
+     * @return the number of nodes collected
+     */
+    private int collectSubtree(int d, int u, int[] mark, int stamp, int[] queue) {
+        int[] nRow = this.next[d];
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = u;
+        mark[u] = stamp;
+        while (qHead < qTail) {
+            int x = queue[qHead++];
+            for (int i = this.inOffsets[x]; i < this.inOffsets[x + 1]; i++) {
+                int w = this.inTails[i];
+                if ((mark[w] != stamp) && (nRow[w] == x)) {
+                    mark[w] = stamp;
+                    queue[qTail++] = w;
+                }
+            }
+        }
+        return qTail;
+    }
+
+    /**
+     * Repair the tree towards d after the link from u to its next hop went
+     * away: the subtree of u is detached, each of its nodes is seeded with
+     * the best route through a node outside of it, then the distances are
+     * settled inside the subtree only
+     *
+     * @return the number of nodes of the subtree, left in queue
+     */
+    private int repairRemoval(int d, int u, int[] mark, int stamp, int[] queue) {
+        int[] dRow = this.dist[d];
+        int[] nRow = this.next[d];
+        int count = collectSubtree(d, u, mark, stamp, queue);
+        for (int i = 0; i < count; i++) {
+            dRow[queue[i]] = UNREACHABLE;
+            nRow[queue[i]] = NO_ROUTE;
+        }
+        PriorityQueue<Long> heap = new PriorityQueue<Long>();
+        for (int i = 0; i < count; i++) {
+            int a = queue[i];
+            for (int j = this.offsets[a]; j < this.offsets[a + 1]; j++) {
+                int y = this.heads[j];
+                if ((mark[y] != stamp) && (dRow[y] != UNREACHABLE) && (dRow[y] + 1 < dRow[a])) {
+                    dRow[a] = dRow[y] + 1;
+                    nRow[a] = y;
+                }
+            }
+            if (dRow[a] != UNREACHABLE) {
+                heap.add(((long) dRow[a] << 32) | a);
+            }
+        }
+        while (!heap.isEmpty()) {
+            long top = heap.poll();
+            int x = (int) top;
+            if ((int) (top >>> 32) > dRow[x]) {
+                continue;
+            }
+            for (int i = this.inOffsets[x]; i < this.inOffsets[x + 1]; i++) {
+                int w = this.inTails[i];
+                if ((mark[w] == stamp) && (dRow[x] + 1 < dRow[w])) {
+                    dRow[w] = dRow[x] + 1;
+                    nRow[w] = x;
+                    heap.add(((long) dRow[w] << 32) | w);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Repair the tree towards d after a link from u to v shortened the
+     * route of u, propagating the decrease to the nodes upstream of u
+     *
+     * @return the number of nodes whose route changed, left in queue
+     */
+    private int repairAddition(int d, int u, int v, int[] queue) {
+        int[] dRow = this.dist[d];
+        int[] nRow = this.next[d];
+        dRow[u] = dRow[v] + 1;
+        nRow[u] = v;
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = u;
+        while (qHead < qTail) {
+            int x = queue[qHead++];
+            for (int i = this.inOffsets[x]; i < this.inOffsets[x + 1]; i++) {
+                int w = this.inTails[i];
+                if (dRow[x] + 1 < dRow[w]) {
+                    dRow[w] = dRow[x] + 1;
+                    nRow[w] = x;
+                    queue[qTail++] = w;
+                }
+            }
+        }
+        return qTail;
+    }
+
+    private Edge firstLink(int u, int v) {
+        int link = firstLinkIndex(u, v);
+        return (link == NO_ROUTE) ? null : this.edges[link];
+    }
+
+    private int firstLinkIndex(int u, int v) {
+        for (int i = this.offsets[u]; i < this.offsets[u + 1]; i++) {
+            if (this.heads[i] == v) {
+                return i;
+            }
+        }
+        return NO_ROUTE;
+    }
+
+    /**
+     * Return the links of a shortest path between two nodes
+     *
+     * @param src
+     *            source node
+     * @param dst
+     *            destination node
+     * @return the list of links leading from src to dst, or null if any of
+     *         the two nodes is not known, the two coincide or dst cannot be
+     *         reached from src
+     */
+    List<Edge> getPath(Node src, Node dst) {
+        Integer s = this.ids.get(src);
+        Integer d = this.ids.get(dst);
+        if ((s == null) || (d == null) || s.equals(d)) {
+            return null;
+        }
+        int[] nRow = this.next[d];
+        List<Edge> path = new ArrayList<Edge>();
+        int u = s;
+        while (u != d) {
+            int v = nRow[u];
+            if (v == NO_ROUTE) {
+                return null;
+            }
+            path.add(firstLink(u, v));
+            u = v;
+        }
+        return path;
+    }
+
+    /**
+     * Return all the shortest paths between two nodes. Parallel links give
+     * distinct paths. The paths are enumerated depth first following the
+     * links in the order they were learned, so the result is stable as
+     * long as the topology doesn't change.
+     *
+     * @param src
+     *            source node
+     * @param dst
+     *            destination node
+     * @param maxPaths
+     *            maximum number of paths returned, 0 for no limit
+     * @return the list of equal cost paths, empty if there is no route
+     */
+    List<List<Edge>> getEqualCostPaths(Node src, Node dst, int maxPaths) {
+        List<List<Edge>> res = new ArrayList<List<Edge>>();
+        Integer s = this.ids.get(src);
+        Integer d = this.ids.get(dst);
+        if ((s == null) || (d == null) || s.equals(d) || (this.dist[d][s] == UNREACHABLE)) {
+            return res;
+        }
+        int[] dRow = this.dist[d];
+        int length = dRow[s];
+        // links[i] is the link taken at depth i, at[i] the node reached and
+        // cursor[i] the next link of at[i] to try
+        int[] links = new int[length];
+        int[] at = new int[length + 1];
+        int[] cursor = new int[length + 1];
+        at[0] = s;
+        cursor[0] = this.offsets[s];
+        int depth = 0;
+        while (depth >= 0) {
+            if (depth == length) {
+                List<Edge> path = new ArrayList<Edge>(length);
+                for (int link : links) {
+                    path.add(this.edges[link]);
+                }
+                res.add(path);
+                if ((maxPaths > 0) && (res.size() >= maxPaths)) {
+                    break;
+                }
+                depth--;
+                continue;
+            }
+            int x = at[depth];
+            boolean descended = false;
+            while (cursor[depth] < this.offsets[x + 1]) {
+                int link = cursor[depth]++;
+                int y = this.heads[link];
+                if (dRow[y] == dRow[x] - 1) {
+                    links[depth] = link;
+                    at[depth + 1] = y;
+                    cursor[depth + 1] = this.offsets[y];
+                    depth++;
+                    descended = true;
+                    break;
+                }
+            }
+            if (!descended) {
+                depth--;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Return the k shortest loopless paths between two nodes, computed with
+     * Yen's algorithm. The first path is the one returned by
+     * {@link #getPath(Node, Node)}, the others follow by increasing hop
+     * count.
+     *
+     * @param src
+     *            source node
+     * @param dst
+     *            destination node
+     * @param k
+     *            maximum number of paths returned
+     * @return the list of paths, shortest first, empty if there is no route
+     */
+    List<List<Edge>> getKShortestPaths(Node src, Node dst, int k) {
+        List<List<Edge>> res = new ArrayList<List<Edge>>();
+        Integer s = this.ids.get(src);
+        Integer d = this.ids.get(dst);
+        if ((k <= 0) || (s == null) || (d == null) || s.equals(d) || (this.dist[d][s] == UNREACHABLE)) {
+            return res;
+        }
+        int n = this.nodes.length;
+        int[] first = new int[this.dist[d][s]];
+        for (int u = s, i = 0; u != d; u = this.next[d][u], i++) {
+            first[i] = firstLinkIndex(u, this.next[d][u]);
+        }
+        List<int[]> found = new ArrayList<int[]>();
+        List<int[]> candidates = new ArrayList<int[]>();
+        found.add(first);
+        boolean[] bannedNodes = new boolean[n];
+        BitSet bannedLinks = new BitSet();
+        int[] via = new int[n];
+        int[] queue = new int[n];
+        while (found.size() < k) {
+            int[] last = found.get(found.size() - 1);
+            int spur = s;
+            for (int i = 0; i < last.length; i++) {
+                // The paths already found sharing the root up to the spur
+                // node can't leave it through the same link, and the spur
+                // path can't go back through the root
+                bannedLinks.clear();
+                for (int[] p : found) {
+                    if ((p.length > i) && sameRoot(p, last, i)) {
+                        bannedLinks.set(p[i]);
+                    }
+                }
+                Arrays.fill(bannedNodes, false);
+                for (int j = 0, x = s; j < i; x = this.heads[last[j]], j++) {
+                    bannedNodes[x] = true;
+                }
+                int[] spurPath = shortestLinks(spur, d, bannedNodes, bannedLinks, via, queue);
+                if (spurPath != null) {
+                    int[] total = Arrays.copyOf(last, i + spurPath.length);
+                    System.arraycopy(spurPath, 0, total, i, spurPath.length);
+                    if (!containsPath(found, total) && !containsPath(candidates, total)) {
+                        candidates.add(total);
+                    }
+                }
+                spur = this.heads[last[i]];
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            int best = 0;
+            for (int j = 1; j < candidates.size(); j++) {
+                if (candidates.get(j).length < candidates.get(best).length) {
+                    best = j;
+                }
+            }
+            found.add(candidates.remove(best));
+        }
+        for (int[] p : found) {
+            List<Edge> path = new ArrayList<Edge>(p.length);
+            for (int link : p) {
+                path.add(this.edges[link]);
+            }
+            res.add(path);
+        }
+        return res;
+    }
+
+    private static boolean sameRoot(int[] p1, int[] p2, int length) {
+        for (int i = 0; i < length; i++) {
+            if (p1[i] != p2[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsPath(List<int[]> paths, int[] path) {
+        for (int[] p : paths) {
+            if (Arrays.equals(p, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Breadth first search from u to d avoiding the banned nodes and links
+     *
+     * @return the link indexes of the path found, null if d can't be reached
+     */
+    private int[] shortestLinks(int u, int d, boolean[] bannedNodes, BitSet bannedLinks, int[] via, int[] queue) {
+        Arrays.fill(via, NO_ROUTE);
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = u;
+        boolean reached = false;
+        while ((qHead < qTail) && !reached) {
+            int x = queue[qHead++];
+            for (int i = this.offsets[x]; i < this.offsets[x + 1]; i++) {
+                int y = this.heads[i];
+                if ((y == u) || (via[y] != NO_ROUTE) || bannedNodes[y] || bannedLinks.get(i)) {
+                    continue;
+                }
+                via[y] = i;
+                if (y == d) {
+                    reached = true;
+                    break;
+                }
+                queue[qTail++] = y;
+            }
+        }
+        if (!reached) {
+            return null;
+        }
+        // Walk back from d, the tail of a link is the node it was reached from
+        int hops = 0;
+        for (int y = d; y != u; y = tailOf(via[y])) {
+            hops++;
+        }
+        int[] res = new int[hops];
+        for (int y = d; y != u; y = tailOf(via[y])) {
+            res[--hops] = via[y];
+        }
+        return res;
+    }
+
+    private int tailOf(int link) {
+        int lo = 0, hi = this.nodes.length - 1;
+        // Last node whose range of outgoing links starts at or before link
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (this.offsets[mid] <= link) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return the number of nodes in this snapshot
+     */
+    int getNodeCount() {
+        return this.ids.size();
+    }
+
+    /**
+     * @return the number of directed links in this snapshot
+     */
+    int getEdgeCount() {
+        return this.heads.length;
+    }
+}
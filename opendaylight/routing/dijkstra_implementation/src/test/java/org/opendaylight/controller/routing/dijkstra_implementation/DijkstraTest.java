@@ -16,11 +16,14 @@ import org.opendaylight.controller.sal.core.NodeConnector;
 import org.opendaylight.controller.sal.core.Path;
 import org.opendaylight.controller.sal.core.Property;
 import org.opendaylight.controller.sal.core.UpdateType;
+import org.opendaylight.controller.sal.routing.IListenRoutingChanges;
+import org.opendaylight.controller.sal.routing.RoutingChange;
 import org.opendaylight.controller.sal.topology.TopoEdgeUpdate;
 import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
 import org.opendaylight.controller.sal.utils.NodeCreator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -242,4 +245,52 @@ public class DijkstraTest {
         }
         Assert.assertTrue(res.equals(expectedRes));
     }
+
+    @Test
+    public void testRoutingChangeReported() {
+        DijkstraImplementation imp = new DijkstraImplementation();
+        imp.init();
+        final List<RoutingChange> changes = new ArrayList<RoutingChange>();
+        imp.setListenRoutingUpdates(new IListenRoutingChanges() {
+            @Override
+            public void recalculateDone() {
+            }
+
+            @Override
+            public void recalculateDone(RoutingChange change) {
+                changes.add(change);
+            }
+        });
+        Node node1 = NodeCreator.createOFNode((long) 1);
+        Node node2 = NodeCreator.createOFNode((long) 2);
+        Node node3 = NodeCreator.createOFNode((long) 3);
+        Edge edge1 = null, edge2 = null, edge3 = null;
+        try {
+            edge1 = new Edge(NodeConnectorCreator.createOFNodeConnector((short) 1, node1),
+                    NodeConnectorCreator.createOFNodeConnector((short) 1, node2));
+            edge2 = new Edge(NodeConnectorCreator.createOFNodeConnector((short) 2, node2),
+                    NodeConnectorCreator.createOFNodeConnector((short) 1, node3));
+            edge3 = new Edge(NodeConnectorCreator.createOFNodeConnector((short) 2, node1),
+                    NodeConnectorCreator.createOFNodeConnector((short) 2, node3));
+        } catch (ConstructionException e) {
+            logger.error("", e);
+        }
+        List<TopoEdgeUpdate> topoedgeupdateList = new ArrayList<TopoEdgeUpdate>();
+        topoedgeupdateList.add(TopologyGenerator.update(edge1, UpdateType.ADDED));
+        topoedgeupdateList.add(TopologyGenerator.update(edge2, UpdateType.ADDED));
+        topoedgeupdateList.add(TopologyGenerator.update(edge3, UpdateType.ADDED));
+        imp.edgeUpdate(topoedgeupdateList);
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals(3, changes.get(0).getAddedEdges().size());
+
+        // Only the route from node1 to node3 goes through edge3
+        imp.edgeUpdate(Collections.singletonList(TopologyGenerator.update(edge3, UpdateType.REMOVED)));
+        Assert.assertEquals(2, changes.size());
+        RoutingChange change = changes.get(1);
+        Assert.assertEquals(Collections.singleton(edge3), change.getRemovedEdges());
+        Assert.assertEquals(Collections.singleton(node3), change.getChangedDestinations());
+        Assert.assertTrue(change.isRouteChanged(node1, node3));
+        Assert.assertFalse(change.isRouteChanged(node2, node3));
+        Assert.assertEquals(2, imp.getRoute(node1, node3).getEdges().size());
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.routing.dijkstra_implementation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.controller.routing.dijkstra_implementation.internal.DijkstraImplementation;
+import org.opendaylight.controller.sal.core.Edge;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.Path;
+import org.opendaylight.controller.sal.core.UpdateType;
+import org.opendaylight.controller.sal.topology.TopoEdgeUpdate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.uci.ics.jung.algorithms.shortestpath.DijkstraShortestPath;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Compare the route lookup of the routing snapshot served by
+ * DijkstraImplementation with the Jung2 DijkstraShortestPath it replaced,
+ * on a 980 switches fat-tree (k = 28). The jung* benchmarks reproduce the
+ * old engine, a single DijkstraShortestPath guarded by one monitor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FatTreeRoutingBenchmark {
+    private static final int K = 28;
+    private static final int PAIRS = 4096;
+
+    private DijkstraImplementation routing;
+    private DijkstraShortestPath<Node, Edge> jung;
+    private Node[] srcs;
+    private Node[] dsts;
+    private List<TopoEdgeUpdate> flapDown;
+    private List<TopoEdgeUpdate> flapUp;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setup() {
+        TopologyGenerator topo = TopologyGenerator.fatTree(K);
+
+        this.routing = new DijkstraImplementation();
+        this.routing.init();
+        this.routing.edgeUpdate(topo.getUpdates());
+
+        Graph<Node, Edge> g = new SparseMultigraph<Node, Edge>();
+        for (TopoEdgeUpdate u : topo.getUpdates()) {
+            Edge e = u.getEdge();
+            Node tail = e.getTailNodeConnector().getNode();
+            Node head = e.getHeadNodeConnector().getNode();
+            g.addVertex(tail);
+            g.addVertex(head);
+            g.addEdge(e, tail, head, EdgeType.DIRECTED);
+        }
+        this.jung = new DijkstraShortestPath<Node, Edge>(g);
+
+        List<Node> leaves = topo.getHostFacingSwitches();
+        Random rand = new Random(42);
+        this.srcs = new Node[PAIRS];
+        this.dsts = new Node[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            this.srcs[i] = leaves.get(rand.nextInt(leaves.size()));
+            do {
+                this.dsts[i] = leaves.get(rand.nextInt(leaves.size()));
+            } while (this.dsts[i].equals(this.srcs[i]));
+        }
+
+        Edge flapped = topo.getUpdates().get(0).getEdge();
+        this.flapDown = Collections.singletonList(TopologyGenerator.update(flapped, UpdateType.REMOVED));
+        this.flapUp = Collections.singletonList(TopologyGenerator.update(flapped, UpdateType.ADDED));
+    }
+
+    private synchronized List<Edge> jungPath(Node src, Node dst) {
+        return this.jung.getPath(src, dst);
+    }
+
+    @Benchmark
+    public Path snapshotRoute(Cursor c) {
+        int i = c.next++ & (PAIRS - 1);
+        return this.routing.getRoute(this.srcs[i], this.dsts[i]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Path snapshotRoute4Threads(Cursor c) {
+        int i = c.next++ & (PAIRS - 1);
+        return this.routing.getRoute(this.srcs[i], this.dsts[i]);
+    }
+
+    @Benchmark
+    public List<Edge> jungCachedRoute(Cursor c) {
+        int i = c.next++ & (PAIRS - 1);
+        return jungPath(this.srcs[i], this.dsts[i]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Edge> jungCachedRoute4Threads(Cursor c) {
+        int i = c.next++ & (PAIRS - 1);
+        return jungPath(this.srcs[i], this.dsts[i]);
+    }
+
+    /**
+     * Route lookup right after a topology change, when Jung2 has to
+     * recompute the shortest path tree of the source from scratch
+     */
+    @Benchmark
+    public List<Edge> jungColdRoute(Cursor c) {
+        int i = c.next++ & (PAIRS - 1);
+        synchronized (this) {
+            this.jung.reset();
+            return this.jung.getPath(this.srcs[i], this.dsts[i]);
+        }
+    }
+
+    /**
+     * Cost of a link going down and up again, including the rebuild of
+     * the routing snapshot
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void snapshotLinkFlap() {
+        this.routing.edgeUpdate(this.flapDown);
+        this.routing.edgeUpdate(this.flapUp);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(FatTreeRoutingBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
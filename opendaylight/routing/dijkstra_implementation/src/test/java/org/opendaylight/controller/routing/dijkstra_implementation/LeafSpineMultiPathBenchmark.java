@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.routing.dijkstra_implementation;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.controller.routing.dijkstra_implementation.internal.DijkstraImplementation;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.Path;
+import org.opendaylight.controller.sal.routing.PathSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of the single path, equal cost and k shortest path lookups of
+ * DijkstraImplementation on a leaf-spine fabric, and of picking one of
+ * the equal cost paths for a flow
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LeafSpineMultiPathBenchmark {
+    private static final int PAIRS = 1024;
+
+    @Param({ "4", "16" })
+    public int spines;
+
+    @Param({ "64" })
+    public int leaves;
+
+    private DijkstraImplementation routing;
+    private Node[] srcs;
+    private Node[] dsts;
+    private int next;
+
+    @Setup
+    public void setup() {
+        TopologyGenerator topo = TopologyGenerator.leafSpine(this.spines, this.leaves);
+        this.routing = new DijkstraImplementation();
+        this.routing.init();
+        this.routing.edgeUpdate(topo.getUpdates());
+
+        List<Node> leafNodes = topo.getHostFacingSwitches();
+        Random rand = new Random(42);
+        this.srcs = new Node[PAIRS];
+        this.dsts = new Node[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            this.srcs[i] = leafNodes.get(rand.nextInt(leafNodes.size()));
+            do {
+                this.dsts[i] = leafNodes.get(rand.nextInt(leafNodes.size()));
+            } while (this.dsts[i].equals(this.srcs[i]));
+        }
+    }
+
+    @Benchmark
+    public Path singleRoute() {
+        int i = this.next++ & (PAIRS - 1);
+        return this.routing.getRoute(this.srcs[i], this.dsts[i]);
+    }
+
+    @Benchmark
+    public List<Path> equalCostRoutes() {
+        int i = this.next++ & (PAIRS - 1);
+        return this.routing.getEqualCostRoutes(this.srcs[i], this.dsts[i], 0);
+    }
+
+    @Benchmark
+    public Path equalCostRouteSelection() {
+        int i = this.next++ & (PAIRS - 1);
+        List<Path> paths = this.routing.getEqualCostRoutes(this.srcs[i], this.dsts[i], 0);
+        return PathSelector.select(paths, PathSelector.hash(this.srcs[i], this.dsts[i], i));
+    }
+
+    @Benchmark
+    public List<Path> fourShortestRoutes() {
+        int i = this.next++ & (PAIRS - 1);
+        return this.routing.getKShortestRoutes(this.srcs[i], this.dsts[i], 4);
+    }
+
+    @Benchmark
+    public List<Path> spinesPlusFourShortestRoutes() {
+        int i = this.next++ & (PAIRS - 1);
+        return this.routing.getKShortestRoutes(this.srcs[i], this.dsts[i], this.spines + 4);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(LeafSpineMultiPathBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.routing.dijkstra_implementation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.controller.routing.dijkstra_implementation.internal.DijkstraImplementation;
+import org.opendaylight.controller.sal.core.Edge;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.Path;
+import org.opendaylight.controller.sal.routing.PathSelector;
+
+public class MultiPathTest {
+
+    private DijkstraImplementation leafSpine(TopologyGenerator topo) {
+        DijkstraImplementation imp = new DijkstraImplementation();
+        imp.init();
+        imp.edgeUpdate(topo.getUpdates());
+        return imp;
+    }
+
+    @Test
+    public void testEqualCostRoutes() {
+        TopologyGenerator topo = TopologyGenerator.leafSpine(4, 3);
+        DijkstraImplementation imp = leafSpine(topo);
+        Node leaf1 = topo.getHostFacingSwitches().get(0);
+        Node leaf2 = topo.getHostFacingSwitches().get(1);
+
+        List<Path> paths = imp.getEqualCostRoutes(leaf1, leaf2, 0);
+        Assert.assertEquals(4, paths.size());
+        Assert.assertEquals(4, new HashSet<Path>(paths).size());
+        for (Path p : paths) {
+            Assert.assertEquals(2, p.getEdges().size());
+            Assert.assertEquals(leaf1, p.getStartNode());
+            Assert.assertEquals(leaf2, p.getEndNode());
+        }
+        Assert.assertTrue(paths.contains(imp.getRoute(leaf1, leaf2)));
+        Assert.assertEquals(2, imp.getEqualCostRoutes(leaf1, leaf2, 2).size());
+        Assert.assertTrue(imp.getEqualCostRoutes(leaf1, leaf1, 0).isEmpty());
+    }
+
+    @Test
+    public void testKShortestRoutes() {
+        TopologyGenerator topo = TopologyGenerator.leafSpine(4, 3);
+        DijkstraImplementation imp = leafSpine(topo);
+        Node leaf1 = topo.getHostFacingSwitches().get(0);
+        Node leaf2 = topo.getHostFacingSwitches().get(1);
+
+        List<Path> paths = imp.getKShortestRoutes(leaf1, leaf2, 6);
+        Assert.assertEquals(6, paths.size());
+        Assert.assertEquals(imp.getRoute(leaf1, leaf2), paths.get(0));
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(2, paths.get(i).getEdges().size());
+        }
+        Assert.assertEquals(4, paths.get(4).getEdges().size());
+        Assert.assertEquals(4, paths.get(5).getEdges().size());
+
+        // Through one spine, the third leaf and another spine: 4 x 3 paths
+        List<Path> all = imp.getKShortestRoutes(leaf1, leaf2, 100);
+        Assert.assertEquals(16, all.size());
+        Assert.assertEquals(16, new HashSet<Path>(all).size());
+        for (Path p : all) {
+            // Loopless: every node is visited once
+            HashSet<Node> visited = new HashSet<Node>();
+            visited.add(p.getEndNode());
+            for (Edge e : p.getEdges()) {
+                Assert.assertTrue(visited.add(e.getTailNodeConnector().getNode()));
+            }
+        }
+    }
+
+    @Test
+    public void testBandwidthRoutes() {
+        TopologyGenerator topo = TopologyGenerator.leafSpine(4, 3);
+        DijkstraImplementation imp = leafSpine(topo);
+        Node leaf1 = topo.getHostFacingSwitches().get(0);
+        Node leaf2 = topo.getHostFacingSwitches().get(1);
+
+        Assert.assertEquals(imp.getEqualCostRoutes(leaf1, leaf2, 0),
+                imp.getEqualCostRoutes(leaf1, leaf2, (short) 0, 0));
+        Assert.assertEquals(imp.getKShortestRoutes(leaf1, leaf2, 6),
+                imp.getKShortestRoutes(leaf1, leaf2, (short) 0, 6));
+
+        // No link offers this bandwidth
+        Assert.assertNull(imp.getRoute(leaf1, leaf2, (short) 5));
+        Assert.assertTrue(imp.getEqualCostRoutes(leaf1, leaf2, (short) 5, 0).isEmpty());
+        Assert.assertTrue(imp.getKShortestRoutes(leaf1, leaf2, (short) 5, 6).isEmpty());
+    }
+
+    @Test
+    public void testPathSelection() {
+        TopologyGenerator topo = TopologyGenerator.leafSpine(4, 3);
+        DijkstraImplementation imp = leafSpine(topo);
+        Node leaf1 = topo.getHostFacingSwitches().get(0);
+        Node leaf2 = topo.getHostFacingSwitches().get(1);
+        List<Path> paths = imp.getEqualCostRoutes(leaf1, leaf2, 0);
+
+        // Another controller may have learned the links in another order
+        List<Path> reversed = new ArrayList<Path>(paths);
+        Collections.reverse(reversed);
+
+        HashSet<Path> selected = new HashSet<Path>();
+        for (int flow = 0; flow < 64; flow++) {
+            int hash = PathSelector.hash(leaf1, leaf2, flow);
+            Path p = PathSelector.select(paths, hash);
+            Assert.assertEquals(p, PathSelector.select(imp.getEqualCostRoutes(leaf1, leaf2, 0), hash));
+            Assert.assertEquals(p, PathSelector.select(reversed, hash));
+            selected.add(p);
+        }
+        Assert.assertEquals(4, selected.size());
+        Assert.assertNull(PathSelector.select(imp.getEqualCostRoutes(leaf1, leaf1, 0), 0));
+    }
+}
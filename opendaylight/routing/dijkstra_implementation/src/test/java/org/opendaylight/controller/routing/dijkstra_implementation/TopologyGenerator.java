@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.routing.dijkstra_implementation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.opendaylight.controller.sal.core.Bandwidth;
+import org.opendaylight.controller.sal.core.ConstructionException;
+import org.opendaylight.controller.sal.core.Edge;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.core.Property;
+import org.opendaylight.controller.sal.core.UpdateType;
+import org.opendaylight.controller.sal.topology.TopoEdgeUpdate;
+import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
+import org.opendaylight.controller.sal.utils.NodeCreator;
+
+/**
+ * Helper used by the routing tests and benchmarks to generate data center style
+ * topologies. Every physical link is reported in both directions, as the
+ * topology manager does.
+ */
+public class TopologyGenerator {
+    private final List<TopoEdgeUpdate> updates = new ArrayList<TopoEdgeUpdate>();
+    private final List<Node> hostFacing = new ArrayList<Node>();
+    private long nextSwitchId = 1;
+
+    /**
+     * Build a k-ary fat-tree: (k/2)^2 core switches and k pods of k/2
+     * aggregation and k/2 edge switches, that is 5k^2/4 switches in total
+     * (980 for k = 28)
+     *
+     * @param k
+     *            the arity of the fat-tree, must be even
+     * @return the generator holding the topology
+     */
+    public static TopologyGenerator fatTree(int k) {
+        TopologyGenerator g = new TopologyGenerator();
+        int half = k / 2;
+        Node[] core = g.createSwitches(half * half);
+        for (int pod = 0; pod < k; pod++) {
+            Node[] agg = g.createSwitches(half);
+            Node[] edge = g.createSwitches(half);
+            for (int a = 0; a < half; a++) {
+                for (int e = 0; e < half; e++) {
+                    g.link(agg[a], (short) (e + 1), edge[e], (short) (a + 1));
+                }
+                for (int c = 0; c < half; c++) {
+                    g.link(agg[a], (short) (half + c + 1), core[a * half + c], (short) (pod + 1));
+                }
+            }
+            for (Node e : edge) {
+                g.hostFacing.add(e);
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Build a two tier leaf-spine fabric where every leaf is connected to
+     * every spine
+     *
+     * @param spines
+     *            the number of spine switches
+     * @param leaves
+     *            the number of leaf switches
+     * @return the generator holding the topology
+     */
+    public static TopologyGenerator leafSpine(int spines, int leaves) {
+        TopologyGenerator g = new TopologyGenerator();
+        Node[] spine = g.createSwitches(spines);
+        Node[] leaf = g.createSwitches(leaves);
+        for (int l = 0; l < leaves; l++) {
+            for (int s = 0; s < spines; s++) {
+                g.link(leaf[l], (short) (s + 1), spine[s], (short) (l + 1));
+            }
+            g.hostFacing.add(leaf[l]);
+        }
+        return g;
+    }
+
+    private Node[] createSwitches(int count) {
+        Node[] res = new Node[count];
+        for (int i = 0; i < count; i++) {
+            res[i] = NodeCreator.createOFNode(this.nextSwitchId++);
+        }
+        return res;
+    }
+
+    private void link(Node n1, short p1, Node n2, short p2) {
+        NodeConnector nc1 = NodeConnectorCreator.createOFNodeConnector(p1, n1);
+        NodeConnector nc2 = NodeConnectorCreator.createOFNodeConnector(p2, n2);
+        try {
+            this.updates.add(update(new Edge(nc1, nc2), UpdateType.ADDED));
+            this.updates.add(update(new Edge(nc2, nc1), UpdateType.ADDED));
+        } catch (ConstructionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Wrap an edge in a topology update carrying the default bandwidth
+     *
+     * @param e
+     *            the edge
+     * @param type
+     *            the type of update
+     * @return the topology update
+     */
+    public static TopoEdgeUpdate update(Edge e, UpdateType type) {
+        Set<Property> props = new HashSet<Property>();
+        props.add(new Bandwidth(0));
+        return new TopoEdgeUpdate(e, props, type);
+    }
+
+    /**
+     * @return the ADDED updates for all the links of the topology
+     */
+    public List<TopoEdgeUpdate> getUpdates() {
+        return this.updates;
+    }
+
+    /**
+     * @return the switches where hosts attach (edge or leaf layer)
+     */
+    public List<Node> getHostFacingSwitches() {
+        return this.hostFacing;
+    }
+}
@@ -16,8 +16,11 @@
  */
 package org.opendaylight.controller.sal.packet;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.opendaylight.controller.sal.core.ConstructionException;
 import org.opendaylight.controller.sal.core.NodeConnector;
@@ -37,6 +40,7 @@ public class RawPacket {
     private Map<Object, Object> props;
     private NodeConnector incomingNodeConnector;
     private NodeConnector outgoingNodeConnector;
+    private Set<NodeConnector> outgoingNodeConnectors;
 
     /**
      * If the packet is being sent this parameter tells where the packet is sent
@@ -57,6 +61,46 @@ public class RawPacket {
      */
     public void setOutgoingNodeConnector(NodeConnector outgoingNodeConnector) {
         this.outgoingNodeConnector = outgoingNodeConnector;
+        this.outgoingNodeConnectors = null;
+    }
+
+    /**
+     * If the packet is being sent, all the NodeConnectors it is sent
+     * toward. They all belong to the node of the outgoing NodeConnector.
+     *
+     * @return the NodeConnectors toward where the packet is being sent, empty
+     *         if none is set
+     */
+    public Set<NodeConnector> getOutgoingNodeConnectors() {
+        if (outgoingNodeConnectors != null) {
+            return outgoingNodeConnectors;
+        }
+        if (outgoingNodeConnector != null) {
+            return Collections.singleton(outgoingNodeConnector);
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Send the packet out of several NodeConnectors of the same node at once,
+     * so that the protocol plugin can replicate it on the node itself instead
+     * of the controller sending a copy per NodeConnector. The first
+     * NodeConnector becomes the outgoing NodeConnector.
+     *
+     * @param outgoingNodeConnectors
+     *            NodeConnectors of a single node toward where the packet is
+     *            travelling
+     */
+    public void setOutgoingNodeConnectors(Set<NodeConnector> outgoingNodeConnectors) {
+        Set<NodeConnector> copy = (outgoingNodeConnectors == null) ? null : new LinkedHashSet<NodeConnector>(
+                outgoingNodeConnectors);
+        if ((copy == null) || copy.isEmpty()) {
+            this.outgoingNodeConnector = null;
+            this.outgoingNodeConnectors = null;
+            return;
+        }
+        this.outgoingNodeConnector = copy.iterator().next();
+        this.outgoingNodeConnectors = Collections.unmodifiableSet(copy);
     }
 
     /**
@@ -157,6 +201,7 @@ public class RawPacket {
         this.incomingTime = src.getIncomingTime();
         this.incomingNodeConnector = src.getIncomingNodeConnector();
         this.outgoingNodeConnector = src.getOutgoingNodeConnector();
+        this.outgoingNodeConnectors = src.outgoingNodeConnectors;
         this.props = (src.props == null ? null : new HashMap<Object, Object>(
                 src.props));
         this.copyTime = new TimeStamp(System.currentTimeMillis(), "CopyTime");
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.routing;
+
+/**
+ * Interface that will be implemented by the modules that want to know
+ * which routes changed in a recalculation of the routing engine. A routing
+ * engine aware of it invokes {@link #recalculateDone(RoutingChange)} in
+ * place of {@link IListenRoutingUpdates#recalculateDone()}.
+ */
+
+public interface IListenRoutingChanges extends IListenRoutingUpdates {
+    /**
+     * Method invoked when the recalculation of the shortest path trees
+     * is done
+     *
+     * @param change
+     *            the edges that changed and the routes affected by them
+     */
+    public void recalculateDone(RoutingChange change);
+
+}
@@ -9,6 +9,7 @@
 
 package org.opendaylight.controller.sal.routing;
 
+import java.util.List;
 import java.util.Map;
 
 import org.opendaylight.controller.sal.core.Edge;
@@ -62,6 +63,81 @@ public interface IRouting {
      */
     public Path getRoute(Node src, Node dst, Short Bw);
 
+    /**
+     * Returns all the shortest Paths leading from the source to the
+     * destination, in an order that is stable as long as the topology
+     * doesn't change. Use {@link PathSelector} to spread flows over them.
+     *
+     * @param src
+     *            source {@link org.opendaylight.controller.sal.core.Node}
+     *
+     * @param dst
+     *            destination {@link org.opendaylight.controller.sal.core.Node}
+     * @param maxPaths
+     *            maximum number of Paths returned, 0 for no limit
+     * @return: the list of equal cost
+     *          {@link org.opendaylight.controller.sal.core.Path}, empty if
+     *          there is no route
+     */
+    public List<Path> getEqualCostRoutes(Node src, Node dst, int maxPaths);
+
+    /**
+     * Returns all the shortest Paths leading from the source to the
+     * destination in the topology of the given bandwidth, in an order that
+     * is stable as long as the topology doesn't change.
+     *
+     * @param src
+     *            source {@link org.opendaylight.controller.sal.core.Node}
+     *
+     * @param dst
+     *            destination {@link org.opendaylight.controller.sal.core.Node}
+     * @param Bw
+     *            the bandwidth
+     * @param maxPaths
+     *            maximum number of Paths returned, 0 for no limit
+     * @return: the list of equal cost
+     *          {@link org.opendaylight.controller.sal.core.Path}, empty if
+     *          there is no route
+     */
+    public List<Path> getEqualCostRoutes(Node src, Node dst, Short Bw, int maxPaths);
+
+    /**
+     * Returns the k shortest loopless Paths leading from the source to the
+     * destination, shortest first. The first one is the Path returned by
+     * {@link #getRoute(Node, Node)}.
+     *
+     * @param src
+     *            source {@link org.opendaylight.controller.sal.core.Node}
+     *
+     * @param dst
+     *            destination {@link org.opendaylight.controller.sal.core.Node}
+     * @param k
+     *            maximum number of Paths returned
+     * @return: the list of {@link org.opendaylight.controller.sal.core.Path},
+     *          empty if there is no route
+     */
+    public List<Path> getKShortestRoutes(Node src, Node dst, int k);
+
+    /**
+     * Returns the k shortest loopless Paths leading from the source to the
+     * destination in the topology of the given bandwidth, shortest first.
+     * The first one is the Path returned by
+     * {@link #getRoute(Node, Node, Short)}.
+     *
+     * @param src
+     *            source {@link org.opendaylight.controller.sal.core.Node}
+     *
+     * @param dst
+     *            destination {@link org.opendaylight.controller.sal.core.Node}
+     * @param Bw
+     *            the bandwidth
+     * @param k
+     *            maximum number of Paths returned
+     * @return: the list of {@link org.opendaylight.controller.sal.core.Path},
+     *          empty if there is no route
+     */
+    public List<Path> getKShortestRoutes(Node src, Node dst, Short Bw, int k);
+
     /**
      * Remove all routes and reset all state. USE CAREFULLY!
      */
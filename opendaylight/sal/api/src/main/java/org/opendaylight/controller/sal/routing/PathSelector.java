@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Helper to pick one among a set of equal cost paths in a deterministic
+ * way: the same flow key always selects the same path, as long as the set of
+ * paths doesn't change. The candidates are ordered by their string
+ * representation before selecting, so the choice doesn't depend on the order
+ * in which the local controller learned the links.
+ */
+public final class PathSelector {
+
+    private static final Comparator<Object> BY_STRING = new Comparator<Object>() {
+        @Override
+        public int compare(Object o1, Object o2) {
+            return String.valueOf(o1).compareTo(String.valueOf(o2));
+        }
+    };
+
+    private PathSelector() {
+    }
+
+    /**
+     * Combine the fields identifying a flow (for example the source and
+     * destination MAC or IP addresses) in a hash. The fields' hashCode
+     * must not depend on the JVM instance.
+     *
+     * @param fields
+     *            the flow fields
+     * @return the flow hash
+     */
+    public static int hash(Object... fields) {
+        int h = 0;
+        for (Object field : fields) {
+            h = mix(h ^ ((field == null) ? 0 : field.hashCode())) * 31;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Select an element of the list based on the flow hash. The list itself
+     * is not modified.
+     *
+     * @param candidates
+     *            the equal cost candidates, usually paths, whose string
+     *            representation identifies them
+     * @param hash
+     *            the flow hash, see {@link #hash(Object...)}
+     * @return the selected element, null if the list is null or empty
+     */
+    public static <T> T select(List<T> candidates, int hash) {
+        if ((candidates == null) || candidates.isEmpty()) {
+            return null;
+        }
+        List<T> sorted = new ArrayList<T>(candidates);
+        Collections.sort(sorted, BY_STRING);
+        return sorted.get((mix(hash) & Integer.MAX_VALUE) % sorted.size());
+    }
+
+    /**
+     * Murmur3 finalizer, spreads every input bit over the whole word so that
+     * close hashes don't select the same candidate
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.routing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.opendaylight.controller.sal.core.Edge;
+import org.opendaylight.controller.sal.core.Node;
+
+/**
+ * The class summarizes the outcome of a routing recalculation: the edges
+ * that were added to or removed from the topology and, for every
+ * destination whose shortest path tree changed, the set of sources whose
+ * route towards that destination is now different (that includes routes
+ * that appeared or disappeared). Routes not listed are guaranteed to be
+ * unchanged.
+ */
+public class RoutingChange {
+    private final Set<Edge> addedEdges;
+    private final Set<Edge> removedEdges;
+    private final Map<Node, Set<Node>> changedRoutes;
+
+    /**
+     * Constructor for a routing change
+     *
+     * @param addedEdges
+     *            Edges added to the topology
+     * @param removedEdges
+     *            Edges removed from the topology
+     * @param changedRoutes
+     *            Map from destination to the set of sources whose route to
+     *            it changed
+     */
+    public RoutingChange(Set<Edge> addedEdges, Set<Edge> removedEdges, Map<Node, Set<Node>> changedRoutes) {
+        this.addedEdges = Collections.unmodifiableSet(new HashSet<Edge>(addedEdges));
+        this.removedEdges = Collections.unmodifiableSet(new HashSet<Edge>(removedEdges));
+        Map<Node, Set<Node>> routes = new HashMap<Node, Set<Node>>();
+        for (Map.Entry<Node, Set<Node>> entry : changedRoutes.entrySet()) {
+            routes.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<Node>(entry.getValue())));
+        }
+        this.changedRoutes = Collections.unmodifiableMap(routes);
+    }
+
+    public Set<Edge> getAddedEdges() {
+        return addedEdges;
+    }
+
+    public Set<Edge> getRemovedEdges() {
+        return removedEdges;
+    }
+
+    /**
+     * @return Map from destination to the set of sources whose route to it
+     *         changed
+     */
+    public Map<Node, Set<Node>> getChangedRoutes() {
+        return changedRoutes;
+    }
+
+    /**
+     * @return The destinations for which at least one route changed
+     */
+    public Set<Node> getChangedDestinations() {
+        return changedRoutes.keySet();
+    }
+
+    /**
+     * @return The sources for which at least one route changed
+     */
+    public Set<Node> getChangedSources() {
+        Set<Node> sources = new HashSet<Node>();
+        for (Set<Node> s : changedRoutes.values()) {
+            sources.addAll(s);
+        }
+        return sources;
+    }
+
+    /**
+     * Tells whether the route between two nodes has changed
+     *
+     * @param src
+     *            Source node
+     * @param dst
+     *            Destination node
+     * @return true if the route from src to dst changed
+     */
+    public boolean isRouteChanged(Node src, Node dst) {
+        Set<Node> sources = changedRoutes.get(dst);
+        return (sources != null) && sources.contains(src);
+    }
+
+    /**
+     * @return true if no route changed
+     */
+    public boolean isEmpty() {
+        return changedRoutes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingChange [addedEdges=" + addedEdges + ", removedEdges=" + removedEdges + ", changedRoutes="
+                + changedRoutes + "]";
+    }
+}
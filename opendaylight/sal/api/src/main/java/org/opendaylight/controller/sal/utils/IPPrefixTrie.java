@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.utils;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+/**
+ * Longest prefix match table for IPv4 and IPv6 prefixes.
+ *
+ * The prefixes are stored in a binary trie per address family, made of
+ * immutable nodes. An update copies the path from the root to the modified
+ * node and publishes the new root, so the lookups never take a lock and
+ * always see a consistent table; the updates are serialized. A lookup walks
+ * at most as many nodes as there are bits in the address (32 or 128),
+ * whatever the number of prefixes in the table.
+ *
+ * The table is meant for read mostly data like subnets or static routes,
+ * every update allocates O(prefix length) nodes.
+ *
+ * @param <V>
+ *            the type of the values associated with the prefixes
+ */
+public class IPPrefixTrie<V> {
+    private static final int IPV4_BITS = 32;
+    private static final int IPV6_BITS = 128;
+
+    private static final class TrieNode<V> {
+        private final V value;
+        private final TrieNode<V> zero;
+        private final TrieNode<V> one;
+
+        TrieNode(V value, TrieNode<V> zero, TrieNode<V> one) {
+            this.value = value;
+            this.zero = zero;
+            this.one = one;
+        }
+
+        TrieNode<V> child(int bit) {
+            return (bit == 0) ? zero : one;
+        }
+
+        TrieNode<V> withChild(int bit, TrieNode<V> child) {
+            return (bit == 0) ? create(value, child, one) : create(value, zero, child);
+        }
+
+        TrieNode<V> withValue(V v) {
+            return create(v, zero, one);
+        }
+
+        /*
+         * Nodes with neither value nor children are pruned
+         */
+        static <V> TrieNode<V> create(V value, TrieNode<V> zero, TrieNode<V> one) {
+            if ((value == null) && (zero == null) && (one == null)) {
+                return null;
+            }
+            return new TrieNode<V>(value, zero, one);
+        }
+    }
+
+    private volatile TrieNode<V> v4Root;
+    private volatile TrieNode<V> v6Root;
+    private volatile int size;
+
+    private static int bitAt(byte[] address, int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static int checkLength(InetAddress prefix, int prefixLength) {
+        int maxLength = (prefix instanceof Inet4Address) ? IPV4_BITS : IPV6_BITS;
+        if ((prefixLength < 0) || (prefixLength > maxLength)) {
+            throw new IllegalArgumentException("Invalid prefix length " + prefixLength + " for " + prefix);
+        }
+        return prefixLength;
+    }
+
+    /**
+     * Associate a value with a prefix, the bits of the address beyond the
+     * prefix length are ignored
+     *
+     * @param prefix
+     *            the network address
+     * @param prefixLength
+     *            the number of significant bits of the prefix
+     * @param value
+     *            the value, not null
+     * @return the value previously associated with the prefix, null if none
+     */
+    public synchronized V put(InetAddress prefix, int prefixLength, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null value for " + prefix + "/" + prefixLength);
+        }
+        return update(prefix, checkLength(prefix, prefixLength), value);
+    }
+
+    /**
+     * Remove a prefix from the table
+     *
+     * @param prefix
+     *            the network address
+     * @param prefixLength
+     *            the number of significant bits of the prefix
+     * @return the value associated with the prefix, null if none
+     */
+    public synchronized V remove(InetAddress prefix, int prefixLength) {
+        return update(prefix, checkLength(prefix, prefixLength), null);
+    }
+
+    /**
+     * Remove all the prefixes
+     */
+    public synchronized void clear() {
+        v4Root = null;
+        v6Root = null;
+        size = 0;
+    }
+
+    private V update(InetAddress prefix, int prefixLength, V value) {
+        boolean v4 = prefix instanceof Inet4Address;
+        byte[] address = prefix.getAddress();
+        TrieNode<V> root = v4 ? v4Root : v6Root;
+
+        // Walk down the existing path
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        TrieNode<V>[] path = new TrieNode[prefixLength + 1];
+        TrieNode<V> node = root;
+        for (int i = 0; i < prefixLength && node != null; i++) {
+            path[i] = node;
+            node = node.child(bitAt(address, i));
+        }
+        path[prefixLength] = node;
+        V old = (node == null) ? null : node.value;
+        if ((old == null) && (value == null)) {
+            return null;
+        }
+
+        // Copy it back up with the new value
+        TrieNode<V> copy = (node == null) ? TrieNode.create(value, null, null) : node.withValue(value);
+        for (int i = prefixLength - 1; i >= 0; i--) {
+            TrieNode<V> parent = path[i];
+            int bit = bitAt(address, i);
+            copy = (parent == null) ? TrieNode.create(null, (bit == 0) ? copy : null, (bit == 0) ? null : copy)
+                    : parent.withChild(bit, copy);
+        }
+
+        if (v4) {
+            v4Root = copy;
+        } else {
+            v6Root = copy;
+        }
+        if (old == null) {
+            size++;
+        } else if (value == null) {
+            size--;
+        }
+        return old;
+    }
+
+    /**
+     * Return the value associated with the longest prefix containing the
+     * given address
+     *
+     * @param address
+     *            the IPv4 or IPv6 address
+     * @return the value of the longest matching prefix, null if none matches
+     */
+    public V lookup(InetAddress address) {
+        if (address == null) {
+            return null;
+        }
+        boolean v4 = address instanceof Inet4Address;
+        TrieNode<V> node = v4 ? v4Root : v6Root;
+        byte[] bytes = address.getAddress();
+        int bits = v4 ? IPV4_BITS : IPV6_BITS;
+        V best = null;
+        for (int i = 0; node != null; i++) {
+            if (node.value != null) {
+                best = node.value;
+            }
+            if (i == bits) {
+                break;
+            }
+            node = node.child(bitAt(bytes, i));
+        }
+        return best;
+    }
+
+    /**
+     * Return the value associated with exactly the given prefix
+     *
+     * @param prefix
+     *            the network address
+     * @param prefixLength
+     *            the number of significant bits of the prefix
+     * @return the value, null if the prefix is not in the table
+     */
+    public V get(InetAddress prefix, int prefixLength) {
+        checkLength(prefix, prefixLength);
+        TrieNode<V> node = (prefix instanceof Inet4Address) ? v4Root : v6Root;
+        byte[] address = prefix.getAddress();
+        for (int i = 0; i < prefixLength && node != null; i++) {
+            node = node.child(bitAt(address, i));
+        }
+        return (node == null) ? null : node.value;
+    }
+
+    /**
+     * @return the number of prefixes in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the table holds no prefix
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchical timer wheel meant for large numbers of coarse grained timeouts
+ * (host aging, ARP retries, ...) that are mostly rescheduled or cancelled
+ * before they expire. Scheduling and cancelling are O(1) and never take a
+ * lock; the timeouts are moved into the wheel buckets and expired by a single
+ * daemon thread that wakes up once per tick. Timeouts fire with the
+ * granularity of a tick, never before their deadline.
+ *
+ * Each level of the wheel has the same number of buckets, a bucket of a level
+ * spanning a whole revolution of the level below. A timeout is filed in the
+ * lowest level whose revolution reaches its deadline, and moved down a level
+ * when the bucket holding it comes up, so that a tick only ever walks the
+ * timeouts which are due or about to be re-filed, whatever the number of
+ * outstanding timeouts and however far their deadlines are.
+ *
+ * The expired tasks are run on the wheel thread, so they must be short and
+ * must not block.
+ */
+public class TimerWheel {
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final int DEFAULT_LEVELS = 4;
+
+    /**
+     * Handle on a task scheduled in the wheel
+     */
+    public interface Timeout {
+        /**
+         * Cancel the timeout
+         *
+         * @return true if the timeout was cancelled before its task ran
+         */
+        boolean cancel();
+
+        /**
+         * @return true if the task has been run
+         */
+        boolean isExpired();
+
+        /**
+         * @return true if the timeout has been cancelled
+         */
+        boolean isCancelled();
+    }
+
+    private static class Entry implements Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Exception while running timer task {}", task, e);
+            }
+        }
+    }
+
+    private final String name;
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    // Buckets of each level, level 0 holds the timeouts due in the current
+    // revolution
+    private final List<List<List<Entry>>> levels;
+    private final Queue<Entry> newEntries = new ConcurrentLinkedQueue<Entry>();
+    private final long startTime;
+    private volatile boolean running;
+    private Thread worker;
+    // Only accessed by the worker thread
+    private long tick;
+
+    /**
+     * Create a timer wheel, the wheel needs to be started before the
+     * scheduled tasks can expire
+     *
+     * @param name
+     *            name given to the wheel thread
+     * @param tickDuration
+     *            the duration of a tick
+     * @param unit
+     *            the time unit of tickDuration
+     * @param ticksPerWheel
+     *            the number of buckets of each level, rounded up to a power of
+     *            two
+     */
+    public TimerWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(name, tickDuration, unit, ticksPerWheel, DEFAULT_LEVELS);
+    }
+
+    /**
+     * Create a timer wheel, the wheel needs to be started before the
+     * scheduled tasks can expire
+     *
+     * @param name
+     *            name given to the wheel thread
+     * @param tickDuration
+     *            the duration of a tick
+     * @param unit
+     *            the time unit of tickDuration
+     * @param ticksPerWheel
+     *            the number of buckets of each level, rounded up to a power of
+     *            two
+     * @param levelCount
+     *            the number of levels, timeouts further away than the span of
+     *            all the levels are re-filed once per revolution of the top
+     *            level
+     */
+    public TimerWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, int levelCount) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0 || levelCount <= 0) {
+            throw new IllegalArgumentException("tickDuration, ticksPerWheel and levelCount must be positive");
+        }
+        int size = Integer.highestOneBit(ticksPerWheel);
+        if (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.bits = Math.max(Integer.numberOfTrailingZeros(size), 1);
+        if (bits * levelCount > 62) {
+            throw new IllegalArgumentException("The wheel span overflows, use fewer levels or buckets");
+        }
+        this.name = name;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = (1 << bits) - 1;
+        this.levels = new ArrayList<List<List<Entry>>>(levelCount);
+        for (int l = 0; l < levelCount; l++) {
+            List<List<Entry>> buckets = new ArrayList<List<Entry>>(mask + 1);
+            for (int i = 0; i <= mask; i++) {
+                buckets.add(new ArrayList<Entry>());
+            }
+            this.levels.add(buckets);
+        }
+        this.startTime = System.nanoTime();
+    }
+
+    private static class SharedWheelHolder {
+        private static final TimerWheel WHEEL = new TimerWheel("Shared Timer Wheel", 100, TimeUnit.MILLISECONDS,
+                256);
+        static {
+            WHEEL.start();
+        }
+    }
+
+    /**
+     * Return the process wide wheel, with a 100ms tick, that the components
+     * which don't need a wheel of their own schedule their timeouts on. The
+     * shared wheel is started on first use and must not be stopped; the
+     * components cancel their own timeouts, or ignore them when they fire
+     * after the component was stopped.
+     *
+     * @return the shared timer wheel
+     */
+    public static TimerWheel getSharedWheel() {
+        return SharedWheelHolder.WHEEL;
+    }
+
+    /**
+     * Start the wheel thread
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        running = true;
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWheel();
+            }
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stop the wheel thread, the pending tasks are dropped
+     */
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        newEntries.clear();
+    }
+
+    /**
+     * Schedule a task to run once after the given delay
+     *
+     * @param task
+     *            the task to run
+     * @param delay
+     *            the delay
+     * @param unit
+     *            the time unit of delay
+     * @return the handle on the scheduled task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0));
+        Entry entry = new Entry(task, deadline);
+        newEntries.add(entry);
+        return entry;
+    }
+
+    /**
+     * @return the number of tasks waiting to be moved into the wheel
+     */
+    public int getPendingCount() {
+        return newEntries.size();
+    }
+
+    private void runWheel() {
+        while (running) {
+            long tickDeadline = (tick + 1) * tickNanos;
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            cascade();
+            transferNewEntries();
+            expireBucket(levels.get(0).get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /*
+     * On a revolution of a level, move down the timeouts of the bucket of the
+     * level above that is now current
+     */
+    private void cascade() {
+        for (int l = 1; l < levels.size(); l++) {
+            if ((tick & ((1L << (l * bits)) - 1)) != 0) {
+                return;
+            }
+            List<Entry> bucket = levels.get(l).get((int) ((tick >>> (l * bits)) & mask));
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry> entries = new ArrayList<Entry>(bucket);
+            bucket.clear();
+            for (Entry entry : entries) {
+                if (!entry.isCancelled()) {
+                    file(entry);
+                }
+            }
+        }
+    }
+
+    private void transferNewEntries() {
+        Entry entry;
+        while ((entry = newEntries.poll()) != null) {
+            if (!entry.isCancelled()) {
+                file(entry);
+            }
+        }
+    }
+
+    /*
+     * File the entry in the lowest level whose revolution reaches the tick of
+     * its deadline, never in the past
+     */
+    private void file(Entry entry) {
+        long ticks = Math.max(entry.deadline / tickNanos, tick);
+        long delta = ticks - tick;
+        int top = levels.size() - 1;
+        int l = 0;
+        while (l < top && delta >= (1L << ((l + 1) * bits))) {
+            l++;
+        }
+        if (delta >= (1L << ((top + 1) * bits))) {
+            // Beyond the span of the wheel, park in the last bucket to come up
+            ticks = tick + (1L << ((top + 1) * bits)) - 1;
+        }
+        levels.get(l).get((int) ((ticks >>> (l * bits)) & mask)).add(entry);
+    }
+
+    private void expireBucket(List<Entry> bucket) {
+        for (Entry entry : bucket) {
+            entry.expire();
+        }
+        bucket.clear();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.packet;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.opendaylight.controller.sal.core.ConstructionException;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
+import org.opendaylight.controller.sal.utils.NodeCreator;
+
+public class RawPacketTest {
+
+    @Test
+    public void testOutgoingNodeConnectors() throws ConstructionException {
+        Node node = NodeCreator.createOFNode(1L);
+        NodeConnector nc1 = NodeConnectorCreator.createOFNodeConnector((short) 1, node);
+        NodeConnector nc2 = NodeConnectorCreator.createOFNodeConnector((short) 2, node);
+        RawPacket pkt = new RawPacket(new byte[] { 1, 2, 3 });
+        Assert.assertTrue(pkt.getOutgoingNodeConnectors().isEmpty());
+
+        pkt.setOutgoingNodeConnector(nc1);
+        Assert.assertEquals(1, pkt.getOutgoingNodeConnectors().size());
+        Assert.assertTrue(pkt.getOutgoingNodeConnectors().contains(nc1));
+
+        Set<NodeConnector> ports = new HashSet<NodeConnector>();
+        ports.add(nc1);
+        ports.add(nc2);
+        pkt.setOutgoingNodeConnectors(ports);
+        // The packet keeps its own copy of the ports
+        ports.clear();
+        Assert.assertEquals(2, pkt.getOutgoingNodeConnectors().size());
+        Assert.assertTrue(pkt.getOutgoingNodeConnectors().contains(pkt.getOutgoingNodeConnector()));
+
+        RawPacket copy = new RawPacket(pkt);
+        Assert.assertEquals(pkt.getOutgoingNodeConnectors(), copy.getOutgoingNodeConnectors());
+
+        copy.setOutgoingNodeConnector(nc2);
+        Assert.assertEquals(1, copy.getOutgoingNodeConnectors().size());
+        Assert.assertEquals(2, pkt.getOutgoingNodeConnectors().size());
+
+        pkt.setOutgoingNodeConnectors(ports);
+        Assert.assertNull(pkt.getOutgoingNodeConnector());
+        Assert.assertTrue(pkt.getOutgoingNodeConnectors().isEmpty());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.utils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of a longest prefix match through IPPrefixTrie against the linear
+ * scan of the prefixes it replaces for the subnet and static route lookups
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IPPrefixLookupBenchmark {
+    private static final int ADDRESSES = 1024;
+
+    @Param({ "16", "1024", "16384" })
+    public int prefixes;
+
+    private IPPrefixTrie<Integer> trie;
+    private InetAddress[] networks;
+    private int[] lengths;
+    private InetAddress[] addresses;
+    private int next;
+
+    @Setup
+    public void setup() throws UnknownHostException {
+        Random rand = new Random(42);
+        this.trie = new IPPrefixTrie<Integer>();
+        this.networks = new InetAddress[this.prefixes];
+        this.lengths = new int[this.prefixes];
+        for (int i = 0; i < this.prefixes; i++) {
+            this.lengths[i] = 16 + rand.nextInt(13);
+            this.networks[i] = NetUtils.getSubnetPrefix(randomAddress(rand), this.lengths[i]);
+            this.trie.put(this.networks[i], this.lengths[i], i);
+        }
+        this.addresses = new InetAddress[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            this.addresses[i] = randomAddress(rand);
+        }
+    }
+
+    private static InetAddress randomAddress(Random rand) throws UnknownHostException {
+        byte[] address = new byte[] { 10, (byte) rand.nextInt(256), (byte) rand.nextInt(256),
+                (byte) rand.nextInt(256) };
+        return InetAddress.getByAddress(address);
+    }
+
+    @Benchmark
+    public Integer trieLookup() {
+        return this.trie.lookup(this.addresses[this.next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    public Integer linearScan() {
+        InetAddress address = this.addresses[this.next++ & (ADDRESSES - 1)];
+        Integer best = null;
+        int bestLength = -1;
+        for (int i = 0; i < this.prefixes; i++) {
+            if ((this.lengths[i] > bestLength)
+                    && this.networks[i].equals(NetUtils.getSubnetPrefix(address, this.lengths[i]))) {
+                best = i;
+                bestLength = this.lengths[i];
+            }
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(IPPrefixLookupBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.utils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IPPrefixTrieTest {
+
+    @Test
+    public void testLongestPrefixMatch() throws UnknownHostException {
+        IPPrefixTrie<String> trie = new IPPrefixTrie<String>();
+        Assert.assertNull(trie.lookup(InetAddress.getByName("10.1.2.3")));
+
+        Assert.assertNull(trie.put(InetAddress.getByName("0.0.0.0"), 0, "default"));
+        Assert.assertNull(trie.put(InetAddress.getByName("10.0.0.0"), 8, "10/8"));
+        // Host bits are ignored
+        Assert.assertNull(trie.put(InetAddress.getByName("10.1.2.254"), 16, "10.1/16"));
+        Assert.assertNull(trie.put(InetAddress.getByName("10.1.2.3"), 32, "host"));
+        Assert.assertNull(trie.put(InetAddress.getByName("2001:db8::"), 32, "v6"));
+        Assert.assertEquals(5, trie.size());
+
+        Assert.assertEquals("host", trie.lookup(InetAddress.getByName("10.1.2.3")));
+        Assert.assertEquals("10.1/16", trie.lookup(InetAddress.getByName("10.1.2.4")));
+        Assert.assertEquals("10/8", trie.lookup(InetAddress.getByName("10.2.0.1")));
+        Assert.assertEquals("default", trie.lookup(InetAddress.getByName("192.168.0.1")));
+        Assert.assertEquals("v6", trie.lookup(InetAddress.getByName("2001:db8::1")));
+        Assert.assertNull(trie.lookup(InetAddress.getByName("2001:db9::1")));
+        Assert.assertEquals("10.1/16", trie.get(InetAddress.getByName("10.1.0.0"), 16));
+        Assert.assertNull(trie.get(InetAddress.getByName("10.1.0.0"), 24));
+
+        Assert.assertEquals("10.1/16", trie.put(InetAddress.getByName("10.1.0.0"), 16, "10.1/16 bis"));
+        Assert.assertEquals(5, trie.size());
+        Assert.assertEquals("10.1/16 bis", trie.remove(InetAddress.getByName("10.1.0.0"), 16));
+        Assert.assertNull(trie.remove(InetAddress.getByName("10.1.0.0"), 16));
+        Assert.assertEquals("10/8", trie.lookup(InetAddress.getByName("10.1.2.4")));
+        Assert.assertEquals(4, trie.size());
+
+        trie.clear();
+        Assert.assertTrue(trie.isEmpty());
+        Assert.assertNull(trie.lookup(InetAddress.getByName("10.1.2.3")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrefixLength() throws UnknownHostException {
+        new IPPrefixTrie<String>().put(InetAddress.getByName("10.0.0.0"), 33, "invalid");
+    }
+
+    @Test
+    public void testAgainstLinearScan() throws UnknownHostException {
+        Random rand = new Random(1);
+        IPPrefixTrie<Integer> trie = new IPPrefixTrie<Integer>();
+        Map<String, Integer> prefixes = new HashMap<String, Integer>();
+        for (int i = 0; i < 2000; i++) {
+            int len = rand.nextInt(33);
+            InetAddress prefix = NetUtils.getSubnetPrefix(randomAddress(rand), len);
+            String key = prefix.getHostAddress() + "/" + len;
+            if (rand.nextInt(4) == 0) {
+                Assert.assertEquals(prefixes.remove(key), trie.remove(prefix, len));
+            } else {
+                Assert.assertEquals(prefixes.put(key, i), trie.put(prefix, len, i));
+            }
+        }
+        Assert.assertEquals(prefixes.size(), trie.size());
+
+        for (int i = 0; i < 2000; i++) {
+            InetAddress address = randomAddress(rand);
+            Integer expected = null;
+            for (int len = 32; len >= 0 && expected == null; len--) {
+                expected = prefixes.get(NetUtils.getSubnetPrefix(address, len).getHostAddress() + "/" + len);
+            }
+            Assert.assertEquals(expected, trie.lookup(address));
+        }
+    }
+
+    private static InetAddress randomAddress(Random rand) throws UnknownHostException {
+        // Few distinct high order bits so that the prefixes overlap
+        byte[] address = new byte[] { (byte) (10 + rand.nextInt(2)), (byte) rand.nextInt(4),
+                (byte) rand.nextInt(256), (byte) rand.nextInt(256) };
+        return InetAddress.getByAddress(address);
+    }
+}
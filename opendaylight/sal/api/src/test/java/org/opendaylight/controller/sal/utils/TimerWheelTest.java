@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.sal.utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel("test", 10, TimeUnit.MILLISECONDS, 4);
+        wheel.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(3);
+            final long start = System.nanoTime();
+            final long[] elapsed = new long[3];
+            // The longer delays need more than one round of the wheel
+            long[] delays = { 5, 60, 150 };
+            for (int i = 0; i < delays.length; i++) {
+                final int idx = i;
+                wheel.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        elapsed[idx] = System.nanoTime() - start;
+                        latch.countDown();
+                    }
+                }, delays[i], TimeUnit.MILLISECONDS);
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < delays.length; i++) {
+                Assert.assertTrue(elapsed[i] >= TimeUnit.MILLISECONDS.toNanos(delays[i]));
+            }
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void testCascade() throws InterruptedException {
+        // 4 buckets on 3 levels, a span of 64 ticks
+        TimerWheel wheel = new TimerWheel("test", 5, TimeUnit.MILLISECONDS, 4, 3);
+        wheel.start();
+        try {
+            // One delay per level, then one beyond the span of the wheel
+            final long[] delays = { 10, 60, 200, 450 };
+            final CountDownLatch latch = new CountDownLatch(delays.length);
+            final long start = System.nanoTime();
+            final long[] elapsed = new long[delays.length];
+            for (int i = delays.length - 1; i >= 0; i--) {
+                final int idx = i;
+                wheel.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        elapsed[idx] = System.nanoTime() - start;
+                        latch.countDown();
+                    }
+                }, delays[i], TimeUnit.MILLISECONDS);
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < delays.length; i++) {
+                Assert.assertTrue(elapsed[i] >= TimeUnit.MILLISECONDS.toNanos(delays[i]));
+                if (i > 0) {
+                    Assert.assertTrue(elapsed[i] >= elapsed[i - 1]);
+                }
+            }
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel("test", 10, TimeUnit.MILLISECONDS, 8);
+        wheel.start();
+        try {
+            final AtomicInteger runs = new AtomicInteger();
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    runs.incrementAndGet();
+                }
+            };
+            TimerWheel.Timeout cancelled = wheel.schedule(task, 30, TimeUnit.MILLISECONDS);
+            TimerWheel.Timeout expired = wheel.schedule(task, 30, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(cancelled.cancel());
+            Assert.assertTrue(cancelled.isCancelled());
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!expired.isExpired() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(expired.isExpired());
+            Assert.assertFalse(expired.cancel());
+            Thread.sleep(50);
+            Assert.assertEquals(1, runs.get());
+        } finally {
+            wheel.stop();
+        }
+    }
+}
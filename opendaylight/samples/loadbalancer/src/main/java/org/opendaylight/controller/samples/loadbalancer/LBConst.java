@@ -21,6 +21,23 @@ public class LBConst {
 
     public static final String RANDOM_LB_METHOD = "random";
 
+    public static final String MAGLEV_LB_METHOD = "maglev";
+
+    public static final String LEAST_LOAD_LB_METHOD = "leastload";
+
+    /*
+     * Bounds of the client affinity tables of the policies
+     */
+    public static final int AFFINITY_TABLE_SIZE = 65536;
+
+    public static final long AFFINITY_IDLE_TIMEOUT_SECONDS = 300;
+
+    /*
+     * Interval between two samples of the pool member loads, in line with
+     * the flow statistics polling of the statistics manager
+     */
+    public static final long LOAD_SAMPLE_INTERVAL_SECONDS = 10;
+
     public static final String STATUS_ACTIVE="active";
 
     public static final String STATUS_INACTIVE="inactive";
@@ -21,6 +21,7 @@ import org.opendaylight.controller.sal.packet.IDataPacketService;
 import org.opendaylight.controller.sal.packet.IListenDataPacket;
 import org.opendaylight.controller.sal.routing.IRouting;
 import org.opendaylight.controller.samples.loadbalancer.IConfigManager;
+import org.opendaylight.controller.statisticsmanager.IStatisticsManager;
 
 /**
  * Main application activator class for registering the dependencies and
@@ -89,6 +90,11 @@ public class Activator extends ComponentActivatorAbstractBase {
                     IForwardingRulesManager.class).setCallbacks(
                     "setForwardingRulesManager", "unsetForwardingRulesManager")
                     .setRequired(true));
+
+            c.add(createContainerServiceDependency(containerName).setService(
+                    IStatisticsManager.class).setCallbacks(
+                    "setStatisticsManager", "unsetStatisticsManager")
+                    .setRequired(false));
         }
     }
 
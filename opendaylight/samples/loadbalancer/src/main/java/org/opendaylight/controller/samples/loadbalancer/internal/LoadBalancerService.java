@@ -10,9 +10,16 @@ package org.opendaylight.controller.samples.loadbalancer.internal;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.felix.dm.Component;
 import org.opendaylight.controller.forwardingrulesmanager.FlowEntry;
@@ -40,6 +47,7 @@ import org.opendaylight.controller.sal.packet.IPv4;
 import org.opendaylight.controller.sal.packet.Packet;
 import org.opendaylight.controller.sal.packet.PacketResult;
 import org.opendaylight.controller.sal.packet.RawPacket;
+import org.opendaylight.controller.sal.reader.FlowOnNode;
 import org.opendaylight.controller.sal.routing.IRouting;
 import org.opendaylight.controller.sal.utils.EtherTypes;
 import org.opendaylight.controller.sal.utils.GlobalConstants;
@@ -52,8 +60,11 @@ import org.opendaylight.controller.samples.loadbalancer.entities.Client;
 import org.opendaylight.controller.samples.loadbalancer.entities.Pool;
 import org.opendaylight.controller.samples.loadbalancer.entities.PoolMember;
 import org.opendaylight.controller.samples.loadbalancer.entities.VIP;
+import org.opendaylight.controller.samples.loadbalancer.policies.LeastLoadLBPolicy;
+import org.opendaylight.controller.samples.loadbalancer.policies.MaglevLBPolicy;
 import org.opendaylight.controller.samples.loadbalancer.policies.RandomLBPolicy;
 import org.opendaylight.controller.samples.loadbalancer.policies.RoundRobinLBPolicy;
+import org.opendaylight.controller.statisticsmanager.IStatisticsManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,8 +74,10 @@ import org.slf4j.LoggerFactory;
  * servers based on the source address and source port on each incoming packet.
  * The service reactively installs OpenFlow rules to direct all packets with a
  * specific source address and source port to one of the appropriate backend
- * servers. The servers may be chosen using a round robin policy or a random
- * policy. This service can be configured via a REST APIs which are similar to
+ * servers. The servers may be chosen using a round robin policy, a random
+ * policy, a consistent hashing policy or a least load policy, the load of the
+ * servers being sampled from the statistics of the flows installed toward
+ * them. This service can be configured via a REST APIs which are similar to
  * the OpenStack Quantum LBaaS (Load-balancer-as-a-Service) v1.0 API proposal
  * (http://wiki.openstack.org/Quantum/LBaaS)
  *
@@ -111,6 +124,16 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
      */
     private static RandomLBPolicy ranLBMethod = new RandomLBPolicy(configManager);
 
+    /*
+     * Consistent hashing policy instance.
+     */
+    private static MaglevLBPolicy maglevLBMethod = new MaglevLBPolicy(configManager);
+
+    /*
+     * Least load policy instance, fed by the load sampler.
+     */
+    private static LeastLoadLBPolicy llLBMethod = new LeastLoadLBPolicy(configManager);
+
     /*
      * Reference to the data packet service
      */
@@ -131,6 +154,34 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
      */
     private IRouting routing;
 
+    /*
+     * Reference to the statistics manager, the member loads are not sampled
+     * without it
+     */
+    private IStatisticsManager statisticsManager;
+
+    /*
+     * Switches the load balancer installed flows on, pruned by the load
+     * sampler once they have none left
+     */
+    private final Set<Node> lbNodes = Collections.newSetFromMap(new ConcurrentHashMap<Node, Boolean>());
+
+    /*
+     * Byte counts of the forward flows at the last sample, by switch. Only
+     * accessed by the load sampler.
+     */
+    private Map<Node, Map<Flow, Long>> lastByteCounts = new HashMap<Node, Map<Flow, Long>>();
+
+    private long lastSampleTime;
+
+    /*
+     * Runs the load sampler, the statistics of all the switches are read on
+     * each sample so it gets its own thread
+     */
+    private ScheduledExecutorService loadSampler;
+
+    private volatile boolean stopped;
+
     /*
      * Load balancer application installs all flows with priority 2.
      */
@@ -171,6 +222,16 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
         }
     }
 
+    public void setStatisticsManager(IStatisticsManager statisticsManager) {
+        this.statisticsManager = statisticsManager;
+    }
+
+    public void unsetStatisticsManager(IStatisticsManager statisticsManager) {
+        if (this.statisticsManager == statisticsManager) {
+            this.statisticsManager = null;
+        }
+    }
+
     public void setHostTracker(IfIptoHost hostTracker) {
         lbsLogger.debug("Setting HostTracker");
         this.hostTracker = hostTracker;
@@ -247,6 +308,21 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
                             poolMemberIp = ranLBMethod.getPoolMemberForClient(client, vipWithPoolName);
                         }
 
+                        if (configManager.getPool(vipWithPoolName.getPoolName()).getLbMethod()
+                                .equalsIgnoreCase(LBConst.MAGLEV_LB_METHOD)) {
+                            poolMemberIp = maglevLBMethod.getPoolMemberForClient(client, vipWithPoolName);
+                        }
+
+                        if (configManager.getPool(vipWithPoolName.getPoolName()).getLbMethod()
+                                .equalsIgnoreCase(LBConst.LEAST_LOAD_LB_METHOD)) {
+                            poolMemberIp = llLBMethod.getPoolMemberForClient(client, vipWithPoolName);
+                        }
+
+                        if (poolMemberIp == null) {
+                            lbsLogger.error("No pool member selected for VIP -- {}", vip);
+                            return PacketResult.IGNORED;
+                        }
+
                         try {
 
                             Node clientNode = inPkt.getIncomingNodeConnector().getNode();
@@ -393,6 +469,7 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
 
         if (!this.ruleManager.checkFlowEntryConflict(fEntry)) {
             if (this.ruleManager.installFlowEntry(fEntry).isSuccess()) {
+                this.lbNodes.add(sourceSwitch);
                 return true;
             } else {
                 lbsLogger.error("Error in installing flow entry to node : {}", sourceSwitch);
@@ -403,6 +480,113 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
         return false;
     }
 
+    /*
+     * Forgets the switches on which the forwarding rules manager has no
+     * forward flow of the load balancer any more, because their clients
+     * went idle or because they left
+     */
+    private void pruneLbNodes() {
+        IForwardingRulesManager frm = this.ruleManager;
+        if (frm == null) {
+            return;
+        }
+        for (Node node : this.lbNodes) {
+            if (!hasForwardFlows(frm.getInstalledFlowEntriesForNode(node))) {
+                lbsLogger.debug("No load balancer flow left on node {}", node);
+                this.lbNodes.remove(node);
+            }
+        }
+    }
+
+    private static boolean hasForwardFlows(List<FlowEntry> entries) {
+        if (entries != null) {
+            for (FlowEntry entry : entries) {
+                if (getForwardFlowMember(entry.getFlow()) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Samples the load of the pool members from the statistics of the forward
+     * flows: the bytes they received since the last sample and the number of
+     * flows toward them.
+     */
+    private void sampleMemberLoads() {
+        long now = System.nanoTime();
+        IStatisticsManager stats = this.statisticsManager;
+        Map<String, Long> bytesByMember = new HashMap<String, Long>();
+        Map<String, Integer> flowsByMember = new HashMap<String, Integer>();
+        Map<Node, Map<Flow, Long>> byteCounts = new HashMap<Node, Map<Flow, Long>>();
+
+        if (stats != null) {
+            for (Node node : this.lbNodes) {
+                List<FlowOnNode> flows = stats.getFlows(node);
+                if (flows == null) {
+                    continue;
+                }
+                Map<Flow, Long> last = this.lastByteCounts.get(node);
+                Map<Flow, Long> current = new HashMap<Flow, Long>();
+                for (FlowOnNode flowOnNode : flows) {
+                    String memberIp = getForwardFlowMember(flowOnNode.getFlow());
+                    if (memberIp == null) {
+                        continue;
+                    }
+                    long byteCount = flowOnNode.getByteCount();
+                    Long lastCount = (last == null) ? null : last.get(flowOnNode.getFlow());
+                    long bytes = (lastCount == null || byteCount < lastCount) ? byteCount : byteCount - lastCount;
+                    current.put(flowOnNode.getFlow(), byteCount);
+
+                    Long memberBytes = bytesByMember.get(memberIp);
+                    bytesByMember.put(memberIp, (memberBytes == null) ? bytes : memberBytes + bytes);
+                    Integer memberFlows = flowsByMember.get(memberIp);
+                    flowsByMember.put(memberIp, (memberFlows == null) ? 1 : memberFlows + 1);
+                }
+                if (!current.isEmpty()) {
+                    byteCounts.put(node, current);
+                }
+            }
+        }
+
+        llLBMethod.updateLoad(bytesByMember, flowsByMember, now - this.lastSampleTime, TimeUnit.NANOSECONDS);
+        this.lastByteCounts = byteCounts;
+        this.lastSampleTime = now;
+    }
+
+    /*
+     * Returns the pool member a flow installed by the load balancer directs
+     * the traffic of a client to, null for the reverse direction flows and
+     * the flows of the other applications
+     */
+    private static String getForwardFlowMember(Flow flow) {
+        if (flow == null || flow.getPriority() != LB_IPSWITCH_PRIORITY || flow.getActions() == null) {
+            return null;
+        }
+        for (Action action : flow.getActions()) {
+            if (action instanceof SetNwDst) {
+                return ((SetNwDst) action).getAddress().getHostAddress();
+            }
+        }
+        return null;
+    }
+
+    private final class LoadSampler implements Runnable {
+        @Override
+        public void run() {
+            if (stopped) {
+                return;
+            }
+            try {
+                pruneLbNodes();
+                sampleMemberLoads();
+            } catch (Exception e) {
+                lbsLogger.error("Failed to sample the pool member loads", e);
+            }
+        }
+    }
+
     /**
      * Function called by the dependency manager when all the required
      * dependencies are satisfied
@@ -438,6 +622,11 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
      *
      */
     void start() {
+        this.lastSampleTime = System.nanoTime();
+        this.stopped = false;
+        this.loadSampler = Executors.newSingleThreadScheduledExecutor();
+        this.loadSampler.scheduleWithFixedDelay(new LoadSampler(), LBConst.LOAD_SAMPLE_INTERVAL_SECONDS,
+                LBConst.LOAD_SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     /**
@@ -447,6 +636,11 @@ public class LoadBalancerService implements IListenDataPacket, IConfigManager {
      *
      */
     void stop() {
+        this.stopped = true;
+        if (this.loadSampler != null) {
+            this.loadSampler.shutdownNow();
+            this.loadSampler = null;
+        }
     }
 
     /*
@@ -0,0 +1,180 @@
+/*
+ * Copyright IBM Corporation, 2013.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.samples.loadbalancer.policies;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, thread safe table remembering which pool member serves a client.
+ *
+ * The table is split in segments, each guarded by its own lock and kept in
+ * least recently used order. An entry is evicted once it has not been used
+ * for the idle timeout, or when its segment is full and it is the least
+ * recently used entry of the segment. Eviction is done on access, there is no
+ * background thread.
+ *
+ * @param <K> the client key
+ * @param <V> the pool member
+ */
+public class AffinityTable<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private static final class Entry<V> {
+        private final V value;
+        private long lastUsed;
+
+        Entry(V value, long lastUsed) {
+            this.value = value;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > capacity;
+        }
+
+        /*
+         * The entries are in least recently used order, the idle ones are at
+         * the head
+         */
+        void expire(long now, long idleTimeout) {
+            Iterator<Entry<V>> it = values().iterator();
+            while (it.hasNext() && (now - it.next().lastUsed >= idleTimeout)) {
+                it.remove();
+            }
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final long idleTimeout;
+
+    /**
+     * @param capacity      maximum number of clients remembered
+     * @param idleTimeout   time after which an unused client is forgotten
+     * @param unit          time unit of idleTimeout
+     */
+    public AffinityTable(int capacity, long idleTimeout, TimeUnit unit){
+        if(capacity <= 0 || idleTimeout <= 0){
+            throw new IllegalArgumentException("capacity and idleTimeout must be positive");
+        }
+        int segmentCount = Math.min(SEGMENTS, capacity);
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Segment<K, V>[] segments = new Segment[segmentCount];
+        for(int i = 0; i < segmentCount; i++){
+            // Spread the capacity, the first segments take the remainder
+            segments[i] = new Segment<K, V>(capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0));
+        }
+        this.segments = segments;
+        this.idleTimeout = unit.toNanos(idleTimeout);
+    }
+
+    private Segment<K, V> segmentFor(Object key){
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return this.segments[(h & Integer.MAX_VALUE) % this.segments.length];
+    }
+
+    /**
+     * Returns the pool member remembered for a client and marks the client
+     * as used
+     * @param key   the client
+     * @return  the pool member, null if the client is unknown or was idle
+     *          for too long
+     */
+    public V get(K key){
+        long now = System.nanoTime();
+        Segment<K, V> segment = segmentFor(key);
+        synchronized(segment){
+            segment.expire(now, this.idleTimeout);
+            Entry<V> entry = segment.get(key);
+            if(entry == null){
+                return null;
+            }
+            entry.lastUsed = now;
+            return entry.value;
+        }
+    }
+
+    /**
+     * Remembers the pool member serving a client
+     * @param key   the client
+     * @param value the pool member
+     */
+    public void put(K key, V value){
+        long now = System.nanoTime();
+        Segment<K, V> segment = segmentFor(key);
+        synchronized(segment){
+            segment.expire(now, this.idleTimeout);
+            segment.put(key, new Entry<V>(value, now));
+        }
+    }
+
+    /**
+     * Forgets a client
+     * @param key   the client
+     */
+    public void remove(K key){
+        Segment<K, V> segment = segmentFor(key);
+        synchronized(segment){
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Forgets the clients served by a pool member
+     * @param value the pool member
+     */
+    public void removeValue(V value){
+        for(Segment<K, V> segment : this.segments){
+            synchronized(segment){
+                Iterator<Entry<V>> it = segment.values().iterator();
+                while(it.hasNext()){
+                    if(it.next().value.equals(value)){
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return  the number of clients remembered, including the idle ones
+     *          not evicted yet
+     */
+    public int size(){
+        int size = 0;
+        for(Segment<K, V> segment : this.segments){
+            synchronized(segment){
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear(){
+        for(Segment<K, V> segment : this.segments){
+            synchronized(segment){
+                segment.clear();
+            }
+        }
+    }
+}
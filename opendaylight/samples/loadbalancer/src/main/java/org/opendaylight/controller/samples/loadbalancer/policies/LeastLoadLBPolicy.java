@@ -0,0 +1,219 @@
+/*
+ * Copyright IBM Corporation, 2013.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.samples.loadbalancer.policies;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opendaylight.controller.samples.loadbalancer.ConfigManager;
+import org.opendaylight.controller.samples.loadbalancer.LBConst;
+import org.opendaylight.controller.samples.loadbalancer.entities.Client;
+import org.opendaylight.controller.samples.loadbalancer.entities.Pool;
+import org.opendaylight.controller.samples.loadbalancer.entities.PoolMember;
+import org.opendaylight.controller.samples.loadbalancer.entities.VIP;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements the least load balancing policy.
+ *
+ * The load of each pool member is estimated from the statistics of the flows
+ * the load balancer installed toward it: a moving average of the bytes per
+ * second it receives and the number of its active flows. A new client is sent
+ * to the member with the lowest estimated load. The clients sent to a member
+ * since the last sample are charged the average rate of a flow of the pool,
+ * so that a burst of new clients is spread instead of piling on the member
+ * which was the least loaded at the last sample.
+ *
+ * The estimates are immutable and replaced as a whole at each sample, the
+ * packet path reads them without locking.
+ */
+public class LeastLoadLBPolicy implements ILoadBalancingPolicy{
+
+    /*
+     * Logger instance
+     */
+    private static final Logger llLogger = LoggerFactory.getLogger(LeastLoadLBPolicy.class);
+
+    /*
+     * Weight of the last sample in the moving average of the rates
+     */
+    private static final double RATE_WEIGHT = 0.5;
+
+    /*
+     * Load estimate of a pool member
+     */
+    private static final class MemberLoad {
+        private final double bytesPerSecond;
+        private final int activeFlows;
+        private final boolean sampled;
+        /*
+         * Clients sent to the member since the sample
+         */
+        private final AtomicInteger assigned = new AtomicInteger();
+
+        MemberLoad(double bytesPerSecond, int activeFlows, boolean sampled){
+            this.bytesPerSecond = bytesPerSecond;
+            this.activeFlows = activeFlows;
+            this.sampled = sampled;
+        }
+    }
+
+    /*
+     * Reference to the configuration manager. This reference is passed from load balancer
+     * class.
+     */
+    private ConfigManager cmgr;
+
+    /*
+     * Mapping between the client and the pool member that serves all traffic for that client.
+     * Bounded, the idle clients are forgotten.
+     */
+    private AffinityTable<Client, PoolMember> clientMemberMap;
+
+    /*
+     * Load estimates, by pool member IP
+     */
+    private final ConcurrentMap<String, MemberLoad> loads = new ConcurrentHashMap<String, MemberLoad>();
+
+    public LeastLoadLBPolicy(ConfigManager cmgr){
+        this.cmgr = cmgr;
+        this.clientMemberMap = new AffinityTable<Client, PoolMember>(LBConst.AFFINITY_TABLE_SIZE,
+                LBConst.AFFINITY_IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String getPoolMemberForClient(Client source, VIP dest){
+
+        llLogger.trace("Received traffic from client : {} for VIP : {} ",source, dest);
+
+        PoolMember pm = this.clientMemberMap.get(source);
+
+        if(pm != null && !this.cmgr.memberExists(pm.getName(), pm.getPoolName())){
+            this.clientMemberMap.remove(source);
+            llLogger.debug("Removed client : {} ",source);
+            pm = null;
+        }
+
+        if(pm != null){
+            llLogger.trace("Client {} had sent traffic before,new traffic will be routed to the same pool member {}",source,pm);
+            return pm.getIp();
+        }
+
+        Pool pool = this.cmgr.getPool(dest.getPoolName());
+        if(pool == null || pool.getAllMembers().isEmpty()){
+            llLogger.error("Pool {} of VIP {} has no member",dest.getPoolName(),dest);
+            return null;
+        }
+
+        // Average rate of a flow of the pool, charged to the clients assigned
+        // since the sample
+        double poolRate = 0;
+        int poolFlows = 0;
+        for(PoolMember member : pool.getAllMembers()){
+            MemberLoad load = getLoad(member.getIp());
+            poolRate += load.bytesPerSecond;
+            poolFlows += load.activeFlows;
+        }
+        double flowRate = (poolFlows == 0) ? 0 : poolRate / poolFlows;
+
+        MemberLoad bestLoad = null;
+        double bestRate = 0;
+        int bestFlows = 0;
+        for(PoolMember member : pool.getAllMembers()){
+            MemberLoad load = getLoad(member.getIp());
+            int assigned = load.assigned.get();
+            double rate = load.bytesPerSecond + assigned * flowRate;
+            int flows = load.activeFlows + assigned;
+            if(bestLoad == null || rate < bestRate || (rate == bestRate && flows < bestFlows)){
+                pm = member;
+                bestLoad = load;
+                bestRate = rate;
+                bestFlows = flows;
+            }
+        }
+        bestLoad.assigned.incrementAndGet();
+        this.clientMemberMap.put(source, pm);
+        llLogger.trace("New client {} will be directed to pool member {}, estimated load {} bytes/s, {} flows",
+                new Object[]{source, pm, bestRate, bestFlows});
+        return pm.getIp();
+    }
+
+    private MemberLoad getLoad(String memberIp){
+        MemberLoad load = this.loads.get(memberIp);
+        if(load == null){
+            // Member without flows at the last sample
+            MemberLoad idle = new MemberLoad(0, 0, false);
+            load = this.loads.putIfAbsent(memberIp, idle);
+            if(load == null){
+                load = idle;
+            }
+        }
+        return load;
+    }
+
+    /**
+     * Feeds a sample of the load of the pool members. The members missing
+     * from the sample have no active flow.
+     * @param bytesByMember     bytes sent to each member during the interval,
+     *                          by member IP
+     * @param flowsByMember     active flows toward each member, by member IP
+     * @param interval          length of the interval
+     * @param unit              time unit of interval
+     */
+    public void updateLoad(Map<String, Long> bytesByMember, Map<String, Integer> flowsByMember,
+            long interval, TimeUnit unit){
+        double seconds = unit.toNanos(interval) / 1e9;
+        if(seconds <= 0){
+            return;
+        }
+        Set<String> members = new HashSet<String>(this.loads.keySet());
+        members.addAll(bytesByMember.keySet());
+        members.addAll(flowsByMember.keySet());
+        for(String memberIp : members){
+            Long bytes = bytesByMember.get(memberIp);
+            Integer flows = flowsByMember.get(memberIp);
+            double rate = (bytes == null) ? 0 : bytes / seconds;
+            MemberLoad previous = this.loads.get(memberIp);
+            double average = (previous == null || !previous.sampled) ? rate
+                    : RATE_WEIGHT * rate + (1 - RATE_WEIGHT) * previous.bytesPerSecond;
+            int activeFlows = (flows == null) ? 0 : flows;
+            if(activeFlows == 0 && average < 1){
+                // Idle member, possibly no longer configured
+                this.loads.remove(memberIp);
+                continue;
+            }
+            this.loads.put(memberIp, new MemberLoad(average, activeFlows, true));
+        }
+        llLogger.trace("Pool member loads updated for {} members",this.loads.size());
+    }
+
+    /**
+     * @param memberIp  IP of the pool member
+     * @return  the moving average of the bytes per second sent to the member,
+     *          0 if it was never sampled
+     */
+    public double getBytesPerSecond(String memberIp){
+        MemberLoad load = this.loads.get(memberIp);
+        return (load == null) ? 0 : load.bytesPerSecond;
+    }
+
+    /**
+     * @param memberIp  IP of the pool member
+     * @return  the active flows toward the member at the last sample
+     */
+    public int getActiveFlows(String memberIp){
+        MemberLoad load = this.loads.get(memberIp);
+        return (load == null) ? 0 : load.activeFlows;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright IBM Corporation, 2013.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.samples.loadbalancer.policies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opendaylight.controller.samples.loadbalancer.ConfigManager;
+import org.opendaylight.controller.samples.loadbalancer.entities.Client;
+import org.opendaylight.controller.samples.loadbalancer.entities.Pool;
+import org.opendaylight.controller.samples.loadbalancer.entities.PoolMember;
+import org.opendaylight.controller.samples.loadbalancer.entities.VIP;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a consistent hashing load balancing policy, based on
+ * the lookup table of the Maglev load balancer.
+ *
+ * Each pool gets a lookup table of a prime number of slots, which the pool
+ * members fill in turns, each following its own permutation of the slots
+ * derived from its address. A client is served by the member owning the slot its
+ * hash falls into. No per client state is kept, every member owns almost the
+ * same number of slots, and adding or removing a member moves few slots
+ * other than the ones it gains or loses. The table of a pool is rebuilt when
+ * its members change; the share of the slots that changed owner is kept as
+ * the disruption of the change.
+ */
+public class MaglevLBPolicy implements ILoadBalancingPolicy{
+
+    /*
+     * Logger instance
+     */
+    private static final Logger mLogger = LoggerFactory.getLogger(MaglevLBPolicy.class);
+
+    /*
+     * Default number of slots of the lookup tables, a prime well above the
+     * expected pool sizes
+     */
+    public static final int DEFAULT_TABLE_SIZE = 65537;
+
+    private static final long OFFSET_SEED = 0xcbf29ce484222325L;
+
+    private static final long SKIP_SEED = 0x84222325cbf29ce4L;
+
+    /*
+     * Lookup table of a pool, immutable
+     */
+    private static final class LookupTable {
+        private final List<PoolMember> members;
+        private final PoolMember[] slots;
+        private final double disruption;
+
+        LookupTable(List<PoolMember> members, PoolMember[] slots, double disruption){
+            this.members = members;
+            this.slots = slots;
+            this.disruption = disruption;
+        }
+    }
+
+    /*
+     * Reference to the configuration manager. This reference is passed from load balancer
+     * class.
+     */
+    private ConfigManager cmgr;
+
+    private final int tableSize;
+
+    private final ConcurrentMap<String, LookupTable> tables = new ConcurrentHashMap<String, LookupTable>();
+
+    public MaglevLBPolicy(ConfigManager cmgr){
+        this(cmgr, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * @param cmgr      the configuration manager
+     * @param tableSize number of slots of the lookup tables, a prime number
+     *                  larger than the number of members of any pool
+     */
+    public MaglevLBPolicy(ConfigManager cmgr, int tableSize){
+        if(!isPrime(tableSize)){
+            throw new IllegalArgumentException("Lookup table size must be a prime number: " + tableSize);
+        }
+        this.cmgr = cmgr;
+        this.tableSize = tableSize;
+    }
+
+    @Override
+    public String getPoolMemberForClient(Client source, VIP dest){
+
+        mLogger.trace("Received traffic from client : {} for VIP : {} ",source, dest);
+
+        Pool pool = this.cmgr.getPool(dest.getPoolName());
+        if(pool == null){
+            this.tables.remove(dest.getPoolName());
+            mLogger.error("Pool {} of VIP {} does not exist",dest.getPoolName(),dest);
+            return null;
+        }
+        LookupTable table = getLookupTable(pool);
+        if(table.members.isEmpty()){
+            mLogger.error("Pool {} of VIP {} has no member",pool.getName(),dest);
+            return null;
+        }
+        int slot = (int) ((hash(source) & Long.MAX_VALUE) % this.tableSize);
+        PoolMember pm = table.slots[slot];
+        mLogger.trace("Network traffic from client {} will be directed to pool member {}",source,pm);
+        return pm.getIp();
+    }
+
+    /**
+     * Returns the share of the lookup table slots of a pool which changed
+     * owner the last time the members of the pool changed, the expected share
+     * being the one of the members added or removed
+     * @param poolName  name of the pool
+     * @return  the disruption of the last change, between 0 and 1, 0 if the
+     *          members of the pool never changed since it was first used
+     */
+    public double getDisruption(String poolName){
+        LookupTable table = this.tables.get(poolName);
+        return (table == null) ? 0 : table.disruption;
+    }
+
+    private LookupTable getLookupTable(Pool pool){
+        LookupTable table = this.tables.get(pool.getName());
+        if(table != null && table.members.equals(pool.getAllMembers())){
+            return table;
+        }
+        List<PoolMember> members = new ArrayList<PoolMember>(pool.getAllMembers());
+        LookupTable rebuilt = buildLookupTable(members, table);
+        this.tables.put(pool.getName(), rebuilt);
+        mLogger.debug("Lookup table of pool {} rebuilt for {} members, disruption {}",
+                new Object[]{pool.getName(), members.size(), rebuilt.disruption});
+        return rebuilt;
+    }
+
+    private LookupTable buildLookupTable(List<PoolMember> members, LookupTable previous){
+        PoolMember[] slots = new PoolMember[this.tableSize];
+        // The fill order breaks the ties, make it independent of the
+        // configuration order
+        List<PoolMember> sorted = new ArrayList<PoolMember>(members);
+        Collections.sort(sorted, new Comparator<PoolMember>(){
+            @Override
+            public int compare(PoolMember pm1, PoolMember pm2){
+                return pm1.getIp().compareTo(pm2.getIp());
+            }
+        });
+        int n = sorted.size();
+        if(n > 0){
+            long[] offset = new long[n];
+            long[] skip = new long[n];
+            long[] next = new long[n];
+            for(int i = 0; i < n; i++){
+                String ip = sorted.get(i).getIp();
+                offset[i] = (hash(ip, OFFSET_SEED) & Long.MAX_VALUE) % this.tableSize;
+                skip[i] = (hash(ip, SKIP_SEED) & Long.MAX_VALUE) % (this.tableSize - 1) + 1;
+            }
+            // Each member in turn takes the next free slot of its permutation
+            int filled = 0;
+            while(filled < this.tableSize){
+                for(int i = 0; i < n && filled < this.tableSize; i++){
+                    int slot = (int) ((offset[i] + next[i] * skip[i]) % this.tableSize);
+                    while(slots[slot] != null){
+                        next[i]++;
+                        slot = (int) ((offset[i] + next[i] * skip[i]) % this.tableSize);
+                    }
+                    slots[slot] = sorted.get(i);
+                    next[i]++;
+                    filled++;
+                }
+            }
+        }
+        return new LookupTable(members, slots, disruption(previous, slots));
+    }
+
+    private static double disruption(LookupTable previous, PoolMember[] slots){
+        if(previous == null){
+            return 0;
+        }
+        int moved = 0;
+        for(int i = 0; i < slots.length; i++){
+            PoolMember before = previous.slots[i];
+            PoolMember after = slots[i];
+            if(before == null ? after != null : !before.equals(after)){
+                moved++;
+            }
+        }
+        return (double) moved / slots.length;
+    }
+
+    private static long hash(Client client){
+        long h = hash(client.getIp(), OFFSET_SEED);
+        h = hash(client.getProtocol(), h);
+        h = (h ^ client.getPort()) * 0x100000001b3L;
+        return mix(h);
+    }
+
+    /*
+     * FNV-1a over the characters of the string, finalized by mix
+     */
+    private static long hash(String s, long seed){
+        long h = seed;
+        if(s != null){
+            for(int i = 0; i < s.length(); i++){
+                h = (h ^ s.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h){
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static boolean isPrime(int n){
+        if(n < 2){
+            return false;
+        }
+        for(int d = 2; (long) d * d <= n; d++){
+            if(n % d == 0){
+                return false;
+            }
+        }
+        return true;
+    }
+}
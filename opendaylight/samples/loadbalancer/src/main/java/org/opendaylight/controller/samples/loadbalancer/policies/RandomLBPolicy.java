@@ -7,11 +7,11 @@
  */
 package org.opendaylight.controller.samples.loadbalancer.policies;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.opendaylight.controller.samples.loadbalancer.ConfigManager;
+import org.opendaylight.controller.samples.loadbalancer.LBConst;
 import org.opendaylight.controller.samples.loadbalancer.entities.Client;
 import org.opendaylight.controller.samples.loadbalancer.entities.Pool;
 import org.opendaylight.controller.samples.loadbalancer.entities.PoolMember;
@@ -38,8 +38,9 @@ public class RandomLBPolicy implements ILoadBalancingPolicy {
 
     /*
      * Mapping between the client and the pool member that serves all traffic for that client.
+     * Bounded, the idle clients are forgotten.
      */
-    private HashMap<Client, PoolMember> clientMemberMap;
+    private AffinityTable<Client, PoolMember> clientMemberMap;
 
     /*
      * Random generator
@@ -51,7 +52,8 @@ public class RandomLBPolicy implements ILoadBalancingPolicy {
 
     public RandomLBPolicy(ConfigManager cmgr){
         this.cmgr = cmgr;
-        this.clientMemberMap = new HashMap<Client, PoolMember>();
+        this.clientMemberMap = new AffinityTable<Client, PoolMember>(LBConst.AFFINITY_TABLE_SIZE,
+                LBConst.AFFINITY_IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         randomGenerator = new Random();
     }
     @Override
@@ -59,12 +61,16 @@ public class RandomLBPolicy implements ILoadBalancingPolicy {
 
         rLogger.trace("Received traffic from client : {} for VIP : {} ",source, dest);
 
-        syncWithLoadBalancerData();
+        PoolMember pm= this.clientMemberMap.get(source);
 
-        PoolMember pm= null;
+        if(pm != null && !this.cmgr.memberExists(pm.getName(), pm.getPoolName())){
+            // The pool member has been deleted
+            this.clientMemberMap.remove(source);
+            rLogger.debug("Removed client : {} ",source);
+            pm = null;
+        }
 
-        if(this.clientMemberMap.containsKey(source)){
-            pm= this.clientMemberMap.get(source);
+        if(pm != null){
             rLogger.trace("Client {} had sent traffic before,new traffic will be routed to the same pool member {}",source,pm);
         }else{
             Pool pool = null;
@@ -76,33 +82,4 @@ public class RandomLBPolicy implements ILoadBalancingPolicy {
         }
         return pm.getIp();
     }
-
-    /*
-     * This method does the clean up. Whenever a new client packet arrives with a given VIP,
-     * this method checks the current configuration to see if any pool members have been deleted and
-     * cleans up the metadata stored by this loadbalancing algorithm.
-     */
-    private void syncWithLoadBalancerData(){
-        rLogger.debug("[Client - PoolMember] table before cleanup : {}",this.clientMemberMap.toString());
-
-        ArrayList<Client> removeClient = new ArrayList<Client>();
-
-        if(this.clientMemberMap.size() != 0){
-            for(Client client : this.clientMemberMap.keySet()){
-
-                if(!this.cmgr.memberExists(this.clientMemberMap.get(client).getName(),
-                                                this.clientMemberMap.get(client).getPoolName())){
-                    removeClient.add(client);
-                }
-            }
-        }
-
-        for(Client client : removeClient){
-            this.clientMemberMap.remove(client);
-
-            rLogger.debug("Removed client : {} ",client);
-        }
-        rLogger.debug("[Client - PoolMember] table after cleanup : {}",this.clientMemberMap.toString());
-    }
-
 }
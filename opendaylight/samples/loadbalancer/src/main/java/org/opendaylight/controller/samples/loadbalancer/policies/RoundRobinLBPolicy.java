@@ -7,10 +7,14 @@
  */
 package org.opendaylight.controller.samples.loadbalancer.policies;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.opendaylight.controller.samples.loadbalancer.ConfigManager;
+import org.opendaylight.controller.samples.loadbalancer.LBConst;
 import org.opendaylight.controller.samples.loadbalancer.entities.Client;
 import org.opendaylight.controller.samples.loadbalancer.entities.Pool;
 import org.opendaylight.controller.samples.loadbalancer.entities.PoolMember;
@@ -37,24 +41,27 @@ public class RoundRobinLBPolicy implements ILoadBalancingPolicy{
 
     /*
      * Mapping between the client and the pool member that serves all traffic for that client.
+     * Bounded, the idle clients are forgotten.
      */
-    private HashMap<Client, PoolMember> clientMemberMap;
+    private AffinityTable<Client, PoolMember> clientMemberMap;
 
     /*
      * Maintains the next pool member counter for the VIPs.
      * More than one VIP can be attached to one pool, so each VIP
      * will have its own counter for the next pool member from
-     * the same pool.
+     * the same pool. A counter past the end of its pool, after members
+     * were removed, is reset when it is next used.
      */
-    private HashMap<VIP,Integer> nextItemFromPool;
+    private ConcurrentMap<VIP,AtomicInteger> nextItemFromPool;
 
     @SuppressWarnings("unused")
     private RoundRobinLBPolicy(){}
 
     public RoundRobinLBPolicy(ConfigManager cmgr){
         this.cmgr = cmgr;
-        this.clientMemberMap = new HashMap<Client, PoolMember>();
-        this.nextItemFromPool = new HashMap<VIP, Integer>();
+        this.clientMemberMap = new AffinityTable<Client, PoolMember>(LBConst.AFFINITY_TABLE_SIZE,
+                LBConst.AFFINITY_IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        this.nextItemFromPool = new ConcurrentHashMap<VIP, AtomicInteger>();
     }
 
     @Override
@@ -62,92 +69,54 @@ public class RoundRobinLBPolicy implements ILoadBalancingPolicy{
 
         rrLogger.trace("Received traffic from client : {} for VIP : {} ",source, dest);
 
-        syncWithLoadBalancerData();
+        PoolMember pm= this.clientMemberMap.get(source);
 
-        PoolMember pm= null;
+        if(pm != null && !this.cmgr.memberExists(pm.getName(), pm.getPoolName())){
+            this.clientMemberMap.remove(source);
+            rrLogger.debug("Removed client : {} ",source);
+            pm = null;
+        }
 
-        if(this.clientMemberMap.containsKey(source)){
+        if(pm != null){
 
-            pm= this.clientMemberMap.get(source);
             rrLogger.trace("Client {} had sent traffic before,new traffic will be routed to the same pool member {}",source,pm);
         }else{
 
-            Pool pool = null;
-            if(nextItemFromPool.containsKey(dest)){
-
-                int memberNum = nextItemFromPool.get(dest).intValue();
-                rrLogger.debug("Packet is from new client for VIP {}",dest);
-                pool = this.cmgr.getPool(dest.getPoolName());
-                pm = pool.getAllMembers().get(memberNum);
-                this.clientMemberMap.put(source, pm );
-                rrLogger.trace("New client's packet will be directed to pool member {}",pm);
-                memberNum++;
-
-                if(memberNum > pool.getAllMembers().size()-1){
-                    memberNum = 0;
-                }
-                rrLogger.debug("Next pool member for new client of VIP is set to {}",pool.getAllMembers().get(memberNum));
-
-                this.nextItemFromPool.put(dest, memberNum);
-            }else{
-                rrLogger.debug("Network traffic for VIP : {} has appeared first time from client {}",dest,source);
-                pool = this.cmgr.getPool(dest.getPoolName());
-                pm = pool.getAllMembers().get(0);
-                this.clientMemberMap.put(source, pm);
-
-                rrLogger.trace("Network traffic from client {} will be directed to pool member {}",pm);
-                this.nextItemFromPool.put(dest, 1);
-                rrLogger.debug("Next pool member for new client of VIP is set to {}",pool.getAllMembers().get(1));
+            rrLogger.debug("Packet is from new client {} for VIP {}",source,dest);
+            Pool pool = this.cmgr.getPool(dest.getPoolName());
+            List<PoolMember> members = pool.getAllMembers();
+            if(members.isEmpty()){
+                return null;
             }
+            pm = members.get(nextMember(dest, members.size()));
+            this.clientMemberMap.put(source, pm);
+            rrLogger.trace("New client's packet will be directed to pool member {}",pm);
         }
         return pm.getIp();
     }
 
     /*
-     * This method does the clean up. Whenever a new client packet arrives with a given VIP,
-     * this method checks the current configuration to see if any pool members have been deleted and
-     * cleans up the metadata stored by this loadbalancing algorithm.
+     * Returns the next pool member index of a VIP and advances its counter.
+     * The counter is compared and set so that concurrent new clients of the
+     * same VIP get distinct members. A counter left beyond the end of a pool
+     * that lost members starts over from the first member.
      */
-    private void syncWithLoadBalancerData(){
-        rrLogger.debug("[Client - PoolMember] table before cleanup : {}",this.clientMemberMap.toString());
-        ArrayList<Client> removeClient = new ArrayList<Client>();
-
-        if(this.clientMemberMap.size() != 0){
-            for(Client client : this.clientMemberMap.keySet()){
-                if(!this.cmgr.memberExists(this.clientMemberMap.get(client).getName(),
-                                            this.clientMemberMap.get(client).getPoolName())){
-
-                    removeClient.add(client);
-                }
+    private int nextMember(VIP vip, int poolSize){
+        AtomicInteger counter = this.nextItemFromPool.get(vip);
+        if(counter == null){
+            AtomicInteger created = new AtomicInteger();
+            counter = this.nextItemFromPool.putIfAbsent(vip, created);
+            if(counter == null){
+                rrLogger.debug("Network traffic for VIP : {} has appeared first time",vip);
+                counter = created;
             }
         }
-
-        for(Client client : removeClient){
-            this.clientMemberMap.remove(client);
-
-            rrLogger.debug("Removed client : {} ",client);
-        }
-        rrLogger.debug("[Client - PoolMember] table after cleanup : {}",this.clientMemberMap.toString());
-
-        rrLogger.debug("[VIP- NextMember] table before cleanup : {}",this.nextItemFromPool.toString());
-
-        ArrayList<VIP> resetVIPPoolMemberCount= new ArrayList<VIP>();
-
-        if(this.nextItemFromPool.size() != 0){
-
-            for(VIP vip:this.nextItemFromPool.keySet()){
-                if(this.nextItemFromPool.get(vip).intValue() > this.cmgr.getPool(vip.getPoolName()).getAllMembers().size()-1){
-
-                    resetVIPPoolMemberCount.add(vip);
-                }
+        while(true){
+            int current = counter.get();
+            int memberNum = current < poolSize ? current : 0;
+            if(counter.compareAndSet(current, (memberNum + 1) % poolSize)){
+                return memberNum;
             }
         }
-
-        for(VIP vip:resetVIPPoolMemberCount){
-            rrLogger.debug("VIP next pool member counter reset to 0");
-            this.nextItemFromPool.put(vip, 0);
-        }
-
-        rrLogger.debug("[VIP- NextMember] table after cleanup : {}",this.nextItemFromPool.toString());
     }
 }
@@ -8,6 +8,10 @@
 package org.opendaylight.controller.samples.loadbalancer.internal;
 
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.opendaylight.controller.samples.loadbalancer.ConfigManager;
@@ -15,6 +19,9 @@ import org.opendaylight.controller.samples.loadbalancer.entities.Client;
 import org.opendaylight.controller.samples.loadbalancer.entities.Pool;
 import org.opendaylight.controller.samples.loadbalancer.entities.PoolMember;
 import org.opendaylight.controller.samples.loadbalancer.entities.VIP;
+import org.opendaylight.controller.samples.loadbalancer.policies.AffinityTable;
+import org.opendaylight.controller.samples.loadbalancer.policies.LeastLoadLBPolicy;
+import org.opendaylight.controller.samples.loadbalancer.policies.MaglevLBPolicy;
 import org.opendaylight.controller.samples.loadbalancer.policies.RoundRobinLBPolicy;
 
 /**
@@ -63,4 +70,137 @@ public class LoadBalancerTest {
         c1 = new Client("10.0.0.1","TCP",(short)5003);
         Assert.assertTrue(rrp.getPoolMemberForClient(c1, vip).equals(host4.getIp()));
     }
+
+    @Test
+    public void testMaglevPolicy() {
+        ConfigManager cm = new ConfigManager();
+
+        Pool pool = cm.createPool("TestPool","maglev");
+        VIP vip = cm.createVIP("TestVIP","10.0.0.9","TCP",(short)5550,"TestPool");
+        for(int i = 1; i <= 7; i++){
+            pool.addMember(new PoolMember("host" + i,"10.0.0." + i,"TestPool"));
+        }
+        pool.addVIP(vip);
+
+        MaglevLBPolicy mp = new MaglevLBPolicy(cm, 4099);
+        int clients = 7000;
+        Map<Client, String> before = new HashMap<Client, String>();
+        Map<String, Integer> load = new HashMap<String, Integer>();
+        for(int i = 0; i < clients; i++){
+            Client c = new Client("10.1." + (i / 250) + "." + (i % 250),"TCP",(short)(5000 + i));
+            String ip = mp.getPoolMemberForClient(c, vip);
+            before.put(c, ip);
+            load.put(ip, (load.containsKey(ip) ? load.get(ip) : 0) + 1);
+        }
+        // Every member gets its share
+        Assert.assertEquals(7, load.size());
+        for(int count : load.values()){
+            Assert.assertTrue(count > 700 && count < 1300);
+        }
+        // No per client state, the same client always gets the same member
+        MaglevLBPolicy other = new MaglevLBPolicy(cm, 4099);
+        for(Map.Entry<Client, String> e : before.entrySet()){
+            Assert.assertEquals(e.getValue(), other.getPoolMemberForClient(e.getKey(), vip));
+        }
+        Assert.assertEquals(0, mp.getDisruption("TestPool"), 0);
+
+        // Removing a member moves its clients, and few others
+        cm.removePoolMember("host7","TestPool");
+        int moved = 0;
+        for(Map.Entry<Client, String> e : before.entrySet()){
+            String ip = mp.getPoolMemberForClient(e.getKey(), vip);
+            Assert.assertFalse(ip.equals("10.0.0.7"));
+            if(!e.getValue().equals("10.0.0.7") && !e.getValue().equals(ip)){
+                moved++;
+            }
+        }
+        Assert.assertTrue(moved < clients / 20);
+        double disruption = mp.getDisruption("TestPool");
+        Assert.assertTrue(disruption > 1.0 / 7 * 0.7 && disruption < 1.0 / 7 * 1.5);
+    }
+
+    @Test
+    public void testLeastLoadPolicy() {
+        ConfigManager cm = new ConfigManager();
+
+        Pool pool = cm.createPool("TestPool","leastload");
+        VIP vip = cm.createVIP("TestVIP","10.0.0.9","TCP",(short)5550,"TestPool");
+        for(int i = 1; i <= 3; i++){
+            pool.addMember(new PoolMember("host" + i,"10.0.0." + i,"TestPool"));
+        }
+        pool.addVIP(vip);
+
+        LeastLoadLBPolicy llp = new LeastLoadLBPolicy(cm);
+
+        // Without statistics the new clients are spread on the active flows
+        Map<String, Integer> load = new HashMap<String, Integer>();
+        for(int i = 0; i < 30; i++){
+            String ip = llp.getPoolMemberForClient(new Client("10.1.0." + i,"TCP",(short)5000), vip);
+            load.put(ip, (load.containsKey(ip) ? load.get(ip) : 0) + 1);
+        }
+        Assert.assertEquals(3, load.size());
+        for(int count : load.values()){
+            Assert.assertEquals(10, count);
+        }
+        // Known clients stay with their member
+        Client c1 = new Client("10.1.0.1","TCP",(short)5000);
+        Assert.assertEquals(llp.getPoolMemberForClient(c1, vip), llp.getPoolMemberForClient(c1, vip));
+
+        // host1 carries most of the traffic, host3 the least
+        Map<String, Long> bytes = new HashMap<String, Long>();
+        bytes.put("10.0.0.1", 9000000L);
+        bytes.put("10.0.0.2", 3000000L);
+        bytes.put("10.0.0.3", 1000000L);
+        Map<String, Integer> flows = new HashMap<String, Integer>();
+        flows.put("10.0.0.1", 10);
+        flows.put("10.0.0.2", 10);
+        flows.put("10.0.0.3", 10);
+        llp.updateLoad(bytes, flows, 10, TimeUnit.SECONDS);
+        Assert.assertEquals(900000, llp.getBytesPerSecond("10.0.0.1"), 1);
+        Assert.assertEquals(10, llp.getActiveFlows("10.0.0.3"));
+
+        Assert.assertEquals("10.0.0.3", llp.getPoolMemberForClient(new Client("10.2.0.1","TCP",(short)5000), vip));
+        // A burst of new clients is not sent to host3 only
+        load.clear();
+        for(int i = 2; i < 20; i++){
+            String ip = llp.getPoolMemberForClient(new Client("10.2.0." + i,"TCP",(short)5000), vip);
+            load.put(ip, (load.containsKey(ip) ? load.get(ip) : 0) + 1);
+        }
+        Assert.assertTrue(load.containsKey("10.0.0.2"));
+        Assert.assertTrue(load.get("10.0.0.3") > load.get("10.0.0.2"));
+        Assert.assertFalse(load.containsKey("10.0.0.1"));
+
+        // The rates are averaged over the samples
+        bytes.put("10.0.0.1", 1000000L);
+        llp.updateLoad(bytes, flows, 10, TimeUnit.SECONDS);
+        Assert.assertEquals(500000, llp.getBytesPerSecond("10.0.0.1"), 1);
+
+        // Idle members are forgotten
+        llp.updateLoad(new HashMap<String, Long>(), new HashMap<String, Integer>(), 10, TimeUnit.SECONDS);
+        llp.updateLoad(new HashMap<String, Long>(), new HashMap<String, Integer>(), 10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, llp.getActiveFlows("10.0.0.1"));
+    }
+
+    @Test
+    public void testAffinityTable() throws InterruptedException {
+        AffinityTable<Integer, String> table = new AffinityTable<Integer, String>(32, 1, TimeUnit.HOURS);
+        for(int i = 0; i < 1000; i++){
+            table.put(i, "member" + (i % 2));
+        }
+        // Bounded
+        Assert.assertTrue(table.size() <= 32);
+        Assert.assertEquals("member1", table.get(999));
+        Assert.assertNull(table.get(0));
+
+        table.removeValue("member1");
+        Assert.assertNull(table.get(999));
+        Assert.assertEquals("member0", table.get(998));
+
+        // Idle clients are forgotten
+        table = new AffinityTable<Integer, String>(32, 10, TimeUnit.MILLISECONDS);
+        table.put(1, "member0");
+        Thread.sleep(30);
+        Assert.assertNull(table.get(1));
+        Assert.assertEquals(0, table.size());
+    }
 }
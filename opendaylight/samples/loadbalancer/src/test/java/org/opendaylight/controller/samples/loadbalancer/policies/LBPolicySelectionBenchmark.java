@@ -0,0 +1,89 @@
+/*
+ * Copyright IBM Corporation, 2013.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.samples.loadbalancer.policies;
+
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.controller.samples.loadbalancer.ConfigManager;
+import org.opendaylight.controller.samples.loadbalancer.entities.Client;
+import org.opendaylight.controller.samples.loadbalancer.entities.Pool;
+import org.opendaylight.controller.samples.loadbalancer.entities.PoolMember;
+import org.opendaylight.controller.samples.loadbalancer.entities.VIP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of selecting the pool member of a client with the consistent hashing
+ * policy, which keeps no per client state, against the round robin policy
+ * and its client affinity table. The clients cycle through a set much larger
+ * than the affinity table can hold in the "new clients" case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LBPolicySelectionBenchmark {
+    private static final int CLIENTS = 1 << 18;
+
+    @Param({ "8", "64" })
+    public int members;
+
+    private VIP vip;
+    private Client[] clients;
+    private MaglevLBPolicy maglev;
+    private RoundRobinLBPolicy roundRobin;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ConfigManager cm = new ConfigManager();
+        Pool pool = cm.createPool("BenchPool", "maglev");
+        this.vip = cm.createVIP("BenchVIP", "10.0.0.1", "TCP", (short) 80, "BenchPool");
+        for (int i = 0; i < this.members; i++) {
+            pool.addMember(new PoolMember("member" + i, "10.1.0." + (i + 1), "BenchPool"));
+        }
+        pool.addVIP(this.vip);
+        this.clients = new Client[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            this.clients[i] = new Client("10.2." + ((i >> 8) & 0xff) + "." + (i & 0xff), "TCP",
+                    (short) (1024 + (i >> 16)));
+        }
+        this.maglev = new MaglevLBPolicy(cm);
+        this.roundRobin = new RoundRobinLBPolicy(cm);
+    }
+
+    @Benchmark
+    public String maglev() {
+        return this.maglev.getPoolMemberForClient(this.clients[this.next++ & (CLIENTS - 1)], this.vip);
+    }
+
+    @Benchmark
+    public String roundRobin() {
+        return this.roundRobin.getPoolMemberForClient(this.clients[this.next++ & (CLIENTS - 1)], this.vip);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(LBPolicySelectionBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
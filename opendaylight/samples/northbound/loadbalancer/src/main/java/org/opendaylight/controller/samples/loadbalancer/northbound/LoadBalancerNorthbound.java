@@ -61,7 +61,7 @@ import org.opendaylight.controller.samples.loadbalancer.IConfigManager;
  *                              "name":"",
  *                              "lbmethod":""
  *                      }
- *              Currently, two load balancing policies are allowed {"roundrobin" and "random" }
+ *              Currently, four load balancing policies are allowed {"roundrobin", "random", "maglev" and "leastload" }
  *
  *      2. Delete Pool :
  *              Type : DELETE
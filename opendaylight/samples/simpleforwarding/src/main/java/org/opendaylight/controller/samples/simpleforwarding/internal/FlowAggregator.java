@@ -0,0 +1,463 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.samples.simpleforwarding.internal;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.opendaylight.controller.forwardingrulesmanager.FlowEntry;
+import org.opendaylight.controller.forwardingrulesmanager.IForwardingRulesManager;
+import org.opendaylight.controller.sal.action.Action;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.flowprogrammer.Flow;
+import org.opendaylight.controller.sal.match.Match;
+import org.opendaylight.controller.sal.match.MatchField;
+import org.opendaylight.controller.sal.match.MatchType;
+import org.opendaylight.controller.sal.utils.Status;
+import org.opendaylight.controller.sal.utils.StatusCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregation stage in front of the Forwarding Rules Manager, merging the flow
+ * entries which only differ by their IPv4 address on one match field into
+ * prefix entries.
+ *
+ * The entries of a node with the same priority, the same actions and the same
+ * match but for the aggregated field form a group. The addresses of a group
+ * are covered with the fewest prefixes containing only addresses of the
+ * group, so that the aggregated entries match exactly the packets the
+ * original entries match, and the entries of other groups or of other
+ * applications are not shadowed. A prefix covering a single address is
+ * installed as the original entry. Each time an entry is added to or removed
+ * from a group, the prefixes of the group are computed again and only the
+ * difference is programmed.
+ *
+ * Only the permanent entries are aggregated, the entries with an idle or hard
+ * timeout and the entries without an IPv4 address on the aggregated field are
+ * passed through unchanged.
+ *
+ * The groups only live in the memory of the stage. The aggregated entries all
+ * belong to the flow group named after the stage, so that a new stage can
+ * take over what a previous one programmed with {@link #rebuild(Collection)}.
+ * In a cluster the other controllers would not know the aggregated entries, so
+ * the stage is meant for a single controller.
+ */
+public class FlowAggregator {
+    private static final Logger log = LoggerFactory.getLogger(FlowAggregator.class);
+
+    /**
+     * An IPv4 prefix
+     */
+    private static final class Prefix {
+        private final long address;
+        private final int length;
+
+        Prefix(long address, int length) {
+            this.address = address;
+            this.length = length;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) address + length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Prefix)) {
+                return false;
+            }
+            Prefix other = (Prefix) obj;
+            return address == other.address && length == other.length;
+        }
+
+        @Override
+        public String toString() {
+            return toInetAddress(address).getHostAddress() + "/" + length;
+        }
+    }
+
+    /**
+     * What the entries of a group have in common
+     */
+    private static final class GroupKey {
+        private final Node node;
+        private final short priority;
+        private final Match match;
+        private final List<Action> actions;
+
+        GroupKey(Node node, short priority, Match match, List<Action> actions) {
+            this.node = node;
+            this.priority = priority;
+            this.match = match;
+            this.actions = actions;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = node.hashCode();
+            result = 31 * result + priority;
+            result = 31 * result + match.hashCode();
+            result = 31 * result + ((actions == null) ? 0 : actions.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey other = (GroupKey) obj;
+            return node.equals(other.node) && priority == other.priority && match.equals(other.match)
+                    && ((actions == null) ? other.actions == null : actions.equals(other.actions));
+        }
+    }
+
+    private static final class Group {
+        private final GroupKey key;
+        private final int id;
+        private final TreeMap<Long, FlowEntry> members = new TreeMap<Long, FlowEntry>();
+        private final Map<Prefix, FlowEntry> installed = new HashMap<Prefix, FlowEntry>();
+
+        Group(GroupKey key, int id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    private final String name;
+    private final IForwardingRulesManager frm;
+    private final MatchType field;
+    private final Map<GroupKey, Group> groups = new HashMap<GroupKey, Group>();
+    private final Map<FlowEntry, Group> memberships = new HashMap<FlowEntry, Group>();
+    private final Set<FlowEntry> passedThrough = new HashSet<FlowEntry>();
+    private int nextGroupId;
+
+    /**
+     * @param name
+     *            the name of the stage, the flow group of the aggregated
+     *            entries
+     * @param frm
+     *            the Forwarding Rules Manager the entries are programmed to
+     * @param field
+     *            the field to aggregate on, {@link MatchType#NW_DST} or
+     *            {@link MatchType#NW_SRC}
+     */
+    public FlowAggregator(String name, IForwardingRulesManager frm, MatchType field) {
+        if (field != MatchType.NW_DST && field != MatchType.NW_SRC) {
+            throw new IllegalArgumentException("Cannot aggregate on " + field);
+        }
+        this.name = name;
+        this.frm = frm;
+        this.field = field;
+    }
+
+    /**
+     * Add an entry, or replace the entry with the same node, priority and
+     * match, as {@link IForwardingRulesManager#modifyOrAddFlowEntry(FlowEntry)}
+     * does
+     *
+     * @param entry
+     *            the flow entry
+     * @return the status of the programming of the entries of the group of
+     *         the entry
+     */
+    public synchronized Status modifyOrAddFlowEntry(FlowEntry entry) {
+        Status status = new Status(StatusCode.SUCCESS);
+        GroupKey key = getGroupKey(entry);
+        Group previous = memberships.remove(entry);
+        if (previous != null && !previous.key.equals(key)) {
+            previous.members.remove(getAddress(entry));
+            // Withdraw from the previous group first, an entry of the new
+            // group could have the same match as one of the previous group
+            status = program(previous);
+        }
+        passedThrough.remove(entry);
+
+        if (key == null) {
+            Status passStatus = frm.modifyOrAddFlowEntry(entry);
+            if (passStatus.isSuccess()) {
+                passedThrough.add(entry);
+            }
+            return status.isSuccess() ? passStatus : status;
+        }
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(key, nextGroupId++);
+            groups.put(key, group);
+        }
+        group.members.put(getAddress(entry), entry);
+        memberships.put(entry, group);
+        Status groupStatus = program(group);
+        return status.isSuccess() ? groupStatus : status;
+    }
+
+    /**
+     * Remove an entry
+     *
+     * @param entry
+     *            the flow entry, or an entry with the same node, priority and
+     *            match
+     * @return the status of the programming of the entries of the group of
+     *         the entry
+     */
+    public synchronized Status uninstallFlowEntry(FlowEntry entry) {
+        if (passedThrough.remove(entry)) {
+            return frm.uninstallFlowEntry(entry);
+        }
+        Group group = memberships.remove(entry);
+        if (group == null) {
+            return new Status(StatusCode.NOTFOUND, "Unknown flow entry " + entry.getFlowName());
+        }
+        group.members.remove(getAddress(entry));
+        return program(group);
+    }
+
+    /**
+     * Take over the entries requested from a previous stage, after a restart
+     * or a rebind to the Forwarding Rules Manager. The entries are programmed
+     * as if they were added one by one, then the aggregated entries the
+     * previous stage left and the original entries now covered by a prefix
+     * are removed.
+     *
+     * @param entries
+     *            the entries requested from the previous stage
+     * @return the status of the programming of the entries
+     */
+    public synchronized Status rebuild(Collection<FlowEntry> entries) {
+        Status status = new Status(StatusCode.SUCCESS);
+        for (FlowEntry entry : entries) {
+            Status entryStatus = modifyOrAddFlowEntry(entry);
+            if (!entryStatus.isSuccess()) {
+                status = entryStatus;
+            }
+        }
+
+        Set<FlowEntry> installed = new HashSet<FlowEntry>(passedThrough);
+        for (Group group : groups.values()) {
+            installed.addAll(group.installed.values());
+        }
+        List<FlowEntry> leftovers = new ArrayList<FlowEntry>(memberships.keySet());
+        List<FlowEntry> aggregates = frm.getFlowEntriesForGroup(name);
+        if (aggregates != null) {
+            leftovers.addAll(aggregates);
+        }
+        for (FlowEntry entry : leftovers) {
+            if (installed.contains(entry)) {
+                continue;
+            }
+            // Most covered entries were never programmed
+            Status uninstallStatus = frm.uninstallFlowEntry(entry);
+            if (uninstallStatus.isSuccess()) {
+                log.debug("Removed {} left by the previous stage", entry);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * @return the nodes with entries
+     */
+    public synchronized Set<Node> getNodes() {
+        Set<Node> nodes = new HashSet<Node>();
+        for (GroupKey key : groups.keySet()) {
+            nodes.add(key.node);
+        }
+        for (FlowEntry entry : passedThrough) {
+            nodes.add(entry.getNode());
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the number of entries requested for a node
+     */
+    public synchronized int getRequestedFlowCount(Node node) {
+        int count = 0;
+        for (Group group : groups.values()) {
+            if (group.key.node.equals(node)) {
+                count += group.members.size();
+            }
+        }
+        return count + getPassedThroughCount(node);
+    }
+
+    /**
+     * @return the number of entries actually programmed on a node
+     */
+    public synchronized int getInstalledFlowCount(Node node) {
+        int count = 0;
+        for (Group group : groups.values()) {
+            if (group.key.node.equals(node)) {
+                count += group.installed.size();
+            }
+        }
+        return count + getPassedThroughCount(node);
+    }
+
+    private int getPassedThroughCount(Node node) {
+        int count = 0;
+        for (FlowEntry entry : passedThrough) {
+            if (entry.getNode().equals(node)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Program the difference between the prefixes covering the addresses of
+     * the group and the installed ones
+     */
+    private Status program(Group group) {
+        Map<Prefix, FlowEntry> wanted = new HashMap<Prefix, FlowEntry>();
+        for (Prefix prefix : cover(group.members)) {
+            wanted.put(prefix, (prefix.length == 32) ? group.members.get(prefix.address) : createAggregate(group,
+                    prefix));
+        }
+
+        Status status = new Status(StatusCode.SUCCESS);
+        // Install the new prefixes before removing the ones they replace, the
+        // overlapping entries have the same actions
+        for (Map.Entry<Prefix, FlowEntry> e : wanted.entrySet()) {
+            if (group.installed.containsKey(e.getKey())) {
+                continue;
+            }
+            Status installStatus = frm.modifyOrAddFlowEntry(e.getValue());
+            if (installStatus.isSuccess()) {
+                group.installed.put(e.getKey(), e.getValue());
+            } else {
+                log.warn("Failed to install {}: {}", e.getValue(), installStatus.getDescription());
+                status = installStatus;
+            }
+        }
+        // The entries are identified by the prefix address only, a stale
+        // prefix starting at the address of a new one was modified in place
+        Set<FlowEntry> replacing = new HashSet<FlowEntry>(wanted.values());
+        List<Prefix> stale = new ArrayList<Prefix>();
+        for (Prefix prefix : group.installed.keySet()) {
+            if (!wanted.containsKey(prefix)) {
+                stale.add(prefix);
+            }
+        }
+        for (Prefix prefix : stale) {
+            FlowEntry entry = group.installed.remove(prefix);
+            if (replacing.contains(entry)) {
+                continue;
+            }
+            Status uninstallStatus = frm.uninstallFlowEntry(entry);
+            if (!uninstallStatus.isSuccess()) {
+                log.warn("Failed to uninstall {} on {}: {}", new Object[] { prefix, group.key.node,
+                        uninstallStatus.getDescription() });
+                status = uninstallStatus;
+            }
+        }
+        if (group.members.isEmpty() && group.installed.isEmpty()) {
+            groups.remove(group.key);
+        }
+        log.trace("Group {} on {}: {} entries programmed as {}", new Object[] { group.id, group.key.node,
+                group.members.size(), group.installed.size() });
+        return status;
+    }
+
+    private FlowEntry createAggregate(Group group, Prefix prefix) {
+        Flow flow = group.members.get(prefix.address).getFlow().clone();
+        Match match = flow.getMatch();
+        match.setField(field, toInetAddress(prefix.address), toInetAddress(mask(prefix.length)));
+        flow.setMatch(match);
+        String flowName = "[" + name + ":" + group.id + ":" + prefix + " on N " + group.key.node + "]";
+        return new FlowEntry(name, flowName, flow, group.key.node);
+    }
+
+    /*
+     * The fewest prefixes covering exactly the addresses: from the lowest
+     * address, take the largest aligned block whose addresses are all
+     * present
+     */
+    private static List<Prefix> cover(TreeMap<Long, ?> addresses) {
+        List<Prefix> prefixes = new ArrayList<Prefix>();
+        List<Long> sorted = new ArrayList<Long>(addresses.keySet());
+        int i = 0;
+        while (i < sorted.size()) {
+            long start = sorted.get(i);
+            int length = 32;
+            while (length > 0) {
+                long size = 1L << (33 - length);
+                if ((start & (size - 1)) != 0 || i + size > sorted.size()
+                        || sorted.get((int) (i + size - 1)) != start + size - 1) {
+                    break;
+                }
+                length--;
+            }
+            prefixes.add(new Prefix(start, length));
+            i += (int) (1L << (32 - length));
+        }
+        return prefixes;
+    }
+
+    private GroupKey getGroupKey(FlowEntry entry) {
+        Flow flow = entry.getFlow();
+        if (flow == null || flow.getMatch() == null || flow.getIdleTimeout() != 0 || flow.getHardTimeout() != 0
+                || getAddress(entry) == null) {
+            return null;
+        }
+        Match rest = flow.getMatch();
+        rest.clearField(field);
+        return new GroupKey(entry.getNode(), flow.getPriority(), rest, flow.getActions());
+    }
+
+    /*
+     * The address of the aggregated field, null if it is not a full IPv4
+     * address
+     */
+    private Long getAddress(FlowEntry entry) {
+        MatchField matchField = entry.getFlow().getMatch().getField(field);
+        if (matchField == null || !(matchField.getValue() instanceof Inet4Address)) {
+            return null;
+        }
+        Object mask = matchField.getMask();
+        if (mask instanceof InetAddress && toInt((InetAddress) mask) != -1) {
+            return null;
+        }
+        return toInt((InetAddress) matchField.getValue()) & 0xffffffffL;
+    }
+
+    private static int mask(int length) {
+        return (length == 0) ? 0 : -1 << (32 - length);
+    }
+
+    private static int toInt(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length != 4) {
+            return 0;
+        }
+        return ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    }
+
+    private static InetAddress toInetAddress(long address) {
+        byte[] bytes = new byte[] { (byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8),
+                (byte) address };
+        try {
+            return InetAddress.getByAddress(bytes);
+        } catch (UnknownHostException e) {
+            // Cannot happen with four bytes
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -8,7 +8,9 @@
 
 package org.opendaylight.controller.samples.simpleforwarding.internal;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -136,11 +138,20 @@ public class SimpleBroadcastHandlerImpl implements IBroadcastHandler, IListenDat
         // remove the NodeConnector it came in on
         toPacketOut.remove(pkt.getIncomingNodeConnector());
 
-        // send it out all the node connectors
+        // send it out all the node connectors, with one packet per node
+        Map<Node, Set<NodeConnector>> toPacketOutByNode = new HashMap<Node, Set<NodeConnector>>();
         for (NodeConnector nc : toPacketOut) {
+            Set<NodeConnector> ports = toPacketOutByNode.get(nc.getNode());
+            if (ports == null) {
+                ports = new HashSet<NodeConnector>();
+                toPacketOutByNode.put(nc.getNode(), ports);
+            }
+            ports.add(nc);
+        }
+        for (Set<NodeConnector> ports : toPacketOutByNode.values()) {
             try {
                 RawPacket toSend = new RawPacket(pkt);
-                toSend.setOutgoingNodeConnector(nc);
+                toSend.setOutgoingNodeConnectors(ports);
                 dataPacketService.transmitDataPacket(toSend);
             } catch (ConstructionException e) {
                 log.error("Could create packet: {}", e);
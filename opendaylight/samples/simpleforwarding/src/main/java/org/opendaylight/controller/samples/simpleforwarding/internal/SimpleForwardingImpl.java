@@ -10,6 +10,7 @@
 package org.opendaylight.controller.samples.simpleforwarding.internal;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -20,6 +21,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
+import org.eclipse.osgi.framework.console.CommandInterpreter;
+import org.eclipse.osgi.framework.console.CommandProvider;
 import org.opendaylight.controller.clustering.services.CacheConfigException;
 import org.opendaylight.controller.clustering.services.CacheExistException;
 import org.opendaylight.controller.clustering.services.IClusterContainerServices;
@@ -45,8 +48,9 @@ import org.opendaylight.controller.sal.core.UpdateType;
 import org.opendaylight.controller.sal.flowprogrammer.Flow;
 import org.opendaylight.controller.sal.match.Match;
 import org.opendaylight.controller.sal.match.MatchType;
-import org.opendaylight.controller.sal.routing.IListenRoutingUpdates;
+import org.opendaylight.controller.sal.routing.IListenRoutingChanges;
 import org.opendaylight.controller.sal.routing.IRouting;
+import org.opendaylight.controller.sal.routing.RoutingChange;
 import org.opendaylight.controller.sal.utils.EtherTypes;
 import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
 import org.opendaylight.controller.sal.utils.Status;
@@ -68,15 +72,25 @@ import org.slf4j.LoggerFactory;
  * installed in the network. This is done by repeatedly calling
  * <tt>updatePerHostRuleInSW()</tt> for each switch in the network. Then it
  * installs those rules using <tt>installPerHostRules()</tt>.
+ * <br/>
+ * When the <tt>simpleforwarding.aggregation</tt> system property is true, the
+ * rules go through a {@link FlowAggregator} which merges the rules of a
+ * switch sharing the same next hop into prefix rules. The aggregation is
+ * rebuilt from the rules database each time the component starts, and it is
+ * left disabled when the controller starts as part of a cluster since the
+ * other controllers would not know the prefix rules.
  */
 public class SimpleForwardingImpl implements IfNewHostNotify,
-        IListenRoutingUpdates, IInventoryListener {
+        IListenRoutingChanges, IInventoryListener, CommandProvider {
     private static Logger log = LoggerFactory
             .getLogger(SimpleForwardingImpl.class);
     private static short DEFAULT_IPSWITCH_PRIORITY = 1;
     private static String FORWARDING_RULES_CACHE_NAME = "forwarding.ipswitch.rules";
+    private static String AGGREGATION_PROPERTY = "simpleforwarding.aggregation";
+    private static String AGGREGATION_GROUP_NAME = "simpleforwarding";
     private IfIptoHost hostTracker;
     private IForwardingRulesManager frm;
+    private FlowAggregator aggregator;
     private ITopologyManager topologyManager;
     private IRouting routing;
 
@@ -144,6 +158,7 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
             IForwardingRulesManager forwardingRulesManager) {
         if (this.frm == forwardingRulesManager) {
             this.frm = null;
+            this.aggregator = null;
         }
     }
 
@@ -154,6 +169,36 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
     public void startUp() {
         allocateCaches();
         retrieveCaches();
+        startAggregation();
+    }
+
+    /*
+     * Create the aggregation stage if enabled, taking over the rules a
+     * previous stage programmed before a restart or a rebind to the
+     * Forwarding Rules Manager
+     */
+    private void startAggregation() {
+        this.aggregator = null;
+        if (!Boolean.getBoolean(AGGREGATION_PROPERTY) || this.frm == null) {
+            return;
+        }
+        if (this.clusterContainerService != null
+                && this.clusterContainerService.getClusteredControllers().size() > 1) {
+            log.warn("Flow aggregation is not supported in a cluster, {} is ignored", AGGREGATION_PROPERTY);
+            return;
+        }
+        FlowAggregator aggregator = new FlowAggregator(AGGREGATION_GROUP_NAME, this.frm, MatchType.NW_DST);
+        if (this.rulesDB != null) {
+            List<FlowEntry> entries = new ArrayList<FlowEntry>();
+            for (HashMap<NodeConnector, FlowEntry> pos : this.rulesDB.values()) {
+                entries.addAll(pos.values());
+            }
+            Status status = aggregator.rebuild(entries);
+            if (!status.isSuccess()) {
+                log.warn("Failed to program the aggregated rules: {}", status.getDescription());
+            }
+        }
+        this.aggregator = aggregator;
     }
 
     /**
@@ -250,154 +295,182 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
         }
 
         for (NodeConnector inPort : ports) {
-            // skip the port connected to the target host
-            if (currNode.equals(rootNode)
-                    && (host.getnodeConnector().equals(inPort))) {
-                continue;
-            }
-
             // remove the current rule, if any
             FlowEntry removed_po = pos.remove(inPort);
-            Match match = new Match();
-            List<Action> actions = new ArrayList<Action>();
-
-            // IP destination based forwarding on /32 entries only!
-            match.setField(MatchType.DL_TYPE, EtherTypes.IPv4.shortValue());
-            match.setField(MatchType.NW_DST, host.getNetworkAddress());
-
-            /* Action for the policy is to forward to a port except on the
-             * switch where the host sits, which is to rewrite also the MAC
-             * and to forward on the Host port */
-            NodeConnector outPort = null;
-
-            if (currNode.equals(rootNode)) {
-                /* If we're at the root node, then rewrite the DL addr and
-                 * possibly pop the VLAN tag. This allows for MAC rewriting
-                 * in the core of the network assuming we can uniquely ID
-                 * packets based on IP address. */
-
-                outPort = host.getnodeConnector();
-                if (inPort.equals(outPort)) {
-                    // TODO: isn't this code skipped already by the above continue?
-                    // skip the host port
-                    continue;
-                }
-                actions.add(new SetDlDst(host.getDataLayerAddressBytes()));
+            FlowEntry po = createPerHostRule(host, currNode, rootNode, link, inPort);
+            if (po == null) {
+                continue;
+            }
 
-                if (!inPort.getType().equals(NodeConnectorIDType.ALL)) {
-                    // Container mode: at the destination switch, we need to strip out the tag (VLAN)
-                    actions.add(new PopVlan());
+            /* Now save the rule in the DB rule, so on updates from topology we
+             * can selectively */
+            pos.put(inPort, po);
+            this.rulesDB.put(key, pos);
+            if (!inPort.getType().equals(NodeConnectorIDType.ALL)) {
+                if ((removed_po != null)
+                        && (!po.getFlow().getMatch().equals(
+                                removed_po.getFlow().getMatch()))) {
+                    log.debug("Old Flow match: {}, New Flow match: {}",
+                            removed_po.getFlow().getMatch(), po.getFlow()
+                                    .getMatch());
+                    addTobePrunedPolicy(currNode, removed_po, po);
                 }
-            } else {
-                // currNode is NOT the rootNode, find the next hop and create a rule
-                if (link != null) {
-                    outPort = link.getTailNodeConnector();
-                    if (inPort.equals(outPort)) {
-                        // skip the outgoing port
-                        continue;
-                    }
+            }
+        }
+    }
 
-                    // If outPort is network link, add VLAN tag
-                    if (topologyManager.isInternal(outPort)) {
-                        log.debug("outPort {}/{} is internal uplink port",
-                                currNode, outPort);
-                    } else {
-                        log.debug("outPort {}/{} is host facing port",
-                                currNode, outPort);
-                    }
+    /**
+     * Build the rule that forwards the traffic for <tt>host</tt> entering
+     * <tt>currNode</tt> from <tt>inPort</tt>, without touching the rulesDB.
+     *
+     * @param host
+     *            The host to be reached.
+     * @param currNode
+     *            The current node being processed.
+     * @param rootNode
+     *            The switch which host is attached to.
+     * @param link
+     *            The link to follow from curNode to get to rootNode
+     * @param inPort
+     *            The input port the rule applies to, a special port of type
+     *            ALL to match on any port
+     * @return the rule, or null if no rule is needed for inPort
+     */
+    private FlowEntry createPerHostRule(HostNodeConnector host, Node currNode,
+            Node rootNode, Edge link, NodeConnector inPort) {
+        // skip the port connected to the target host
+        if (currNode.equals(rootNode)
+                && (host.getnodeConnector().equals(inPort))) {
+            return null;
+        }
 
-                    if ((!inPort.getType().equals(NodeConnectorIDType.ALL))
-                        && (topologyManager.isInternal(outPort))) {
-                        Node nextNode = link.getHeadNodeConnector()
-                                            .getNode();
-                        // TODO: Replace this with SAL equivalent
-                        //short tag = container.getTag((Long)nextNode.getNodeID());
-                        short tag = 0;
-                        if (tag != 0) {
-                            log.debug("adding SET_VLAN {} for traffic " +
-                                    "leaving {}/{} toward switch {}",
-                                    new Object[] { tag, currNode, outPort,
-                                    nextNode});
-                            actions.add(new SetVlanId(tag));
-                        } else {
-                            log.debug("No tag assigned to switch {}", nextNode);
-                        }
-                    }
-                }
-            }
-            if (outPort != null) {
-                actions.add(new Output(outPort));
+        Match match = new Match();
+        List<Action> actions = new ArrayList<Action>();
+
+        // IP destination based forwarding on /32 entries only!
+        match.setField(MatchType.DL_TYPE, EtherTypes.IPv4.shortValue());
+        match.setField(MatchType.NW_DST, host.getNetworkAddress());
+
+        /* Action for the policy is to forward to a port except on the
+         * switch where the host sits, which is to rewrite also the MAC
+         * and to forward on the Host port */
+        NodeConnector outPort = null;
+
+        if (currNode.equals(rootNode)) {
+            /* If we're at the root node, then rewrite the DL addr and
+             * possibly pop the VLAN tag. This allows for MAC rewriting
+             * in the core of the network assuming we can uniquely ID
+             * packets based on IP address. */
+
+            outPort = host.getnodeConnector();
+            if (inPort.equals(outPort)) {
+                // TODO: isn't this code skipped already by the above check?
+                // skip the host port
+                return null;
             }
+            actions.add(new SetDlDst(host.getDataLayerAddressBytes()));
+
             if (!inPort.getType().equals(NodeConnectorIDType.ALL)) {
-                // include input port in the flow match field
-                match.setField(MatchType.IN_PORT, inPort);
+                // Container mode: at the destination switch, we need to strip out the tag (VLAN)
+                actions.add(new PopVlan());
+            }
+        } else {
+            // currNode is NOT the rootNode, find the next hop and create a rule
+            if (link != null) {
+                outPort = link.getTailNodeConnector();
+                if (inPort.equals(outPort)) {
+                    // skip the outgoing port
+                    return null;
+                }
 
-                if (topologyManager.isInternal(inPort)) {
-                    log.debug("inPort {}/{} is internal uplink port", currNode,
-                            inPort);
+                // If outPort is network link, add VLAN tag
+                if (topologyManager.isInternal(outPort)) {
+                    log.debug("outPort {}/{} is internal uplink port",
+                            currNode, outPort);
                 } else {
-                    log.debug("inPort {}/{} is host facing port", currNode,
-                            inPort);
+                    log.debug("outPort {}/{} is host facing port",
+                            currNode, outPort);
                 }
 
-                // for incoming network link; if the VLAN tag is defined, include it for incoming flow matching
-                if (topologyManager.isInternal(inPort)) {
+                if ((!inPort.getType().equals(NodeConnectorIDType.ALL))
+                    && (topologyManager.isInternal(outPort))) {
+                    Node nextNode = link.getHeadNodeConnector()
+                                        .getNode();
                     // TODO: Replace this with SAL equivalent
-                    //short tag = container.getTag((Long)currNode.getNodeID());
+                    //short tag = container.getTag((Long)nextNode.getNodeID());
                     short tag = 0;
                     if (tag != 0) {
-                        log.debug("adding MATCH VLAN {} for traffic entering" +
-                                "  {}/{}",
-                                new Object[] {tag, currNode, inPort});
-                        match.setField(MatchType.DL_VLAN, tag);
+                        log.debug("adding SET_VLAN {} for traffic " +
+                                "leaving {}/{} toward switch {}",
+                                new Object[] { tag, currNode, outPort,
+                                nextNode});
+                        actions.add(new SetVlanId(tag));
                     } else {
-                        log.debug("No tag assigned to switch {}", currNode);
+                        log.debug("No tag assigned to switch {}", nextNode);
                     }
                 }
             }
-            // Make sure the priority for IP switch entries is
-            // set to a level just above default drop entries
-            Flow flow = new Flow(match, actions);
-            flow.setIdleTimeout((short) 0);
-            flow.setHardTimeout((short) 0);
-            flow.setPriority(DEFAULT_IPSWITCH_PRIORITY);
-
-            String policyName = host.getNetworkAddress().getHostAddress()
-                    + "/32";
-            String flowName = "["
-                    + (!inPort.getType().equals(NodeConnectorIDType.ALL) ?
-                       (inPort.getID()).toString()
-                       + "," : "")
-                    + host.getNetworkAddress().getHostAddress() + "/32 on N "
-                    + currNode + "]";
-            FlowEntry po = new FlowEntry(policyName, flowName, flow, currNode);
-
-            /* Now save the rule in the DB rule, so on updates from topology we
-             * can selectively */
-            pos.put(inPort, po);
-            this.rulesDB.put(key, pos);
-            if (!inPort.getType().equals(NodeConnectorIDType.ALL)) {
-                log.debug("Adding Match(inPort = {} , DIP = {})" +
-                        " Action(outPort= {}) to node {}",
-                        new Object[] { inPort,
-                        host.getNetworkAddress().getHostAddress(),
-                        outPort, currNode});
-                if ((removed_po != null)
-                        && (!po.getFlow().getMatch().equals(
-                                removed_po.getFlow().getMatch()))) {
-                    log.debug("Old Flow match: {}, New Flow match: {}",
-                            removed_po.getFlow().getMatch(), po.getFlow()
-                                    .getMatch());
-                    addTobePrunedPolicy(currNode, removed_po, po);
-                }
+        }
+        if (outPort != null) {
+            actions.add(new Output(outPort));
+        }
+        if (!inPort.getType().equals(NodeConnectorIDType.ALL)) {
+            // include input port in the flow match field
+            match.setField(MatchType.IN_PORT, inPort);
 
+            if (topologyManager.isInternal(inPort)) {
+                log.debug("inPort {}/{} is internal uplink port", currNode,
+                        inPort);
             } else {
-                log.debug("Adding policyMatch(DIP = {}) Action(outPort= {}) " +
-                        "to node {}", new Object[] {
-                        host.getNetworkAddress().getHostAddress(), outPort,
-                        currNode});
+                log.debug("inPort {}/{} is host facing port", currNode,
+                        inPort);
+            }
+
+            // for incoming network link; if the VLAN tag is defined, include it for incoming flow matching
+            if (topologyManager.isInternal(inPort)) {
+                // TODO: Replace this with SAL equivalent
+                //short tag = container.getTag((Long)currNode.getNodeID());
+                short tag = 0;
+                if (tag != 0) {
+                    log.debug("adding MATCH VLAN {} for traffic entering" +
+                            "  {}/{}",
+                            new Object[] {tag, currNode, inPort});
+                    match.setField(MatchType.DL_VLAN, tag);
+                } else {
+                    log.debug("No tag assigned to switch {}", currNode);
+                }
             }
         }
+        // Make sure the priority for IP switch entries is
+        // set to a level just above default drop entries
+        Flow flow = new Flow(match, actions);
+        flow.setIdleTimeout((short) 0);
+        flow.setHardTimeout((short) 0);
+        flow.setPriority(DEFAULT_IPSWITCH_PRIORITY);
+
+        String policyName = host.getNetworkAddress().getHostAddress()
+                + "/32";
+        String flowName = "["
+                + (!inPort.getType().equals(NodeConnectorIDType.ALL) ?
+                   (inPort.getID()).toString()
+                   + "," : "")
+                + host.getNetworkAddress().getHostAddress() + "/32 on N "
+                + currNode + "]";
+        FlowEntry po = new FlowEntry(policyName, flowName, flow, currNode);
+
+        if (!inPort.getType().equals(NodeConnectorIDType.ALL)) {
+            log.debug("Adding Match(inPort = {} , DIP = {})" +
+                    " Action(outPort= {}) to node {}",
+                    new Object[] { inPort,
+                    host.getNetworkAddress().getHostAddress(),
+                    outPort, currNode});
+        } else {
+            log.debug("Adding policyMatch(DIP = {}) Action(outPort= {}) " +
+                    "to node {}", new Object[] {
+                    host.getNetworkAddress().getHostAddress(), outPort,
+                    currNode});
+        }
+        return po;
     }
 
     /**
@@ -459,7 +532,7 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
                         if (po != null) {
                             // uninstall any existing rules we put in the
                             // ForwardingRulesManager
-                            this.frm.uninstallFlowEntry(po);
+                            uninstallRule(po);
                         }
                     }
                     this.rulesDB.remove(key);
@@ -558,7 +631,7 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
                     po = e.getValue();
                     if (po != null) {
                         //Uninstall the policy
-                        this.frm.uninstallFlowEntry(po);
+                        uninstallRule(po);
                     }
                 }
                 this.rulesDB.remove(key);
@@ -634,7 +707,7 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
                 po = e.getValue();
                 if (po != null) {
                     // Populate the Policy field now
-                    Status poStatus = this.frm.modifyOrAddFlowEntry(po);
+                    Status poStatus = installRule(po);
                     if (!poStatus.isSuccess()) {
                         log.error("Failed to install policy: "
                                 + po.getGroupName() + " ("
@@ -683,7 +756,7 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
                     po = e.getValue();
                     if (po != null) {
                         // Uninstall the policy
-                        this.frm.uninstallFlowEntry(po);
+                        uninstallRule(po);
                     }
                 }
                 this.rulesDB.remove(key);
@@ -715,7 +788,7 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
                     po = e.getValue();
                     if (po != null) {
                         // Uninstall the policy
-                        this.frm.uninstallFlowEntry(po);
+                        uninstallRule(po);
                     }
                 }
                 log.debug("Remove {}", key);
@@ -724,6 +797,19 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
         }
     }
 
+    /*
+     * Program a rule, through the aggregation stage if enabled
+     */
+    private Status installRule(FlowEntry po) {
+        FlowAggregator aggregator = this.aggregator;
+        return (aggregator == null) ? this.frm.modifyOrAddFlowEntry(po) : aggregator.modifyOrAddFlowEntry(po);
+    }
+
+    private Status uninstallRule(FlowEntry po) {
+        FlowAggregator aggregator = this.aggregator;
+        return (aggregator == null) ? this.frm.uninstallFlowEntry(po) : aggregator.uninstallFlowEntry(po);
+    }
+
     /**
      * Cleanup all the host rules currently present in the rulesDB
      *
@@ -733,6 +819,121 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
         return uninstallPerHostRules(null);
     }
 
+    /**
+     * Outcome of the differential update of a per-Host rule
+     */
+    private enum RuleUpdate {
+        UNCHANGED, MODIFIED, REMOVED, FAILED
+    }
+
+    /**
+     * Bring the per-Host rule of a single switch in line with the current
+     * route from that switch to the host, touching the HW only if the rule
+     * differs from the one in the rulesDB.
+     *
+     * @param host Host for which the rule is computed
+     * @param node Switch whose route towards the host changed
+     *
+     * @return the outcome of the update
+     */
+    private RuleUpdate updatePerHostRuleDiff(HostNodeConnector host, Node node) {
+        Node rootNode = host.getnodeconnectorNode();
+        HostNodePair key = new HostNodePair(host, node);
+        HashMap<NodeConnector, FlowEntry> pos = this.rulesDB.get(key);
+        List<Edge> links;
+        Path res = this.routing.getRoute(node, rootNode);
+        if ((res == null) || ((links = res.getEdges()) == null) || links.isEmpty()) {
+            if (pos == null) {
+                return RuleUpdate.UNCHANGED;
+            }
+            log.debug("NO Route/Path between SW[{}] --> SW[{}] cleaning " +
+                    "existing entries", node, rootNode);
+            for (FlowEntry po : pos.values()) {
+                if (po != null) {
+                    uninstallRule(po);
+                }
+            }
+            this.rulesDB.remove(key);
+            return RuleUpdate.REMOVED;
+        }
+
+        // The rule on a switch only depends on the first link of its route,
+        // the switches downstream have their own entry in the change set
+        NodeConnector inPort = NodeConnectorCreator.createNodeConnector(
+                NodeConnectorIDType.ALL, NodeConnector.SPECIALNODECONNECTORID,
+                node);
+        FlowEntry po = createPerHostRule(host, node, rootNode, links.get(0), inPort);
+        FlowEntry current = (pos == null) ? null : pos.get(inPort);
+        if ((po == null)
+                || ((current != null) && current.getFlow().equals(po.getFlow()))) {
+            return RuleUpdate.UNCHANGED;
+        }
+        Status poStatus = installRule(po);
+        if (!poStatus.isSuccess()) {
+            // Keep the rulesDB entry so that the rule still on the switch
+            // is retried or cleaned up by the next recalculation
+            log.error("Failed to install policy: " + po.getGroupName() + " ("
+                    + poStatus.getDescription() + ")");
+            return RuleUpdate.FAILED;
+        }
+        if (pos == null) {
+            pos = new HashMap<NodeConnector, FlowEntry>();
+        }
+        pos.put(inPort, po);
+        this.rulesDB.put(key, pos);
+        return RuleUpdate.MODIFIED;
+    }
+
+    /**
+     * Only the hosts attached to a switch whose routes changed are
+     * processed, and for each of them only the switches whose route towards
+     * the host changed. The new rules are compared with the ones in the
+     * rulesDB so that the HW is only reprogrammed where a rule really
+     * differs.
+     */
+    @Override
+    public void recalculateDone(RoutingChange change) {
+        if (this.hostTracker == null) {
+            //Not yet ready to process all the updates
+            //TODO: we should make sure that this call is executed eventually
+            return;
+        }
+        if (change.isEmpty()) {
+            log.debug("Routing recalculated, no route changed");
+            return;
+        }
+        if ((this.routing == null) || (this.switchManager == null)
+                || (this.rulesDB == null)) {
+            return;
+        }
+
+        Map<Node, Set<Node>> changedRoutes = change.getChangedRoutes();
+        Set<Node> nodes = this.switchManager.getNodes();
+        Map<RuleUpdate, Integer> outcome = new EnumMap<RuleUpdate, Integer>(RuleUpdate.class);
+        for (RuleUpdate u : RuleUpdate.values()) {
+            outcome.put(u, 0);
+        }
+        for (Map.Entry<Node, Set<Node>> entry : changedRoutes.entrySet()) {
+            Node rootNode = entry.getKey();
+            // Only the hosts behind a destination whose routes changed
+            for (HostNodeConnector host : this.hostTracker.getHostsByNode(rootNode)) {
+                for (Node node : entry.getValue()) {
+                    if (node.equals(rootNode) || !nodes.contains(node)) {
+                        continue;
+                    }
+                    RuleUpdate u = updatePerHostRuleDiff(host, node);
+                    outcome.put(u, outcome.get(u) + 1);
+                }
+            }
+        }
+        log.debug("Routing change for {} destinations applied, rules: {}",
+                changedRoutes.size(), outcome);
+    }
+
+    /**
+     * Reprogram the rules of every host, invoked by the routing engines
+     * that don't report which routes changed.
+     */
     @Override
     public void recalculateDone() {
         if (this.hostTracker == null) {
@@ -778,7 +979,7 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
                     FlowEntry po = plIter.next();
                     log.error("Removing Policy, Switch: {} Policy: {}", swId,
                             po);
-                    this.frm.uninstallFlowEntry(po);
+                    uninstallRule(po);
                     plIter.remove();
                 }
             }
@@ -962,4 +1163,26 @@ public class SimpleForwardingImpl implements IfNewHostNotify,
             this.switchManager = null;
         }
     }
+
+    @Override
+    public String getHelp() {
+        StringBuffer help = new StringBuffer();
+        help.append("---Simple Forwarding---\n");
+        help.append("\t showFlowAggregation - Print the rules requested and installed per switch\n");
+        return help.toString();
+    }
+
+    public void _showFlowAggregation(CommandInterpreter ci) {
+        FlowAggregator aggregator = this.aggregator;
+        if (aggregator == null) {
+            ci.println("Flow aggregation is disabled, set " + AGGREGATION_PROPERTY + " to true to enable it");
+            return;
+        }
+        for (Node node : aggregator.getNodes()) {
+            int requested = aggregator.getRequestedFlowCount(node);
+            int installed = aggregator.getInstalledFlowCount(node);
+            ci.println(node + ": " + requested + " rules, " + installed + " installed, "
+                    + (requested - installed) + " saved");
+        }
+    }
 }
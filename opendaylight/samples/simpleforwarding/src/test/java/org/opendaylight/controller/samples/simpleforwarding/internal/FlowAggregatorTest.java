@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.samples.simpleforwarding.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.controller.forwardingrulesmanager.FlowEntry;
+import org.opendaylight.controller.forwardingrulesmanager.IForwardingRulesManager;
+import org.opendaylight.controller.sal.action.Action;
+import org.opendaylight.controller.sal.action.Output;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.flowprogrammer.Flow;
+import org.opendaylight.controller.sal.match.Match;
+import org.opendaylight.controller.sal.match.MatchField;
+import org.opendaylight.controller.sal.match.MatchType;
+import org.opendaylight.controller.sal.utils.EtherTypes;
+import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
+import org.opendaylight.controller.sal.utils.NodeCreator;
+import org.opendaylight.controller.sal.utils.Status;
+import org.opendaylight.controller.sal.utils.StatusCode;
+
+public class FlowAggregatorTest {
+
+    /*
+     * Forwarding Rules Manager keeping the programmed entries
+     */
+    private static IForwardingRulesManager createFrm(final Set<FlowEntry> programmed) {
+        return (IForwardingRulesManager) Proxy.newProxyInstance(IForwardingRulesManager.class.getClassLoader(),
+                new Class<?>[] { IForwardingRulesManager.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("modifyOrAddFlowEntry")) {
+                            programmed.remove(args[0]);
+                            programmed.add((FlowEntry) args[0]);
+                            return new Status(StatusCode.SUCCESS);
+                        }
+                        if (method.getName().equals("uninstallFlowEntry")) {
+                            return new Status(programmed.remove(args[0]) ? StatusCode.SUCCESS
+                                    : StatusCode.NOTFOUND);
+                        }
+                        if (method.getName().equals("getFlowEntriesForGroup")) {
+                            List<FlowEntry> entries = new ArrayList<FlowEntry>();
+                            for (FlowEntry entry : programmed) {
+                                if (entry.getGroupName().equals(args[0])) {
+                                    entries.add(entry);
+                                }
+                            }
+                            return entries;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static FlowEntry createEntry(Node node, String address, short port, short idleTimeout)
+            throws UnknownHostException {
+        Match match = new Match();
+        match.setField(MatchType.DL_TYPE, EtherTypes.IPv4.shortValue());
+        match.setField(MatchType.NW_DST, InetAddress.getByName(address));
+        List<Action> actions = new ArrayList<Action>();
+        NodeConnector outPort = NodeConnectorCreator.createOFNodeConnector(port, node);
+        actions.add(new Output(outPort));
+        Flow flow = new Flow(match, actions);
+        flow.setPriority((short) 1);
+        flow.setIdleTimeout(idleTimeout);
+        return new FlowEntry(address + "/32", "[" + address + "/32 on N " + node + "]", flow, node);
+    }
+
+    private static FlowEntry find(Set<FlowEntry> programmed, String address) throws UnknownHostException {
+        InetAddress inetAddress = InetAddress.getByName(address);
+        for (FlowEntry entry : programmed) {
+            if (entry.getFlow().getMatch().getField(MatchType.NW_DST).getValue().equals(inetAddress)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testAggregation() throws UnknownHostException {
+        Node node = NodeCreator.createOFNode(1L);
+        Set<FlowEntry> programmed = new HashSet<FlowEntry>();
+        FlowAggregator aggregator = new FlowAggregator("test", createFrm(programmed), MatchType.NW_DST);
+
+        // 10.0.0.0 - 10.0.0.7 without 10.0.0.5: /30, /32 and /31
+        for (int i = 0; i < 8; i++) {
+            if (i != 5) {
+                Assert.assertTrue(aggregator.modifyOrAddFlowEntry(createEntry(node, "10.0.0." + i, (short) 2,
+                        (short) 0)).isSuccess());
+            }
+        }
+        Assert.assertEquals(3, programmed.size());
+        Assert.assertEquals(7, aggregator.getRequestedFlowCount(node));
+        Assert.assertEquals(3, aggregator.getInstalledFlowCount(node));
+        MatchField field = find(programmed, "10.0.0.0").getFlow().getMatch().getField(MatchType.NW_DST);
+        Assert.assertEquals(InetAddress.getByName("255.255.255.252"), field.getMask());
+        // A single address is programmed as the original entry
+        Assert.assertEquals("10.0.0.4/32", find(programmed, "10.0.0.4").getGroupName());
+
+        // The block is complete
+        aggregator.modifyOrAddFlowEntry(createEntry(node, "10.0.0.5", (short) 2, (short) 0));
+        Assert.assertEquals(1, programmed.size());
+        field = find(programmed, "10.0.0.0").getFlow().getMatch().getField(MatchType.NW_DST);
+        Assert.assertEquals(InetAddress.getByName("255.255.255.248"), field.getMask());
+
+        // Other next hop, other group
+        aggregator.modifyOrAddFlowEntry(createEntry(node, "10.0.0.8", (short) 3, (short) 0));
+        Assert.assertEquals(2, programmed.size());
+
+        // A host moves to the other next hop
+        aggregator.modifyOrAddFlowEntry(createEntry(node, "10.0.0.7", (short) 3, (short) 0));
+        Assert.assertEquals(9, aggregator.getRequestedFlowCount(node));
+        // 10.0.0.0/30, 10.0.0.4/31, 10.0.0.6, 10.0.0.7 and 10.0.0.8
+        Assert.assertEquals(5, programmed.size());
+        Assert.assertEquals(5, aggregator.getInstalledFlowCount(node));
+
+        // Removal
+        aggregator.uninstallFlowEntry(createEntry(node, "10.0.0.0", (short) 2, (short) 0));
+        // 10.0.0.1, 10.0.0.2/31, 10.0.0.4/31, 10.0.0.6, 10.0.0.7 and 10.0.0.8
+        Assert.assertEquals(6, programmed.size());
+        Assert.assertNull(find(programmed, "10.0.0.0"));
+
+        // Soft state entries are passed through
+        aggregator.modifyOrAddFlowEntry(createEntry(node, "10.0.0.0", (short) 2, (short) 5));
+        Assert.assertEquals(7, programmed.size());
+        Assert.assertEquals(7, aggregator.getInstalledFlowCount(node));
+        aggregator.uninstallFlowEntry(createEntry(node, "10.0.0.0", (short) 2, (short) 5));
+        Assert.assertEquals(6, programmed.size());
+
+        for (int i = 1; i < 9; i++) {
+            aggregator.uninstallFlowEntry(createEntry(node, "10.0.0." + i, (short) 2, (short) 0));
+        }
+        Assert.assertTrue(programmed.isEmpty());
+        Assert.assertTrue(aggregator.getNodes().isEmpty());
+    }
+
+    @Test
+    public void testRebuild() throws UnknownHostException {
+        Node node = NodeCreator.createOFNode(1L);
+        Set<FlowEntry> programmed = new HashSet<FlowEntry>();
+        IForwardingRulesManager frm = createFrm(programmed);
+        FlowAggregator previous = new FlowAggregator("test", frm, MatchType.NW_DST);
+        List<FlowEntry> entries = new ArrayList<FlowEntry>();
+        for (int i = 0; i < 4; i++) {
+            entries.add(createEntry(node, "10.0.0." + i, (short) 2, (short) 0));
+            previous.modifyOrAddFlowEntry(entries.get(i));
+        }
+        // 10.0.0.0/30
+        Assert.assertEquals(1, programmed.size());
+
+        // The previous stage is lost with 10.0.0.3 gone in the meantime, and
+        // 10.0.0.8 was programmed without aggregation
+        entries.remove(3);
+        FlowEntry single = createEntry(node, "10.0.0.8", (short) 2, (short) 0);
+        frm.modifyOrAddFlowEntry(single);
+        entries.add(single);
+        FlowAggregator aggregator = new FlowAggregator("test", frm, MatchType.NW_DST);
+        Assert.assertTrue(aggregator.rebuild(entries).isSuccess());
+        // 10.0.0.0/31, 10.0.0.2 and 10.0.0.8, the /30 is gone
+        Assert.assertEquals(3, programmed.size());
+        Assert.assertEquals(InetAddress.getByName("255.255.255.254"), find(programmed, "10.0.0.0").getFlow()
+                .getMatch().getField(MatchType.NW_DST).getMask());
+        Assert.assertEquals(3, aggregator.getInstalledFlowCount(node));
+
+        // The new stage knows all the entries
+        for (FlowEntry entry : entries) {
+            Assert.assertTrue(aggregator.uninstallFlowEntry(entry).isSuccess());
+        }
+        Assert.assertTrue(programmed.isEmpty());
+    }
+}
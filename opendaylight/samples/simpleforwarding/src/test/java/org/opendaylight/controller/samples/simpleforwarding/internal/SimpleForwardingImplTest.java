@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.samples.simpleforwarding.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.clustering.services.IClusterContainerServices;
+import org.opendaylight.controller.forwardingrulesmanager.FlowEntry;
+import org.opendaylight.controller.forwardingrulesmanager.IForwardingRulesManager;
+import org.opendaylight.controller.hosttracker.IfIptoHost;
+import org.opendaylight.controller.hosttracker.hostAware.HostNodeConnector;
+import org.opendaylight.controller.sal.core.Edge;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.core.Path;
+import org.opendaylight.controller.sal.routing.IRouting;
+import org.opendaylight.controller.sal.routing.RoutingChange;
+import org.opendaylight.controller.sal.utils.NodeConnectorCreator;
+import org.opendaylight.controller.sal.utils.NodeCreator;
+import org.opendaylight.controller.sal.utils.Status;
+import org.opendaylight.controller.sal.utils.StatusCode;
+import org.opendaylight.controller.switchmanager.ISwitchManager;
+import org.opendaylight.controller.topologymanager.ITopologyManager;
+
+public class SimpleForwardingImplTest {
+
+    /*
+     * s1 reaches s3 through s2 or s4, h1 sits behind s3 and h2 behind s1
+     */
+    private final Node s1 = NodeCreator.createOFNode(1L);
+    private final Node s2 = NodeCreator.createOFNode(2L);
+    private final Node s3 = NodeCreator.createOFNode(3L);
+    private final Node s4 = NodeCreator.createOFNode(4L);
+    private final Map<List<Node>, Path> routes = new HashMap<List<Node>, Path>();
+    private final List<FlowEntry> installed = new ArrayList<FlowEntry>();
+    private final List<FlowEntry> uninstalled = new ArrayList<FlowEntry>();
+    private boolean failInstall;
+    private HostNodeConnector h1;
+    private HostNodeConnector h2;
+    private SimpleForwardingImpl forwarding;
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Edge link(Node from, short fromPort, Node to, short toPort) throws Exception {
+        return new Edge(NodeConnectorCreator.createOFNodeConnector(fromPort, from),
+                NodeConnectorCreator.createOFNodeConnector(toPort, to));
+    }
+
+    private void setRoute(Node from, Node to, Edge... links) throws Exception {
+        routes.put(Arrays.asList(from, to), new Path(Arrays.asList(links)));
+    }
+
+    private FlowEntry find(List<FlowEntry> entries, Node node) {
+        for (FlowEntry entry : entries) {
+            if (entry.getNode().equals(node)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        h1 = new HostNodeConnector(InetAddress.getByName("10.0.0.1"),
+                NodeConnectorCreator.createOFNodeConnector((short) 10, s3));
+        h2 = new HostNodeConnector(InetAddress.getByName("10.0.0.2"),
+                NodeConnectorCreator.createOFNodeConnector((short) 10, s1));
+
+        setRoute(s1, s3, link(s1, (short) 1, s2, (short) 1), link(s2, (short) 2, s3, (short) 1));
+        setRoute(s2, s3, link(s2, (short) 2, s3, (short) 1));
+        setRoute(s4, s3, link(s4, (short) 2, s3, (short) 2));
+        setRoute(s2, s1, link(s2, (short) 1, s1, (short) 1));
+        setRoute(s3, s1, link(s3, (short) 1, s2, (short) 2), link(s2, (short) 1, s1, (short) 1));
+        setRoute(s4, s1, link(s4, (short) 1, s1, (short) 2));
+
+        forwarding = new SimpleForwardingImpl();
+        forwarding.setClusterContainerService(proxy(IClusterContainerServices.class, new InvocationHandler() {
+            private final Map<String, Object> caches = new HashMap<String, Object>();
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("createCache")) {
+                    caches.put((String) args[0], new ConcurrentHashMap<Object, Object>());
+                    return caches.get(args[0]);
+                }
+                if (method.getName().equals("getCache")) {
+                    return caches.get(args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        forwarding.setRouting(proxy(IRouting.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getRoute") && (args.length == 2)) {
+                    return routes.get(Arrays.asList(args[0], args[1]));
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        forwarding.setSwitchManager(proxy(ISwitchManager.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getNodes")) {
+                    return new HashSet<Node>(Arrays.asList(s1, s2, s3, s4));
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        forwarding.setTopologyManager(proxy(ITopologyManager.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("isInternal")) {
+                    return !((NodeConnector) args[0]).getID().equals(Short.valueOf((short) 10));
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        forwarding.setHostTracker(proxy(IfIptoHost.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getAllHosts")) {
+                    return new HashSet<HostNodeConnector>(Arrays.asList(h1, h2));
+                }
+                if (method.getName().equals("getHostsByNode")) {
+                    Set<HostNodeConnector> hosts = new HashSet<HostNodeConnector>();
+                    for (HostNodeConnector host : Arrays.asList(h1, h2)) {
+                        if (host.getnodeconnectorNode().equals(args[0])) {
+                            hosts.add(host);
+                        }
+                    }
+                    return hosts;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        forwarding.setForwardingRulesManager(proxy(IForwardingRulesManager.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("modifyOrAddFlowEntry")) {
+                    if (failInstall) {
+                        return new Status(StatusCode.INTERNALERROR);
+                    }
+                    installed.add((FlowEntry) args[0]);
+                    return new Status(StatusCode.SUCCESS);
+                }
+                if (method.getName().equals("uninstallFlowEntry")) {
+                    uninstalled.add((FlowEntry) args[0]);
+                    return new Status(StatusCode.SUCCESS);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        forwarding.init();
+
+        forwarding.notifyHTClient(h1);
+        forwarding.notifyHTClient(h2);
+        // One rule per switch for each host
+        Assert.assertEquals(8, installed.size());
+        installed.clear();
+    }
+
+    @Test
+    public void testOnlyChangedRulesReprogrammed() throws Exception {
+        // s1 now reaches s3 through s4, the routes of s2 and s4 are unchanged
+        setRoute(s1, s3, link(s1, (short) 2, s4, (short) 1), link(s4, (short) 2, s3, (short) 2));
+        Map<Node, Set<Node>> changed = new HashMap<Node, Set<Node>>();
+        changed.put(s3, new HashSet<Node>(Arrays.asList(s1, s2)));
+        forwarding.recalculateDone(new RoutingChange(Collections.<Edge> emptySet(),
+                Collections.<Edge> emptySet(), changed));
+
+        // Only the rule of h1 on s1 differs
+        Assert.assertEquals(1, installed.size());
+        FlowEntry entry = find(installed, s1);
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(h1.getNetworkAddress().getHostAddress() + "/32", entry.getGroupName());
+        Assert.assertTrue(uninstalled.isEmpty());
+
+        // Recomputing the same routes is a no-op
+        installed.clear();
+        forwarding.recalculateDone(new RoutingChange(Collections.<Edge> emptySet(),
+                Collections.<Edge> emptySet(), changed));
+        Assert.assertTrue(installed.isEmpty());
+    }
+
+    @Test
+    public void testFailedInstallKeepsRule() throws Exception {
+        setRoute(s1, s3, link(s1, (short) 2, s4, (short) 1), link(s4, (short) 2, s3, (short) 2));
+        Map<Node, Set<Node>> changed = new HashMap<Node, Set<Node>>();
+        changed.put(s3, new HashSet<Node>(Arrays.asList(s1)));
+        failInstall = true;
+        forwarding.recalculateDone(new RoutingChange(Collections.<Edge> emptySet(),
+                Collections.<Edge> emptySet(), changed));
+        Assert.assertTrue(installed.isEmpty());
+
+        // The rule still on the switch is removed with the route
+        failInstall = false;
+        routes.remove(Arrays.asList(s1, s3));
+        forwarding.recalculateDone(new RoutingChange(Collections.<Edge> emptySet(),
+                Collections.<Edge> emptySet(), changed));
+        Assert.assertEquals(1, uninstalled.size());
+        Assert.assertEquals(s1, uninstalled.get(0).getNode());
+        Assert.assertEquals(h1.getNetworkAddress().getHostAddress() + "/32", uninstalled.get(0).getGroupName());
+    }
+
+    @Test
+    public void testLostRouteRemovesRule() throws Exception {
+        routes.remove(Arrays.asList(s4, s1));
+        Map<Node, Set<Node>> changed = new HashMap<Node, Set<Node>>();
+        changed.put(s1, new HashSet<Node>(Arrays.asList(s4)));
+        forwarding.recalculateDone(new RoutingChange(Collections.<Edge> emptySet(),
+                Collections.<Edge> emptySet(), changed));
+
+        Assert.assertTrue(installed.isEmpty());
+        Assert.assertEquals(1, uninstalled.size());
+        Assert.assertEquals(s4, uninstalled.get(0).getNode());
+        Assert.assertEquals(h2.getNetworkAddress().getHostAddress() + "/32", uninstalled.get(0).getGroupName());
+    }
+}
@@ -268,6 +268,27 @@ public interface ISwitchManager {
      */
     public Set<NodeConnector> getPhysicalNodeConnectors(Node node);
 
+    /**
+     * Return a read-only live view of the node connectors in up state for a
+     * given node. The view reflects the later state changes and can be
+     * iterated without copying, it is meant for the callers on the packet
+     * path, like flooding.
+     *
+     * @param node {@link org.opendaylight.controller.sal.core.Node}
+     * @return unmodifiable view of the up {@link org.opendaylight.controller.sal.core.NodeConnector}
+     */
+    public Set<NodeConnector> getUpNodeConnectorsView(Node node);
+
+    /**
+     * Return a read-only live view of the physical node connectors in up
+     * state across all the nodes. The view reflects the later state changes
+     * and can be iterated without copying. The ports facing other switches
+     * are included, the topology manager tells them apart.
+     *
+     * @return unmodifiable view of the up physical {@link org.opendaylight.controller.sal.core.NodeConnector}
+     */
+    public Set<NodeConnector> getUpPhysicalNodeConnectorsView();
+
     /**
      * Return all the properties of a node connector
      *
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2013 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.controller.switchmanager.internal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opendaylight.controller.sal.core.Config;
+import org.opendaylight.controller.sal.core.Node;
+import org.opendaylight.controller.sal.core.NodeConnector;
+import org.opendaylight.controller.sal.core.Property;
+import org.opendaylight.controller.sal.core.State;
+
+/**
+ * Node local index of the node connectors known to the SwitchManager, grouped
+ * by node and tracking the up/down state of each port, so that the per node
+ * queries do not need to walk the properties of every port in the network.
+ *
+ * The index is derived from the nodeConnectorProps cache: it is refreshed
+ * after every local write to the cache and on the cache updates coming from
+ * the other controllers. The sets it hands out are unmodifiable live views
+ * which can be iterated concurrently with the updates, without copying. The
+ * views of a node follow its ports until the node is removed.
+ */
+final class NodeConnectorIndex {
+    private static final Set<NodeConnector> EMPTY = Collections.emptySet();
+
+    private static final class NodePorts {
+        private final Set<NodeConnector> all = newConcurrentSet();
+        private final Set<NodeConnector> physical = newConcurrentSet();
+        private final Set<NodeConnector> up = newConcurrentSet();
+        private final Set<NodeConnector> allView = Collections.unmodifiableSet(all);
+        private final Set<NodeConnector> physicalView = Collections.unmodifiableSet(physical);
+        private final Set<NodeConnector> upView = Collections.unmodifiableSet(up);
+    }
+
+    private final ConcurrentMap<Node, NodePorts> nodes = new ConcurrentHashMap<Node, NodePorts>();
+    // Up physical ports of all the nodes
+    private final Set<NodeConnector> upPhysical = newConcurrentSet();
+    private final Set<NodeConnector> upPhysicalView = Collections.unmodifiableSet(upPhysical);
+
+    private static Set<NodeConnector> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<NodeConnector, Boolean>());
+    }
+
+    /**
+     * Tells whether a node connector is administratively and operationally
+     * up, given its properties
+     */
+    static boolean isUp(Map<String, Property> propMap) {
+        if (propMap == null) {
+            return false;
+        }
+        Config config = (Config) propMap.get(Config.ConfigPropName);
+        State state = (State) propMap.get(State.StatePropName);
+        return ((config != null) && (config.getValue() == Config.ADMIN_UP) && (state != null) && (state
+                .getValue() == State.EDGE_UP));
+    }
+
+    /**
+     * Refresh the entry of a node connector
+     *
+     * @param nodeConnector
+     *            the node connector
+     * @param propMap
+     *            its current properties, null if the node connector is gone
+     * @param special
+     *            whether the node connector is a special (non physical) port
+     */
+    synchronized void update(NodeConnector nodeConnector, Map<String, Property> propMap, boolean special) {
+        Node node = nodeConnector.getNode();
+        if (propMap == null) {
+            NodePorts ports = nodes.get(node);
+            if (ports != null) {
+                ports.all.remove(nodeConnector);
+                ports.physical.remove(nodeConnector);
+                ports.up.remove(nodeConnector);
+            }
+            upPhysical.remove(nodeConnector);
+            return;
+        }
+
+        NodePorts ports = nodes.get(node);
+        if (ports == null) {
+            ports = new NodePorts();
+            nodes.put(node, ports);
+        }
+        ports.all.add(nodeConnector);
+        if (!special) {
+            ports.physical.add(nodeConnector);
+        }
+        if (isUp(propMap)) {
+            ports.up.add(nodeConnector);
+            if (!special) {
+                upPhysical.add(nodeConnector);
+            }
+        } else {
+            ports.up.remove(nodeConnector);
+            upPhysical.remove(nodeConnector);
+        }
+    }
+
+    /**
+     * Drop all the node connectors of a node
+     */
+    synchronized void removeNode(Node node) {
+        NodePorts ports = nodes.remove(node);
+        if (ports != null) {
+            upPhysical.removeAll(ports.up);
+        }
+    }
+
+    synchronized void clear() {
+        nodes.clear();
+        upPhysical.clear();
+    }
+
+    Set<NodeConnector> getNodeConnectors(Node node) {
+        NodePorts ports = nodes.get(node);
+        return (ports == null) ? EMPTY : ports.allView;
+    }
+
+    Set<NodeConnector> getPhysicalNodeConnectors(Node node) {
+        NodePorts ports = nodes.get(node);
+        return (ports == null) ? EMPTY : ports.physicalView;
+    }
+
+    Set<NodeConnector> getUpNodeConnectors(Node node) {
+        NodePorts ports = nodes.get(node);
+        return (ports == null) ? EMPTY : ports.upView;
+    }
+
+    Set<NodeConnector> getUpPhysicalNodeConnectors() {
+        return upPhysicalView;
+    }
+}
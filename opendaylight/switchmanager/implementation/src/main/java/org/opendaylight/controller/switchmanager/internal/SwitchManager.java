@@ -33,6 +33,7 @@ import org.eclipse.osgi.framework.console.CommandInterpreter;
 import org.eclipse.osgi.framework.console.CommandProvider;
 import org.opendaylight.controller.clustering.services.CacheConfigException;
 import org.opendaylight.controller.clustering.services.CacheExistException;
+import org.opendaylight.controller.clustering.services.ICacheUpdateAware;
 import org.opendaylight.controller.clustering.services.IClusterContainerServices;
 import org.opendaylight.controller.clustering.services.IClusterServices;
 import org.opendaylight.controller.configuration.ConfigurationObject;
@@ -57,6 +58,7 @@ import org.opendaylight.controller.sal.inventory.IListenInventoryUpdates;
 import org.opendaylight.controller.sal.reader.NodeDescription;
 import org.opendaylight.controller.sal.utils.GlobalConstants;
 import org.opendaylight.controller.sal.utils.HexEncode;
+import org.opendaylight.controller.sal.utils.IPPrefixTrie;
 import org.opendaylight.controller.sal.utils.IObjectReader;
 import org.opendaylight.controller.sal.utils.Status;
 import org.opendaylight.controller.sal.utils.StatusCode;
@@ -84,14 +86,19 @@ import org.slf4j.LoggerFactory;
  * are maintained in the default container only.
  */
 public class SwitchManager implements ISwitchManager, IConfigurationContainerAware,
-                                      IObjectReader, IListenInventoryUpdates, CommandProvider {
+                                      IObjectReader, IListenInventoryUpdates, CommandProvider,
+                                      ICacheUpdateAware<Object, Object> {
     private static Logger log = LoggerFactory.getLogger(SwitchManager.class);
     private static final String SUBNETS_FILE_NAME = "subnets.conf";
     private static final String SPAN_FILE_NAME = "spanPorts.conf";
     private static final String SWITCH_CONFIG_FILE_NAME = "switchConfig.conf";
+    static final String NODE_CONNECTOR_PROPS_CACHE = "switchmanager.nodeConnectorProps";
+    static final String SUBNETS_CACHE = "switchmanager.subnets";
     private final List<NodeConnector> spanNodeConnectors = new CopyOnWriteArrayList<NodeConnector>();
     // Collection of Subnets keyed by the InetAddress
     private ConcurrentMap<InetAddress, Subnet> subnets;
+    // Node local longest prefix match index of subnets, gives the subnets key
+    private final IPPrefixTrie<InetAddress> subnetsTrie = new IPPrefixTrie<InetAddress>();
     private ConcurrentMap<String, SubnetConfig> subnetsConfigList;
     private ConcurrentMap<SpanConfig, SpanConfig> spanConfigList;
     // manually configured parameters for the node such as name, tier, mode
@@ -99,6 +106,8 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
     private ConcurrentMap<Node, Map<String, Property>> nodeProps;
     private ConcurrentMap<NodeConnector, Map<String, Property>> nodeConnectorProps;
     private ConcurrentMap<Node, Map<String, NodeConnector>> nodeConnectorNames;
+    // Node local per node index of nodeConnectorProps
+    private final NodeConnectorIndex nodeConnectorIndex = new NodeConnectorIndex();
     private ConcurrentMap<String, Property> controllerProps;
     private IInventoryService inventoryService;
     private IStatisticsManager statisticsManager;
@@ -170,6 +179,18 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
         allocateCaches();
         retrieveCaches();
 
+        // Index the subnets and node connectors already known to the cluster
+        if (subnets != null) {
+            for (Map.Entry<InetAddress, Subnet> entry : subnets.entrySet()) {
+                indexSubnet(entry.getKey(), entry.getValue());
+            }
+        }
+        if (nodeConnectorProps != null) {
+            for (NodeConnector nodeConnector : nodeConnectorProps.keySet()) {
+                indexNodeConnector(nodeConnector);
+            }
+        }
+
         // Add controller MAC, if first node in the cluster
         if (!controllerProps.containsKey(MacAddress.name)) {
             byte controllerMac[] = getHardwareMAC();
@@ -201,12 +222,12 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
             clusterContainerService.createCache("switchmanager.nodeConfigList",
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
-            clusterContainerService.createCache("switchmanager.subnets",
+            clusterContainerService.createCache(SUBNETS_CACHE,
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
             clusterContainerService.createCache("switchmanager.nodeProps",
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
             clusterContainerService.createCache(
-                    "switchmanager.nodeConnectorProps",
+                    NODE_CONNECTOR_PROPS_CACHE,
                     EnumSet.of(IClusterServices.cacheMode.TRANSACTIONAL));
             clusterContainerService.createCache(
                     "switchmanager.nodeConnectorNames",
@@ -247,7 +268,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
         }
 
         subnets = (ConcurrentMap<InetAddress, Subnet>) clusterContainerService
-                .getCache("switchmanager.subnets");
+                .getCache(SUBNETS_CACHE);
         if (subnets == null) {
             log.error("\nFailed to get cache for subnets");
         }
@@ -259,7 +280,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
         }
 
         nodeConnectorProps = (ConcurrentMap<NodeConnector, Map<String, Property>>) clusterContainerService
-                .getCache("switchmanager.nodeConnectorProps");
+                .getCache(NODE_CONNECTOR_PROPS_CACHE);
         if (nodeConnectorProps == null) {
             log.error("\nFailed to get cache for nodeConnectorProps");
         }
@@ -397,14 +418,32 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
                 String msg = "Cluster conflict: Conflict while adding the subnet " + conf.getIPAddress();
                 return new Status(StatusCode.CONFLICT, msg);
             }
+            indexSubnet(conf.getIPAddress(), subnet);
 
         // Subnet removal case
         } else {
             subnets.remove(conf.getIPAddress());
+            unindexSubnet(conf.getIPAddress());
         }
         return new Status(StatusCode.SUCCESS);
     }
 
+    private void indexSubnet(InetAddress key, Subnet subnet) {
+        subnetsTrie.put(subnet.getNetworkAddress(), subnet.getSubnetMaskLength(), key);
+    }
+
+    /*
+     * Removal only knows the key, drop it whatever its prefix length
+     */
+    private void unindexSubnet(InetAddress key) {
+        int maxLength = key.getAddress().length * 8;
+        for (int len = 0; len <= maxLength; len++) {
+            if (key.equals(subnetsTrie.get(key, len))) {
+                subnetsTrie.remove(key, len);
+            }
+        }
+    }
+
     private Status semanticCheck(SubnetConfig conf) {
         Set<InetAddress> IPs = subnets.keySet();
         if (IPs == null) {
@@ -669,12 +708,8 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
             return DEFAULT_SUBNET;
         }
 
-        for(Map.Entry<InetAddress,Subnet> subnetEntry : subnets.entrySet()) {
-            if(subnetEntry.getValue().isSubnetOf(networkAddress)) {
-                return subnetEntry.getValue();
-            }
-        }
-        return null;
+        InetAddress key = subnetsTrie.lookup(networkAddress);
+        return (key == null) ? null : subnets.get(key);
     }
 
     @Override
@@ -1069,16 +1104,12 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
         }
 
         nodeConnectorNames.remove(node);
-        Set<NodeConnector> removeNodeConnectorSet = new HashSet<NodeConnector>();
-        for (Map.Entry<NodeConnector, Map<String, Property>> entry : nodeConnectorProps.entrySet()) {
-            NodeConnector nodeConnector = entry.getKey();
-            if (nodeConnector.getNode().equals(node)) {
-                removeNodeConnectorSet.add(nodeConnector);
-            }
-        }
+        Set<NodeConnector> removeNodeConnectorSet = new HashSet<NodeConnector>(
+                nodeConnectorIndex.getNodeConnectors(node));
         for (NodeConnector nc : removeNodeConnectorSet) {
             nodeConnectorProps.remove(nc);
         }
+        nodeConnectorIndex.removeNode(node);
 
         // check if span ports need to be cleaned up
         removeSpanPorts(node);
@@ -1335,18 +1366,17 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
             return null;
         }
 
-        Set<NodeConnector> nodeConnectorSet = new HashSet<NodeConnector>();
-        for (Map.Entry<NodeConnector, Map<String, Property>> entry : nodeConnectorProps.entrySet()) {
-            NodeConnector nodeConnector = entry.getKey();
-            if (!nodeConnector.getNode().equals(node)) {
-                continue;
-            }
-            if (isNodeConnectorEnabled(nodeConnector)) {
-                nodeConnectorSet.add(nodeConnector);
-            }
-        }
+        return new HashSet<NodeConnector>(nodeConnectorIndex.getUpNodeConnectors(node));
+    }
+
+    @Override
+    public Set<NodeConnector> getUpNodeConnectorsView(Node node) {
+        return nodeConnectorIndex.getUpNodeConnectors(node);
+    }
 
-        return nodeConnectorSet;
+    @Override
+    public Set<NodeConnector> getUpPhysicalNodeConnectorsView() {
+        return nodeConnectorIndex.getUpPhysicalNodeConnectors();
     }
 
     @Override
@@ -1355,16 +1385,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
             return null;
         }
 
-        Set<NodeConnector> nodeConnectorSet = new HashSet<NodeConnector>();
-        for (Map.Entry<NodeConnector, Map<String, Property>> entry : nodeConnectorProps.entrySet()) {
-            NodeConnector nodeConnector = entry.getKey();
-            if (!nodeConnector.getNode().equals(node)) {
-                continue;
-            }
-            nodeConnectorSet.add(nodeConnector);
-        }
-
-        return nodeConnectorSet;
+        return new HashSet<NodeConnector>(nodeConnectorIndex.getNodeConnectors(node));
     }
 
     @Override
@@ -1373,17 +1394,17 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
             return null;
         }
 
-        Set<NodeConnector> nodeConnectorSet = new HashSet<NodeConnector>();
-        for (Map.Entry<NodeConnector, Map<String, Property>> entry : nodeConnectorProps.entrySet()) {
-            NodeConnector nodeConnector = entry.getKey();
-            if (!nodeConnector.getNode().equals(node)
-                    || isSpecial(nodeConnector)) {
-                continue;
-            }
-            nodeConnectorSet.add(nodeConnector);
-        }
+        return new HashSet<NodeConnector>(nodeConnectorIndex.getPhysicalNodeConnectors(node));
+    }
 
-        return nodeConnectorSet;
+    /*
+     * Refresh the node connector index from the nodeConnectorProps cache
+     */
+    private void indexNodeConnector(NodeConnector nodeConnector) {
+        if (nodeConnectorProps != null) {
+            nodeConnectorIndex.update(nodeConnector, nodeConnectorProps.get(nodeConnector),
+                    isSpecial(nodeConnector));
+        }
     }
 
     @Override
@@ -1484,6 +1505,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
                     return new Status(StatusCode.CONFLICT, msg);
                 }
             }
+            indexNodeConnector(nodeConnector);
             return new Status(StatusCode.SUCCESS);
         }
 
@@ -1497,6 +1519,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
                 return new Status(StatusCode.CONFLICT, msg);
             }
         }
+        indexNodeConnector(nodeConnector);
 
         if (prop.getName().equals(Name.NamePropName)) {
             if (nodeConnectorNames != null) {
@@ -1557,6 +1580,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
         if (!result) {
             return new Status(StatusCode.CONFLICT, msg);
         }
+        indexNodeConnector(nodeConnector);
 
         if (propName.equals(Name.NamePropName)) {
             if (nodeConnectorNames != null) {
@@ -1625,6 +1649,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
             }
         }
         nodeConnectorProps.remove(nodeConnector);
+        nodeConnectorIndex.update(nodeConnector, null, false);
 
         return new Status(StatusCode.SUCCESS);
     }
@@ -1823,6 +1848,7 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
     private void clearInventories() {
         nodeProps.clear();
         nodeConnectorProps.clear();
+        nodeConnectorIndex.clear();
         nodeConnectorNames.clear();
         spanNodeConnectors.clear();
     }
@@ -2184,4 +2210,44 @@ public class SwitchManager implements ISwitchManager, IConfigurationContainerAwa
         return configuredNotConnectedSwitches;
     }
 
+    @Override
+    public void entryCreated(Object key, String cacheName, boolean originLocal) {
+        if (originLocal) {
+            return;
+        }
+        if (cacheName.equals(NODE_CONNECTOR_PROPS_CACHE)) {
+            indexNodeConnector((NodeConnector) key);
+        } else if (cacheName.equals(SUBNETS_CACHE)) {
+            Subnet subnet = subnets.get(key);
+            if (subnet != null) {
+                indexSubnet((InetAddress) key, subnet);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void entryUpdated(Object key, Object new_value, String cacheName, boolean originLocal) {
+        if (originLocal) {
+            return;
+        }
+        if (cacheName.equals(NODE_CONNECTOR_PROPS_CACHE)) {
+            NodeConnector nodeConnector = (NodeConnector) key;
+            nodeConnectorIndex.update(nodeConnector, (Map<String, Property>) new_value, isSpecial(nodeConnector));
+        } else if (cacheName.equals(SUBNETS_CACHE)) {
+            indexSubnet((InetAddress) key, (Subnet) new_value);
+        }
+    }
+
+    @Override
+    public void entryDeleted(Object key, String cacheName, boolean originLocal) {
+        if (originLocal) {
+            return;
+        }
+        if (cacheName.equals(NODE_CONNECTOR_PROPS_CACHE)) {
+            nodeConnectorIndex.update((NodeConnector) key, null, false);
+        } else if (cacheName.equals(SUBNETS_CACHE)) {
+            unindexSubnet((InetAddress) key);
+        }
+    }
 }
@@ -16,6 +16,7 @@ import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 import org.opendaylight.controller.sal.core.Bandwidth;
+import org.opendaylight.controller.sal.core.Config;
 import org.opendaylight.controller.sal.core.ConstructionException;
 import org.opendaylight.controller.sal.core.Latency;
 import org.opendaylight.controller.sal.core.Node;
@@ -168,4 +169,52 @@ public class SwitchManagerTest {
         Assert.assertTrue(nodes.isEmpty());
     }
 
+    @Test
+    public void testSwitchManagerUpNodeConnectors() {
+        SwitchManager switchmgr = new SwitchManager();
+        switchmgr.startUp();
+
+        Node node = NodeCreator.createOFNode(1L);
+        Node other = NodeCreator.createOFNode(2L);
+        NodeConnector nc1 = NodeConnectorCreator.createOFNodeConnector((short) 1, node);
+        NodeConnector nc2 = NodeConnectorCreator.createOFNodeConnector((short) 2, node);
+        NodeConnector nc3 = NodeConnectorCreator.createOFNodeConnector((short) 3, other);
+
+        Set<Property> up = new HashSet<Property>();
+        up.add(new Config(Config.ADMIN_UP));
+        up.add(new State(State.EDGE_UP));
+        Set<Property> down = new HashSet<Property>();
+        down.add(new Config(Config.ADMIN_UP));
+        down.add(new State(State.EDGE_DOWN));
+
+        switchmgr.updateNode(node, UpdateType.ADDED, null);
+        switchmgr.updateNode(other, UpdateType.ADDED, null);
+        switchmgr.updateNodeConnector(nc1, UpdateType.ADDED, up);
+        switchmgr.updateNodeConnector(nc2, UpdateType.ADDED, down);
+        switchmgr.updateNodeConnector(nc3, UpdateType.ADDED, up);
+
+        Set<NodeConnector> upView = switchmgr.getUpNodeConnectorsView(node);
+        Set<NodeConnector> allUpView = switchmgr.getUpPhysicalNodeConnectorsView();
+        Assert.assertEquals(2, switchmgr.getNodeConnectors(node).size());
+        Assert.assertEquals(1, switchmgr.getUpNodeConnectors(node).size());
+        Assert.assertTrue(upView.contains(nc1));
+        Assert.assertFalse(upView.contains(nc2));
+        Assert.assertEquals(2, allUpView.size());
+
+        // The views follow the port state changes
+        switchmgr.updateNodeConnector(nc2, UpdateType.CHANGED, up);
+        switchmgr.updateNodeConnector(nc1, UpdateType.CHANGED, down);
+        Assert.assertTrue(upView.contains(nc2));
+        Assert.assertFalse(upView.contains(nc1));
+        Assert.assertTrue(allUpView.contains(nc2));
+        Assert.assertFalse(allUpView.contains(nc1));
+
+        switchmgr.updateNodeConnector(nc3, UpdateType.REMOVED, null);
+        Assert.assertFalse(allUpView.contains(nc3));
+        Assert.assertTrue(switchmgr.getNodeConnectors(other).isEmpty());
+
+        switchmgr.updateNode(node, UpdateType.REMOVED, null);
+        Assert.assertTrue(switchmgr.getNodeConnectors(node).isEmpty());
+        Assert.assertTrue(allUpView.isEmpty());
+    }
 }
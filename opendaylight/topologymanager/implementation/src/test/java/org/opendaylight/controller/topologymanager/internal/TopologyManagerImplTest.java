@@ -11,6 +11,7 @@ package org.opendaylight.controller.topologymanager.internal;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -221,6 +222,16 @@ public class TopologyManagerImplTest {
             return getNodeConnectors(node);
         }
 
+        @Override
+        public Set<NodeConnector> getUpNodeConnectorsView(Node node) {
+            return Collections.unmodifiableSet(getNodeConnectors(node));
+        }
+
+        @Override
+        public Set<NodeConnector> getUpPhysicalNodeConnectorsView() {
+            return Collections.unmodifiableSet(nodeConnectorSet);
+        }
+
         @Override
         public Map<String, Property> getNodeConnectorProps(NodeConnector nodeConnector) {
             return new HashMap<String, Property>();